@@ -1,8 +1,11 @@
 package com.novatrade.inventory;
-import com.novatrade.inventory.model.ports.*; import com.novatrade.inventory.usecase.*; import org.springframework.boot.*; import org.springframework.boot.autoconfigure.*; import org.springframework.context.annotation.*;
+import com.novatrade.inventory.model.ports.*; import com.novatrade.inventory.usecase.*; import org.springframework.beans.factory.ObjectProvider; import org.springframework.beans.factory.annotation.Value; import org.springframework.boot.*; import org.springframework.boot.autoconfigure.*; import org.springframework.context.annotation.*; import java.time.*;
 @SpringBootApplication public class Application {
   public static void main(String[] args){ SpringApplication.run(Application.class,args); }
   @Bean public GetInventoryUseCase get(InventoryRepositoryPort repo){ return new GetInventoryUseCase(repo); }
   @Bean public SetInventoryUseCase set(InventoryRepositoryPort repo){ return new SetInventoryUseCase(repo); }
-  @Bean public PurchaseUseCase purchase(InventoryRepositoryPort repo, ProductsClientPort client, IdempotencyPort idem){ return new PurchaseUseCase(repo, client, idem); }
+  @Bean public RebalanceInventoryUseCase rebalance(ObjectProvider<InventoryBucketsPort> buckets){ return new RebalanceInventoryUseCase(buckets.getIfAvailable()); }
+  @Bean public PurchaseUseCase purchase(InventoryRepositoryPort repo, ProductsClientPort client, IdempotencyPort idem, ObjectProvider<PurchaseTransactionPort> transactions){ return new PurchaseUseCase(repo, client, idem, transactions.getIfAvailable()); }
+  @Bean public HashedTimerWheel<String> reservationExpiryWheel(@Value("${inventory.reservations.tick:1s}") Duration tick, @Value("${inventory.reservations.wheel-size:512}") int wheelSize){ return new HashedTimerWheel<>(tick, wheelSize, Instant.now()); }
+  @Bean public ReservationUseCase reservation(InventoryRepositoryPort repo, ReservationRepositoryPort reservations, HashedTimerWheel<String> reservationExpiryWheel, @Value("${inventory.reservations.default-ttl:10m}") Duration defaultTtl, @Value("${inventory.reservations.max-ttl:1h}") Duration maxTtl, ObjectProvider<ReservationTransactionPort> reservationTransactions){ return new ReservationUseCase(repo, reservations, reservationExpiryWheel, defaultTtl, maxTtl, Clock.systemUTC(), reservationTransactions.getIfAvailable()); }
 }
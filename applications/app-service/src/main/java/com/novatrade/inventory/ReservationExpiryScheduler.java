@@ -0,0 +1,63 @@
+package com.novatrade.inventory;
+
+import com.novatrade.inventory.usecase.ReservationUseCase;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hace girar la rueda de vencimientos de reservas
+ * Al arrancar reprograma las reservas que siguen retenidas y después expira en bloque, una vez por tick,
+ * las que han vencido
+ */
+@Component
+public class ReservationExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+    private final ReservationUseCase reservations;
+    private final Duration tick;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reservation-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReservationExpiryScheduler(
+            ReservationUseCase reservations,
+            @Value("${inventory.reservations.tick:1s}") Duration tick) {
+        this.reservations = reservations;
+        this.tick = tick;
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Rescheduled {} held reservations", reservations.recover());
+        scheduler.scheduleWithFixedDelay(this::expire, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void expire() {
+        try {
+            int expired = reservations.expireDue();
+            if (expired > 0) {
+                log.info("Expired {} reservations", expired);
+            }
+        } catch (RuntimeException e) {
+            // El caso de uso vuelve a programar las reservas del tick fallido
+            log.error("Reservation expiry failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'reservations' AND schema_id = SCHEMA_ID('dbo'))
+BEGIN
+  CREATE TABLE dbo.reservations (
+    id NVARCHAR(36) NOT NULL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL CHECK (quantity > 0),
+    status NVARCHAR(16) NOT NULL,
+    expires_at DATETIME2 NOT NULL,
+    created_at DATETIME2 NOT NULL DEFAULT SYSDATETIME()
+  );
+
+  -- Solo las reservas retenidas; las confirmadas/canceladas/vencidas no ocupan el índice
+  CREATE INDEX IX_reservations_held_expires
+    ON dbo.reservations (expires_at)
+    INCLUDE (product_id, quantity)
+    WHERE status = 'HELD';
+END;
@@ -0,0 +1,11 @@
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'inventory_buckets' AND schema_id = SCHEMA_ID('dbo'))
+BEGIN
+  -- Productos de contención extrema: su stock se reparte en varias filas (buckets).
+  -- Mientras un producto tenga buckets, su fila en dbo.inventory se mantiene a 0.
+  CREATE TABLE dbo.inventory_buckets (
+    product_id BIGINT NOT NULL,
+    bucket INT NOT NULL,
+    quantity BIGINT NOT NULL CHECK (quantity >= 0),
+    CONSTRAINT PK_inventory_buckets PRIMARY KEY (product_id, bucket)
+  );
+END;
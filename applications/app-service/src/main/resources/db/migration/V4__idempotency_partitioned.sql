@@ -0,0 +1,44 @@
+-- dbo.idempotency_keys particionada por día de creación para caducar claves con TRUNCATE ... WITH (PARTITIONS)
+-- en lugar de DELETE fila a fila. RANGE RIGHT: la partición n guarda [frontera n-1, frontera n).
+-- Las filas existentes quedan en la primera partición (anteriores a hoy) y caducan juntas.
+-- Las fronteras futuras y la fusión de las caducadas las mantiene IdempotencyPartitionPurger.
+IF NOT EXISTS (SELECT * FROM sys.partition_functions WHERE name = 'PF_idempotency_day')
+BEGIN
+  DECLARE @today DATE = CAST(SYSDATETIME() AS DATE);
+  CREATE PARTITION FUNCTION PF_idempotency_day (DATE) AS RANGE RIGHT FOR VALUES (@today);
+  CREATE PARTITION SCHEME PS_idempotency_day AS PARTITION PF_idempotency_day ALL TO ([PRIMARY]);
+
+  -- Particiones vacías para los próximos días: dividirlas no mueve filas
+  DECLARE @day INT = 1;
+  WHILE @day <= 3
+  BEGIN
+    DECLARE @boundary DATE = DATEADD(DAY, @day, @today);
+    ALTER PARTITION SCHEME PS_idempotency_day NEXT USED [PRIMARY];
+    ALTER PARTITION FUNCTION PF_idempotency_day() SPLIT RANGE (@boundary);
+    SET @day += 1;
+  END;
+END;
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID('dbo.idempotency_keys') AND name = 'created_day')
+BEGIN
+  CREATE TABLE dbo.idempotency_keys_partitioned (
+    id NVARCHAR(100) NOT NULL,
+    created_at DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+    created_day AS CAST(created_at AS DATE) PERSISTED,
+    response_json NVARCHAR(MAX) NOT NULL,
+    -- La columna de partición tiene que formar parte de la clave para que el índice quede alineado
+    CONSTRAINT PK_idempotency_keys PRIMARY KEY CLUSTERED (created_day, id)
+  ) ON PS_idempotency_day (created_day);
+
+  -- Búsqueda por clave; alineado (no único) para que TRUNCATE por partición siga siendo posible.
+  -- Dentro de un mismo día la clave sigue siendo única por la clave primaria
+  CREATE INDEX IX_idempotency_keys_id
+    ON dbo.idempotency_keys_partitioned (id)
+    ON PS_idempotency_day (created_day);
+
+  INSERT INTO dbo.idempotency_keys_partitioned (id, created_at, response_json)
+    SELECT id, created_at, response_json FROM dbo.idempotency_keys;
+
+  DROP TABLE dbo.idempotency_keys;
+  EXEC sp_rename 'dbo.idempotency_keys_partitioned', 'idempotency_keys';
+END;
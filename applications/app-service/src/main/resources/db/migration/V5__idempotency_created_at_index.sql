@@ -0,0 +1,8 @@
+-- Índice por fecha de creación para que el filtro de claves de cada instancia lea solo las claves nuevas.
+-- Alineado con PS_idempotency_day para no impedir el TRUNCATE por partición
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_idempotency_keys_created_at'
+               AND object_id = OBJECT_ID('dbo.idempotency_keys'))
+  CREATE INDEX IX_idempotency_keys_created_at
+    ON dbo.idempotency_keys (created_at)
+    INCLUDE (id)
+    ON PS_idempotency_day (created_day);
@@ -0,0 +1,27 @@
+-- Respuestas idempotentes compactas: la respuesta se guarda comprimida en response_bin (VARBINARY) y la
+-- clave agrupada pasa a ser un hash SHA-256 de ancho fijo de la Idempotency-Key.
+-- Las filas anteriores conservan response_json y se siguen leyendo; las nuevas rellenan una de las dos columnas
+IF COL_LENGTH('dbo.idempotency_keys', 'key_hash') IS NULL
+  -- HASHBYTES sobre NVARCHAR hashea los bytes UTF-16LE: es lo mismo que calcula la aplicación para buscar
+  ALTER TABLE dbo.idempotency_keys
+    ADD key_hash AS CAST(HASHBYTES('SHA2_256', id) AS BINARY(32)) PERSISTED NOT NULL;
+GO
+
+IF COL_LENGTH('dbo.idempotency_keys', 'response_bin') IS NULL
+  ALTER TABLE dbo.idempotency_keys ADD response_bin VARBINARY(MAX) NULL;
+GO
+
+ALTER TABLE dbo.idempotency_keys ALTER COLUMN response_json NVARCHAR(MAX) NULL;
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.index_columns ic
+               JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+               WHERE ic.object_id = OBJECT_ID('dbo.idempotency_keys') AND ic.index_id = 1 AND c.name = 'key_hash')
+BEGIN
+  ALTER TABLE dbo.idempotency_keys DROP CONSTRAINT PK_idempotency_keys;
+  -- 3 + 32 bytes de clave fija en lugar de hasta 200 bytes de NVARCHAR(100); sigue alineada por día
+  ALTER TABLE dbo.idempotency_keys
+    ADD CONSTRAINT PK_idempotency_keys PRIMARY KEY CLUSTERED (created_day, key_hash)
+    ON PS_idempotency_day (created_day);
+END;
+GO
@@ -0,0 +1,16 @@
+-- Registro opcional de compras, escrito en la misma transacción que el descuento de stock
+-- y la respuesta idempotente (inventory.purchase-transaction.record-purchases)
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'purchases' AND schema_id = SCHEMA_ID('dbo'))
+BEGIN
+  CREATE TABLE dbo.purchases (
+    id BIGINT IDENTITY(1, 1) NOT NULL PRIMARY KEY,
+    idempotency_key NVARCHAR(100) NULL,
+    product_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL CHECK (quantity > 0),
+    unit_price FLOAT NOT NULL,
+    total_price FLOAT NOT NULL,
+    purchased_at DATETIME2 NOT NULL DEFAULT SYSDATETIME()
+  );
+
+  CREATE INDEX IX_purchases_product ON dbo.purchases (product_id, purchased_at);
+END;
@@ -0,0 +1,10 @@
+-- Búsqueda por key_hash: la clave agrupada de V6 empieza por created_day, así que WHERE key_hash = ? no puede
+-- buscar en ella y acababa en IX_idempotency_keys_id. Con key_hash al principio la búsqueda es una lectura
+-- por partición; id va incluido para descartar colisiones sin ir a la fila.
+-- Alineado con PS_idempotency_day para no impedir el TRUNCATE por partición
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_idempotency_keys_key_hash'
+               AND object_id = OBJECT_ID('dbo.idempotency_keys'))
+  CREATE INDEX IX_idempotency_keys_key_hash
+    ON dbo.idempotency_keys (key_hash)
+    INCLUDE (id)
+    ON PS_idempotency_day (created_day);
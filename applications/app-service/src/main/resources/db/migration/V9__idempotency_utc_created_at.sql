@@ -0,0 +1,16 @@
+-- created_at en UTC, como lo escribe la aplicación (hibernate.jdbc.time_zone=UTC): created_day es entonces
+-- el día UTC, el mismo que usa IdempotencyPartitionPurger para caducar particiones y crear las siguientes.
+-- El DEFAULT de V4 tomaba la hora local del servidor para las filas insertadas sin created_at
+IF NOT EXISTS (SELECT * FROM sys.default_constraints
+               WHERE name = 'DF_idempotency_keys_created_at' AND parent_object_id = OBJECT_ID('dbo.idempotency_keys'))
+BEGIN
+  DECLARE @default SYSNAME = (
+    SELECT dc.name FROM sys.default_constraints dc
+    JOIN sys.columns c ON c.object_id = dc.parent_object_id AND c.column_id = dc.parent_column_id
+    WHERE dc.parent_object_id = OBJECT_ID('dbo.idempotency_keys') AND c.name = 'created_at');
+  IF @default IS NOT NULL
+    EXEC (N'ALTER TABLE dbo.idempotency_keys DROP CONSTRAINT ' + QUOTENAME(@default));
+
+  ALTER TABLE dbo.idempotency_keys
+    ADD CONSTRAINT DF_idempotency_keys_created_at DEFAULT SYSUTCDATETIME() FOR created_at;
+END;
@@ -0,0 +1,8 @@
+package com.novatrade.inventory;
+import com.novatrade.inventory.model.ports.*; import com.novatrade.inventory.usecase.*; import org.springframework.boot.*; import org.springframework.boot.autoconfigure.*; import org.springframework.context.annotation.*;
+@SpringBootApplication public class ReactiveApplication {
+  public static void main(String[] args){ SpringApplication.run(ReactiveApplication.class,args); }
+  @Bean public ReactiveGetInventoryUseCase get(ReactiveInventoryRepositoryPort repo){ return new ReactiveGetInventoryUseCase(repo); }
+  @Bean public ReactiveSetInventoryUseCase set(ReactiveInventoryRepositoryPort repo){ return new ReactiveSetInventoryUseCase(repo); }
+  @Bean public ReactivePurchaseUseCase purchase(ReactiveInventoryRepositoryPort repo, ReactiveProductsClientPort client){ return new ReactivePurchaseUseCase(repo, client); }
+}
@@ -1,13 +1,20 @@
 package com.novatrade.catalog;
 
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
 import com.novatrade.catalog.model.ports.ProductRepositoryPort;
 import com.novatrade.catalog.usecase.CreateProductUseCase;
 import com.novatrade.catalog.usecase.GetProductUseCase;
 import com.novatrade.catalog.usecase.ListProductsUseCase;
+import com.novatrade.catalog.usecase.ProductChangeFeed;
+import com.novatrade.catalog.usecase.UpdateProductUseCase;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
+import java.time.Clock;
+import java.time.Duration;
+
 @SpringBootApplication
 public class Application {
 
@@ -15,9 +22,21 @@ public class Application {
         SpringApplication.run(Application.class, args);
     }
 
+    @Bean(destroyMethod = "close")
+    public ProductChangeFeed productChanges(
+            ProductChangeLogPort changeLog,
+            @Value("${catalog.changes.poll-interval:1s}") Duration pollInterval) {
+        return new ProductChangeFeed(changeLog, pollInterval, Clock.systemUTC());
+    }
+
+    @Bean
+    public CreateProductUseCase create(ProductRepositoryPort repo, ProductChangeFeed changes) {
+        return new CreateProductUseCase(repo, changes);
+    }
+
     @Bean
-    public CreateProductUseCase create(ProductRepositoryPort repo) {
-        return new CreateProductUseCase(repo);
+    public UpdateProductUseCase update(ProductRepositoryPort repo, ProductChangeFeed changes) {
+        return new UpdateProductUseCase(repo, changes);
     }
 
     @Bean
@@ -0,0 +1,80 @@
+package com.novatrade.catalog.adapter.jpa;
+
+import com.novatrade.catalog.model.Deadline;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * DataSource que acota cada sentencia al {@link Deadline} de la petición en curso
+ * Las conexiones que entrega fijan a cada sentencia que crean un query timeout con los segundos que le
+ * quedan al plazo (redondeando hacia arriba: JDBC no admite menos de un segundo), de modo que SQL Server
+ * cancela la consulta cuando quien llamó ya no espera. Si el plazo ya pasó, la sentencia no se crea y se
+ * lanza {@link SQLTimeoutException}. Sin plazo las sentencias quedan como estaban
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    public DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withDeadline(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withDeadline(super.getConnection(username, password));
+    }
+
+    static Connection withDeadline(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                DeadlineDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                        applyDeadline(statement);
+                    }
+                    return result;
+                });
+    }
+
+    private static void applyDeadline(Statement statement) throws SQLException {
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline == null) {
+            return;
+        }
+        Duration remaining = deadline.remaining();
+        if (remaining.isNegative() || remaining.isZero()) {
+            statement.close();
+            throw new SQLTimeoutException("Request deadline exceeded before running the query");
+        }
+        long seconds = (remaining.toNanos() + 999_999_999L) / 1_000_000_000L;
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+    }
+}
@@ -0,0 +1,22 @@
+package com.novatrade.catalog.adapter.jpa;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource de la aplicación (el pool de Hikari que configura Spring Boot) en un
+ * {@link DeadlineDataSource}, para que JPA y Flyway lo usen con el plazo de cada petición
+ */
+@Component
+public class DeadlineDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DeadlineDataSource)) {
+            return new DeadlineDataSource(dataSource);
+        }
+        return bean;
+    }
+}
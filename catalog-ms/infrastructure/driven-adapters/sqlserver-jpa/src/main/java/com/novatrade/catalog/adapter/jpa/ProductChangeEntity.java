@@ -0,0 +1,22 @@
+package com.novatrade.catalog.adapter.jpa;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Último cambio de cada producto; SQL Server asigna {@code row_version} en cada escritura
+ */
+@Entity
+@Table(name = "product_change", indexes = @Index(name = "IX_product_change_row_version", columnList = "row_version"))
+@Getter
+@Setter
+public class ProductChangeEntity {
+    @Id private Long productId;
+    @Column(nullable = false, length = 16) private String changeType;
+    @Column(nullable = false) private Instant changedAt;
+    @Column(name = "row_version", columnDefinition = "ROWVERSION", insertable = false, updatable = false)
+    private byte[] rowVersion;
+}
@@ -0,0 +1,45 @@
+package com.novatrade.catalog.adapter.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProductChangeJpaRepository extends JpaRepository<ProductChangeEntity, Long> {
+
+    /**
+     * Inserta o sobrescribe el cambio del producto; la actualización renueva {@code row_version}
+     * aunque los valores no cambien
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            MERGE product_change WITH (HOLDLOCK) AS target
+            USING (SELECT :productId AS product_id) AS source ON target.product_id = source.product_id
+            WHEN MATCHED THEN UPDATE SET change_type = :changeType, changed_at = :changedAt
+            WHEN NOT MATCHED THEN INSERT (product_id, change_type, changed_at)
+                VALUES (:productId, :changeType, :changedAt);
+            """, nativeQuery = true)
+    void upsert(@Param("productId") long productId,
+                @Param("changeType") String changeType,
+                @Param("changedAt") Instant changedAt);
+
+    /**
+     * Primer {@code rowversion} que puede tener aún una transacción abierta
+     */
+    @Query(value = "SELECT MIN_ACTIVE_ROWVERSION()", nativeQuery = true)
+    byte[] minActiveRowVersion();
+
+    @Query(value = """
+            SELECT TOP (:limit) * FROM product_change
+            WHERE row_version > :after AND row_version <= :upTo
+            ORDER BY row_version
+            """, nativeQuery = true)
+    List<ProductChangeEntity> findChanged(@Param("after") byte[] after,
+                                          @Param("upTo") byte[] upTo,
+                                          @Param("limit") int limit);
+}
@@ -0,0 +1,68 @@
+package com.novatrade.catalog.adapter.jpa;
+
+import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
+import com.novatrade.catalog.model.ports.ProductRepositoryPort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Registro de cambios en la tabla {@code product_change}, una fila por producto
+ * La posición es el {@code rowversion} de la fila, que SQL Server renueva en cada escritura con un valor
+ * mayor que todos los de la base de datos. Los rowversion se asignan al escribir, no al confirmar: para
+ * no saltarse el cambio de una transacción aún abierta solo se lee hasta {@code MIN_ACTIVE_ROWVERSION()}.
+ * El producto y su fila de cambio se escriben en la misma transacción
+ */
+@Component
+public class ProductChangeLogAdapter implements ProductChangeLogPort {
+
+    private final ProductChangeJpaRepository repository;
+    private final ProductRepositoryPort products;
+    private final TransactionTemplate transactions;
+
+    public ProductChangeLogAdapter(
+            ProductChangeJpaRepository repository,
+            ProductRepositoryPort products,
+            TransactionTemplate transactions) {
+        this.repository = repository;
+        this.products = products;
+        this.transactions = transactions;
+    }
+
+    @Override
+    public Product saveAndRecord(Product product, ChangeType type, Instant changedAt) {
+        return transactions.execute(status -> {
+            Product saved = products.save(product);
+            repository.upsert(saved.getId(), type.name(), changedAt);
+            return saved;
+        });
+    }
+
+    @Override
+    public long stablePosition() {
+        return toPosition(repository.minActiveRowVersion()) - 1;
+    }
+
+    @Override
+    public List<Change> findAfter(long after, long upTo, int limit) {
+        return repository.findChanged(toRowVersion(after), toRowVersion(upTo), limit).stream()
+                .map(entity -> new Change(
+                        toPosition(entity.getRowVersion()),
+                        entity.getProductId(),
+                        ChangeType.valueOf(entity.getChangeType()),
+                        entity.getChangedAt()))
+                .toList();
+    }
+
+    static long toPosition(byte[] rowVersion) {
+        return ByteBuffer.wrap(rowVersion).getLong();
+    }
+
+    static byte[] toRowVersion(long position) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(position).array();
+    }
+}
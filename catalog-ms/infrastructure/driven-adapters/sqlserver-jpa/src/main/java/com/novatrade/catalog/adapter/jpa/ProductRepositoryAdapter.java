@@ -1,11 +1,15 @@
 package com.novatrade.catalog.adapter.jpa;
 
+import com.novatrade.catalog.model.Deadline;
 import com.novatrade.catalog.model.Product;
 import com.novatrade.catalog.model.ports.ProductRepositoryPort;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Component
 public class ProductRepositoryAdapter implements ProductRepositoryPort {
@@ -23,14 +27,39 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
 
     @Override
     public Optional<Product> findById(Long id) {
-        return repository.findById(id).map(this::toDomain);
+        return withinDeadline(() -> repository.findById(id).map(this::toDomain));
     }
 
     @Override
     public List<Product> findAll() {
-        return repository.findAll().stream()
+        return withinDeadline(() -> repository.findAll().stream()
                 .map(this::toDomain)
-                .toList();
+                .toList());
+    }
+
+    /**
+     * Una sola consulta {@code WHERE id IN (...)}; los ids que no existen no aparecen en el resultado
+     */
+    @Override
+    public List<Product> findAllById(Collection<Long> ids) {
+        return withinDeadline(() -> repository.findAllById(ids).stream()
+                .map(this::toDomain)
+                .toList());
+    }
+
+    /**
+     * Una consulta cortada por {@link DeadlineDataSource} al agotarse el plazo de la petición se
+     * devuelve como {@link Deadline.DeadlineExceededException}; el resto de timeouts siguen igual
+     */
+    private <T> T withinDeadline(Supplier<T> query) {
+        try {
+            return query.get();
+        } catch (QueryTimeoutException e) {
+            if (Deadline.currentExpired()) {
+                throw new Deadline.DeadlineExceededException("Request deadline exceeded while querying products");
+            }
+            throw e;
+        }
     }
 
     private Product toDomain(ProductEntity entity) {
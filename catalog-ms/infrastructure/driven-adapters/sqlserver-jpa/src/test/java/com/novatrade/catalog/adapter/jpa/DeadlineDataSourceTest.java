@@ -0,0 +1,73 @@
+package com.novatrade.catalog.adapter.jpa;
+
+import com.novatrade.catalog.model.Deadline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineDataSourceTest {
+
+    private static final String SQL = "select * from products where id = ?";
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Test
+    void prepareStatement_ShouldSetQueryTimeoutToRemainingSeconds() throws Exception {
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+        Connection wrapped = new DeadlineDataSource(target).getConnection();
+
+        // Act
+        Deadline.runWithin(Deadline.after(Duration.ofMillis(1200)),
+                () -> assertSame(statement, assertDoesNotThrow(() -> wrapped.prepareStatement(SQL))));
+
+        // Assert
+        verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    void prepareStatement_ShouldFailOnceTheDeadlineHasPassed() throws Exception {
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+        Connection wrapped = new DeadlineDataSource(target).getConnection();
+
+        // Act & Assert
+        Deadline.runWithin(Deadline.after(Duration.ZERO),
+                () -> assertThrows(SQLTimeoutException.class, () -> wrapped.prepareStatement(SQL)));
+        verify(statement).close();
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void prepareStatement_ShouldBeLeftAloneWithoutDeadline() throws Exception {
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+
+        // Act
+        new DeadlineDataSource(target).getConnection().prepareStatement(SQL);
+
+        // Assert
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+}
@@ -0,0 +1,103 @@
+package com.novatrade.catalog.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que aplica un límite de concurrencia adaptativo a las peticiones de productos
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String PRODUCTS_PATH = "/api/v1/products";
+    private static final String CONTENT_TYPE = "application/vnd.api+json";
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final GradientConcurrencyLimiter limiter;
+    private final Counter rejected;
+
+    /**
+     * Constructor que crea el limitador y registra sus métricas
+     * @param meterRegistry Registro de métricas
+     * @param enabled Si es false no se limita ninguna petición
+     * @param initialLimit Límite inicial de peticiones concurrentes
+     * @param minLimit Límite mínimo
+     * @param maxLimit Límite máximo
+     * @param tolerance Crecimiento de latencia tolerado antes de reducir el límite
+     * @param retryAfterSeconds Valor de la cabecera Retry-After de las peticiones rechazadas
+     */
+    public ConcurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${catalog.concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${catalog.concurrency-limit.initial:20}") int initialLimit,
+            @Value("${catalog.concurrency-limit.min:5}") int minLimit,
+            @Value("${catalog.concurrency-limit.max:200}") int maxLimit,
+            @Value("${catalog.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${catalog.concurrency-limit.retry-after:1}") long retryAfterSeconds) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limiter = new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+        this.rejected = Counter.builder("http.server.concurrency.rejected")
+                .description("Peticiones rechazadas por superar el límite de concurrencia")
+                .tag("endpoint", "products")
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                .description("Límite de concurrencia adaptativo actual")
+                .tag("endpoint", "products")
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.inflight", limiter, GradientConcurrencyLimiter::getInFlight)
+                .description("Peticiones admitidas en curso")
+                .tag("endpoint", "products")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(PRODUCTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            sendOverloadedResponse(response);
+            return;
+        }
+
+        int inFlightAtStart = limiter.getInFlight();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start, inFlightAtStart);
+        }
+    }
+
+    /**
+     * Envía una respuesta de error 503 Service Unavailable con Retry-After
+     * @param response El objeto HttpServletResponse
+     * @throws IOException Si ocurre un error al escribir la respuesta
+     */
+    private void sendOverloadedResponse(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(CONTENT_TYPE);
+        response.getWriter().write("{\"errors\":[{\"status\":\"503\",\"title\":\"Service Unavailable\","
+                + "\"detail\":\"Concurrency limit reached, retry later\"}]}");
+    }
+}
@@ -0,0 +1,103 @@
+package com.novatrade.catalog.api;
+
+import com.novatrade.catalog.model.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * Filtro que fija el {@link Deadline} de las peticiones de productos a partir de la cabecera
+ * {@code X-Request-Timeout} (milisegundos que le quedan a quien llama, p. ej. inventory-ms).
+ * Las consultas a la base de datos de la petición se acotan a ese plazo y, si llega ya agotado,
+ * se responde 504 sin atenderla. Sin cabecera no hay plazo
+ */
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final String PRODUCTS_PATH = "/api/v1/products";
+    private static final String CONTENT_TYPE = "application/vnd.api+json";
+
+    private final boolean enabled;
+
+    /**
+     * @param enabled Si es false se ignora la cabecera
+     */
+    public DeadlineFilter(@Value("${catalog.deadline.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !request.getRequestURI().startsWith(PRODUCTS_PATH)
+                || request.getHeader(TIMEOUT_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(request.getHeader(TIMEOUT_HEADER).trim());
+        } catch (NumberFormatException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            sendDeadlineExceededResponse(response);
+            return;
+        }
+
+        try {
+            Deadline.runWithin(Deadline.after(Duration.ofMillis(timeoutMillis)), () -> {
+                try {
+                    filterChain.doFilter(request, response);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ServletException e) {
+                    throw new ChainFailure(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (ChainFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Responde 504 con un documento de error JSON:API
+     */
+    private void sendDeadlineExceededResponse(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        response.setContentType(CONTENT_TYPE);
+        response.getWriter().write("{\"errors\":[{\"status\":\"504\",\"title\":\"Gateway Timeout\","
+                + "\"detail\":\"Request deadline exceeded\"}]}");
+    }
+
+    /**
+     * Lleva la ServletException de la cadena fuera de {@link Deadline#runWithin}
+     */
+    private static final class ChainFailure extends RuntimeException {
+        ChainFailure(ServletException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ServletException getCause() {
+            return (ServletException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.novatrade.catalog.api;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo por gradiente de latencia
+ * Mantiene una media corta y una media larga del tiempo de respuesta; mientras la corta no supere a la
+ * larga más la tolerancia el límite crece en raíz del límite, y cuando la latencia sube el límite se
+ * reduce en proporción (como mucho a la mitad por muestra)
+ * Las peticiones que superan el límite se rechazan en lugar de esperar a una conexión del pool
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 2.0 / 601;
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Solo se leen y escriben dentro de onSample (sincronizado)
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * @param initialLimit Límite inicial de peticiones concurrentes
+     * @param minLimit Límite mínimo; nunca se rechaza por debajo de esta concurrencia
+     * @param maxLimit Límite máximo
+     * @param tolerance Cuánto puede crecer la latencia corta sobre la larga antes de reducir el límite (1.5 = 50 %)
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1.0) {
+            throw new IllegalArgumentException("tolerance must be >= 1.0");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Reserva un hueco si la concurrencia actual está por debajo del límite
+     *
+     * @return false si la petición debe rechazarse
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Libera el hueco de una petición admitida y ajusta el límite con su latencia
+     *
+     * @param rttNanos Duración de la petición
+     * @param inFlightAtStart Peticiones en curso cuando se admitió
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart);
+    }
+
+    /**
+     * @return Límite actual de peticiones concurrentes
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return Peticiones admitidas en curso
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Actualiza las medias de latencia y recalcula el límite
+     * @param rttNanos Duración de la petición
+     * @param inFlightAtStart Peticiones en curso cuando se admitió
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_SMOOTHING;
+        longRtt += (rttNanos - longRtt) * LONG_SMOOTHING;
+
+        // La latencia ha bajado mucho respecto a la referencia: la media larga se acerca rápido
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // Con poca concurrencia la latencia no dice nada sobre el límite: ni crece ni se reduce
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        double smoothed = limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+}
@@ -1,5 +1,6 @@
 package com.novatrade.catalog.api;
 
+import com.novatrade.catalog.model.Deadline;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -61,6 +62,14 @@ public class JsonApiErrorHandler {
         return createErrorResponse(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage());
     }
 
+    /**
+     * Maneja las peticiones abandonadas por agotar su plazo (504 Gateway Timeout)
+     */
+    @ExceptionHandler(Deadline.DeadlineExceededException.class)
+    public ResponseEntity<Errors> handleDeadlineExceeded(Deadline.DeadlineExceededException ex) {
+        return createErrorResponse(HttpStatus.GATEWAY_TIMEOUT, "Gateway Timeout", ex.getMessage());
+    }
+
     /**
      * Maneja excepciones de validación de argumentos (400 Bad Request)
      */
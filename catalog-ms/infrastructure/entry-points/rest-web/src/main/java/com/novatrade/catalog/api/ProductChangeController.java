@@ -0,0 +1,77 @@
+package com.novatrade.catalog.api;
+
+import com.novatrade.catalog.usecase.ProductChangeFeed;
+import com.novatrade.catalog.usecase.ProductChangeFeed.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cambios de productos en orden de secuencia, con long-poll
+ * {@code GET /api/v1/product-changes?after=<token>&wait=25} devuelve los cambios posteriores al token o,
+ * si no hay ninguno, deja la petición abierta hasta el siguiente cambio o hasta {@code wait} segundos
+ * (como mucho {@code catalog.changes.max-wait}), sin ocupar un hilo del servidor mientras espera.
+ * {@code meta.next} es el token para la siguiente petición y {@code meta.resync} indica que el cliente
+ * se ha perdido cambios y debe descartar su caché. Queda fuera de {@code /api/v1/products} para que las
+ * esperas no cuenten en el límite de concurrencia
+ */
+@RestController
+@RequestMapping(value = "/api/v1/product-changes", produces = "application/vnd.api+json")
+public class ProductChangeController {
+
+    private final ProductChangeFeed feed;
+    private final long maxWaitMillis;
+
+    public ProductChangeController(
+            ProductChangeFeed feed,
+            @Value("${catalog.changes.max-wait:25s}") Duration maxWait) {
+        this.feed = feed;
+        this.maxWaitMillis = maxWait.toMillis();
+    }
+
+    @GetMapping
+    public DeferredResult<JsonApi> changes(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            @RequestParam(name = "wait", defaultValue = "0") long waitSeconds) {
+        long waitMillis = Math.min(Math.max(waitSeconds, 0) * 1000, maxWaitMillis);
+        if (waitMillis == 0) {
+            DeferredResult<JsonApi> result = new DeferredResult<>();
+            result.setResult(document(feed.read(after, limit)));
+            return result;
+        }
+
+        CompletableFuture<Page> next = feed.await(after, limit);
+        // Al vencer la espera se responde con la página vacía y el mismo token
+        DeferredResult<JsonApi> result = new DeferredResult<>(waitMillis, () -> document(feed.read(after, limit)));
+        result.onCompletion(() -> next.cancel(false));
+        next.thenAccept(page -> result.setResult(document(page)));
+        return result;
+    }
+
+    private JsonApi document(Page page) {
+        var items = page.changes().stream()
+                .map(change -> Map.of(
+                        "type", "product-changes",
+                        "id", String.valueOf(change.sequence()),
+                        "attributes", Map.of(
+                                "productId", change.productId(),
+                                "change", change.type().name(),
+                                "changedAt", change.changedAt().toString()
+                        )
+                ))
+                .toList();
+        return new JsonApi(items, Map.of(
+                "next", page.next(),
+                "sequence", page.sequence(),
+                "resync", page.resync()
+        ));
+    }
+}
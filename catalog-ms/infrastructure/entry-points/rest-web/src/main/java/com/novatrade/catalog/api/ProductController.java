@@ -14,11 +14,13 @@ public class ProductController {
     private final CreateProductUseCase create;
     private final GetProductUseCase get;
     private final ListProductsUseCase list;
+    private final UpdateProductUseCase update;
 
-    public ProductController(CreateProductUseCase c, GetProductUseCase g, ListProductsUseCase l) {
+    public ProductController(CreateProductUseCase c, GetProductUseCase g, ListProductsUseCase l, UpdateProductUseCase u) {
         this.create = c;
         this.get = g;
         this.list = l;
+        this.update = u;
     }
 
     record ProductBody(Body data) {
@@ -33,15 +35,25 @@ public class ProductController {
 
     @PostMapping(consumes = "application/vnd.api+json")
     public JsonApi create(@RequestBody ProductBody body) {
+        var saved = create.execute(product(body));
+        return wrap(saved);
+    }
+
+    /**
+     * Sustituye los atributos del producto; el cambio se publica en {@code /api/v1/product-changes}
+     */
+    @PatchMapping(value = "/{id}", consumes = "application/vnd.api+json")
+    public JsonApi update(@PathVariable("id") Long id, @RequestBody ProductBody body) {
+        return wrap(update.execute(id, product(body)));
+    }
+
+    private Product product(ProductBody body) {
         var attributes = body.data().attributes();
-        var product = Product.builder()
+        return Product.builder()
                 .name(attributes.name())
                 .price(attributes.price())
                 .description(java.util.Optional.ofNullable(attributes.description()))
                 .build();
-
-        var saved = create.execute(product);
-        return wrap(saved);
     }
 
     @GetMapping("/{id}")
@@ -49,14 +61,34 @@ public class ProductController {
         return wrap(get.execute(id));
     }
 
+    /**
+     * Lista todos los productos o, con {@code filter[id]=1,2,3}, solo los indicados en una sola consulta.
+     * Los ids que no existen no aparecen en {@code data}.
+     */
     @GetMapping
-    public JsonApi list() {
-        var items = list.execute().stream()
+    public JsonApi list(@RequestParam(name = "filter[id]", required = false) String ids) {
+        var products = ids == null ? list.execute() : list.execute(parseIds(ids));
+        var items = products.stream()
                 .map(this::data)
                 .toList();
         return JsonApi.of(items);
     }
 
+    private Set<Long> parseIds(String ids) {
+        var parsed = new LinkedHashSet<Long>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(Long.valueOf(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid product id: " + id.trim());
+            }
+        }
+        return parsed;
+    }
+
     private JsonApi wrap(Product p) {
         return JsonApi.of(data(p));
     }
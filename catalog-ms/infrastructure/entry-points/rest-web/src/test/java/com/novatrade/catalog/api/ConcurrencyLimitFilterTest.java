@@ -0,0 +1,79 @@
+package com.novatrade.catalog.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HttpServletResponse rejectedResponse;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRequestOverLimit_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, true, 1, 1, 1, 1.5, 1);
+        StringWriter body = new StringWriter();
+        when(rejectedResponse.getWriter()).thenReturn(new PrintWriter(body));
+        doAnswer(invocation -> {
+            filter.doFilterInternal(request, rejectedResponse, mock(FilterChain.class));
+            return null;
+        }).when(filterChain).doFilter(request, response);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(rejectedResponse).setStatus(503);
+        verify(rejectedResponse).setHeader("Retry-After", "1");
+        assertTrue(body.toString().contains("Concurrency limit reached"));
+        assertEquals(1.0, meterRegistry.find("http.server.concurrency.rejected").counter().count());
+    }
+
+    @Test
+    void testRequestUnderLimit_PassesThrough() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, true, 20, 5, 200, 1.5, 1);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertEquals(0.0, meterRegistry.find("http.server.concurrency.inflight").gauge().value());
+    }
+
+    @Test
+    void testShouldNotFilter_OnlyProductPaths() {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, true, 20, 5, 200, 1.5, 1);
+        when(request.getRequestURI()).thenReturn("/api/v1/products/1", "/actuator/health");
+
+        // Act & Assert
+        assertFalse(filter.shouldNotFilter(request));
+        assertTrue(filter.shouldNotFilter(request));
+    }
+}
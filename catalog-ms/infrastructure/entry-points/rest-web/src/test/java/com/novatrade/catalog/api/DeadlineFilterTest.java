@@ -0,0 +1,78 @@
+package com.novatrade.catalog.api;
+
+import com.novatrade.catalog.model.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final DeadlineFilter filter = new DeadlineFilter(true);
+
+    @Test
+    void testRequestWithTimeoutHeader_RunsWithinDeadline() throws Exception {
+        // Arrange
+        when(request.getHeader("X-Request-Timeout")).thenReturn("1500");
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+        doAnswer(invocation -> {
+            remaining.set(Deadline.current().orElseThrow().remaining());
+            return null;
+        }).when(filterChain).doFilter(request, response);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertTrue(remaining.get().compareTo(Duration.ofMillis(1500)) <= 0);
+        assertTrue(remaining.get().compareTo(Duration.ZERO) > 0);
+        assertTrue(Deadline.current().isEmpty());
+    }
+
+    @Test
+    void testRequestWithExhaustedDeadline_ReturnsGatewayTimeout() throws Exception {
+        // Arrange
+        when(request.getHeader("X-Request-Timeout")).thenReturn("0");
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(response).setStatus(504);
+        verifyNoInteractions(filterChain);
+        assertTrue(body.toString().contains("Request deadline exceeded"));
+    }
+
+    @Test
+    void testRequestWithoutHeader_IsNotFiltered() {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/v1/products/1");
+        when(request.getHeader("X-Request-Timeout")).thenReturn(null);
+
+        // Act & Assert
+        assertTrue(filter.shouldNotFilter(request));
+    }
+}
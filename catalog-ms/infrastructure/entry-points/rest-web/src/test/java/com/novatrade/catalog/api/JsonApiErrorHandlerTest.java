@@ -1,5 +1,6 @@
 package com.novatrade.catalog.api;
 
+import com.novatrade.catalog.model.Deadline;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -54,6 +55,22 @@ class JsonApiErrorHandlerTest {
         assertEquals(mensajeError, errors.errors().get(0).detail());
     }
 
+    @Test
+    void handleDeadlineExceeded_debeRetornarEstadoGatewayTimeout() {
+        // Arrange
+        String mensajeError = "Request deadline exceeded while querying products";
+        Deadline.DeadlineExceededException exception = new Deadline.DeadlineExceededException(mensajeError);
+
+        // Act
+        ResponseEntity<?> response = errorHandler.handleDeadlineExceeded(exception);
+
+        // Assert
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        JsonApiErrorHandler.Errors errors = (JsonApiErrorHandler.Errors) response.getBody();
+        assertEquals("504", errors.errors().get(0).status());
+        assertEquals(mensajeError, errors.errors().get(0).detail());
+    }
+
     @Test
     void handleValidationErrors_debeRetornarEstadoBadRequest() {
         // Arrange
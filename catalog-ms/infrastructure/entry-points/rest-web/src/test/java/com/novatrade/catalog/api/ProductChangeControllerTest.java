@@ -0,0 +1,133 @@
+package com.novatrade.catalog.api;
+
+import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort.ChangeType;
+import com.novatrade.catalog.usecase.ProductChangeFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProductChangeControllerTest {
+
+    private MockMvc mockMvc;
+    private ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ProductChangeFeed(new InMemoryChangeLog(), Duration.ofMillis(20), Clock.systemUTC());
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ProductChangeController(feed, Duration.ofSeconds(25)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void testChangesAfterToken() throws Exception {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        feed.saveAndPublish(product(7L), ChangeType.UPDATED);
+
+        // Act
+        MvcResult pending = mockMvc.perform(get("/api/v1/product-changes")
+                .param("after", start)
+                .accept("application/vnd.api+json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].type").value("product-changes"))
+                .andExpect(jsonPath("$.data[0].id").value("2"))
+                .andExpect(jsonPath("$.data[0].attributes.productId").value(7))
+                .andExpect(jsonPath("$.data[0].attributes.change").value("UPDATED"))
+                .andExpect(jsonPath("$.meta.resync").value(false))
+                .andExpect(jsonPath("$.meta.sequence").value(2));
+    }
+
+    @Test
+    void testLongPollAnsweredByNextChange() throws Exception {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        MvcResult pending = mockMvc.perform(get("/api/v1/product-changes")
+                .param("after", start)
+                .param("wait", "20"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Act
+        feed.saveAndPublish(product(9L), ChangeType.CREATED);
+
+        // Assert
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].attributes.productId").value(9))
+                .andExpect(jsonPath("$.data[0].attributes.change").value("CREATED"));
+    }
+
+    @Test
+    void testUnknownTokenAsksForResync() throws Exception {
+        // Act
+        MvcResult pending = mockMvc.perform(get("/api/v1/product-changes")
+                .param("after", "previous-run.42"))
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(0)))
+                .andExpect(jsonPath("$.meta.resync").value(true))
+                .andExpect(jsonPath("$.meta.next").value(feed.read(null, 1).next()));
+    }
+
+    private static Product product(long id) {
+        return Product.builder().id(id).name("Product " + id).price(1.0).description(Optional.empty()).build();
+    }
+
+    /**
+     * Registro compartido en memoria: una fila por producto y posiciones con huecos, como product_change
+     */
+    static class InMemoryChangeLog implements ProductChangeLogPort {
+
+        private final TreeMap<Long, Change> changes = new TreeMap<>();
+        private long position;
+
+        @Override
+        public synchronized Product saveAndRecord(Product product, ChangeType type, Instant changedAt) {
+            changes.values().removeIf(change -> change.productId() == product.getId());
+            position += 2;
+            changes.put(position, new Change(position, product.getId(), type, changedAt));
+            return product;
+        }
+
+        @Override
+        public synchronized long stablePosition() {
+            return position;
+        }
+
+        @Override
+        public synchronized List<Change> findAfter(long after, long upTo, int limit) {
+            return changes.subMap(after, false, upTo, true).values().stream().limit(limit).toList();
+        }
+    }
+}
@@ -16,8 +16,10 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +39,9 @@ class ProductControllerTest {
     @Mock
     private ListProductsUseCase listProductsUseCase;
 
+    @Mock
+    private UpdateProductUseCase updateProductUseCase;
+
     @InjectMocks
     private ProductController productController;
 
@@ -82,6 +87,37 @@ class ProductControllerTest {
         verify(createProductUseCase, times(1)).execute(any(Product.class));
     }
 
+    @Test
+    void testUpdateProduct() throws Exception {
+        // Arrange
+        Product product = Product.builder()
+                .id(1L)
+                .name("Renamed Product")
+                .price(24.99)
+                .description(Optional.of("Test Description"))
+                .build();
+
+        when(updateProductUseCase.execute(eq(1L), any(Product.class))).thenReturn(product);
+
+        ProductController.ProductBody requestBody = new ProductController.ProductBody(
+                new ProductController.ProductBody.Body(
+                        "products",
+                        new ProductController.ProductBody.Attributes("Renamed Product", 24.99, "Test Description")
+                )
+        );
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/v1/products/{id}", 1L)
+                .contentType("application/vnd.api+json")
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value("1"))
+                .andExpect(jsonPath("$.data.attributes.name").value("Renamed Product"))
+                .andExpect(jsonPath("$.data.attributes.price").value(24.99));
+
+        verify(updateProductUseCase, times(1)).execute(eq(1L), any(Product.class));
+    }
+
     @Test
     void testGetProduct() throws Exception {
         // Arrange
@@ -144,4 +180,28 @@ class ProductControllerTest {
 
         verify(listProductsUseCase, times(1)).execute();
     }
+
+    @Test
+    void testListProductsFilteredById() throws Exception {
+        // Arrange
+        Product product = Product.builder()
+                .id(2L)
+                .name("Product 2")
+                .price(29.99)
+                .description(Optional.empty())
+                .build();
+
+        when(listProductsUseCase.execute(Set.of(2L, 3L))).thenReturn(List.of(product));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products")
+                .param("filter[id]", "2, 3")
+                .accept("application/vnd.api+json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].id").value("2"))
+                .andExpect(jsonPath("$.data[0].attributes.price").value(29.99));
+
+        verify(listProductsUseCase, never()).execute();
+    }
 }
@@ -0,0 +1,85 @@
+package com.novatrade.catalog.model;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Instante a partir del cual quien hizo la petición ya no espera la respuesta
+ * Lo fija el punto de entrada para el hilo que atiende la petición ({@link #callWithin}) a partir del tiempo
+ * que queda según quien llama; los adaptadores lo consultan con {@link #current()} para no empezar trabajo que
+ * ya no sirve y para acotar las consultas a la base de datos. Se mide con {@link System#nanoTime()}
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @return Tiempo que queda; cero o negativo si ya pasó
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return Plazo de la petición que atiende este hilo, si tiene
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * @return true si este hilo atiende una petición cuyo plazo ya pasó
+     */
+    public static boolean currentExpired() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null && deadline.isExpired();
+    }
+
+    /**
+     * Ejecuta task con deadline como plazo de este hilo (null: sin plazo) y restaura el anterior al terminar
+     */
+    public static <T> T callWithin(Deadline deadline, Supplier<T> task) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void runWithin(Deadline deadline, Runnable task) {
+        callWithin(deadline, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Se abandonó el trabajo porque el plazo de la petición ya había pasado
+     */
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+}
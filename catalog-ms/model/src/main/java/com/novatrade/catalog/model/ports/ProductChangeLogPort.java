@@ -0,0 +1,40 @@
+package com.novatrade.catalog.model.ports;
+
+import com.novatrade.catalog.model.Product;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Registro de cambios de productos compartido por todas las instancias del catálogo
+ * Guarda el último cambio de cada producto con una posición que crece en cada cambio (con huecos),
+ * así que un cliente ve los cambios que atendió cualquier instancia, lea de la que lea
+ */
+public interface ProductChangeLogPort {
+
+    enum ChangeType { CREATED, UPDATED }
+
+    /**
+     * @param sequence Posición del cambio: creciente, pero no consecutiva
+     */
+    record Change(long sequence, long productId, ChangeType type, Instant changedAt) {}
+
+    /**
+     * Guarda el producto y anota su cambio, en una posición posterior a todas las ya anotadas, en la misma
+     * transacción: o quedan los dos o ninguno
+     *
+     * @return El producto guardado, con su id
+     */
+    Product saveAndRecord(Product product, ChangeType type, Instant changedAt);
+
+    /**
+     * Posición hasta la que la secuencia ya no cambia: ninguna transacción en curso puede confirmar
+     * después un cambio en una posición menor o igual
+     */
+    long stablePosition();
+
+    /**
+     * Cambios con posición mayor que {@code after} y como mucho {@code upTo}, en orden y como mucho {@code limit}
+     */
+    List<Change> findAfter(long after, long upTo, int limit);
+}
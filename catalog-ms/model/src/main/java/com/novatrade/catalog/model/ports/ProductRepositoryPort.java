@@ -1,3 +1,3 @@
 package com.novatrade.catalog.model.ports;
 import com.novatrade.catalog.model.Product; import java.util.*;
-public interface ProductRepositoryPort { Product save(Product p); Optional<Product> findById(Long id); List<Product> findAll(); }
\ No newline at end of file
+public interface ProductRepositoryPort { Product save(Product p); Optional<Product> findById(Long id); List<Product> findAll(); List<Product> findAllById(Collection<Long> ids); }
\ No newline at end of file
@@ -1,32 +1,45 @@
 package com.novatrade.catalog.usecase;
 
 import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
 import com.novatrade.catalog.model.ports.ProductRepositoryPort;
 
 public class CreateProductUseCase {
     private final ProductRepositoryPort repo;
+    private final ProductChangeFeed changes;
 
     public CreateProductUseCase(ProductRepositoryPort repo) {
+        this(repo, null);
+    }
+
+    /**
+     * @param changes Secuencia donde se anuncia cada alta; null si no se publica
+     */
+    public CreateProductUseCase(ProductRepositoryPort repo, ProductChangeFeed changes) {
         this.repo = repo;
+        this.changes = changes;
     }
 
     public Product execute(Product p) {
         validateProduct(p);
-        return repo.save(p);
+        if (changes == null) {
+            return repo.save(p);
+        }
+        return changes.saveAndPublish(p, ProductChangeLogPort.ChangeType.CREATED);
     }
 
-    private void validateProduct(Product p) {
+    static void validateProduct(Product p) {
         validateName(p);
         validatePrice(p);
     }
 
-    private void validateName(Product p) {
+    private static void validateName(Product p) {
         if (p.getName() == null || p.getName().isBlank()) {
             throw new IllegalArgumentException("name is required");
         }
     }
 
-    private void validatePrice(Product p) {
+    private static void validatePrice(Product p) {
         if (p.getPrice() == null || p.getPrice() < 0) {
             throw new IllegalArgumentException("price must be >= 0");
         }
@@ -2,9 +2,12 @@ package com.novatrade.catalog.usecase;
 
 import com.novatrade.catalog.model.Product;
 import com.novatrade.catalog.model.ports.ProductRepositoryPort;
+import java.util.Collection;
 import java.util.List;
 
 public class ListProductsUseCase {
+    public static final int MAX_IDS = 100;
+
     private final ProductRepositoryPort repo;
 
     public ListProductsUseCase(ProductRepositoryPort repo) {
@@ -14,4 +17,17 @@ public class ListProductsUseCase {
     public List<Product> execute() {
         return repo.findAll();
     }
+
+    /**
+     * Productos con los ids indicados, en una sola consulta. Los que no existen se omiten.
+     */
+    public List<Product> execute(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("at least one id is required");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("at most " + MAX_IDS + " ids per request");
+        }
+        return repo.findAllById(ids);
+    }
 }
@@ -0,0 +1,163 @@
+package com.novatrade.catalog.usecase;
+
+import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort.Change;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort.ChangeType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secuencia de cambios de productos (altas y modificaciones) para que otros servicios invaliden sus cachés
+ * Los cambios se anotan en un {@link ProductChangeLogPort} compartido por todas las instancias del catálogo,
+ * así que detrás de un balanceador cada lectura continúa la misma secuencia lea de la instancia que lea.
+ * Los clientes leen con el token opaco que devuelve cada página; un token que no es de esta secuencia
+ * (el de la versión en memoria, o posterior a la posición estable tras restaurar la base de datos)
+ * recibe una página con {@code resync}: el cliente debe descartar todo lo que tenga guardado y seguir
+ * desde el token nuevo. Las esperas se despiertan al publicar en esta instancia y, para los cambios
+ * publicados en otra, consultando el registro cada {@code pollInterval} mientras haya alguna
+ */
+public class ProductChangeFeed implements AutoCloseable {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final System.Logger LOG = System.getLogger(ProductChangeFeed.class.getName());
+
+    /**
+     * @param changes Cambios posteriores al token leído, en orden
+     * @param next Token para pedir los siguientes
+     * @param sequence Última posición cubierta por la página
+     * @param resync true si el token no permite continuar sin huecos
+     */
+    public record Page(List<Change> changes, String next, long sequence, boolean resync) {}
+
+    private record Waiter(long after, int limit, CompletableFuture<Page> result) {}
+
+    private final ProductChangeLogPort log;
+    private final Clock clock;
+    private final ScheduledExecutorService poller;
+
+    // Protegida por this
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    /**
+     * @param log Registro de cambios compartido
+     * @param pollInterval Cada cuánto se consulta el registro mientras haya esperas abiertas
+     * @param clock Reloj con el que se fecha cada cambio
+     */
+    public ProductChangeFeed(ProductChangeLogPort log, Duration pollInterval, Clock clock) {
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("pollInterval must be > 0");
+        }
+        this.log = log;
+        this.clock = clock;
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-changes-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::checkWaiters, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Guarda el producto y registra su cambio en la misma transacción, y despierta a los clientes de esta
+     * instancia que esperaban uno
+     *
+     * @return El producto guardado
+     */
+    public Product saveAndPublish(Product product, ChangeType type) {
+        Product saved = log.saveAndRecord(product, type, clock.instant());
+        poller.execute(this::checkWaiters);
+        return saved;
+    }
+
+    /**
+     * Cambios posteriores al token, como mucho {@code limit}; sin token se pide resincronizar
+     */
+    public Page read(String after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long stable = log.stablePosition();
+        Long position = position(after);
+        if (position == null || position > stable) {
+            return new Page(List.of(), token(stable), stable, true);
+        }
+        List<Change> page = log.findAfter(position, stable, size);
+        // Una página incompleta cubre todo hasta la posición estable
+        long last = page.size() < size ? stable : page.get(page.size() - 1).sequence();
+        return new Page(List.copyOf(page), token(last), last, false);
+    }
+
+    /**
+     * Como {@link #read}, pero si no hay cambios nuevos la página se completa con el siguiente cambio
+     * de cualquier instancia. Quien espera cancela el futuro al rendirse para que no se acumulen
+     */
+    public CompletableFuture<Page> await(String after, int limit) {
+        Page page = read(after, limit);
+        if (page.resync() || !page.changes().isEmpty()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        Waiter waiter = new Waiter(page.sequence(), limit, new CompletableFuture<>());
+        synchronized (this) {
+            waiters.removeIf(pending -> pending.result().isDone());
+            waiters.add(waiter);
+        }
+        return waiter.result();
+    }
+
+    /**
+     * Completa las esperas para las que ya hay cambios; una sola consulta de la posición estable
+     * si ninguna los tiene
+     */
+    void checkWaiters() {
+        List<Waiter> pending;
+        synchronized (this) {
+            waiters.removeIf(waiter -> waiter.result().isDone());
+            if (waiters.isEmpty()) {
+                return;
+            }
+            pending = List.copyOf(waiters);
+        }
+        try {
+            long stable = log.stablePosition();
+            for (Waiter waiter : pending) {
+                if (waiter.after() < stable) {
+                    Page page = read(token(waiter.after()), waiter.limit());
+                    if (page.resync() || !page.changes().isEmpty()) {
+                        waiter.result().complete(page);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Se vuelve a intentar en la siguiente vuelta; si el registro sigue sin responder, vence la espera
+            LOG.log(System.Logger.Level.WARNING, "Product change log unavailable, waiting polls not checked", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    private static Long position(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String token(long position) {
+        return Long.toString(position);
+    }
+}
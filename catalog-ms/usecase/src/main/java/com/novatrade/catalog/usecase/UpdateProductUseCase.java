@@ -0,0 +1,35 @@
+package com.novatrade.catalog.usecase;
+
+import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
+import com.novatrade.catalog.model.ports.ProductRepositoryPort;
+import java.util.NoSuchElementException;
+
+public class UpdateProductUseCase {
+    private final ProductRepositoryPort repo;
+    private final ProductChangeFeed changes;
+
+    /**
+     * @param changes Secuencia donde se anuncia cada modificación
+     */
+    public UpdateProductUseCase(ProductRepositoryPort repo, ProductChangeFeed changes) {
+        this.repo = repo;
+        this.changes = changes;
+    }
+
+    /**
+     * Sustituye nombre, precio y descripción del producto existente y publica el cambio
+     */
+    public Product execute(Long id, Product p) {
+        CreateProductUseCase.validateProduct(p);
+        if (repo.findById(id).isEmpty()) {
+            throw new NoSuchElementException("product not found");
+        }
+        return changes.saveAndPublish(Product.builder()
+                .id(id)
+                .name(p.getName())
+                .price(p.getPrice())
+                .description(p.getDescription())
+                .build(), ProductChangeLogPort.ChangeType.UPDATED);
+    }
+}
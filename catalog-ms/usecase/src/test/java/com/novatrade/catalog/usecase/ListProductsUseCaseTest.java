@@ -13,6 +13,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -89,4 +90,40 @@ class ListProductsUseCaseTest {
         assertTrue(result.isEmpty());
         verify(repositoryPort, times(1)).findAll();
     }
+
+    @Test
+    @DisplayName("Should look up only the requested ids in one query")
+    void shouldLookUpOnlyTheRequestedIdsInOneQuery() {
+        // Arrange
+        Product product = Product.builder()
+            .id(2L)
+            .name("Product 2")
+            .price(149.99)
+            .description(Optional.empty())
+            .build();
+        when(repositoryPort.findAllById(Set.of(2L, 9L))).thenReturn(List.of(product));
+
+        // Act
+        List<Product> result = useCase.execute(Set.of(2L, 9L));
+
+        // Assert
+        assertEquals(List.of(product), result);
+        verify(repositoryPort, times(1)).findAllById(Set.of(2L, 9L));
+        verify(repositoryPort, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should reject empty or oversized id lists")
+    void shouldRejectEmptyOrOversizedIdLists() {
+        // Arrange
+        Set<Long> tooMany = new java.util.HashSet<>();
+        for (long id = 1; id <= ListProductsUseCase.MAX_IDS + 1; id++) {
+            tooMany.add(id);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> useCase.execute(Set.of()));
+        assertThrows(IllegalArgumentException.class, () -> useCase.execute(tooMany));
+        verifyNoInteractions(repositoryPort);
+    }
 }
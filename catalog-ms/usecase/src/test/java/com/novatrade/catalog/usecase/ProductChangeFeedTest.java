@@ -0,0 +1,195 @@
+package com.novatrade.catalog.usecase;
+
+import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort.Change;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort.ChangeType;
+import com.novatrade.catalog.usecase.ProductChangeFeed.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-06-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private final InMemoryChangeLog log = new InMemoryChangeLog();
+    private final ProductChangeFeed feed = new ProductChangeFeed(log, Duration.ofMillis(20), CLOCK);
+    private final ProductChangeFeed otherInstance = new ProductChangeFeed(log, Duration.ofMillis(20), CLOCK);
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+        otherInstance.close();
+    }
+
+    @Test
+    @DisplayName("Should return changes in sequence order and resume from the returned token")
+    void shouldReturnChangesInOrderAndResumeFromToken() {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        feed.saveAndPublish(product(7L), ChangeType.CREATED);
+        feed.saveAndPublish(product(8L), ChangeType.UPDATED);
+
+        // Act
+        Page first = feed.read(start, 1);
+        Page second = feed.read(first.next(), 10);
+        Page empty = feed.read(second.next(), 10);
+
+        // Assert
+        assertFalse(first.resync());
+        assertEquals(7L, first.changes().get(0).productId());
+        assertEquals(List.of(8L), second.changes().stream().map(Change::productId).toList());
+        assertEquals(ChangeType.UPDATED, second.changes().get(0).type());
+        assertTrue(empty.changes().isEmpty());
+        assertEquals(second.sequence(), empty.sequence());
+    }
+
+    @Test
+    @DisplayName("Should continue the same sequence whichever instance serves the poll")
+    void shouldContinueTheSameSequenceOnAnyInstance() {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        feed.saveAndPublish(product(7L), ChangeType.UPDATED);
+        otherInstance.saveAndPublish(product(8L), ChangeType.UPDATED);
+
+        // Act
+        Page fromOther = otherInstance.read(start, 10);
+        Page fromThis = feed.read(start, 10);
+
+        // Assert
+        assertFalse(fromOther.resync());
+        assertEquals(List.of(7L, 8L), fromOther.changes().stream().map(Change::productId).toList());
+        assertEquals(fromOther, fromThis);
+    }
+
+    @Test
+    @DisplayName("Should return a product changed twice once, at its latest position")
+    void shouldReturnTheLatestChangeOfEachProductOnce() {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        feed.saveAndPublish(product(7L), ChangeType.CREATED);
+        feed.saveAndPublish(product(8L), ChangeType.CREATED);
+        feed.saveAndPublish(product(7L), ChangeType.UPDATED);
+
+        // Act
+        Page page = feed.read(start, 10);
+
+        // Assert
+        assertEquals(List.of(8L, 7L), page.changes().stream().map(Change::productId).toList());
+        assertEquals(ChangeType.UPDATED, page.changes().get(1).type());
+    }
+
+    @Test
+    @DisplayName("Should not move past a change whose transaction is still open")
+    void shouldNotMovePastAnUncommittedChange() {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        log.begin();
+        feed.saveAndPublish(product(7L), ChangeType.UPDATED);
+
+        // Act
+        Page whileOpen = feed.read(start, 10);
+        log.commit();
+        Page afterCommit = feed.read(whileOpen.next(), 10);
+
+        // Assert
+        assertTrue(whileOpen.changes().isEmpty());
+        assertEquals(start, whileOpen.next());
+        assertEquals(List.of(7L), afterCommit.changes().stream().map(Change::productId).toList());
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync when the token is missing, unknown or ahead of the log")
+    void shouldAskForResyncOnUnknownToken() {
+        // Arrange
+        feed.saveAndPublish(product(1L), ChangeType.UPDATED);
+
+        // Act
+        Page firstRequest = feed.read(null, 10);
+        Page inMemoryToken = feed.read("previous-run.4", 10);
+        Page ahead = feed.read("999", 10);
+
+        // Assert
+        assertTrue(firstRequest.resync());
+        assertTrue(inMemoryToken.resync());
+        assertTrue(ahead.resync());
+        assertFalse(feed.read(firstRequest.next(), 10).resync());
+    }
+
+    @Test
+    @DisplayName("Should complete a waiting poll with the next change published on any instance")
+    void shouldCompleteWaitingPollOnPublishFromAnyInstance() throws Exception {
+        // Arrange
+        String start = feed.read(null, 10).next();
+        CompletableFuture<Page> waitingHere = feed.await(start, 10);
+        CompletableFuture<Page> waitingThere = otherInstance.await(start, 10);
+        assertFalse(waitingHere.isDone());
+
+        // Act
+        feed.saveAndPublish(product(5L), ChangeType.UPDATED);
+
+        // Assert
+        assertEquals(5L, waitingHere.get(1, TimeUnit.SECONDS).changes().get(0).productId());
+        assertEquals(5L, waitingThere.get(1, TimeUnit.SECONDS).changes().get(0).productId());
+    }
+
+    private static Product product(long id) {
+        return Product.builder().id(id).name("Product " + id).price(1.0).description(Optional.empty()).build();
+    }
+
+    /**
+     * Como la tabla product_change: una fila por producto y posiciones crecientes con huecos.
+     * Entre begin y commit las posiciones nuevas quedan por encima de la estable, como con una transacción abierta
+     */
+    static class InMemoryChangeLog implements ProductChangeLogPort {
+
+        private final TreeMap<Long, Change> changes = new TreeMap<>();
+        private final Map<Long, Long> positions = new HashMap<>();
+        private long position;
+        private long openFrom = Long.MAX_VALUE;
+
+        @Override
+        public synchronized Product saveAndRecord(Product product, ChangeType type, Instant changedAt) {
+            position += 2;
+            Long previous = positions.put(product.getId(), position);
+            if (previous != null) {
+                changes.remove(previous);
+            }
+            changes.put(position, new Change(position, product.getId(), type, changedAt));
+            return product;
+        }
+
+        @Override
+        public synchronized long stablePosition() {
+            return Math.min(position, openFrom - 1);
+        }
+
+        @Override
+        public synchronized List<Change> findAfter(long after, long upTo, int limit) {
+            return changes.subMap(after, false, upTo, true).values().stream().limit(limit).toList();
+        }
+
+        synchronized void begin() {
+            openFrom = position + 1;
+        }
+
+        synchronized void commit() {
+            openFrom = Long.MAX_VALUE;
+        }
+    }
+}
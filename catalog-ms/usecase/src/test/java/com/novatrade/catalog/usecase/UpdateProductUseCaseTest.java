@@ -0,0 +1,69 @@
+package com.novatrade.catalog.usecase;
+
+import com.novatrade.catalog.model.Product;
+import com.novatrade.catalog.model.ports.ProductChangeLogPort.ChangeType;
+import com.novatrade.catalog.model.ports.ProductRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UpdateProductUseCaseTest {
+
+    @Mock
+    private ProductRepositoryPort repositoryPort;
+
+    @Mock
+    private ProductChangeFeed changes;
+
+    private UpdateProductUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new UpdateProductUseCase(repositoryPort, changes);
+    }
+
+    @Test
+    @DisplayName("Should save the new attributes and publish an UPDATED change")
+    void shouldUpdateProductAndPublishChange() {
+        // Arrange
+        Product existing = Product.builder().id(1L).name("Old").price(10.0).description(Optional.empty()).build();
+        Product update = Product.builder().name("New").price(12.5).description(Optional.of("Desc")).build();
+        when(repositoryPort.findById(1L)).thenReturn(Optional.of(existing));
+        when(changes.saveAndPublish(any(Product.class), eq(ChangeType.UPDATED)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Product result = useCase.execute(1L, update);
+
+        // Assert
+        assertEquals(1L, result.getId());
+        assertEquals("New", result.getName());
+        assertEquals(12.5, result.getPrice());
+        verify(repositoryPort, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should throw exception and publish nothing when product does not exist")
+    void shouldThrowWhenProductDoesNotExist() {
+        // Arrange
+        Product update = Product.builder().name("New").price(12.5).description(Optional.empty()).build();
+        when(repositoryPort.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> useCase.execute(99L, update));
+        verify(repositoryPort, never()).save(any(Product.class));
+        verifyNoInteractions(changes);
+    }
+}
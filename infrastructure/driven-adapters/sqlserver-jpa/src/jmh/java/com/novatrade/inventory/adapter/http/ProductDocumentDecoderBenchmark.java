@@ -0,0 +1,70 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificación de un documento de producto como la hacían los clientes del catálogo frente a
+ * {@link ProductDocumentDecoder}: {@code tree} es {@code ProductsHttpClient} (cuerpo completo en un String
+ * y {@code readTree}), {@code map} es {@code ProductsClientAdapter} (conversor JSON a {@code Map} y casts)
+ * y {@code streaming} recorre los tokens del flujo. Con el perfilador gc configurado en build.gradle el
+ * informe incluye los bytes reservados por documento (gc.alloc.rate.norm); descriptionLength hace crecer
+ * el campo que ningún cliente usa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductDocumentDecoderBenchmark {
+
+    @Param({"32", "4096"})
+    public int descriptionLength;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        document = ("""
+                {"data": {"type": "products", "id": "42",
+                          "attributes": {"name": "Test Product", "price": 100.5, "description": "%s"},
+                          "links": {"self": "/api/v1/products/42"}}}
+                """.formatted("x".repeat(descriptionLength))).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ProductDTO tree() throws IOException {
+        // StringHttpMessageConverter leía el cuerpo entero antes de parsearlo
+        String body = new String(new ByteArrayInputStream(document).readAllBytes(), StandardCharsets.UTF_8);
+        JsonNode data = objectMapper.readTree(body).get("data");
+        JsonNode attributes = data.get("attributes");
+        return new ProductDTO(
+                Long.parseLong(data.get("id").asText()),
+                attributes.get("name").asText(),
+                attributes.get("price").asDouble());
+    }
+
+    @Benchmark
+    public ProductDTO map() throws IOException {
+        // MappingJackson2HttpMessageConverter decodifica del flujo a mapas anidados
+        Map<?, ?> body = objectMapper.readValue(new ByteArrayInputStream(document), Map.class);
+        Map<?, ?> data = (Map<?, ?>) body.get("data");
+        Map<?, ?> attributes = (Map<?, ?>) data.get("attributes");
+        return new ProductDTO(
+                Long.valueOf((String) data.get("id")),
+                (String) attributes.get("name"),
+                ((Number) attributes.get("price")).doubleValue());
+    }
+
+    @Benchmark
+    public ProductDTO streaming() throws IOException {
+        return ProductDocumentDecoder.readProduct(new ByteArrayInputStream(document));
+    }
+}
@@ -0,0 +1,101 @@
+package com.novatrade.inventory.adapter.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché en memoria delante del puerto de idempotencia
+ * Las respuestas se guardan al escribirlas y al leerlas de la tabla, así que repetir una Idempotency-Key
+ * en esta instancia no vuelve a consultar dbo.idempotency_keys. La caché (Caffeine, W-TinyLFU) está acotada
+ * por el tamaño aproximado en bytes de clave y JSON y no guarda ausencias: una clave que aún no tiene
+ * respuesta se consulta siempre en la tabla, por si otra instancia la ha escrito
+ */
+public class CachingIdempotencyRepository implements IdempotencyPort {
+
+    // Cabecera de objeto, referencias y nodo de la caché por entrada, aproximado
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final IdempotencyPort delegate;
+    private final Cache<String, String> cache;
+
+    /**
+     * @param delegate Puerto que lee y escribe en la tabla
+     * @param maxBytes Tamaño máximo aproximado de lo cacheado
+     * @param ttl Tiempo que una respuesta permanece en caché desde que se guardó
+     * @param meterRegistry Registro de métricas
+     */
+    public CachingIdempotencyRepository(
+            IdempotencyPort delegate,
+            long maxBytes,
+            Duration ttl,
+            MeterRegistry meterRegistry) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be >= 1");
+        }
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(CachingIdempotencyRepository::weigh)
+                .expireAfterWrite(ttl)
+                // El mantenimiento (desalojos) se hace en el hilo que accede: es barato y evita depender de otro pool
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+        Gauge.builder("cache.weight", cache, c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .description("Bytes aproximados de las respuestas cacheadas")
+                .tag("cache", "idempotency")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<String> findResponseByKey(String key) {
+        String cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<String> stored = delegate.findResponseByKey(key);
+        stored.ifPresent(json -> cache.put(key, json));
+        return stored;
+    }
+
+    @Override
+    public void saveResponse(String key, String responseJson) {
+        // Primero la tabla: si la escritura falla no debe quedar en caché una respuesta que no existe
+        delegate.saveResponse(key, responseJson);
+        cache.put(key, responseJson);
+    }
+
+    /**
+     * Añade a la caché una respuesta que ya está en la tabla porque otro la escribió, como la transacción
+     * de compra tras su commit
+     */
+    public void remember(String key, String responseJson) {
+        cache.put(key, responseJson);
+    }
+
+    private static int weigh(String key, String json) {
+        long bytes = ENTRY_OVERHEAD_BYTES + bytesOf(key) + bytesOf(json);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    /**
+     * Cadenas compactas: un byte por carácter si todos son Latin-1; si no, UTF-16, dos por carácter
+     */
+    static long bytesOf(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return 2L * value.length();
+            }
+        }
+        return value.length();
+    }
+}
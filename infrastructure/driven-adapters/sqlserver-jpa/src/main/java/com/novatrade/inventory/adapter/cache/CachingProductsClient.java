@@ -0,0 +1,296 @@
+package com.novatrade.inventory.adapter.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria de productos del catálogo delante del cliente HTTP
+ * Cada producto vale ttl desde que se leyó. Cuando le queda menos de refreshAhead se devuelve el cacheado
+ * y se relee en segundo plano (una sola lectura por producto a la vez), así que con tráfico continuo las
+ * compras no esperan al catálogo. Pasado ttl se lee de forma síncrona; si el catálogo falla se sigue
+ * devolviendo el producto cacheado durante staleFor. Los productos inexistentes no se cachean, ni los que
+ * el cliente devuelve marcados como stale
+ * Un lote sirve de la caché los productos vigentes y pide todos los demás al cliente en una sola llamada
+ */
+public class CachingProductsClient implements ProductsClientPort {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingProductsClient.class);
+
+    private final ProductsClientPort delegate;
+    private final Duration ttl;
+    private final Duration refreshAfter;
+    private final Duration staleFor;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final Cache<Long, Entry> cache;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    // Sube con cada invalidación: una lectura que empezó antes no deja en la caché la versión anterior
+    private final AtomicLong generation = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Counter staleServed;
+
+    /**
+     * @param delegate Cliente que consulta el catálogo
+     * @param maxEntries Productos que caben en la caché
+     * @param ttl Tiempo que un producto se da por vigente desde que se leyó
+     * @param refreshAhead Margen antes de ttl en que se relee en segundo plano (menor que ttl)
+     * @param staleFor Tiempo después de ttl en que se devuelve el producto cacheado si el catálogo falla
+     * @param refreshExecutor Ejecutor de las relecturas en segundo plano
+     * @param clock Reloj
+     * @param meterRegistry Registro de métricas
+     */
+    public CachingProductsClient(
+            ProductsClientPort delegate,
+            long maxEntries,
+            Duration ttl,
+            Duration refreshAhead,
+            Duration staleFor,
+            Executor refreshExecutor,
+            Clock clock,
+            MeterRegistry meterRegistry) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1");
+        }
+        if (refreshAhead.isNegative() || refreshAhead.compareTo(ttl) >= 0 || staleFor.isNegative()) {
+            throw new IllegalArgumentException("refreshAhead must be between 0 and ttl and staleFor must be >= 0");
+        }
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.refreshAfter = ttl.minus(refreshAhead);
+        this.staleFor = staleFor;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                // Pasado ttl + staleFor el producto ya no sirve ni como respaldo
+                .expireAfterWrite(ttl.plus(staleFor))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        this.staleServed = Counter.builder("products.cache.stale")
+                .description("Productos caducados devueltos porque el catálogo no respondió")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductDTO getProduct(Long id) {
+        Entry cached = cache.getIfPresent(id);
+        if (cached == null) {
+            return load(id, "miss");
+        }
+
+        Duration age = Duration.between(cached.loadedAt(), clock.instant());
+        if (age.compareTo(refreshAfter) < 0) {
+            return cached.product();
+        }
+        if (age.compareTo(ttl) < 0) {
+            refreshInBackground(id);
+            return cached.product();
+        }
+
+        try {
+            return load(id, "expired");
+        } catch (NoSuchElementException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (age.compareTo(ttl.plus(staleFor)) >= 0) {
+                throw e;
+            }
+            log.warn("Catalog unavailable, serving cached product {} loaded {} ago: {}", id, age, e.getMessage());
+            staleServed.increment();
+            return cached.product();
+        }
+    }
+
+    /**
+     * Como {@link #getProduct} para cada id, pero los que no están vigentes en la caché se piden juntos con
+     * una sola llamada a {@link ProductsClientPort#getProducts}. Si esa llamada falla, el lote solo se
+     * responde si todos los que faltaban siguen en la caché dentro de staleFor
+     */
+    @Override
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        Map<Long, ProductDTO> cachedProducts = new HashMap<>();
+        Map<Long, Entry> expired = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        Instant now = clock.instant();
+        for (Long id : ids) {
+            Entry cached = cache.getIfPresent(id);
+            if (cached == null) {
+                missing.add(id);
+                continue;
+            }
+            Duration age = Duration.between(cached.loadedAt(), now);
+            if (age.compareTo(ttl) < 0) {
+                if (age.compareTo(refreshAfter) >= 0) {
+                    refreshInBackground(id);
+                }
+                cachedProducts.put(id, cached.product());
+            } else {
+                missing.add(id);
+                expired.put(id, cached);
+            }
+        }
+
+        Map<Long, ProductDTO> loaded = Map.of();
+        if (!missing.isEmpty()) {
+            try {
+                loaded = loadAll(missing, expired.size() == missing.size() ? "expired" : "miss");
+            } catch (NoSuchElementException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (expired.size() < missing.size() || expired.values().stream().anyMatch(
+                        entry -> Duration.between(entry.loadedAt(), now).compareTo(ttl.plus(staleFor)) >= 0)) {
+                    throw e;
+                }
+                log.warn("Catalog unavailable, serving {} cached products: {}", expired.size(), e.getMessage());
+                staleServed.increment(expired.size());
+                expired.forEach((id, entry) -> cachedProducts.put(id, entry.product()));
+            }
+        }
+
+        Map<Long, ProductDTO> products = new LinkedHashMap<>();
+        for (Long id : ids) {
+            ProductDTO product = cachedProducts.containsKey(id) ? cachedProducts.get(id) : loaded.get(id);
+            if (product != null) {
+                products.put(id, product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Descarta el producto para que la próxima consulta lo lea del catálogo (aviso de cambio)
+     */
+    public void invalidate(Long id) {
+        generation.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    /**
+     * Descarta todos los productos (se han podido perder avisos de cambio)
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private ProductDTO load(Long id, String reason) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "failure";
+        long loadGeneration = generation.get();
+        try {
+            ProductDTO product = delegate.getProduct(id);
+            if (product == null) {
+                cache.invalidate(id);
+                result = "not_found";
+                return null;
+            }
+            if (product.stale()) {
+                // Última versión conocida con el circuito abierto: no se guarda como si fuera nueva
+                result = "stale";
+                return product;
+            }
+            cache.put(id, new Entry(product, clock.instant()));
+            if (generation.get() != loadGeneration) {
+                // Se invalidó mientras se leía: el producto leído puede ser anterior al cambio
+                cache.invalidate(id);
+            }
+            result = "success";
+            return product;
+        } catch (NoSuchElementException e) {
+            cache.invalidate(id);
+            result = "not_found";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("products.cache.load")
+                    .description("Lecturas del catálogo hechas por la caché de productos")
+                    .tag("reason", reason)
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    private Map<Long, ProductDTO> loadAll(List<Long> ids, String reason) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "failure";
+        long loadGeneration = generation.get();
+        try {
+            Map<Long, ProductDTO> products = delegate.getProducts(ids);
+            Map<Long, ProductDTO> loaded = products == null ? Map.of() : products;
+            Instant loadedAt = clock.instant();
+            for (Long id : ids) {
+                ProductDTO product = loaded.get(id);
+                if (product == null) {
+                    cache.invalidate(id);
+                } else if (!product.stale()) {
+                    cache.put(id, new Entry(product, loadedAt));
+                }
+            }
+            if (generation.get() != loadGeneration) {
+                // Se invalidó mientras se leía: los productos leídos pueden ser anteriores al cambio
+                cache.invalidateAll(ids);
+            }
+            result = "success";
+            return loaded;
+        } catch (NoSuchElementException e) {
+            result = "not_found";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("products.cache.load")
+                    .description("Lecturas del catálogo hechas por la caché de productos")
+                    .tag("reason", reason)
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void refreshInBackground(Long id) {
+        if (!refreshing.add(id)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(id, "refresh");
+                } catch (RuntimeException e) {
+                    // Se conserva el producto cacheado; la próxima lectura vuelve a intentarlo
+                    log.warn("Background refresh of product {} failed: {}", id, e.getMessage());
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(id);
+            log.warn("Could not schedule refresh of product {}: {}", id, e.getMessage());
+        }
+    }
+
+    private record Entry(ProductDTO product, Instant loadedAt) {}
+}
@@ -0,0 +1,243 @@
+package com.novatrade.inventory.adapter.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Última versión leída de cada producto, para responder mientras el circuito del catálogo está abierto
+ * Guarda como mucho maxEntries productos en memoria y solo los devuelve si se leyeron hace menos de
+ * maxStaleness; los devueltos llevan {@code stale = true}. Con un fichero configurado cada producto se
+ * copia además en una ranura de tamaño fijo de un fichero mapeado en memoria (ranura = id módulo número
+ * de ranuras, así que dos ids pueden pisarse), y al arrancar se cargan las ranuras válidas para que un
+ * reinicio durante una caída del catálogo no empiece sin nada. Cada ranura lleva un CRC32; las ranuras
+ * a medio escribir o de otro formato se ignoran
+ */
+public class LastKnownGoodProducts implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LastKnownGoodProducts.class);
+
+    static final int SLOT_SIZE = 256;
+    // crc (4) + id (8) + leído en (8) + precio (8) + longitud del nombre (2)
+    private static final int SLOT_HEADER = 30;
+    static final int MAX_NAME_BYTES = SLOT_SIZE - SLOT_HEADER;
+    private static final int FILE_HEADER = 16;
+    private static final int MAGIC = 0x4c4b4750;
+    private static final int VERSION = 1;
+    private static final short NULL_NAME = -1;
+
+    private final Duration maxStaleness;
+    private final Clock clock;
+    private final Cache<Long, Entry> entries;
+    private final FileChannel channel;
+    private final MappedByteBuffer slots;
+    private final int slotCount;
+    private final Counter served;
+    private final Counter expired;
+    private final Counter missing;
+
+    /**
+     * @param maxEntries Productos que se guardan (y ranuras del fichero)
+     * @param maxStaleness Antigüedad máxima de un producto para devolverlo
+     * @param file Fichero mapeado en memoria donde se copian los productos, o null para guardarlos solo en memoria
+     * @param clock Reloj
+     * @param meterRegistry Registro de métricas
+     */
+    public LastKnownGoodProducts(
+            int maxEntries,
+            Duration maxStaleness,
+            Path file,
+            Clock clock,
+            MeterRegistry meterRegistry) {
+        if (maxEntries < 1 || maxStaleness.isNegative() || maxStaleness.isZero()) {
+            throw new IllegalArgumentException("maxEntries must be >= 1 and maxStaleness must be positive");
+        }
+        this.maxStaleness = maxStaleness;
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(maxStaleness)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .executor(Runnable::run)
+                .build();
+        this.served = lookups("served", meterRegistry);
+        this.expired = lookups("expired", meterRegistry);
+        this.missing = lookups("missing", meterRegistry);
+
+        if (file == null) {
+            this.channel = null;
+            this.slots = null;
+            this.slotCount = 0;
+            return;
+        }
+        this.slotCount = maxEntries;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = FILE_HEADER + (long) maxEntries * SLOT_SIZE;
+            boolean compatible = channel.size() == size && compatibleHeader(channel);
+            if (!compatible) {
+                // Otro formato u otro número de ranuras: se empieza de cero
+                channel.truncate(0);
+            }
+            this.slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (compatible) {
+                log.info("Loaded {} last known products from {}", loadSlots(), file);
+            } else {
+                slots.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, maxEntries);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open last known products file " + file, e);
+        }
+    }
+
+    /**
+     * Guarda la versión recién leída del catálogo
+     */
+    public void record(ProductDTO product) {
+        if (product == null || product.stale() || product.id() == null) {
+            return;
+        }
+        long fetchedAt = clock.millis();
+        entries.put(product.id(), new Entry(product, fetchedAt));
+        if (slots != null) {
+            write(product, fetchedAt);
+        }
+    }
+
+    /**
+     * @return Última versión del producto marcada como stale, o vacío si no hay ninguna de menos de maxStaleness
+     */
+    public Optional<ProductDTO> find(Long id) {
+        Entry entry = entries.getIfPresent(id);
+        if (entry == null) {
+            missing.increment();
+            return Optional.empty();
+        }
+        if (clock.millis() - entry.fetchedAt() > maxStaleness.toMillis()) {
+            expired.increment();
+            return Optional.empty();
+        }
+        served.increment();
+        ProductDTO product = entry.product();
+        return Optional.of(new ProductDTO(product.id(), product.name(), product.price(), true));
+    }
+
+    /**
+     * @return Los productos pedidos, o vacío si falta alguno: un id ausente se tomaría por inexistente
+     */
+    public Optional<Map<Long, ProductDTO>> findAll(Collection<Long> ids) {
+        Map<Long, ProductDTO> products = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Optional<ProductDTO> product = find(id);
+            if (product.isEmpty()) {
+                return Optional.empty();
+            }
+            products.put(id, product.get());
+        }
+        return Optional.of(products);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            slots.force();
+            channel.close();
+        }
+    }
+
+    private void write(ProductDTO product, long fetchedAt) {
+        byte[] name = product.name() == null ? null : product.name().getBytes(StandardCharsets.UTF_8);
+        if (name != null && name.length > MAX_NAME_BYTES) {
+            // No cabe entero en la ranura: se queda solo en memoria
+            return;
+        }
+        ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+        slot.putInt(0);
+        slot.putLong(product.id());
+        slot.putLong(fetchedAt);
+        slot.putDouble(product.price() == null ? Double.NaN : product.price());
+        slot.putShort(name == null ? NULL_NAME : (short) name.length);
+        if (name != null) {
+            slot.put(name);
+        }
+        slot.putInt(0, checksum(slot.array()));
+        int offset = FILE_HEADER + (int) Math.floorMod(product.id(), (long) slotCount) * SLOT_SIZE;
+        synchronized (slots) {
+            slots.put(offset, slot.array());
+        }
+    }
+
+    private int loadSlots() {
+        long now = clock.millis();
+        byte[] raw = new byte[SLOT_SIZE];
+        int loaded = 0;
+        for (int i = 0; i < slotCount; i++) {
+            slots.get(FILE_HEADER + i * SLOT_SIZE, raw);
+            ByteBuffer slot = ByteBuffer.wrap(raw);
+            if (slot.getInt(0) != checksum(raw)) {
+                continue;
+            }
+            slot.position(4);
+            long id = slot.getLong();
+            long fetchedAt = slot.getLong();
+            double price = slot.getDouble();
+            short nameLength = slot.getShort();
+            if (now - fetchedAt > maxStaleness.toMillis() || nameLength < NULL_NAME || nameLength > MAX_NAME_BYTES) {
+                continue;
+            }
+            String name = nameLength == NULL_NAME
+                    ? null
+                    : new String(raw, SLOT_HEADER, nameLength, StandardCharsets.UTF_8);
+            entries.put(id, new Entry(new ProductDTO(id, name, Double.isNaN(price) ? null : price), fetchedAt));
+            loaded++;
+        }
+        return loaded;
+    }
+
+    private boolean compatibleHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        channel.read(header, 0);
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == slotCount;
+    }
+
+    private static int checksum(byte[] slot) {
+        CRC32 crc = new CRC32();
+        crc.update(slot, 4, SLOT_SIZE - 4);
+        return (int) crc.getValue();
+    }
+
+    private static Counter lookups(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("products.last-known-good.lookups")
+                .description("Consultas a la última versión conocida con el circuito del catálogo abierto")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(ProductDTO product, long fetchedAt) {}
+}
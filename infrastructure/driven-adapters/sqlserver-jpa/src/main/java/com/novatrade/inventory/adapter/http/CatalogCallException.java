@@ -0,0 +1,38 @@
+package com.novatrade.inventory.adapter.http;
+
+/**
+ * Fallo de una llamada al catálogo que conserva el código HTTP de la respuesta
+ * Sin respuesta (conexión rechazada, timeout de lectura) el código es {@link #NO_RESPONSE}
+ * Solo merecen reintento los fallos de transporte, los 5xx y el 429: un 400, 401 o 403 volvería a fallar igual
+ */
+public class CatalogCallException extends RuntimeException {
+
+    /** No hubo respuesta HTTP */
+    public static final int NO_RESPONSE = 0;
+
+    private final int status;
+
+    /**
+     * @param message Descripción del fallo
+     * @param status Código HTTP de la respuesta o {@link #NO_RESPONSE}
+     * @param cause Excepción del cliente HTTP
+     */
+    public CatalogCallException(String message, int status, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    /**
+     * @return Código HTTP de la respuesta o {@link #NO_RESPONSE}
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true si otro intento podría salir bien: sin respuesta, 5xx o 429
+     */
+    public boolean isRetryable() {
+        return status == NO_RESPONSE || status >= 500 || status == 429;
+    }
+}
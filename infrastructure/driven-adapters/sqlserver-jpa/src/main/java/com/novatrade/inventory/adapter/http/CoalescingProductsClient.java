@@ -0,0 +1,209 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.Deadline;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Agrupa las consultas de productos concurrentes en una sola petición al catálogo
+ * La primera consulta abre una ventana de window; las que llegan mientras tanto se suman al mismo lote
+ * (un id repetido comparte resultado) y al cerrarse la ventana, o al llegar a maxBatchSize ids, se piden
+ * todos con {@link ProductsClientPort#getProducts}. Un lote de un solo id usa {@link ProductsClientPort#getProduct}.
+ * Cada llamada espera el resultado de su id: el producto, NoSuchElementException si el catálogo no lo
+ * devolvió o el error del lote completo. El lote se pide con el {@link Deadline} más lejano de las llamadas
+ * que agrupa (sin plazo si alguna no lo tiene), y cada llamada deja de esperar cuando vence el suyo
+ */
+public class CoalescingProductsClient implements ProductsClientPort, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingProductsClient.class);
+
+    private final ProductsClientPort delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    // Cada lote se pide en su propio hilo virtual: los lotes no esperan unos a otros
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+    private final DistributionSummary batchSizes;
+
+    // Protegido por this
+    private Map<Long, CompletableFuture<ProductDTO>> pending = new LinkedHashMap<>();
+    private Deadline pendingDeadline;
+    private boolean pendingUnbounded;
+
+    /**
+     * @param delegate Cliente que consulta el catálogo
+     * @param window Tiempo que se espera a otras consultas antes de pedir el lote
+     * @param maxBatchSize Ids por lote; al alcanzarlo se pide sin esperar a la ventana
+     * @param meterRegistry Registro de métricas
+     */
+    public CoalescingProductsClient(
+            ProductsClientPort delegate,
+            Duration window,
+            int maxBatchSize,
+            MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        }
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizes = DistributionSummary.builder("products.client.batch.size")
+                .description("Productos distintos pedidos al catálogo en cada petición")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductDTO getProduct(Long id) {
+        Deadline deadline = Deadline.current().orElse(null);
+        CompletableFuture<ProductDTO> result;
+        Map<Long, CompletableFuture<ProductDTO>> full = null;
+        Deadline fullDeadline = null;
+        synchronized (this) {
+            extendPendingDeadline(deadline);
+            result = pending.get(id);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                pending.put(id, result);
+                if (pending.size() == 1) {
+                    Map<Long, CompletableFuture<ProductDTO>> batch = pending;
+                    scheduler.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+                }
+                if (pending.size() >= maxBatchSize) {
+                    full = pending;
+                    fullDeadline = takePendingDeadline();
+                }
+            }
+        }
+        if (full != null) {
+            dispatch(full, fullDeadline);
+        }
+        return await(result, deadline);
+    }
+
+    /**
+     * Las consultas que ya son por lotes no se agrupan más
+     */
+    @Override
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        return delegate.getProducts(ids);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Pide el lote que abrió la ventana si no se pidió antes por llegar a maxBatchSize
+     */
+    private void flush(Map<Long, CompletableFuture<ProductDTO>> batch) {
+        Deadline deadline;
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            deadline = takePendingDeadline();
+        }
+        dispatch(batch, deadline);
+    }
+
+    // Llamado con this tomado
+    private void extendPendingDeadline(Deadline deadline) {
+        if (deadline == null) {
+            pendingUnbounded = true;
+        } else if (pendingDeadline == null || deadline.compareTo(pendingDeadline) > 0) {
+            pendingDeadline = deadline;
+        }
+    }
+
+    /**
+     * Cierra el lote en curso (llamado con this tomado)
+     *
+     * @return Plazo con que se pide, o null si alguna llamada no tenía
+     */
+    private Deadline takePendingDeadline() {
+        Deadline deadline = pendingUnbounded ? null : pendingDeadline;
+        pending = new LinkedHashMap<>();
+        pendingDeadline = null;
+        pendingUnbounded = false;
+        return deadline;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<ProductDTO>> batch, Deadline deadline) {
+        batchSizes.record(batch.size());
+        try {
+            dispatcher.execute(() -> Deadline.runWithin(deadline, () -> fetch(batch)));
+        } catch (RejectedExecutionException e) {
+            // Cerrado durante la parada: nadie queda esperando un lote que no se va a pedir
+            batch.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private void fetch(Map<Long, CompletableFuture<ProductDTO>> batch) {
+        try {
+            if (batch.size() == 1) {
+                var single = batch.entrySet().iterator().next();
+                complete(single.getKey(), single.getValue(), delegate.getProduct(single.getKey()));
+                return;
+            }
+            Map<Long, ProductDTO> products = delegate.getProducts(batch.keySet());
+            batch.forEach((id, result) -> complete(id, result, products == null ? null : products.get(id)));
+        } catch (RuntimeException e) {
+            log.warn("Catalog batch of {} products failed: {}", batch.size(), e.getMessage());
+            batch.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private static void complete(Long id, CompletableFuture<ProductDTO> result, ProductDTO product) {
+        if (product == null) {
+            result.completeExceptionally(new NoSuchElementException("Product not found with ID: " + id));
+        } else {
+            result.complete(product);
+        }
+    }
+
+    private static ProductDTO await(CompletableFuture<ProductDTO> result, Deadline deadline) {
+        try {
+            if (deadline == null) {
+                return result.join();
+            }
+            return result.get(Math.max(0, deadline.remaining().toNanos()), TimeUnit.NANOSECONDS);
+        } catch (CompletionException | ExecutionException e) {
+            // Se relanza la excepción del catálogo para que el caso de uso la clasifique igual que sin agrupar
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // El lote sigue para las demás llamadas; esta ya no espera
+            throw new Deadline.DeadlineExceededException("Request deadline exceeded waiting for catalog batch");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the catalog", e);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.Deadline;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones de respaldo (hedging) hacia el catálogo
+ * Si una consulta no ha respondido cuando supera el percentil configurado de las latencias recientes
+ * (acotado entre minDelay y maxDelay), se lanza una segunda igual y gana la primera que responda; la otra
+ * se cancela. Un 404 cuenta como respuesta; si una de las dos falla se espera a la otra. Cada consulta
+ * suma budgetRatio créditos y cada respaldo gasta uno, así que los respaldos no pasan de esa fracción de
+ * las consultas (con una ráfaga máxima de {@value #MAX_BURST}). Hasta tener {@value #MIN_SAMPLES}
+ * latencias no se lanza ningún respaldo. Los dos intentos corren con el {@link Deadline} de quien llamó
+ */
+public class HedgingProductsClient implements ProductsClientPort, AutoCloseable {
+
+    static final int MIN_SAMPLES = 20;
+    static final int MAX_BURST = 10;
+    private static final int WINDOW = 512;
+
+    private final ProductsClientPort delegate;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final RequestBudget budget;
+    private final LatencyWindow latencies;
+    // Cada intento corre en su propio hilo virtual; cancelar el perdedor interrumpe su lectura
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter primaryRequests;
+    private final Counter hedgeRequests;
+    private final Counter hedgeWins;
+    private final Counter hedgesDenied;
+
+    /**
+     * @param delegate Cliente que consulta el catálogo
+     * @param percentile Percentil de las latencias recientes a partir del cual se lanza el respaldo (0-1)
+     * @param minDelay Espera mínima antes del respaldo
+     * @param maxDelay Espera máxima antes del respaldo
+     * @param budgetRatio Fracción de las consultas que puede llevar respaldo
+     * @param meterRegistry Registro de métricas
+     */
+    public HedgingProductsClient(
+            ProductsClientPort delegate,
+            double percentile,
+            Duration minDelay,
+            Duration maxDelay,
+            double budgetRatio,
+            MeterRegistry meterRegistry) {
+        if (percentile <= 0 || percentile >= 1 || budgetRatio < 0 || minDelay.compareTo(maxDelay) > 0) {
+            throw new IllegalArgumentException(
+                    "percentile must be in (0, 1), budgetRatio >= 0 and minDelay <= maxDelay");
+        }
+        this.delegate = delegate;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budget = new RequestBudget(budgetRatio, MAX_BURST);
+        this.latencies = new LatencyWindow(WINDOW, percentile);
+        this.primaryRequests = requests("primary", meterRegistry);
+        this.hedgeRequests = requests("hedge", meterRegistry);
+        this.hedgeWins = Counter.builder("products.client.hedge.wins")
+                .description("Consultas al catálogo resueltas por la petición de respaldo")
+                .register(meterRegistry);
+        this.hedgesDenied = Counter.builder("products.client.hedge.denied")
+                .description("Respaldos no lanzados por agotar el presupuesto")
+                .register(meterRegistry);
+        Gauge.builder("products.client.hedge.delay", this, client -> client.hedgeDelayNanos() / 1e9)
+                .description("Espera actual antes de lanzar un respaldo (-1 sin latencias suficientes)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductDTO getProduct(Long id) {
+        return hedged(() -> delegate.getProduct(id));
+    }
+
+    @Override
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        return hedged(() -> delegate.getProducts(ids));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T hedged(Supplier<T> call) {
+        budget.deposit();
+        long delay = hedgeDelayNanos();
+        primaryRequests.increment();
+        CompletableFuture<T> primary = attempt(call);
+        if (delay < 0) {
+            return await(primary);
+        }
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Sigue en curso: se lanza el respaldo si queda presupuesto
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for the catalog", e);
+        }
+        if (!budget.tryWithdraw()) {
+            hedgesDenied.increment();
+            return await(primary);
+        }
+        hedgeRequests.increment();
+        CompletableFuture<T> hedge = attempt(call);
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicBoolean oneFailed = new AtomicBoolean();
+        primary.whenComplete((value, error) -> settle(first, value, error, oneFailed, false));
+        hedge.whenComplete((value, error) -> settle(first, value, error, oneFailed, true));
+        try {
+            return await(first);
+        } finally {
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    /**
+     * La primera respuesta (producto o 404) gana; un fallo solo decide si el otro intento también falló
+     */
+    private <T> void settle(CompletableFuture<T> first, T value, Throwable error,
+                            AtomicBoolean oneFailed, boolean isHedge) {
+        if (error != null && !(error instanceof NoSuchElementException)) {
+            if (!oneFailed.compareAndSet(false, true)) {
+                first.completeExceptionally(error);
+            }
+            return;
+        }
+        boolean won = error == null ? first.complete(value) : first.completeExceptionally(error);
+        if (won && isHedge) {
+            hedgeWins.increment();
+        }
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(Deadline.propagate(() -> {
+            long start = System.nanoTime();
+            try {
+                result.complete(call.get());
+                latencies.record(System.nanoTime() - start);
+            } catch (NoSuchElementException e) {
+                latencies.record(System.nanoTime() - start);
+                result.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }));
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return Espera antes del respaldo en nanosegundos, o -1 si aún no hay latencias suficientes
+     */
+    long hedgeDelayNanos() {
+        long threshold = latencies.threshold();
+        return threshold < 0 ? -1 : Math.max(minDelayNanos, Math.min(maxDelayNanos, threshold));
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        // Se relanza la excepción del catálogo para que el caso de uso la clasifique igual que sin respaldo
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    /**
+     * Últimas latencias en un búfer circular; el percentil se recalcula cada {@code RECOMPUTE_EVERY} muestras
+     */
+    static final class LatencyWindow {
+
+        private static final int RECOMPUTE_EVERY = 32;
+
+        private final long[] samples;
+        private final double percentile;
+        private int next;
+        private int count;
+        private int sinceRecompute;
+        private volatile long threshold = -1;
+
+        LatencyWindow(int size, double percentile) {
+            this.samples = new long[size];
+            this.percentile = percentile;
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (count >= MIN_SAMPLES && (threshold < 0 || ++sinceRecompute >= RECOMPUTE_EVERY)) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                threshold = sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+                sinceRecompute = 0;
+            }
+        }
+
+        long threshold() {
+            return threshold;
+        }
+    }
+
+    private static Counter requests(String attempt, MeterRegistry meterRegistry) {
+        return Counter.builder("products.client.requests")
+                .description("Peticiones al catálogo lanzadas por el cliente con respaldo")
+                .tag("attempt", attempt)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,151 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.adapter.cache.CachingProductsClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sigue la secuencia de cambios de productos del catálogo ({@code GET /api/v1/product-changes}, long-poll)
+ * e invalida en {@link CachingProductsClient} cada producto creado o modificado, así que la caché no
+ * depende solo de su ttl para ver cambios de precio. La secuencia es la misma en todas las instancias del
+ * catálogo y sus posiciones crecen con huecos; si el catálogo pide resincronizar (primera lectura o un token
+ * que ya no reconoce) o un aviso no dice qué producto cambió, se vacía la caché entera.
+ * Los errores de red se reintentan con espera exponencial hasta maxBackoff, continuando desde el último token
+ */
+public class ProductChangeSubscriber implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeSubscriber.class);
+    private static final int PAGE_SIZE = 500;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+
+    private final RestClient client;
+    private final CachingProductsClient cache;
+    private final long waitSeconds;
+    private final Duration maxBackoff;
+    private final Counter invalidations;
+    private final Counter resyncs;
+
+    // Solo los usa el hilo del bucle
+    private String token;
+    private long sequence = -1;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param client Cliente del catálogo con la URL base, la API key y el Accept ya configurados
+     * @param cache Caché de productos que se invalida
+     * @param wait Tiempo que cada petición espera a un cambio nuevo
+     * @param maxBackoff Espera máxima entre reintentos cuando el catálogo no responde
+     * @param meterRegistry Registro de métricas
+     */
+    public ProductChangeSubscriber(
+            RestClient client,
+            CachingProductsClient cache,
+            Duration wait,
+            Duration maxBackoff,
+            MeterRegistry meterRegistry) {
+        this.client = client;
+        this.cache = cache;
+        this.waitSeconds = wait.toSeconds();
+        this.maxBackoff = maxBackoff;
+        this.invalidations = Counter.builder("products.cache.invalidations")
+                .description("Productos invalidados por avisos de cambio del catálogo")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("products.cache.resyncs")
+                .description("Veces que se vació la caché entera porque el catálogo pidió resincronizar")
+                .register(meterRegistry);
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = Thread.ofVirtual().name("product-changes").start(this::run);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (thread != null) {
+            // Interrumpe también la lectura del long-poll en curso
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        Duration backoff = INITIAL_BACKOFF;
+        while (running) {
+            try {
+                poll();
+                backoff = INITIAL_BACKOFF;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Catalog change feed unavailable, retrying in {}: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                Duration doubled = backoff.multipliedBy(2);
+                backoff = doubled.compareTo(maxBackoff) > 0 ? maxBackoff : doubled;
+            }
+        }
+    }
+
+    /**
+     * Pide la siguiente página de cambios, espera hasta wait si no hay ninguno, y la aplica a la caché
+     */
+    void poll() {
+        ChangeDocument document = client.get()
+                .uri(uri -> uri.path("/api/v1/product-changes")
+                        .queryParamIfPresent("after", Optional.ofNullable(token))
+                        .queryParam("limit", PAGE_SIZE)
+                        .queryParam("wait", waitSeconds)
+                        .build())
+                .retrieve()
+                .body(ChangeDocument.class);
+        if (document == null || document.meta() == null || document.meta().next() == null) {
+            throw new IllegalStateException("Product change feed returned no meta.next");
+        }
+        apply(document);
+    }
+
+    private void apply(ChangeDocument document) {
+        List<ChangeResource> changes = document.data() == null ? List.of() : document.data();
+        Meta meta = document.meta();
+        // Un aviso sin producto no dice qué invalidar: se trata como una resincronización
+        boolean readable = changes.stream()
+                .allMatch(change -> change.attributes() != null && change.attributes().productId() != null);
+        if (meta.resync() || !readable) {
+            log.info("Catalog change feed out of sync at sequence {} (resync={}): clearing product cache",
+                    sequence, meta.resync());
+            cache.invalidateAll();
+            resyncs.increment();
+        } else {
+            for (ChangeResource change : changes) {
+                cache.invalidate(change.attributes().productId());
+                invalidations.increment();
+            }
+        }
+        token = meta.next();
+        sequence = meta.sequence();
+    }
+
+    record ChangeDocument(List<ChangeResource> data, Meta meta) {}
+
+    record ChangeResource(String id, ChangeAttributes attributes) {}
+
+    record ChangeAttributes(Long productId, String change) {}
+
+    record Meta(String next, long sequence, boolean resync) {}
+}
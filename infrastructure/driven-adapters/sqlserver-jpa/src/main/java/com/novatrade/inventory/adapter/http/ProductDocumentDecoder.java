@@ -0,0 +1,168 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lee los documentos JSON:API de productos del catálogo directamente del cuerpo de la respuesta
+ * Recorre los tokens con un {@link JsonParser} sin construir árbol ni mapas: solo se conservan
+ * {@code data.id}, {@code data.attributes.name} y {@code data.attributes.price}; el resto de campos
+ * ({@code type}, {@code description}, {@code links}...) se saltan sin decodificar su texto.
+ * El flujo no se cierra: pertenece a la respuesta HTTP, que lo devuelve al pool al cerrarse
+ */
+public final class ProductDocumentDecoder {
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private ProductDocumentDecoder() {
+    }
+
+    /**
+     * Documento de un producto: {@code {"data": {"id": "1", "attributes": {...}}}}
+     *
+     * @throws MalformedDocumentException Si el JSON no es válido o faltan campos obligatorios
+     * @throws IOException Si falla la lectura del flujo
+     */
+    public static ProductDTO readProduct(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (toData(parser) != JsonToken.START_OBJECT) {
+                throw new MalformedDocumentException("missing data field");
+            }
+            return readResource(parser);
+        } catch (JsonProcessingException e) {
+            throw new MalformedDocumentException(e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Documento de una colección: {@code {"data": [{"id": "1", "attributes": {...}}, ...]}}
+     *
+     * @return Productos por id, en el orden del documento
+     * @throws MalformedDocumentException Si el JSON no es válido o faltan campos obligatorios
+     * @throws IOException Si falla la lectura del flujo
+     */
+    public static Map<Long, ProductDTO> readProducts(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (toData(parser) != JsonToken.START_ARRAY) {
+                throw new MalformedDocumentException("missing data array");
+            }
+            Map<Long, ProductDTO> products = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                ProductDTO product = readResource(parser);
+                products.put(product.id(), product);
+            }
+            return products;
+        } catch (JsonProcessingException e) {
+            throw new MalformedDocumentException(e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Avanza hasta el valor del miembro {@code data} de primer nivel
+     *
+     * @return El token con el que empieza el valor, o null si el documento no tiene {@code data}
+     */
+    private static JsonToken toData(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new MalformedDocumentException("expected a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // Los nombres de campo salen de la tabla de símbolos del parser: no se crea un String por campo
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field)) {
+                return value;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * Lee un objeto de recurso; el parser queda en su END_OBJECT
+     */
+    private static ProductDTO readResource(JsonParser parser) throws IOException {
+        Long id = null;
+        String name = null;
+        double price = 0;
+        boolean hasPrice = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                id = readId(parser, value);
+            } else if ("attributes".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String attribute = parser.currentName();
+                    JsonToken attributeValue = parser.nextToken();
+                    if ("name".equals(attribute) && attributeValue == JsonToken.VALUE_STRING) {
+                        name = parser.getText();
+                    } else if ("price".equals(attribute) && attributeValue.isScalarValue()
+                            && attributeValue != JsonToken.VALUE_NULL) {
+                        price = parser.getValueAsDouble();
+                        hasPrice = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id == null) {
+            throw new MalformedDocumentException("missing id");
+        }
+        if (name == null || !hasPrice) {
+            throw new MalformedDocumentException("missing required attributes");
+        }
+        return new ProductDTO(id, name, price);
+    }
+
+    /**
+     * JSON:API envía el id como cadena ("42"); se lee desde el buffer del parser sin crear el String
+     */
+    private static Long readId(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            throw new MalformedDocumentException("invalid id");
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0 || length > 18) {
+            throw new MalformedDocumentException("invalid id");
+        }
+        long id = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char digit = text[i];
+            if (digit < '0' || digit > '9') {
+                throw new MalformedDocumentException("invalid id");
+            }
+            id = id * 10 + (digit - '0');
+        }
+        return id;
+    }
+
+    /**
+     * La respuesta llegó completa pero no es un documento de producto válido
+     */
+    public static class MalformedDocumentException extends RuntimeException {
+
+        public MalformedDocumentException(String detail) {
+            super("Failed to parse response: " + detail);
+        }
+    }
+}
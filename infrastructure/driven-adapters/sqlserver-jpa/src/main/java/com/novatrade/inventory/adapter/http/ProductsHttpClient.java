@@ -1,18 +1,22 @@
 package com.novatrade.inventory.adapter.http;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novatrade.inventory.adapter.cache.LastKnownGoodProducts;
+import com.novatrade.inventory.model.Deadline;
 import com.novatrade.inventory.model.ports.ProductsClientPort;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,84 +24,159 @@ import org.slf4j.LoggerFactory;
 public class ProductsHttpClient implements ProductsClientPort {
 
     private static final Logger log = LoggerFactory.getLogger(ProductsHttpClient.class);
+    static final String TIMEOUT_HEADER = "X-Request-Timeout";
     private final RestTemplate restTemplate;
     private final String catalogBaseUrl;
     private final String apiKey;
-    private final ObjectMapper objectMapper;
+    private final LastKnownGoodProducts lastKnownGood;
 
     public ProductsHttpClient(
             RestTemplate restTemplate,
             @Value("${services.catalog.url}") String catalogBaseUrl,
-            @Value("${services.catalog.api-key}") String apiKey) {
+            @Value("${services.catalog.api-key}") String apiKey,
+            LastKnownGoodProducts lastKnownGood) {
         this.restTemplate = restTemplate;
         this.catalogBaseUrl = catalogBaseUrl;
         this.apiKey = apiKey;
-        this.objectMapper = new ObjectMapper();
+        this.lastKnownGood = lastKnownGood;
     }
 
+    /**
+     * Con el circuito {@code productService} abierto no se llama al catálogo y se devuelve la última versión
+     * conocida del producto ({@link LastKnownGoodProducts}), marcada como stale, si no es más antigua que
+     * {@code inventory.last-known-good.max-staleness}.
+     * Con un {@link Deadline} en curso no se llama si ya pasó, y el catálogo recibe lo que queda en
+     * {@code X-Request-Timeout} para no seguir trabajando cuando aquí ya no se espera
+     */
     @Override
-    @Retry(name = "productService", fallbackMethod = "getProductFallback")
+    @CircuitBreaker(name = "productService", fallbackMethod = "getLastKnownProduct")
     public ProductDTO getProduct(Long id) {
         log.info("Requesting product with ID {} from catalog service", id);
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-API-KEY", apiKey);
-        headers.set("Accept", "application/vnd.api+json");
-
-        var request = new org.springframework.http.HttpEntity<>(headers);
+        HttpHeaders headers = catalogHeaders();
 
         try {
-            var response = restTemplate.exchange(
+            ProductDTO product = restTemplate.execute(
                     catalogBaseUrl + "/api/v1/products/" + id,
                     org.springframework.http.HttpMethod.GET,
-                    request,
-                    String.class
+                    request -> request.getHeaders().addAll(headers),
+                    response -> ProductDocumentDecoder.readProduct(response.getBody())
             );
-
-            try {
-                JsonNode root = objectMapper.readTree(response.getBody());
-                JsonNode data = root.get("data");
-                if (data == null) {
-                    throw new RuntimeException("Failed to parse response: missing data field");
-                }
-                JsonNode attributes = data.get("attributes");
-                if (attributes == null || !attributes.has("name") || !attributes.has("price")) {
-                    throw new RuntimeException("Failed to parse response: missing required attributes");
-                }
-
-                return new ProductDTO(
-                        Long.parseLong(data.get("id").asText()),
-                        attributes.get("name").asText(),
-                        attributes.get("price").asDouble()
-                );
-            } catch (RuntimeException e) {
-                log.error("Error retrieving product with ID {}: {}", id, e.getMessage());
-                throw e; // Propagar RuntimeException
-            } catch (Exception e) {
-                log.error("Error retrieving product with ID {}: {}", id, e.getMessage());
-                throw new RuntimeException("Failed to parse response: " + e.getMessage());
-            }
-        } catch (HttpClientErrorException e) {
+            lastKnownGood.record(product);
+            return product;
+        } catch (HttpStatusCodeException e) {
             // Manejo específico para error 404 Not Found
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
                 log.error("Product with ID {} not found: {}", id, e.getMessage());
                 throw new NoSuchElementException("Product not found with ID: " + id);
             }
             log.error("Error retrieving product with ID {}: {}", id, e.getMessage());
-            throw new RuntimeException("Failed to retrieve product with ID: " + id + ". Error: " + e.getMessage());
+            failIfDeadlineExceeded(e);
+            throw new CatalogCallException("Failed to retrieve product with ID: " + id + ". Error: " + e.getMessage(),
+                    e.getStatusCode().value(), e);
         } catch (ResourceAccessException e) {
             log.error("Connection error while retrieving product with ID {}: {}", id, e.getMessage());
-            throw new RuntimeException("Failed to connect to product service: " + e.getMessage());
+            failIfDeadlineExceeded(e);
+            throw new CatalogCallException("Failed to connect to product service: " + e.getMessage(),
+                    CatalogCallException.NO_RESPONSE, e);
+        } catch (ProductDocumentDecoder.MalformedDocumentException e) {
+            log.error("Error retrieving product with ID {}: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error retrieving product with ID {}: {}", id, e.getMessage());
             throw new RuntimeException("Failed to retrieve product with ID: " + id + ". Error: " + e.getMessage());
         }
     }
 
-    private ProductDTO getProductFallback(Long id, Exception e) {
-        log.error("Fallback for getProduct. Product service unavailable for ID: {}", id);
-        if (e instanceof HttpClientErrorException && ((HttpClientErrorException) e).getStatusCode() == HttpStatus.NOT_FOUND) {
-            throw new NoSuchElementException("Product not found with ID: " + id);
+    /**
+     * Una sola petición {@code GET /api/v1/products?filter[id]=1,2,3}; los ids que el catálogo no
+     * devuelve no aparecen en el resultado. Igual que {@link #getProduct}, el documento se decodifica
+     * del flujo de la respuesta con {@link ProductDocumentDecoder}
+     */
+    @Override
+    @CircuitBreaker(name = "productService", fallbackMethod = "getLastKnownProducts")
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
         }
-        throw new RuntimeException("Product service unavailable. Could not retrieve product with ID: " + id);
+        log.info("Requesting {} products from catalog service", ids.size());
+        HttpHeaders headers = catalogHeaders();
+
+        String filter = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            Map<Long, ProductDTO> products = restTemplate.execute(
+                    catalogBaseUrl + "/api/v1/products?filter[id]=" + filter,
+                    org.springframework.http.HttpMethod.GET,
+                    request -> request.getHeaders().addAll(headers),
+                    response -> ProductDocumentDecoder.readProducts(response.getBody())
+            );
+            if (products != null) {
+                products.values().forEach(lastKnownGood::record);
+            }
+            return products;
+        } catch (HttpStatusCodeException e) {
+            log.error("Error retrieving products {}: {}", filter, e.getMessage());
+            failIfDeadlineExceeded(e);
+            throw new CatalogCallException("Failed to retrieve products " + filter + ". Error: " + e.getMessage(),
+                    e.getStatusCode().value(), e);
+        } catch (ResourceAccessException e) {
+            log.error("Connection error while retrieving products {}: {}", filter, e.getMessage());
+            failIfDeadlineExceeded(e);
+            throw new CatalogCallException("Failed to connect to product service: " + e.getMessage(),
+                    CatalogCallException.NO_RESPONSE, e);
+        } catch (RuntimeException e) {
+            log.error("Error retrieving products {}: {}", filter, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @throws Deadline.DeadlineExceededException si el plazo de la petición ya pasó: no merece la pena llamar
+     */
+    private HttpHeaders catalogHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-API-KEY", apiKey);
+        headers.set("Accept", "application/vnd.api+json");
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline != null) {
+            long remainingMillis = deadline.remaining().toMillis();
+            if (remainingMillis <= 0) {
+                throw new Deadline.DeadlineExceededException("Request deadline exceeded before calling catalog service");
+            }
+            headers.set(TIMEOUT_HEADER, String.valueOf(remainingMillis));
+        }
+        return headers;
+    }
+
+    /**
+     * Un timeout de respuesta recortado al plazo o un 504 del catálogo cuando el plazo de la petición ya pasó
+     * no indican que el catálogo falle: se lanzan como {@link Deadline.DeadlineExceededException}, que el
+     * circuito {@code productService} ignora, para que plazos cortos de los clientes no lo abran
+     */
+    private static void failIfDeadlineExceeded(Exception e) {
+        if (Deadline.currentExpired()) {
+            throw new Deadline.DeadlineExceededException("Request deadline exceeded while calling catalog service: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Solo para {@link CallNotPermittedException} (circuito abierto); el resto de errores llegan a quien llama
+     */
+    ProductDTO getLastKnownProduct(Long id, CallNotPermittedException e) {
+        return lastKnownGood.find(id)
+                .map(product -> {
+                    log.warn("Catalog circuit open, serving last known version of product {}", id);
+                    return product;
+                })
+                .orElseThrow(() -> e);
+    }
+
+    Map<Long, ProductDTO> getLastKnownProducts(Collection<Long> ids, CallNotPermittedException e) {
+        return lastKnownGood.findAll(ids)
+                .map(products -> {
+                    log.warn("Catalog circuit open, serving last known version of products {}", ids);
+                    return products;
+                })
+                .orElseThrow(() -> e);
     }
 }
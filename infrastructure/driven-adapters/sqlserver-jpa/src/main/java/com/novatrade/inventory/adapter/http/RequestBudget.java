@@ -0,0 +1,50 @@
+package com.novatrade.inventory.adapter.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cubo de créditos para peticiones extra hacia el catálogo (respaldos, reintentos)
+ * Cada consulta original suma ratio créditos, hasta maxBurst, y cada petición extra gasta uno, así que
+ * las extra no pasan de esa fracción del tráfico real. Sin tráfico nuevo el cubo no se rellena
+ */
+final class RequestBudget {
+
+    private static final long CREDIT = 1_000;
+
+    private final long creditPerCall;
+    private final long maxCredits;
+    private final AtomicLong credits = new AtomicLong();
+
+    /**
+     * @param ratio Fracción de las consultas que puede llevar una petición extra
+     * @param maxBurst Peticiones extra que se pueden acumular
+     */
+    RequestBudget(double ratio, int maxBurst) {
+        if (ratio < 0 || maxBurst < 1) {
+            throw new IllegalArgumentException("ratio must be >= 0 and maxBurst >= 1");
+        }
+        this.creditPerCall = Math.round(ratio * CREDIT);
+        this.maxCredits = maxBurst * CREDIT;
+    }
+
+    /**
+     * Anota una consulta original
+     */
+    void deposit() {
+        credits.getAndUpdate(available -> Math.min(available + creditPerCall, maxCredits));
+    }
+
+    /**
+     * @return true si quedaba un crédito para una petición extra (y se ha gastado)
+     */
+    boolean tryWithdraw() {
+        long available;
+        do {
+            available = credits.get();
+            if (available < CREDIT) {
+                return false;
+            }
+        } while (!credits.compareAndSet(available, available - CREDIT));
+        return true;
+    }
+}
@@ -0,0 +1,188 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.Deadline;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reintentos de las consultas al catálogo con espera programada y presupuesto
+ * El primer intento corre en el hilo de quien llama. Si falla, el siguiente se programa en un temporizador
+ * tras una espera aleatoria entre 0 y initialBackoff * 2^(intento-1) (como mucho maxBackoff) y corre en un
+ * hilo virtual: ningún hilo duerme durante la espera y quien llama solo espera al resultado. Cada consulta
+ * suma budgetRatio créditos y cada reintento gasta uno; sin crédito no se reintenta y se devuelve el
+ * error, así que en una caída del catálogo los reintentos no multiplican la carga. Solo se reintentan los
+ * {@link CatalogCallException} sin respuesta, 5xx o 429: ni los 404 y demás 4xx, ni un documento mal formado,
+ * ni el circuito abierto, ni el plazo agotado. Tampoco se programa un reintento que empezaría después del
+ * {@link Deadline} de la petición; los reintentos corren con el plazo de quien llamó
+ */
+public class RetryingProductsClient implements ProductsClientPort, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryingProductsClient.class);
+    static final int MAX_BURST = 10;
+
+    private final ProductsClientPort delegate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final RequestBudget budget;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter retries;
+    private final Counter retriesDenied;
+
+    /**
+     * @param delegate Cliente que consulta el catálogo
+     * @param maxAttempts Intentos por consulta, incluido el primero
+     * @param initialBackoff Tope de la espera antes del primer reintento; se dobla en cada uno
+     * @param maxBackoff Tope máximo de la espera
+     * @param budgetRatio Fracción de las consultas que puede reintentarse
+     * @param meterRegistry Registro de métricas
+     */
+    public RetryingProductsClient(
+            ProductsClientPort delegate,
+            int maxAttempts,
+            Duration initialBackoff,
+            Duration maxBackoff,
+            double budgetRatio,
+            MeterRegistry meterRegistry) {
+        if (maxAttempts < 1 || budgetRatio < 0 || initialBackoff.isNegative()
+                || initialBackoff.compareTo(maxBackoff) > 0) {
+            throw new IllegalArgumentException(
+                    "maxAttempts must be >= 1, budgetRatio >= 0 and 0 <= initialBackoff <= maxBackoff");
+        }
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.budget = new RequestBudget(budgetRatio, MAX_BURST);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retries = Counter.builder("products.client.retries")
+                .description("Reintentos de consultas al catálogo")
+                .register(meterRegistry);
+        this.retriesDenied = Counter.builder("products.client.retries.denied")
+                .description("Reintentos no lanzados por agotar el presupuesto")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductDTO getProduct(Long id) {
+        return retried(() -> delegate.getProduct(id));
+    }
+
+    @Override
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        return retried(() -> delegate.getProducts(ids));
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private <T> T retried(Supplier<T> call) {
+        budget.deposit();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            onFailure(call, e, 1, result);
+            return await(result);
+        }
+    }
+
+    /**
+     * Decide tras el intento fallido {@code attempt} si se programa otro o se da el error por definitivo
+     */
+    private <T> void onFailure(Supplier<T> call, RuntimeException error, int attempt, CompletableFuture<T> result) {
+        if (!retryable(error) || attempt >= maxAttempts || result.isDone()) {
+            result.completeExceptionally(error);
+            return;
+        }
+        long delay = backoffNanos(attempt);
+        if (Deadline.current().filter(deadline -> deadline.remaining().toNanos() <= delay).isPresent()) {
+            // El reintento empezaría con el plazo ya agotado: quien llamó no lo esperaría
+            result.completeExceptionally(error);
+            return;
+        }
+        if (!budget.tryWithdraw()) {
+            retriesDenied.increment();
+            result.completeExceptionally(error);
+            return;
+        }
+        log.warn("Catalog call failed (attempt {} of {}), retrying in {} ms: {}",
+                attempt, maxAttempts, TimeUnit.NANOSECONDS.toMillis(delay), error.getMessage());
+        retries.increment();
+        Runnable next = Deadline.propagate(() -> attempt(call, attempt + 1, result));
+        try {
+            ScheduledFuture<?> scheduled = timer.schedule(() -> executor.execute(next), delay, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, failure) -> scheduled.cancel(false));
+        } catch (RuntimeException rejected) {
+            // Cerrándose: se devuelve el último error del catálogo
+            result.completeExceptionally(error);
+        }
+    }
+
+    private <T> void attempt(Supplier<T> call, int attempt, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            result.complete(call.get());
+        } catch (RuntimeException e) {
+            onFailure(call, e, attempt, result);
+        }
+    }
+
+    /**
+     * Espera aleatoria entre 0 y el tope exponencial del intento (full jitter), para que los clientes
+     * que fallaron a la vez no reintenten a la vez
+     */
+    long backoffNanos(int attempt) {
+        long cap = initialBackoffNanos << Math.min(attempt - 1, 30);
+        if (cap < 0 || cap > maxBackoffNanos) {
+            cap = maxBackoffNanos;
+        }
+        return cap == 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static boolean retryable(RuntimeException error) {
+        return error instanceof CatalogCallException failure && failure.isRetryable();
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // Quien llama se ha rendido (p. ej. se cerró el servidor): no se lanzan más intentos
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new IllegalStateException("Interrupted while retrying the catalog call", e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryBucketsPort;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de inventario que reparte el stock de los productos más disputados en varias filas
+ * de dbo.inventory_buckets, para que los compradores concurrentes no se serialicen en un único bloqueo
+ * Cada hilo descuenta primero de "su" bucket; si no alcanza prueba cualquier otro que no esté bloqueado
+ * y, en último término, vacía varios buckets en una transacción. Las lecturas suman los buckets
+ * Los productos sin buckets (el caso normal) se delegan al adaptador JPA sin cambios
+ * El número de buckets de cada producto se cachea; si un decremento falla se vuelve a consultar
+ * por si otra instancia lo ha cambiado
+ */
+public class BucketedInventoryRepository implements InventoryRepositoryPort, InventoryBucketsPort {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketedInventoryRepository.class);
+
+    private final InventoryRepositoryPort delegate;
+    private final InventoryJpaRepository repository;
+    private final int maxBuckets;
+    private final ConcurrentHashMap<Long, Integer> bucketCounts = new ConcurrentHashMap<>();
+    private final Counter homeHits;
+    private final Counter anyBucketHits;
+    private final Counter drainHits;
+
+    /**
+     * @param delegate Adaptador JPA para los productos que usan la fila única de dbo.inventory
+     * @param repository Repositorio JPA con las consultas sobre dbo.inventory_buckets
+     * @param maxBuckets Máximo de buckets por producto
+     * @param meterRegistry Registro de métricas
+     */
+    public BucketedInventoryRepository(
+            InventoryRepositoryPort delegate,
+            InventoryJpaRepository repository,
+            int maxBuckets,
+            MeterRegistry meterRegistry) {
+        if (maxBuckets < 2) {
+            throw new IllegalArgumentException("maxBuckets must be >= 2");
+        }
+        this.delegate = delegate;
+        this.repository = repository;
+        this.maxBuckets = maxBuckets;
+        this.homeHits = fallbackCounter(meterRegistry, "home");
+        this.anyBucketHits = fallbackCounter(meterRegistry, "any");
+        this.drainHits = fallbackCounter(meterRegistry, "drain");
+    }
+
+    /**
+     * Carga el número de buckets de los productos ya repartidos
+     */
+    public void start() {
+        for (Object[] row : repository.findBucketCounts()) {
+            bucketCounts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        log.info("Bucketed inventory loaded {} split products", bucketCounts.size());
+    }
+
+    @Override
+    public Inventory getOrCreate(Long productId) {
+        if (cachedBuckets(productId) > 1) {
+            Long total = repository.sumBuckets(productId);
+            if (total != null) {
+                return inventory(productId, total);
+            }
+            bucketCounts.remove(productId);
+        }
+        return delegate.getOrCreate(productId);
+    }
+
+    @Override
+    public Inventory set(Long productId, Long quantity) {
+        int buckets = cachedBuckets(productId);
+        if (buckets > 1) {
+            // Reparte el nuevo total entre los mismos buckets
+            return inventory(productId, repository.redistribute(productId, buckets, quantity));
+        }
+        return delegate.set(productId, quantity);
+    }
+
+    @Override
+    public boolean decrementIfEnough(Long productId, Long qty) {
+        int buckets = cachedBuckets(productId);
+        if (buckets > 1) {
+            if (decrementBuckets(productId, buckets, qty)) {
+                return true;
+            }
+        } else if (delegate.decrementIfEnough(productId, qty)) {
+            return true;
+        }
+        // Sin stock en la ruta cacheada: si otra instancia cambió el reparto se reintenta una vez por la nueva
+        int current = refresh(productId);
+        if (current == buckets) {
+            return false;
+        }
+        return current > 1
+                ? decrementBuckets(productId, current, qty)
+                : delegate.decrementIfEnough(productId, qty);
+    }
+
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+        Set<Long> bucketed = quantities.keySet().stream()
+                .filter(productId -> cachedBuckets(productId) > 1)
+                .collect(Collectors.toSet());
+        if (bucketed.isEmpty()) {
+            return delegate.decrementAllIfEnough(quantities);
+        }
+        try {
+            repository.decrementAllOrFail(quantities, bucketed);
+            return true;
+        } catch (InsufficientStockException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(Long productId, Long qty) {
+        int buckets = cachedBuckets(productId);
+        if (buckets > 1 && repository.incrementBucket(productId, homeBucket(buckets), qty) > 0) {
+            return;
+        }
+        if (buckets > 1) {
+            // El producto se devolvió a la fila única entre la lectura de la caché y el UPDATE
+            bucketCounts.remove(productId);
+        }
+        delegate.release(productId, qty);
+    }
+
+    @Override
+    public int bucketCount(Long productId) {
+        return refresh(productId);
+    }
+
+    /**
+     * Cambia en caliente el número de buckets de un producto conservando su cantidad total
+     *
+     * @param productId ID del producto
+     * @param buckets Número de buckets; 0 o 1 devuelve el producto a la fila única de dbo.inventory
+     * @return Inventario con la cantidad total repartida
+     */
+    @Override
+    public Inventory rebalance(Long productId, int buckets) {
+        if (buckets < 0 || buckets > maxBuckets) {
+            throw new IllegalArgumentException("buckets must be between 0 and " + maxBuckets);
+        }
+        long total = repository.redistribute(productId, buckets, null);
+        if (buckets > 1) {
+            bucketCounts.put(productId, buckets);
+        } else {
+            bucketCounts.remove(productId);
+        }
+        log.info("Product {} rebalanced to {} buckets holding {} units", productId, buckets, total);
+        return inventory(productId, total);
+    }
+
+    private boolean decrementBuckets(Long productId, int buckets, Long qty) {
+        if (repository.decrementBucketIfEnough(productId, homeBucket(buckets), qty) > 0) {
+            homeHits.increment();
+            return true;
+        }
+        if (repository.decrementAnyUnlockedBucket(productId, qty) > 0) {
+            anyBucketHits.increment();
+            return true;
+        }
+        if (repository.decrementAcrossBuckets(productId, qty)) {
+            drainHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private int homeBucket(int buckets) {
+        // Cada hilo vuelve siempre al mismo bucket: hilos distintos se reparten las filas sin coordinarse
+        return Math.floorMod(Thread.currentThread().threadId(), buckets);
+    }
+
+    private int cachedBuckets(Long productId) {
+        return bucketCounts.getOrDefault(productId, 0);
+    }
+
+    private int refresh(Long productId) {
+        int buckets = repository.countBuckets(productId);
+        if (buckets > 1) {
+            bucketCounts.put(productId, buckets);
+        } else {
+            bucketCounts.remove(productId);
+        }
+        return buckets;
+    }
+
+    private static Inventory inventory(Long productId, long quantity) {
+        return Inventory.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("inventory.buckets.decrements")
+                .description("Decrementos de productos repartidos según el bucket que los resolvió")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
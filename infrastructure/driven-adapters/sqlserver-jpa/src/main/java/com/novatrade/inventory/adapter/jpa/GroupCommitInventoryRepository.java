@@ -0,0 +1,181 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorador del repositorio de inventario que agrupa decrementos concurrentes de un mismo producto
+ * Las peticiones que llegan dentro de una ventana corta se encolan por producto y se aplican con un
+ * único bloqueo de fila y un único UPDATE, decidiendo éxito o fallo de cada una en orden de llegada
+ * Las lecturas, los ajustes, las devoluciones y las compras multi-producto se delegan sin cambios
+ */
+public class GroupCommitInventoryRepository implements InventoryRepositoryPort, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitInventoryRepository.class);
+
+    private final InventoryRepositoryPort delegate;
+    private final InventoryJpaRepository repository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentHashMap<Long, Batch> pending = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSize;
+    private final Timer waitTime;
+
+    /**
+     * @param delegate Repositorio al que se delegan las operaciones que no se agrupan
+     * @param repository Repositorio JPA que aplica cada cola en una transacción
+     * @param window Tiempo máximo que una petición espera a que se le unan otras
+     * @param maxBatchSize Tamaño de cola que provoca el vaciado inmediato sin esperar a la ventana
+     * @param flushThreads Hilos que ejecutan los vaciados (productos distintos se vacían en paralelo)
+     * @param meterRegistry Registro de métricas
+     */
+    public GroupCommitInventoryRepository(
+            InventoryRepositoryPort delegate,
+            InventoryJpaRepository repository,
+            Duration window,
+            int maxBatchSize,
+            int flushThreads,
+            MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1 || flushThreads < 1) {
+            throw new IllegalArgumentException("maxBatchSize and flushThreads must be >= 1");
+        }
+        this.delegate = delegate;
+        this.repository = repository;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.flusher = Executors.newScheduledThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-group-commit-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = DistributionSummary.builder("inventory.group_commit.batch.size")
+                .description("Decrementos aplicados por cada UPDATE agrupado")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("inventory.group_commit.wait")
+                .description("Tiempo que un decremento espera en la cola antes de aplicarse")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Inventory getOrCreate(Long productId) {
+        return delegate.getOrCreate(productId);
+    }
+
+    @Override
+    public Inventory set(Long productId, Long quantity) {
+        return delegate.set(productId, quantity);
+    }
+
+    @Override
+    public boolean decrementIfEnough(Long productId, Long qty) {
+        Request request = new Request(qty, System.nanoTime(), new CompletableFuture<>());
+        Batch[] full = new Batch[1];
+
+        pending.compute(productId, (id, batch) -> {
+            if (batch == null) {
+                Batch created = new Batch();
+                flusher.schedule(() -> flushIfPending(id, created), windowNanos, TimeUnit.NANOSECONDS);
+                batch = created;
+            }
+            batch.requests.add(request);
+            if (batch.requests.size() >= maxBatchSize) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            flush(productId, full[0]);
+        }
+        return await(request.result());
+    }
+
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+        return delegate.decrementAllIfEnough(quantities);
+    }
+
+    @Override
+    public void release(Long productId, Long qty) {
+        delegate.release(productId, qty);
+    }
+
+    /**
+     * Detiene el vaciador; las colas ya programadas se aplican antes de terminar
+     */
+    @Override
+    public void close() throws InterruptedException {
+        flusher.shutdown();
+        if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Group commit flusher did not finish pending batches in time");
+        }
+    }
+
+    private void flushIfPending(Long productId, Batch batch) {
+        // Si la cola ya se vació por tamaño, el producto puede tener otra cola distinta en el mapa
+        if (pending.remove(productId, batch)) {
+            flush(productId, batch);
+        }
+    }
+
+    private void flush(Long productId, Batch batch) {
+        List<Request> requests = batch.requests;
+        long startedAt = System.nanoTime();
+        batchSize.record(requests.size());
+        for (Request request : requests) {
+            waitTime.record(startedAt - request.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            boolean[] accepted = repository.decrementInArrivalOrder(
+                    productId, requests.stream().map(Request::quantity).toList());
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i).result().complete(accepted[i]);
+            }
+        } catch (RuntimeException e) {
+            log.error("Group commit of {} decrements for product {} failed: {}",
+                    requests.size(), productId, e.getMessage());
+            requests.forEach(request -> request.result().completeExceptionally(e));
+        }
+    }
+
+    private boolean await(CompletableFuture<Boolean> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cola de un producto; solo se modifica dentro de {@code pending.compute} y se lee tras retirarla del mapa
+     */
+    private static final class Batch {
+        private final List<Request> requests = new ArrayList<>();
+    }
+
+    private record Request(Long quantity, long enqueuedAt, CompletableFuture<Boolean> result) {}
+}
@@ -33,10 +33,18 @@ public class IdempotencyEntity {
     @Column(nullable = false)
     private Instant createdAt;
 
+    /**
+     * Respuesta en texto; null en las filas guardadas en formato comprimido
+     */
     @Lob
-    @Column(nullable = false)
     private String responseJson;
 
+    /**
+     * Respuesta comprimida (byte de versión + Deflate del JSON en UTF-8); null en las filas en texto
+     */
+    @Column(name = "response_bin", columnDefinition = "VARBINARY(MAX)")
+    private byte[] responseBin;
+
     /**
      * Constructor con id que inicializa createdAt automáticamente
      *
@@ -48,4 +56,15 @@ public class IdempotencyEntity {
         this.responseJson = responseJson;
         this.createdAt = Instant.now();
     }
+
+    /**
+     * Constructor de una fila en formato texto
+     *
+     * @param id Identificador único de la operación
+     * @param createdAt Fecha de creación
+     * @param responseJson Respuesta JSON asociada a la operación
+     */
+    public IdempotencyEntity(String id, Instant createdAt, String responseJson) {
+        this(id, createdAt, responseJson, null);
+    }
 }
@@ -1,10 +1,180 @@
 package com.novatrade.inventory.adapter.jpa;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio JPA para la entidad de idempotencia
  * Gestiona la persistencia de las claves de idempotencia
+ * La tabla está particionada por día de creación (PF_idempotency_day, RANGE RIGHT); las consultas de
+ * mantenimiento de particiones las usa {@link IdempotencyPartitionPurger}
  */
 public interface IdempotencyJpaRepository extends JpaRepository<IdempotencyEntity, String> {
+
+    /**
+     * Busca una clave por su hash con IX_idempotency_keys_key_hash (V8): la clave agrupada empieza por el día
+     * y no sirve para buscar solo por hash. Se compara también el id para no depender de que no haya colisiones.
+     * Si quedara más de una fila de la clave (en días distintos) se devuelve la más reciente
+     *
+     * @param keyHash SHA-256 de la clave en UTF-16LE
+     * @param id Clave de idempotencia
+     * @return Fila de la clave
+     */
+    @Query(value = "SELECT TOP (1) id, created_at, response_json, response_bin "
+            + "FROM dbo.idempotency_keys WITH (INDEX (IX_idempotency_keys_key_hash)) "
+            + "WHERE key_hash = :hash AND id = :id "
+            + "ORDER BY created_day DESC",
+           nativeQuery = true)
+    Optional<IdempotencyEntity> findByKeyHash(@Param("hash") byte[] keyHash, @Param("id") String id);
+
+    /**
+     * Inserta una respuesta en texto si la clave no está guardada en ninguna partición
+     * La clave primaria (created_day, key_hash) solo la hace única dentro de un día, y un índice único solo por
+     * key_hash no estaría alineado e impediría el TRUNCATE por partición. El NOT EXISTS busca en todas con
+     * IX_idempotency_keys_key_hash y bloquea el rango de la clave hasta el commit, así que dos inserciones de la
+     * misma clave se serializan aunque caigan en días distintos
+     * Se ejecuta dentro de la transacción de quien la llama
+     *
+     * @param keyHash SHA-256 de la clave en UTF-16LE
+     * @param id Clave de idempotencia
+     * @param createdAt Fecha de creación
+     * @param responseJson Respuesta JSON
+     * @return Filas insertadas: 0 si la clave ya estaba guardada
+     */
+    @Modifying
+    @Query(value = "INSERT INTO dbo.idempotency_keys (id, created_at, response_json) "
+            + "SELECT :id, :createdAt, :json "
+            + "WHERE NOT EXISTS (SELECT 1 FROM dbo.idempotency_keys "
+            + "WITH (UPDLOCK, HOLDLOCK, INDEX (IX_idempotency_keys_key_hash)) "
+            + "WHERE key_hash = :hash AND id = :id)",
+           nativeQuery = true)
+    int insertJson(@Param("hash") byte[] keyHash, @Param("id") String id, @Param("createdAt") Instant createdAt,
+                   @Param("json") String responseJson);
+
+    /**
+     * Inserta una respuesta comprimida si la clave no está guardada en ninguna partición, como {@link #insertJson}
+     * Se ejecuta dentro de la transacción de quien la llama
+     *
+     * @param keyHash SHA-256 de la clave en UTF-16LE
+     * @param id Clave de idempotencia
+     * @param createdAt Fecha de creación
+     * @param responseBin Respuesta comprimida
+     * @return Filas insertadas: 0 si la clave ya estaba guardada
+     */
+    @Modifying
+    @Query(value = "INSERT INTO dbo.idempotency_keys (id, created_at, response_bin) "
+            + "SELECT :id, :createdAt, :bin "
+            + "WHERE NOT EXISTS (SELECT 1 FROM dbo.idempotency_keys "
+            + "WITH (UPDLOCK, HOLDLOCK, INDEX (IX_idempotency_keys_key_hash)) "
+            + "WHERE key_hash = :hash AND id = :id)",
+           nativeQuery = true)
+    int insertCompressed(@Param("hash") byte[] keyHash, @Param("id") String id, @Param("createdAt") Instant createdAt,
+                         @Param("bin") byte[] responseBin);
+
+    /**
+     * Lista las particiones de la tabla con sus fronteras y su número de filas
+     * La partición n contiene los días en [frontera n-1, frontera n); la primera no tiene límite inferior
+     * y la última no tiene límite superior
+     *
+     * @return Filas [partition_number, lower_bound 'yyyy-MM-dd' o null, upper_bound 'yyyy-MM-dd' o null, rows]
+     *         ordenadas por número de partición
+     */
+    @Query(value = "SELECT p.partition_number, "
+            + "CONVERT(CHAR(10), CAST(lo.value AS DATE), 23) AS lower_bound, "
+            + "CONVERT(CHAR(10), CAST(hi.value AS DATE), 23) AS upper_bound, "
+            + "p.rows "
+            + "FROM sys.partitions p "
+            + "JOIN sys.indexes i ON i.object_id = p.object_id AND i.index_id = p.index_id "
+            + "JOIN sys.partition_schemes ps ON ps.data_space_id = i.data_space_id "
+            + "LEFT JOIN sys.partition_range_values lo "
+            + "ON lo.function_id = ps.function_id AND lo.boundary_id = p.partition_number - 1 "
+            + "LEFT JOIN sys.partition_range_values hi "
+            + "ON hi.function_id = ps.function_id AND hi.boundary_id = p.partition_number "
+            + "WHERE p.object_id = OBJECT_ID('dbo.idempotency_keys') AND p.index_id = 1 "
+            + "ORDER BY p.partition_number",
+           nativeQuery = true)
+    List<Object[]> findPartitions();
+
+    /**
+     * Vacía una partición entera; es una operación de metadatos que no registra cada fila en el log
+     *
+     * @param partition Número de partición
+     * @return Siempre 0
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DECLARE @sql NVARCHAR(200) = N'TRUNCATE TABLE dbo.idempotency_keys WITH (PARTITIONS ('"
+            + " + CAST(:partition AS NVARCHAR(10)) + N'))'; "
+            + "EXEC sp_executesql @sql",
+           nativeQuery = true)
+    int truncatePartition(@Param("partition") int partition);
+
+    /**
+     * Elimina una frontera uniendo las dos particiones que separa
+     * Solo se debe usar cuando ambas están vacías para que no haya movimiento de datos
+     *
+     * @param day Valor de la frontera
+     * @return Siempre 0
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DECLARE @d DATE = :day; "
+            + "ALTER PARTITION FUNCTION PF_idempotency_day() MERGE RANGE (@d)",
+           nativeQuery = true)
+    int mergeBoundary(@Param("day") LocalDate day);
+
+    /**
+     * Añade una frontera dividiendo la última partición
+     * Se crea por adelantado, mientras la partición aún está vacía, para que no haya movimiento de datos
+     *
+     * @param day Valor de la nueva frontera
+     * @return Siempre 0
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DECLARE @d DATE = :day; "
+            + "ALTER PARTITION SCHEME PS_idempotency_day NEXT USED [PRIMARY]; "
+            + "ALTER PARTITION FUNCTION PF_idempotency_day() SPLIT RANGE (@d)",
+           nativeQuery = true)
+    int splitBoundary(@Param("day") LocalDate day);
+
+    /**
+     * Página de claves en orden, para cargar el filtro de claves sin traer la tabla entera a memoria
+     *
+     * @param after Última clave de la página anterior ("" para la primera)
+     * @param limit Tamaño de la página
+     * @return Claves mayores que after, ordenadas
+     */
+    @Query(value = "SELECT TOP (:limit) id FROM dbo.idempotency_keys WHERE id > :after ORDER BY id",
+           nativeQuery = true)
+    List<String> findIdsAfter(@Param("after") String after, @Param("limit") int limit);
+
+    /**
+     * Claves creadas desde un instante; usa IX_idempotency_keys_created_at
+     *
+     * @param since Instante inicial (incluido)
+     * @return Claves creadas desde since
+     */
+    @Query(value = "SELECT id FROM dbo.idempotency_keys WHERE created_at >= :since", nativeQuery = true)
+    List<String> findIdsCreatedSince(@Param("since") Instant since);
+
+    /**
+     * Tamaño de la tabla según sys.dm_db_partition_stats, sin recorrerla
+     *
+     * @return Una fila [filas, bytes reservados incluyendo índices]
+     */
+    @Query(value = "SELECT COALESCE(SUM(CASE WHEN index_id IN (0, 1) THEN row_count ELSE 0 END), 0), "
+            + "COALESCE(SUM(reserved_page_count), 0) * 8192 "
+            + "FROM sys.dm_db_partition_stats "
+            + "WHERE object_id = OBJECT_ID('dbo.idempotency_keys')",
+           nativeQuery = true)
+    List<Object[]> tableStats();
 }
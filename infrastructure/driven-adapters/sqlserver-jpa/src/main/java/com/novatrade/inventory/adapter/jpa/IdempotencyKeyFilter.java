@@ -0,0 +1,301 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de las claves de idempotencia guardadas en dbo.idempotency_keys
+ * Si el filtro dice que una clave no está, no la ha guardado esta instancia ni estaba en la tabla en la
+ * última lectura; si dice que puede estar, se consulta (con la tasa de falsos positivos configurada)
+ * Hay dos generaciones: las claves se añaden a la actual y se consultan ambas. Cada window la actual pasa
+ * a ser la anterior y se descarta la anterior, así que una clave se recuerda entre window y 2 × window;
+ * window debe cubrir la retención de la tabla
+ * Las claves que guardan otras instancias solo se leen de la tabla cada refreshInterval, así que un descarte
+ * solo evita la consulta con singleWriter (una única instancia escribe en la tabla); si no, la clave
+ * descartada se consulta igualmente y el filtro solo mide cuántas habría perdido
+ */
+public class IdempotencyKeyFilter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyFilter.class);
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    // Margen al leer claves nuevas: desfase de relojes entre instancias y transacciones que confirman tarde
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final IdempotencyJpaRepository repository;
+    private final Duration window;
+    private final Duration refreshInterval;
+    private final boolean singleWriter;
+    private final Clock clock;
+    private final long bitsPerGeneration;
+    private final int hashes;
+    private final ScheduledExecutorService scheduler;
+    private final Counter skipped;
+    private final Counter falsePositives;
+    private final Counter staleNegatives;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private volatile Instant currentSince;
+    private volatile Instant lastRefresh;
+    // Mientras no termine la carga inicial el filtro no descarta ninguna consulta
+    private volatile boolean ready;
+
+    /**
+     * @param repository Repositorio JPA del que se cargan las claves
+     * @param expectedKeys Claves que se espera guardar en cada window
+     * @param falsePositiveRate Probabilidad de que una clave ausente pase el filtro (entre 0 y 1)
+     * @param maxBytes Memoria máxima de las dos generaciones; si no alcanza, sube la tasa de falsos positivos
+     * @param window Duración de cada generación
+     * @param refreshInterval Periodo de lectura de las claves guardadas por otras instancias
+     * @param singleWriter true si ninguna otra instancia guarda claves; solo entonces un descarte evita la consulta
+     * @param clock Reloj
+     * @param meterRegistry Registro de métricas
+     */
+    public IdempotencyKeyFilter(
+            IdempotencyJpaRepository repository,
+            long expectedKeys,
+            double falsePositiveRate,
+            long maxBytes,
+            Duration window,
+            Duration refreshInterval,
+            boolean singleWriter,
+            Clock clock,
+            MeterRegistry meterRegistry) {
+        if (expectedKeys < 1 || maxBytes < 16) {
+            throw new IllegalArgumentException("expectedKeys must be >= 1 and maxBytes >= 16");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        this.repository = repository;
+        this.window = window;
+        this.refreshInterval = refreshInterval;
+        this.singleWriter = singleWriter;
+        this.clock = clock;
+
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long cappedBits = Math.min(optimalBits, maxBytes * 8 / 2);
+        this.bitsPerGeneration = Math.max(64, (cappedBits + 63) / 64 * 64);
+        this.hashes = (int) Math.max(1, Math.round((double) bitsPerGeneration / expectedKeys * Math.log(2)));
+        if (cappedBits < optimalBits) {
+            log.warn("Idempotency key filter capped at {} bytes; false positive rate will exceed {}",
+                    maxBytes, falsePositiveRate);
+        }
+
+        this.current = new Generation(bitsPerGeneration);
+        this.previous = new Generation(bitsPerGeneration);
+        this.currentSince = clock.instant();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.skipped = Counter.builder("idempotency.filter.skipped")
+                .description("Consultas a dbo.idempotency_keys evitadas porque el filtro descartó la clave")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("idempotency.filter.false_positives")
+                .description("Claves que pasaron el filtro pero no estaban en la tabla")
+                .register(meterRegistry);
+        this.staleNegatives = Counter.builder("idempotency.filter.stale_negatives")
+                .description("Claves que el filtro descartó pero estaban en la tabla, guardadas por otra instancia")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.filter.bytes", this, filter -> filter.bitsPerGeneration * 2 / 8.0)
+                .description("Memoria de las dos generaciones del filtro")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.filter.keys", this, filter -> filter.current.keys.get() + filter.previous.keys.get())
+                .description("Claves añadidas a las dos generaciones del filtro")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carga en segundo plano las claves de la tabla y programa la lectura periódica de las nuevas
+     */
+    public void start() {
+        scheduler.execute(this::loadSafely);
+        scheduler.scheduleWithFixedDelay(this::refreshSafely,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return false si ni esta instancia ni la última lectura de la tabla conocen la clave
+     */
+    public boolean mightContain(String key) {
+        if (!ready) {
+            return true;
+        }
+        long[] hash = hash(key);
+        return current.mightContain(hash, hashes) || previous.mightContain(hash, hashes);
+    }
+
+    /**
+     * @return true si se puede dar la clave por ausente sin consultar la tabla: el filtro la descarta y
+     *         ninguna otra instancia ha podido guardarla
+     */
+    public boolean skipLookup(String key) {
+        if (!singleWriter || mightContain(key)) {
+            return false;
+        }
+        skipped.increment();
+        return true;
+    }
+
+    public void add(String key) {
+        current.put(hash(key), hashes);
+    }
+
+    /**
+     * Registra una clave que pasó el filtro y no estaba en la tabla
+     */
+    public void falsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Registra una clave que el filtro descartó y sí estaba en la tabla
+     */
+    public void staleNegative() {
+        staleNegatives.increment();
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    long bitsPerGeneration() {
+        return bitsPerGeneration;
+    }
+
+    /**
+     * Carga todas las claves de la tabla por páginas; la retención de la tabla las acota
+     */
+    void load() {
+        Instant start = clock.instant();
+        long loaded = 0;
+        String after = "";
+        List<String> page;
+        do {
+            page = repository.findIdsAfter(after, LOAD_PAGE_SIZE);
+            page.forEach(this::add);
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        lastRefresh = start;
+        ready = true;
+        log.info("Idempotency key filter loaded {} keys ({} bits, {} hashes per generation)",
+                loaded, bitsPerGeneration, hashes);
+    }
+
+    /**
+     * Añade las claves guardadas desde la lectura anterior y rota las generaciones cuando toca
+     */
+    void refresh() {
+        Instant now = clock.instant();
+        if (!Duration.between(currentSince, now).minus(window).isNegative()) {
+            previous = current;
+            current = new Generation(bitsPerGeneration);
+            currentSince = now;
+        }
+        if (lastRefresh != null) {
+            repository.findIdsCreatedSince(lastRefresh.minus(REFRESH_OVERLAP)).forEach(this::add);
+            lastRefresh = now;
+        }
+    }
+
+    private void loadSafely() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // Sin carga inicial el filtro sigue dejando pasar todas las consultas
+            log.error("Idempotency key filter load failed, lookups will not be filtered: {}", e.getMessage());
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Idempotency key filter refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dos hashes de 64 bits (FNV-1a y mezcla final de MurmurHash3); el i-ésimo bit es h1 + i × h2
+     */
+    private static long[] hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return new long[]{mix(h), mix(h ^ 0x9e3779b97f4a7c15L) | 1};
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final AtomicLong keys = new AtomicLong();
+
+        Generation(long bits) {
+            this.words = new AtomicLongArray((int) (bits / 64));
+            this.bits = bits;
+        }
+
+        void put(long[] hash, int hashes) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash[0] + i * hash[1], bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+            }
+            keys.incrementAndGet();
+        }
+
+        boolean mightContain(long[] hash, int hashes) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash[0] + i * hash[1], bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
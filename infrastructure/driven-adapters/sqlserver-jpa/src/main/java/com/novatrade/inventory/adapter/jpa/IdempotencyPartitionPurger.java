@@ -0,0 +1,180 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caducidad en bloque de las claves de idempotencia
+ * dbo.idempotency_keys está particionada por día de creación; en cada pasada se vacían con TRUNCATE las
+ * particiones cuyo último día queda fuera de la retención, se funden sus fronteras (ya vacías) y se
+ * crean por adelantado las particiones de los próximos días. Ninguna de estas operaciones recorre filas
+ * La retención se aplica por días completos: una clave puede sobrevivir hasta un día más de lo configurado
+ */
+public class IdempotencyPartitionPurger implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyPartitionPurger.class);
+
+    private final IdempotencyJpaRepository repository;
+    private final long retentionDays;
+    private final Duration interval;
+    private final int partitionsAhead;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong tableRows = new AtomicLong();
+    private final AtomicLong tableBytes = new AtomicLong();
+    private final Counter purgedRows;
+    private final Counter purgedPartitions;
+    private final Timer purgeTimer;
+
+    /**
+     * @param repository Repositorio JPA de idempotencia
+     * @param retention Tiempo mínimo que se conserva una clave; se redondea hacia arriba a días
+     * @param interval Periodo entre pasadas de purga
+     * @param partitionsAhead Días futuros para los que siempre debe existir partición
+     * @param clock Reloj con que se calcula el día actual; en UTC, como created_day
+     * @param meterRegistry Registro de métricas
+     */
+    public IdempotencyPartitionPurger(
+            IdempotencyJpaRepository repository,
+            Duration retention,
+            Duration interval,
+            int partitionsAhead,
+            Clock clock,
+            MeterRegistry meterRegistry) {
+        if (retention.isNegative() || retention.isZero() || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("retention and interval must be positive");
+        }
+        if (partitionsAhead < 1) {
+            throw new IllegalArgumentException("partitionsAhead must be >= 1");
+        }
+        this.repository = repository;
+        this.retentionDays = Math.max(1, (retention.toSeconds() + 86_399) / 86_400);
+        this.interval = interval;
+        this.partitionsAhead = partitionsAhead;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.purgedRows = Counter.builder("idempotency.purge.rows")
+                .description("Claves de idempotencia eliminadas al vaciar particiones caducadas")
+                .register(meterRegistry);
+        this.purgedPartitions = Counter.builder("idempotency.purge.partitions")
+                .description("Particiones diarias vaciadas por caducidad")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("idempotency.purge")
+                .description("Duración de cada pasada de purga de dbo.idempotency_keys")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.table.rows", tableRows, AtomicLong::get)
+                .description("Filas de dbo.idempotency_keys en la última pasada")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.table.bytes", tableBytes, AtomicLong::get)
+                .description("Espacio reservado por dbo.idempotency_keys y sus índices en la última pasada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hace una primera pasada y programa las siguientes
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::purgeSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Una pasada de mantenimiento: particiones futuras, vaciado de las caducadas y estadísticas
+     *
+     * @return Filas eliminadas según los metadatos de las particiones vaciadas
+     */
+    public long purge() {
+        return purgeTimer.record(() -> {
+            LocalDate today = LocalDate.now(clock);
+            List<Partition> partitions = partitions();
+            ensureAhead(partitions, today);
+
+            LocalDate cutoff = today.minusDays(retentionDays);
+            List<Partition> expired = partitions.stream()
+                    .filter(partition -> partition.upper() != null && !partition.upper().isAfter(cutoff))
+                    .toList();
+            long rows = 0;
+            for (Partition partition : expired) {
+                repository.truncatePartition(partition.number());
+                rows += partition.rows();
+            }
+            // Con todas vacías, fundir las fronteras entre ellas deja una sola partición inicial vacía
+            for (int i = 0; i < expired.size() - 1; i++) {
+                repository.mergeBoundary(expired.get(i).upper());
+            }
+
+            purgedRows.increment(rows);
+            purgedPartitions.increment(expired.size());
+            refreshStats();
+            return rows;
+        });
+    }
+
+    private void ensureAhead(List<Partition> partitions, LocalDate today) {
+        LocalDate last = partitions.isEmpty() ? null : partitions.get(partitions.size() - 1).lower();
+        if (last == null) {
+            throw new IllegalStateException("dbo.idempotency_keys is not partitioned by PF_idempotency_day");
+        }
+        LocalDate horizon = today.plusDays(partitionsAhead);
+        for (LocalDate day = last.plusDays(1); !day.isAfter(horizon); day = day.plusDays(1)) {
+            repository.splitBoundary(day);
+        }
+    }
+
+    private List<Partition> partitions() {
+        List<Partition> partitions = new ArrayList<>();
+        for (Object[] row : repository.findPartitions()) {
+            partitions.add(new Partition(
+                    ((Number) row[0]).intValue(),
+                    row[1] == null ? null : LocalDate.parse(row[1].toString().trim()),
+                    row[2] == null ? null : LocalDate.parse(row[2].toString().trim()),
+                    ((Number) row[3]).longValue()));
+        }
+        return partitions;
+    }
+
+    private void refreshStats() {
+        List<Object[]> stats = repository.tableStats();
+        if (!stats.isEmpty()) {
+            tableRows.set(((Number) stats.get(0)[0]).longValue());
+            tableBytes.set(((Number) stats.get(0)[1]).longValue());
+        }
+    }
+
+    private void purgeSafely() {
+        try {
+            long rows = purge();
+            if (rows > 0) {
+                log.info("Purged {} expired idempotency keys", rows);
+            }
+        } catch (RuntimeException e) {
+            // Otra instancia puede haber movido las fronteras a la vez; la siguiente pasada lo reintenta
+            log.error("Idempotency purge failed: {}", e.getMessage());
+        }
+    }
+
+    private record Partition(int number, LocalDate lower, LocalDate upper, long rows) {}
+}
@@ -0,0 +1,46 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.IdempotencyPayload;
+
+/**
+ * Lectura y escritura de las respuestas idempotentes de dbo.idempotency_keys sobre {@link IdempotencyEntity}
+ * El formato de response_bin y de key_hash está en {@link IdempotencyPayload}, compartido con el adaptador R2DBC
+ */
+final class IdempotencyPayloads {
+
+    static final byte DEFLATE = IdempotencyPayload.DEFLATE;
+
+    private IdempotencyPayloads() {
+    }
+
+    static byte[] keyHash(String key) {
+        return IdempotencyPayload.keyHash(key);
+    }
+
+    static byte[] compress(String json) {
+        return IdempotencyPayload.compress(json);
+    }
+
+    static String decompress(byte[] payload) {
+        return IdempotencyPayload.decompress(payload);
+    }
+
+    /**
+     * Respuesta de una fila en cualquiera de los dos formatos
+     */
+    static String read(IdempotencyEntity entity) {
+        return entity.getResponseBin() != null ? decompress(entity.getResponseBin()) : entity.getResponseJson();
+    }
+
+    /**
+     * Rellena la columna que corresponde al formato y deja la otra a null
+     */
+    static IdempotencyEntity write(String key, String json, IdempotencyStorageFormat format) {
+        IdempotencyEntity entity = new IdempotencyEntity(key, json);
+        if (format == IdempotencyStorageFormat.COMPRESSED) {
+            entity.setResponseJson(null);
+            entity.setResponseBin(compress(json));
+        }
+        return entity;
+    }
+}
@@ -1,9 +1,17 @@
 package com.novatrade.inventory.adapter.jpa;
 
 import com.novatrade.inventory.model.ports.IdempotencyPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Adaptador para el repositorio de idempotencia
@@ -13,26 +21,90 @@ import java.util.Optional;
 public class IdempotencyRepositoryAdapter implements IdempotencyPort {
 
     private final IdempotencyJpaRepository repository;
+    private final IdempotencyKeyFilter keyFilter;
+    private final IdempotencyStorageFormat format;
+    private final DistributionSummary payloadBytes;
+    private final Timer compressedLookups;
+    private final Timer jsonLookups;
+    private final Timer missedLookups;
 
     /**
      * Constructor que recibe el repositorio JPA
+     * Guarda las respuestas en texto y no filtra claves
      *
      * @param repository Repositorio JPA para acceso a datos
      */
     public IdempotencyRepositoryAdapter(IdempotencyJpaRepository repository) {
+        this(repository, null, IdempotencyStorageFormat.JSON, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Constructor usado por Spring: el filtro de claves es opcional
+     *
+     * @param repository Repositorio JPA para acceso a datos
+     * @param keyFilter Filtro de claves, si está activo
+     * @param format Formato de las respuestas nuevas
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public IdempotencyRepositoryAdapter(
+            IdempotencyJpaRepository repository,
+            ObjectProvider<IdempotencyKeyFilter> keyFilter,
+            @Value("${inventory.idempotency.storage-format:compressed}") IdempotencyStorageFormat format,
+            MeterRegistry meterRegistry) {
+        this(repository, keyFilter.getIfAvailable(), format, meterRegistry);
+    }
+
+    /**
+     * @param repository Repositorio JPA para acceso a datos
+     * @param keyFilter Filtro de claves; solo evita la consulta si una única instancia escribe. null para no filtrar
+     * @param format Formato de las respuestas nuevas; las guardadas se leen en cualquier formato
+     * @param meterRegistry Registro de métricas
+     */
+    public IdempotencyRepositoryAdapter(
+            IdempotencyJpaRepository repository,
+            IdempotencyKeyFilter keyFilter,
+            IdempotencyStorageFormat format,
+            MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.keyFilter = keyFilter;
+        this.format = format;
+        this.payloadBytes = DistributionSummary.builder("idempotency.payload.bytes")
+                .description("Bytes de cada respuesta guardada (UTF-16 en texto, comprimidos en binario)")
+                .baseUnit("bytes")
+                .tag("format", format.name().toLowerCase())
+                .register(meterRegistry);
+        this.compressedLookups = lookupTimer("compressed", meterRegistry);
+        this.jsonLookups = lookupTimer("json", meterRegistry);
+        this.missedLookups = lookupTimer("none", meterRegistry);
     }
 
     /**
      * Busca una respuesta guardada por su clave de idempotencia
+     * La búsqueda usa el hash de la clave y su índice IX_idempotency_keys_key_hash
      *
      * @param key Clave de idempotencia
      * @return Respuesta JSON opcional asociada a la clave
      */
     @Override
     public Optional<String> findResponseByKey(String key) {
-        return repository.findById(key)
-                .map(IdempotencyEntity::getResponseJson);
+        if (keyFilter != null && keyFilter.skipLookup(key)) {
+            return Optional.empty();
+        }
+        // Un descarte del filtro no basta: otra instancia puede haber guardado la clave tras su última lectura
+        boolean expected = keyFilter == null || keyFilter.mightContain(key);
+        long start = System.nanoTime();
+        Optional<IdempotencyEntity> row = repository.findByKeyHash(IdempotencyPayloads.keyHash(key), key);
+        Optional<String> response = row.map(IdempotencyPayloads::read);
+        lookupTimer(row).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (keyFilter != null) {
+            if (expected && response.isEmpty()) {
+                keyFilter.falsePositive();
+            } else if (!expected && response.isPresent()) {
+                keyFilter.staleNegative();
+            }
+        }
+        return response;
     }
 
     /**
@@ -43,7 +115,25 @@ public class IdempotencyRepositoryAdapter implements IdempotencyPort {
      */
     @Override
     public void saveResponse(String key, String responseJson) {
-        IdempotencyEntity entity = new IdempotencyEntity(key, responseJson);
+        IdempotencyEntity entity = IdempotencyPayloads.write(key, responseJson, format);
         repository.save(entity);
+        payloadBytes.record(entity.getResponseBin() != null
+                ? entity.getResponseBin().length
+                : responseJson.length() * 2L);
+        if (keyFilter != null) {
+            keyFilter.add(key);
+        }
+    }
+
+    private Timer lookupTimer(Optional<IdempotencyEntity> row) {
+        return row.map(entity -> entity.getResponseBin() != null ? compressedLookups : jsonLookups)
+                .orElse(missedLookups);
+    }
+
+    private static Timer lookupTimer(String format, MeterRegistry meterRegistry) {
+        return Timer.builder("idempotency.lookup")
+                .description("Duración de la búsqueda y lectura de una respuesta por su clave")
+                .tag("format", format)
+                .register(meterRegistry);
     }
 }
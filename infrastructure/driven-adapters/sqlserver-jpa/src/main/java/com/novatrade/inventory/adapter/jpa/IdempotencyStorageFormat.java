@@ -0,0 +1,14 @@
+package com.novatrade.inventory.adapter.jpa;
+
+/**
+ * Formato con que se guardan las respuestas nuevas en dbo.idempotency_keys
+ * Se leen siempre ambos formatos, así que cambiarlo no afecta a las filas ya guardadas
+ */
+public enum IdempotencyStorageFormat {
+
+    /** Texto en response_json (NVARCHAR(MAX), UTF-16) */
+    JSON,
+
+    /** UTF-8 comprimido con Deflate en response_bin (VARBINARY(MAX)) */
+    COMPRESSED
+}
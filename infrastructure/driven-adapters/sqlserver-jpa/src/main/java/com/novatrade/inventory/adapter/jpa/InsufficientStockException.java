@@ -0,0 +1,12 @@
+package com.novatrade.inventory.adapter.jpa;
+
+/**
+ * Señala que un producto no tenía stock suficiente dentro de un decremento por lotes
+ * Se lanza para forzar el rollback de la transacción y no sale del adaptador
+ */
+class InsufficientStockException extends RuntimeException {
+
+    InsufficientStockException(Long productId) {
+        super("Insufficient stock for product " + productId, null, false, false);
+    }
+}
@@ -6,6 +6,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 /**
  * Repositorio JPA para la entidad de inventario
  * Gestiona la persistencia de los registros de inventario
@@ -25,4 +30,273 @@ public interface InventoryJpaRepository extends JpaRepository<InventoryEntity, L
     @Query(value = "UPDATE dbo.inventory SET quantity = quantity - :q WHERE product_id = :pid AND quantity >= :q",
            nativeQuery = true)
     int decrementIfEnough(@Param("pid") Long productId, @Param("q") Long quantity);
+
+    /**
+     * Decrementa varios productos dentro de una misma transacción
+     * Las filas se actualizan en orden de productId para que dos carritos concurrentes
+     * bloqueen las filas en el mismo orden y no se produzcan interbloqueos
+     *
+     * @param quantities Cantidad a decrementar por ID de producto
+     * @throws InsufficientStockException si algún producto no tiene stock suficiente; la transacción se revierte
+     */
+    @Transactional
+    default void decrementAllOrFail(Map<Long, Long> quantities) {
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            if (decrementIfEnough(productId, quantity) == 0) {
+                throw new InsufficientStockException(productId);
+            }
+        });
+    }
+
+    /**
+     * Lee la cantidad de un producto bloqueando la fila hasta el fin de la transacción
+     *
+     * @param productId ID del producto
+     * @return Cantidad disponible o null si el producto no tiene fila de inventario
+     */
+    @Query(value = "SELECT quantity FROM dbo.inventory WITH (UPDLOCK, ROWLOCK) WHERE product_id = :pid",
+           nativeQuery = true)
+    Long findQuantityForUpdate(@Param("pid") Long productId);
+
+    /**
+     * Aplica una cola de decrementos de un mismo producto con un único UPDATE
+     * Bloquea la fila, acepta las peticiones en orden de llegada mientras quede stock
+     * (una petición que no cabe se rechaza y se sigue con las siguientes) y descuenta la suma aceptada
+     *
+     * @param productId ID del producto
+     * @param quantities Cantidades solicitadas en orden de llegada
+     * @return Para cada petición, true si se aceptó
+     */
+    @Transactional
+    default boolean[] decrementInArrivalOrder(Long productId, List<Long> quantities) {
+        boolean[] accepted = new boolean[quantities.size()];
+        Long available = findQuantityForUpdate(productId);
+        if (available == null) {
+            return accepted;
+        }
+
+        long remaining = available;
+        long total = 0;
+        for (int i = 0; i < quantities.size(); i++) {
+            long quantity = quantities.get(i);
+            if (quantity <= remaining) {
+                accepted[i] = true;
+                remaining -= quantity;
+                total += quantity;
+            }
+        }
+
+        if (total > 0 && decrementIfEnough(productId, total) == 0) {
+            throw new IllegalStateException("Inventory row for product " + productId + " changed while locked");
+        }
+        return accepted;
+    }
+
+    /**
+     * Aplica un delta ya confirmado en memoria sin comprobar el stock
+     *
+     * @param productId ID del producto
+     * @param delta Cantidad a restar (negativa para sumar)
+     * @return Número de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE dbo.inventory SET quantity = quantity - :d WHERE product_id = :pid",
+           nativeQuery = true)
+    int applyDelta(@Param("pid") Long productId, @Param("d") Long delta);
+
+    /**
+     * Aplica un lote de deltas en una sola transacción, en orden de productId
+     *
+     * @param deltas Cantidad a restar por ID de producto
+     */
+    @Transactional
+    default void applyDeltas(Map<Long, Long> deltas) {
+        new TreeMap<>(deltas).forEach(this::applyDelta);
+    }
+
+    // --- Productos repartidos en varias filas de dbo.inventory_buckets ---
+
+    /**
+     * Decrementa un bucket concreto si tiene stock suficiente
+     *
+     * @param productId ID del producto
+     * @param bucket Número de bucket
+     * @param quantity Cantidad a decrementar
+     * @return Número de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE dbo.inventory_buckets SET quantity = quantity - :q " +
+                   "WHERE product_id = :pid AND bucket = :b AND quantity >= :q",
+           nativeQuery = true)
+    int decrementBucketIfEnough(@Param("pid") Long productId, @Param("b") int bucket, @Param("q") Long quantity);
+
+    /**
+     * Decrementa cualquier bucket del producto con stock suficiente, saltando los que otra transacción
+     * tiene bloqueados
+     *
+     * @param productId ID del producto
+     * @param quantity Cantidad a decrementar
+     * @return Número de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE TOP (1) dbo.inventory_buckets WITH (ROWLOCK, READPAST) SET quantity = quantity - :q " +
+                   "WHERE product_id = :pid AND quantity >= :q",
+           nativeQuery = true)
+    int decrementAnyUnlockedBucket(@Param("pid") Long productId, @Param("q") Long quantity);
+
+    /**
+     * Suma unidades a un bucket
+     *
+     * @param productId ID del producto
+     * @param bucket Número de bucket
+     * @param quantity Cantidad a sumar
+     * @return Número de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE dbo.inventory_buckets SET quantity = quantity + :q WHERE product_id = :pid AND bucket = :b",
+           nativeQuery = true)
+    int incrementBucket(@Param("pid") Long productId, @Param("b") int bucket, @Param("q") Long quantity);
+
+    /**
+     * Suma las cantidades de todos los buckets de un producto
+     *
+     * @param productId ID del producto
+     * @return Cantidad total o null si el producto no está repartido
+     */
+    @Query(value = "SELECT SUM(quantity) FROM dbo.inventory_buckets WHERE product_id = :pid", nativeQuery = true)
+    Long sumBuckets(@Param("pid") Long productId);
+
+    /**
+     * @param productId ID del producto
+     * @return Número de buckets del producto (0 si usa la fila única de dbo.inventory)
+     */
+    @Query(value = "SELECT COUNT(*) FROM dbo.inventory_buckets WHERE product_id = :pid", nativeQuery = true)
+    int countBuckets(@Param("pid") Long productId);
+
+    /**
+     * @return Pares [product_id, número de buckets] de todos los productos repartidos
+     */
+    @Query(value = "SELECT product_id, COUNT(*) FROM dbo.inventory_buckets GROUP BY product_id", nativeQuery = true)
+    List<Object[]> findBucketCounts();
+
+    /**
+     * Bloquea los buckets de un producto (y el rango de claves si no tiene ninguno) hasta el fin de la transacción
+     *
+     * @param productId ID del producto
+     * @return Cantidad por bucket, ordenada por número de bucket
+     */
+    @Query(value = "SELECT quantity FROM dbo.inventory_buckets WITH (UPDLOCK, HOLDLOCK) " +
+                   "WHERE product_id = :pid ORDER BY bucket",
+           nativeQuery = true)
+    List<Long> findBucketQuantitiesForUpdate(@Param("pid") Long productId);
+
+    @Modifying
+    @Query(value = "UPDATE dbo.inventory_buckets SET quantity = :q WHERE product_id = :pid AND bucket = :b",
+           nativeQuery = true)
+    int setBucket(@Param("pid") Long productId, @Param("b") int bucket, @Param("q") Long quantity);
+
+    @Modifying
+    @Query(value = "DELETE FROM dbo.inventory_buckets WHERE product_id = :pid", nativeQuery = true)
+    int deleteBuckets(@Param("pid") Long productId);
+
+    @Modifying
+    @Query(value = "INSERT INTO dbo.inventory_buckets (product_id, bucket, quantity) VALUES (:pid, :b, :q)",
+           nativeQuery = true)
+    int insertBucket(@Param("pid") Long productId, @Param("b") int bucket, @Param("q") Long quantity);
+
+    /**
+     * Fija la cantidad de la fila única de dbo.inventory, creándola si no existe
+     *
+     * @param productId ID del producto
+     * @param quantity Nueva cantidad
+     * @return Número de filas afectadas
+     */
+    @Modifying
+    @Query(value = "MERGE dbo.inventory WITH (HOLDLOCK) AS t USING (SELECT :pid AS product_id) AS s " +
+                   "ON t.product_id = s.product_id " +
+                   "WHEN MATCHED THEN UPDATE SET quantity = :q " +
+                   "WHEN NOT MATCHED THEN INSERT (product_id, quantity) VALUES (:pid, :q);",
+           nativeQuery = true)
+    int upsertQuantity(@Param("pid") Long productId, @Param("q") Long quantity);
+
+    /**
+     * Descuenta de varios buckets cuando ninguno tiene stock suficiente por sí solo
+     * Bloquea todos los buckets del producto y los vacía en orden hasta cubrir la cantidad
+     *
+     * @param productId ID del producto
+     * @param quantity Cantidad a decrementar
+     * @return true si la suma de los buckets alcanzaba; false si no se descontó nada
+     */
+    @Transactional
+    default boolean decrementAcrossBuckets(Long productId, Long quantity) {
+        List<Long> buckets = findBucketQuantitiesForUpdate(productId);
+        long total = buckets.stream().mapToLong(Long::longValue).sum();
+        if (buckets.isEmpty() || total < quantity) {
+            return false;
+        }
+        long remaining = quantity;
+        for (int bucket = 0; bucket < buckets.size() && remaining > 0; bucket++) {
+            long taken = Math.min(buckets.get(bucket), remaining);
+            if (taken > 0) {
+                setBucket(productId, bucket, buckets.get(bucket) - taken);
+                remaining -= taken;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reparte una cantidad total entre {@code buckets} filas nuevas (o la devuelve a la fila única de
+     * dbo.inventory si {@code buckets <= 1}), sumando lo que hubiera en la fila única y en los buckets previos
+     * cuando {@code total} es null
+     *
+     * @param productId ID del producto
+     * @param buckets Número de buckets deseado
+     * @param total Cantidad a repartir, o null para conservar la existente
+     * @return Cantidad total repartida
+     */
+    @Transactional
+    default long redistribute(Long productId, int buckets, Long total) {
+        List<Long> current = findBucketQuantitiesForUpdate(productId);
+        Long single = findQuantityForUpdate(productId);
+        long quantity = total != null
+                ? total
+                : current.stream().mapToLong(Long::longValue).sum() + (single == null ? 0 : single);
+
+        deleteBuckets(productId);
+        if (buckets <= 1) {
+            upsertQuantity(productId, quantity);
+            return quantity;
+        }
+        // La fila única queda a 0: un decremento por la ruta normal falla en lugar de vender de más
+        upsertQuantity(productId, 0L);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long share = quantity / buckets + (bucket < quantity % buckets ? 1 : 0);
+            insertBucket(productId, bucket, share);
+        }
+        return quantity;
+    }
+
+    /**
+     * Variante de {@link #decrementAllOrFail} para carritos con productos repartidos en buckets
+     *
+     * @param quantities Cantidad a decrementar por ID de producto
+     * @param bucketed Productos que se descuentan de sus buckets
+     * @throws InsufficientStockException si algún producto no tiene stock suficiente; la transacción se revierte
+     */
+    @Transactional
+    default void decrementAllOrFail(Map<Long, Long> quantities, Set<Long> bucketed) {
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            boolean decremented = bucketed.contains(productId)
+                    ? decrementAcrossBuckets(productId, quantity)
+                    : decrementIfEnough(productId, quantity) > 0;
+            if (!decremented) {
+                throw new InsufficientStockException(productId);
+            }
+        });
+    }
 }
@@ -4,6 +4,8 @@ import com.novatrade.inventory.model.Inventory;
 import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 /**
  * Adaptador para el repositorio de inventario
  * Implementa el puerto de repositorio de inventario definido en el dominio
@@ -78,4 +80,31 @@ public class InventoryRepositoryAdapter implements InventoryRepositoryPort {
     public boolean decrementIfEnough(Long productId, Long quantity) {
         return repository.decrementIfEnough(productId, quantity) > 0;
     }
+
+    /**
+     * Decrementa todas las cantidades en una única transacción
+     *
+     * @param quantities Cantidad a decrementar por ID de producto
+     * @return true si se descontaron todas, false si alguna no tenía stock y no se descontó ninguna
+     */
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+        try {
+            repository.decrementAllOrFail(quantities);
+            return true;
+        } catch (InsufficientStockException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Devuelve unidades al stock sin condición
+     *
+     * @param productId ID del producto
+     * @param quantity Cantidad a sumar
+     */
+    @Override
+    public void release(Long productId, Long quantity) {
+        repository.applyDelta(productId, -quantity);
+    }
 }
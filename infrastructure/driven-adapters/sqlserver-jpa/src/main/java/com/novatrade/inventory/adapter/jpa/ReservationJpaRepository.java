@@ -0,0 +1,96 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad de reservas
+ * Las transiciones de estado son UPDATE condicionales sobre la clave primaria, de modo que dos
+ * operaciones concurrentes sobre la misma reserva no pueden devolver el stock dos veces
+ */
+public interface ReservationJpaRepository extends JpaRepository<ReservationEntity, String> {
+
+    /**
+     * Cambia el estado de una reserva retenida que aún no ha vencido
+     *
+     * @param id ID de la reserva
+     * @param status Nuevo estado
+     * @param now Instante de referencia para el vencimiento
+     * @return Número de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE dbo.reservations SET status = :status " +
+                   "WHERE id = :id AND status = 'HELD' AND expires_at > :now",
+           nativeQuery = true)
+    int transitionIfActive(@Param("id") String id, @Param("status") String status, @Param("now") Instant now);
+
+    /**
+     * Cambia el estado de una reserva retenida, haya vencido o no
+     *
+     * @param id ID de la reserva
+     * @param status Nuevo estado
+     * @return Número de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE dbo.reservations SET status = :status WHERE id = :id AND status = 'HELD'",
+           nativeQuery = true)
+    int transitionIfHeld(@Param("id") String id, @Param("status") String status);
+
+    /**
+     * Bloquea las reservas indicadas que siguen retenidas y han vencido
+     *
+     * @param ids IDs de las reservas
+     * @param now Instante de referencia para el vencimiento
+     * @return Reservas bloqueadas hasta el final de la transacción
+     */
+    @Query(value = "SELECT * FROM dbo.reservations WITH (UPDLOCK, ROWLOCK) " +
+                   "WHERE id IN (:ids) AND status = 'HELD' AND expires_at <= :now",
+           nativeQuery = true)
+    List<ReservationEntity> findDueForUpdate(@Param("ids") Collection<String> ids, @Param("now") Instant now);
+
+    /**
+     * Marca como vencidas las reservas indicadas
+     *
+     * @param ids IDs de las reservas, ya bloqueadas por {@link #findDueForUpdate}
+     * @return Número de filas afectadas
+     */
+    @Modifying
+    @Query(value = "UPDATE dbo.reservations SET status = 'EXPIRED' WHERE id IN (:ids) AND status = 'HELD'",
+           nativeQuery = true)
+    int markExpired(@Param("ids") Collection<String> ids);
+
+    /**
+     * Expira en una transacción las reservas vencidas de un lote
+     * Solo visita las filas del lote por clave primaria; nunca recorre la tabla
+     *
+     * @param ids IDs de las reservas candidatas
+     * @param now Instante de referencia para el vencimiento
+     * @return Reservas que pasaron a EXPIRED
+     */
+    @Transactional
+    default List<ReservationEntity> expireDue(Collection<String> ids, Instant now) {
+        List<ReservationEntity> due = findDueForUpdate(ids, now);
+        if (!due.isEmpty()) {
+            markExpired(due.stream().map(ReservationEntity::getId).toList());
+        }
+        return due;
+    }
+
+    /**
+     * Reservas retenidas, servidas por el índice filtrado IX_reservations_held_expires
+     *
+     * @return Reservas en estado HELD ordenadas por vencimiento
+     */
+    @Query(value = "SELECT * FROM dbo.reservations WHERE status = 'HELD' ORDER BY expires_at",
+           nativeQuery = true)
+    List<ReservationEntity> findHeld();
+}
@@ -0,0 +1,108 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.model.ReservationStatus;
+import com.novatrade.inventory.model.ports.ReservationRepositoryPort;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Adaptador para el repositorio de reservas
+ * Implementa el puerto de reservas definido en el dominio
+ */
+@Component
+public class ReservationRepositoryAdapter implements ReservationRepositoryPort {
+
+    /**
+     * SQL Server admite como máximo 2100 parámetros por sentencia
+     */
+    static final int EXPIRE_CHUNK_SIZE = 500;
+
+    private final ReservationJpaRepository repository;
+
+    /**
+     * Constructor que recibe el repositorio JPA
+     *
+     * @param repository Repositorio JPA para acceso a datos de reservas
+     */
+    public ReservationRepositoryAdapter(ReservationJpaRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Reservation save(Reservation reservation) {
+        ReservationEntity entity = ReservationEntity.builder()
+                .id(reservation.getId())
+                .productId(reservation.getProductId())
+                .quantity(reservation.getQuantity())
+                .status(reservation.getStatus())
+                .expiresAt(reservation.getExpiresAt())
+                .createdAt(reservation.getCreatedAt())
+                .build();
+        return toDomain(repository.save(entity));
+    }
+
+    @Override
+    public Optional<Reservation> findById(String id) {
+        return repository.findById(id).map(ReservationRepositoryAdapter::toDomain);
+    }
+
+    @Override
+    public boolean confirm(String id, Instant now) {
+        return repository.transitionIfActive(id, ReservationStatus.CONFIRMED.name(), now) > 0;
+    }
+
+    @Override
+    public boolean cancel(String id) {
+        return repository.transitionIfHeld(id, ReservationStatus.CANCELLED.name()) > 0;
+    }
+
+    /**
+     * Expira las reservas en transacciones de hasta {@value #EXPIRE_CHUNK_SIZE} filas
+     *
+     * @param ids IDs de las reservas cuyo temporizador ha vencido
+     * @param now Instante de referencia para el vencimiento
+     * @return Reservas que pasaron a EXPIRED
+     */
+    @Override
+    public List<Reservation> expire(Collection<String> ids, Instant now) {
+        List<String> pending = new ArrayList<>(ids);
+        List<Reservation> expired = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += EXPIRE_CHUNK_SIZE) {
+            List<String> chunk = pending.subList(from, Math.min(from + EXPIRE_CHUNK_SIZE, pending.size()));
+            repository.expireDue(chunk, now).forEach(entity -> {
+                Reservation reservation = toDomain(entity);
+                reservation.setStatus(ReservationStatus.EXPIRED);
+                expired.add(reservation);
+            });
+        }
+        return expired;
+    }
+
+    @Override
+    public List<Reservation> findHeld() {
+        return repository.findHeld().stream().map(ReservationRepositoryAdapter::toDomain).toList();
+    }
+
+    /**
+     * Convierte una entidad JPA a un objeto de dominio
+     *
+     * @param entity Entidad JPA de reserva
+     * @return Objeto de dominio Reservation
+     */
+    static Reservation toDomain(ReservationEntity entity) {
+        return Reservation.builder()
+                .id(entity.getId())
+                .productId(entity.getProductId())
+                .quantity(entity.getQuantity())
+                .status(entity.getStatus())
+                .expiresAt(entity.getExpiresAt())
+                .createdAt(entity.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.adapter.cache.CachingIdempotencyRepository;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.PurchaseTransactionPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe el descuento de stock, la respuesta idempotente y, opcionalmente, las filas de dbo.purchases
+ * en una sola transacción: un commit (una escritura del log) por compra en lugar de dos
+ * Los descuentos van en orden de productId como en {@link InventoryJpaRepository#decrementAllOrFail(Map)},
+ * la respuesta con un INSERT directo y las compras en un único lote JDBC
+ * Solo sirve con el motor jpa, que descuenta directamente en dbo.inventory
+ * La respuesta se añade a la caché de idempotencia solo tras el commit, como si se hubiera guardado con
+ * {@link CachingIdempotencyRepository#saveResponse}
+ */
+public class TransactionalPurchaseAdapter implements PurchaseTransactionPort {
+
+    private static final String INSERT_PURCHASE = "INSERT INTO dbo.purchases "
+            + "(idempotency_key, product_id, quantity, unit_price, total_price, purchased_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final InventoryJpaRepository inventory;
+    private final IdempotencyJpaRepository idempotency;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyStorageFormat format;
+    private final IdempotencyKeyFilter keyFilter;
+    private final CachingIdempotencyRepository cache;
+    private final boolean recordPurchases;
+    private final Timer commitTimer;
+    private final Counter insufficient;
+
+    /**
+     * @param inventory Repositorio JPA de inventario
+     * @param idempotency Repositorio JPA de idempotencia
+     * @param jdbc Acceso JDBC para el lote de compras; comparte la conexión de la transacción JPA
+     * @param transactionTemplate Plantilla de la transacción que agrupa las escrituras
+     * @param format Formato de la respuesta idempotente
+     * @param keyFilter Filtro de claves de idempotencia; null si no está activo
+     * @param cache Caché de respuestas idempotentes; null si no está activa
+     * @param recordPurchases true para escribir una fila por compra en dbo.purchases
+     * @param meterRegistry Registro de métricas
+     */
+    public TransactionalPurchaseAdapter(
+            InventoryJpaRepository inventory,
+            IdempotencyJpaRepository idempotency,
+            JdbcTemplate jdbc,
+            TransactionTemplate transactionTemplate,
+            IdempotencyStorageFormat format,
+            IdempotencyKeyFilter keyFilter,
+            CachingIdempotencyRepository cache,
+            boolean recordPurchases,
+            MeterRegistry meterRegistry) {
+        this.inventory = inventory;
+        this.idempotency = idempotency;
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.format = format;
+        this.keyFilter = keyFilter;
+        this.cache = cache;
+        this.recordPurchases = recordPurchases;
+        this.commitTimer = Timer.builder("inventory.purchase.transaction")
+                .description("Duración de la transacción de descuento, respuesta idempotente y compras")
+                .register(meterRegistry);
+        this.insufficient = Counter.builder("inventory.purchase.transaction.rollbacks")
+                .description("Transacciones de compra revertidas por falta de stock")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean commit(Map<Long, Long> quantities, String idempotencyKey, String responseJson,
+                          List<PurchaseResult> purchases) {
+        boolean keyed = idempotencyKey != null && !idempotencyKey.isBlank();
+        if (keyed && keyFilter != null) {
+            // Antes del commit: si la transacción se revierte solo queda un falso positivo en el filtro
+            keyFilter.add(idempotencyKey);
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                inventory.decrementAllOrFail(quantities);
+                if (keyed) {
+                    insertResponse(idempotencyKey, responseJson);
+                    cacheAfterCommit(idempotencyKey, responseJson);
+                }
+                if (recordPurchases && !purchases.isEmpty()) {
+                    insertPurchases(keyed ? idempotencyKey : null, purchases);
+                }
+            });
+            return true;
+        } catch (InsufficientStockException e) {
+            insufficient.increment();
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            // INSERT condicional sin filas o clave primaria repetida en el mismo día
+            if (keyed) {
+                throw new KeyAlreadyStoredException(idempotencyKey, e);
+            }
+            throw e;
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insertResponse(String key, String json) {
+        Instant now = Instant.now();
+        byte[] hash = IdempotencyPayloads.keyHash(key);
+        int inserted = format == IdempotencyStorageFormat.COMPRESSED
+                ? idempotency.insertCompressed(hash, key, now, IdempotencyPayloads.compress(json))
+                : idempotency.insertJson(hash, key, now, json);
+        if (inserted == 0) {
+            // Otra compra ya guardó la clave, quizá otro día: se revierte el descuento
+            throw new DuplicateKeyException("Idempotency key already stored: " + key);
+        }
+    }
+
+    private void cacheAfterCommit(String key, String json) {
+        if (cache == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.remember(key, json);
+            }
+        });
+    }
+
+    private void insertPurchases(String key, List<PurchaseResult> purchases) {
+        jdbc.batchUpdate(INSERT_PURCHASE, purchases, purchases.size(), (statement, purchase) -> {
+            statement.setString(1, key);
+            statement.setLong(2, purchase.getProductId());
+            statement.setLong(3, purchase.getQuantity());
+            statement.setDouble(4, purchase.getUnitPrice());
+            statement.setDouble(5, purchase.getTotalPrice());
+            statement.setTimestamp(6, Timestamp.from(Instant.parse(purchase.getPurchasedAt())));
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.model.ReservationStatus;
+import com.novatrade.inventory.model.ports.ReservationTransactionPort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marca como vencidas las reservas de un lote, o cancela una, y devuelve su stock a dbo.inventory en la
+ * misma transacción
+ * Cada transacción de vencimiento cubre hasta {@value ReservationRepositoryAdapter#EXPIRE_CHUNK_SIZE}
+ * reservas; las devoluciones van en orden de productId como en {@link InventoryJpaRepository#applyDeltas(Map)}
+ * Solo sirve con el motor jpa, que guarda el stock directamente en dbo.inventory
+ */
+public class TransactionalReservationAdapter implements ReservationTransactionPort {
+
+    private final ReservationJpaRepository reservations;
+    private final InventoryJpaRepository inventory;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param reservations Repositorio JPA de reservas
+     * @param inventory Repositorio JPA de inventario
+     * @param transactionTemplate Plantilla de la transacción que agrupa las escrituras
+     */
+    public TransactionalReservationAdapter(
+            ReservationJpaRepository reservations,
+            InventoryJpaRepository inventory,
+            TransactionTemplate transactionTemplate) {
+        this.reservations = reservations;
+        this.inventory = inventory;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public List<Reservation> expireAndRelease(Collection<String> ids, Instant now) {
+        List<String> pending = new ArrayList<>(ids);
+        List<Reservation> expired = new ArrayList<>();
+        int chunkSize = ReservationRepositoryAdapter.EXPIRE_CHUNK_SIZE;
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<String> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            List<ReservationEntity> due = transactionTemplate.execute(status -> {
+                // expireDue se une a esta transacción: el stock se devuelve antes de su commit
+                List<ReservationEntity> locked = reservations.expireDue(chunk, now);
+                Map<Long, Long> deltas = new HashMap<>();
+                locked.forEach(entity -> deltas.merge(entity.getProductId(), -entity.getQuantity(), Long::sum));
+                if (!deltas.isEmpty()) {
+                    inventory.applyDeltas(deltas);
+                }
+                return locked;
+            });
+            due.forEach(entity -> {
+                Reservation reservation = ReservationRepositoryAdapter.toDomain(entity);
+                reservation.setStatus(ReservationStatus.EXPIRED);
+                expired.add(reservation);
+            });
+        }
+        return expired;
+    }
+
+    @Override
+    public boolean cancelAndRelease(Reservation reservation) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // El UPDATE condicional solo deja pasar a una cancelación: el stock no se devuelve dos veces
+            if (reservations.transitionIfHeld(reservation.getId(), ReservationStatus.CANCELLED.name()) == 0) {
+                return false;
+            }
+            inventory.applyDeltas(Map.of(reservation.getProductId(), -reservation.getQuantity()));
+            return true;
+        }));
+    }
+}
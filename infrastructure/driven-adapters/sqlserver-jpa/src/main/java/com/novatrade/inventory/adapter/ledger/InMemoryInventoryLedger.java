@@ -0,0 +1,359 @@
+package com.novatrade.inventory.adapter.ledger;
+
+import com.novatrade.inventory.adapter.jpa.InventoryEntity;
+import com.novatrade.inventory.adapter.jpa.InventoryJpaRepository;
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Motor de inventario en memoria delante de SQL Server
+ * Cada producto tiene un contador atómico en un shard elegido por el hash de su productId;
+ * {@link #decrementIfEnough} se resuelve con CAS sin tocar la base de datos y el delta queda pendiente
+ * hasta que el vaciador lo escribe en dbo.inventory por lotes
+ * El stock se carga de la tabla al arrancar y periódicamente se calcula cuánto se ha desviado la memoria
+ * de la tabla. Solo es válido si esta instancia es la única que descuenta stock
+ * Descontar (CAS más anotar el delta) toma el cerrojo de lectura del shard y {@link #set} el de
+ * escritura, así que un ajuste absoluto nunca cae entre el descuento y su delta
+ */
+public class InMemoryInventoryLedger implements InventoryRepositoryPort, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryInventoryLedger.class);
+
+    private final InventoryRepositoryPort delegate;
+    private final InventoryJpaRepository repository;
+    private final Shard[] shards;
+    private final int shardMask;
+    private final Duration flushInterval;
+    private final int flushBatchSize;
+    private final Duration reconcileInterval;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong drift = new AtomicLong();
+    private final AtomicLong driftedProducts = new AtomicLong();
+    private final Timer flushTimer;
+
+    /**
+     * @param delegate Adaptador JPA usado para crear productos nuevos y para escribir los ajustes absolutos
+     * @param repository Repositorio JPA del que se carga el stock y al que se escriben los deltas
+     * @param shards Número de shards; se redondea a la siguiente potencia de dos
+     * @param flushInterval Periodo del vaciado de deltas a la tabla
+     * @param flushBatchSize Máximo de productos por transacción de vaciado
+     * @param reconcileInterval Periodo del cálculo de desviación frente a la tabla
+     * @param meterRegistry Registro de métricas
+     */
+    public InMemoryInventoryLedger(
+            InventoryRepositoryPort delegate,
+            InventoryJpaRepository repository,
+            int shards,
+            Duration flushInterval,
+            int flushBatchSize,
+            Duration reconcileInterval,
+            MeterRegistry meterRegistry) {
+        if (shards < 1 || flushBatchSize < 1) {
+            throw new IllegalArgumentException("shards and flushBatchSize must be >= 1");
+        }
+        this.delegate = delegate;
+        this.repository = repository;
+        int size = Integer.highestOneBit(shards) == shards ? shards : Integer.highestOneBit(shards) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.shardMask = size - 1;
+        this.flushInterval = flushInterval;
+        this.flushBatchSize = flushBatchSize;
+        this.reconcileInterval = reconcileInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.flushTimer = Timer.builder("inventory.ledger.flush")
+                .description("Duración de cada vaciado de deltas a dbo.inventory")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.unflushed", this, InMemoryInventoryLedger::unflushed)
+                .description("Unidades descontadas en memoria pendientes de escribir en la tabla")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.drift", drift, AtomicLong::get)
+                .description("Suma de diferencias absolutas entre memoria y tabla en la última reconciliación")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.drifted.products", driftedProducts, AtomicLong::get)
+                .description("Productos cuya cantidad en memoria no coincide con la tabla")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carga el stock de la tabla y programa el vaciado y la reconciliación
+     */
+    public void start() {
+        int loaded = 0;
+        for (InventoryEntity entity : repository.findAll()) {
+            shardOf(entity.getProductId()).available
+                    .put(entity.getProductId(), new AtomicLong(entity.getQuantity()));
+            loaded++;
+        }
+        log.info("Inventory ledger loaded {} products into {} shards", loaded, shards.length);
+
+        scheduler.scheduleWithFixedDelay(this::flushSafely,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely,
+                reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Inventory getOrCreate(Long productId) {
+        return Inventory.builder()
+                .productId(productId)
+                .quantity(counter(productId).get())
+                .build();
+    }
+
+    @Override
+    public Inventory set(Long productId, Long quantity) {
+        Shard shard = shardOf(productId);
+        shard.flushLock.lock();
+        shard.takeLock.writeLock().lock();
+        try {
+            // El ajuste absoluto sustituye a cualquier delta que aún no se haya escrito
+            shard.unflushed.remove(productId);
+            Inventory saved = delegate.set(productId, quantity);
+            shard.available.computeIfAbsent(productId, id -> new AtomicLong()).set(saved.getQuantity());
+            return saved;
+        } finally {
+            shard.takeLock.writeLock().unlock();
+            shard.flushLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean decrementIfEnough(Long productId, Long qty) {
+        AtomicLong counter = counter(productId);
+        Lock lock = shardOf(productId).takeLock.readLock();
+        lock.lock();
+        try {
+            if (!tryTake(counter, qty)) {
+                return false;
+            }
+            recordUnflushed(productId, qty);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+        Map<Long, AtomicLong> counters = new TreeMap<>();
+        quantities.keySet().forEach(productId -> counters.put(productId, counter(productId)));
+        // Cerrojos de lectura de todos los shards implicados, en orden de índice
+        TreeSet<Integer> shardIndexes = new TreeSet<>();
+        quantities.keySet().forEach(productId -> shardIndexes.add(shardIndex(productId)));
+        shardIndexes.forEach(index -> shards[index].takeLock.readLock().lock());
+        try {
+            Map<Long, Long> taken = new HashMap<>();
+            for (Map.Entry<Long, AtomicLong> line : counters.entrySet()) {
+                long qty = quantities.get(line.getKey());
+                if (!tryTake(line.getValue(), qty)) {
+                    // Devuelve lo ya descontado: la compra es todo o nada
+                    taken.forEach((productId, takenQty) -> counters.get(productId).addAndGet(takenQty));
+                    return false;
+                }
+                taken.put(line.getKey(), qty);
+            }
+            taken.forEach(this::recordUnflushed);
+            return true;
+        } finally {
+            shardIndexes.descendingSet().forEach(index -> shards[index].takeLock.readLock().unlock());
+        }
+    }
+
+    @Override
+    public void release(Long productId, Long qty) {
+        AtomicLong counter = counter(productId);
+        Lock lock = shardOf(productId).takeLock.readLock();
+        lock.lock();
+        try {
+            counter.addAndGet(qty);
+            // Delta negativo: el vaciado suma las unidades devueltas en la tabla
+            recordUnflushed(productId, -qty);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Escribe en la tabla los deltas pendientes, en transacciones de hasta flushBatchSize productos
+     * Si una transacción falla, sus deltas vuelven a quedar pendientes para el siguiente vaciado
+     */
+    void flush() {
+        long start = System.nanoTime();
+        for (Shard shard : shards) {
+            shard.flushLock.lock();
+            try {
+                Map<Long, Long> batch = new HashMap<>();
+                for (Map.Entry<Long, AtomicLong> entry : shard.unflushed.entrySet()) {
+                    long delta = entry.getValue().getAndSet(0);
+                    if (delta != 0) {
+                        batch.put(entry.getKey(), delta);
+                    }
+                    if (batch.size() >= flushBatchSize) {
+                        write(shard, batch);
+                        batch = new HashMap<>();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    write(shard, batch);
+                }
+            } finally {
+                shard.flushLock.unlock();
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Compara cada contador en memoria (más lo pendiente de escribir) con la tabla
+     *
+     * @return Suma de las diferencias absolutas encontradas
+     */
+    long reconcile() {
+        for (Shard shard : shards) {
+            shard.flushLock.lock();
+        }
+        try {
+            long totalDrift = 0;
+            long products = 0;
+            List<InventoryEntity> rows = repository.findAll();
+            for (InventoryEntity row : rows) {
+                Shard shard = shardOf(row.getProductId());
+                AtomicLong available = shard.available.get(row.getProductId());
+                if (available == null) {
+                    continue;
+                }
+                AtomicLong pending = shard.unflushed.get(row.getProductId());
+                long expected = available.get() + (pending == null ? 0 : pending.get());
+                long difference = Math.abs(row.getQuantity() - expected);
+                if (difference != 0) {
+                    totalDrift += difference;
+                    products++;
+                }
+            }
+            drift.set(totalDrift);
+            driftedProducts.set(products);
+            if (totalDrift != 0) {
+                log.warn("Inventory ledger drifted {} units across {} products", totalDrift, products);
+            }
+            return totalDrift;
+        } finally {
+            for (Shard shard : shards) {
+                shard.flushLock.unlock();
+            }
+        }
+    }
+
+    private void write(Shard shard, Map<Long, Long> batch) {
+        try {
+            repository.applyDeltas(batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} inventory deltas, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach((productId, delta) ->
+                    shard.unflushed.computeIfAbsent(productId, id -> new AtomicLong()).addAndGet(delta));
+        }
+    }
+
+    private AtomicLong counter(Long productId) {
+        Shard shard = shardOf(productId);
+        AtomicLong counter = shard.available.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        // Producto que no estaba en la tabla al arrancar: se crea vía JPA y se incorpora al shard
+        Inventory created = delegate.getOrCreate(productId);
+        return shard.available.computeIfAbsent(productId, id -> new AtomicLong(created.getQuantity()));
+    }
+
+    private boolean tryTake(AtomicLong counter, long qty) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < qty) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - qty));
+        return true;
+    }
+
+    private void recordUnflushed(Long productId, Long qty) {
+        shardOf(productId).unflushed.computeIfAbsent(productId, id -> new AtomicLong()).addAndGet(qty);
+    }
+
+    private long unflushed() {
+        long total = 0;
+        for (Shard shard : shards) {
+            for (AtomicLong pending : shard.unflushed.values()) {
+                total += pending.get();
+            }
+        }
+        return total;
+    }
+
+    private Shard shardOf(Long productId) {
+        return shards[shardIndex(productId)];
+    }
+
+    private int shardIndex(Long productId) {
+        int hash = productId.hashCode();
+        return (hash ^ (hash >>> 16)) & shardMask;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Inventory ledger flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Inventory ledger reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private static final class Shard {
+        private final ConcurrentHashMap<Long, AtomicLong> available = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, AtomicLong> unflushed = new ConcurrentHashMap<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        // Lectura: descontar o devolver y anotar el delta; escritura: ajuste absoluto con set
+        private final ReentrantReadWriteLock takeLock = new ReentrantReadWriteLock();
+    }
+}
@@ -1,59 +1,69 @@
 package com.novatrade.inventory.adapter.products;
 
+import com.novatrade.inventory.adapter.http.ProductDocumentDecoder;
 import com.novatrade.inventory.model.ports.ProductsClientPort;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.RestClient;
 
-import java.util.Map;
-
 @Component
 public class ProductsClientAdapter implements ProductsClientPort {
 
+    private static final DefaultResponseErrorHandler SERVER_ERRORS = new DefaultResponseErrorHandler();
+
     private final RestClient client;
     private final String apiKey;
 
+    public ProductsClientAdapter(String baseUrl, String apiKey) {
+        this(baseUrl, apiKey, new SimpleClientHttpRequestFactory());
+    }
+
+    /**
+     * @param catalogRequestFactory Motor HTTP con pool compartido con {@code ProductsHttpClient}
+     */
+    @Autowired
     public ProductsClientAdapter(
             @Value("${products.base-url:http://localhost:8081}") String baseUrl,
-            @Value("${products.api-key:}") String apiKey) {
+            @Value("${products.api-key:}") String apiKey,
+            ClientHttpRequestFactory catalogRequestFactory) {
         this.client = RestClient.builder()
+                .requestFactory(catalogRequestFactory)
                 .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.ACCEPT, "application/vnd.api+json")
                 .build();
         this.apiKey = apiKey;
     }
 
+    /**
+     * El documento se decodifica del flujo de la respuesta con {@link ProductDocumentDecoder}.
+     * Los errores 5xx se lanzan para que cuenten en el circuit breaker; una respuesta 4xx o un documento
+     * sin {@code data} o sin atributos se tratan como producto inexistente. No reintenta: los reintentos sin
+     * bloquear el hilo los pone {@code RetryingProductsClient}
+     */
     @Override
     @CircuitBreaker(name = "products")
-    @Retry(name = "products")
     public ProductDTO getProduct(Long id) {
-        var resp = client.get()
+        return client.get()
                 .uri("/api/v1/products/{id}", id)
                 .header("X-API-KEY", apiKey)
-                .retrieve()
-                .toEntity(Map.class);
-
-        if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-            return null;
-        }
-
-        var body = resp.getBody();
-        var data = (Map<?, ?>) body.get("data");
-        if (data == null) {
-            return null;
-        }
-
-        var attrs = (Map<?, ?>) data.get("attributes");
-        if (attrs == null) {
-            return null;
-        }
-
-        return new ProductDTO(
-                Long.valueOf((String) data.get("id")),
-                (String) attrs.get("name"),
-                ((Number) attrs.get("price")).doubleValue());
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().is5xxServerError()) {
+                        SERVER_ERRORS.handleError(response);
+                    }
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        return null;
+                    }
+                    try {
+                        return ProductDocumentDecoder.readProduct(response.getBody());
+                    } catch (ProductDocumentDecoder.MalformedDocumentException e) {
+                        return null;
+                    }
+                });
     }
 }
@@ -0,0 +1,112 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.model.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+
+/**
+ * Motor HTTP compartido por los clientes del catálogo ({@code RestTemplate} de {@code ProductsHttpClient}
+ * y {@code RestClient} de {@code ProductsClientAdapter})
+ * Apache HttpClient 5 con un pool de conexiones HTTP/1.1 persistentes: las llamadas reutilizan sockets
+ * abiertos en lugar de abrir uno por petición. Los tres tiempos de espera son explícitos: obtener una
+ * conexión del pool, conectar y leer la respuesta; las conexiones inactivas más de idleTimeout se cierran.
+ * Si la petición en curso tiene {@link Deadline}, la espera del pool y la de la respuesta se recortan a lo
+ * que le queda
+ */
+@Configuration
+public class CatalogHttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager catalogConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${services.catalog.http.max-connections:200}") int maxConnections,
+            @Value("${services.catalog.http.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${services.catalog.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${services.catalog.http.read-timeout:3s}") Duration readTimeout,
+            @Value("${services.catalog.http.time-to-live:5m}") Duration timeToLive) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                // LIFO: se reutiliza la conexión más reciente y las demás caducan por inactividad
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        // Antes de reutilizar una conexión inactiva más de 2 s se comprueba que siga abierta
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "catalog").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient catalogHttpClient(
+            PoolingHttpClientConnectionManager catalogConnectionManager,
+            @Value("${services.catalog.http.pool-acquire-timeout:500ms}") Duration poolAcquireTimeout,
+            @Value("${services.catalog.http.read-timeout:3s}") Duration readTimeout,
+            @Value("${services.catalog.http.idle-timeout:30s}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(catalogConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .evictExpiredConnections()
+                // Los reintentos los hace RetryingProductsClient; aquí se repetirían dentro de cada intento
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory catalogRequestFactory(
+            CloseableHttpClient catalogHttpClient,
+            @Value("${services.catalog.http.pool-acquire-timeout:500ms}") Duration poolAcquireTimeout,
+            @Value("${services.catalog.http.read-timeout:3s}") Duration readTimeout) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(catalogHttpClient);
+        // Sin plazo (null) se usa la RequestConfig por defecto del cliente
+        factory.setHttpContextFactory((method, uri) -> Deadline.current()
+                .map(deadline -> deadlineContext(deadline.remaining(), poolAcquireTimeout, readTimeout))
+                .orElse(null));
+        return factory;
+    }
+
+    /**
+     * Contexto de una llamada con los tiempos de espera acotados a remaining (al menos 1 ms: en HttpClient
+     * un tiempo de espera 0 es infinito)
+     */
+    static HttpClientContext deadlineContext(Duration remaining, Duration poolAcquireTimeout, Duration readTimeout) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(atMost(poolAcquireTimeout, remaining)))
+                .setResponseTimeout(Timeout.of(atMost(readTimeout, remaining)))
+                .build());
+        return context;
+    }
+
+    private static Duration atMost(Duration timeout, Duration remaining) {
+        Duration bounded = remaining.compareTo(timeout) < 0 ? remaining : timeout;
+        return bounded.compareTo(Duration.ofMillis(1)) < 0 ? Duration.ofMillis(1) : bounded;
+    }
+}
@@ -0,0 +1,32 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.cache.CachingIdempotencyRepository;
+import com.novatrade.inventory.adapter.jpa.IdempotencyRepositoryAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Caché de respuestas idempotentes delante de {@link IdempotencyRepositoryAdapter}
+ * Activa por defecto; con {@code inventory.idempotency-cache.enabled=false} cada consulta va a la tabla
+ */
+@Configuration
+public class IdempotencyCacheConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "inventory.idempotency-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingIdempotencyRepository cachingIdempotencyRepository(
+            IdempotencyRepositoryAdapter jpaAdapter,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.idempotency-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${inventory.idempotency-cache.ttl:10m}") Duration ttl) {
+        return new CachingIdempotencyRepository(jpaAdapter, maxSize.toBytes(), ttl, meterRegistry);
+    }
+}
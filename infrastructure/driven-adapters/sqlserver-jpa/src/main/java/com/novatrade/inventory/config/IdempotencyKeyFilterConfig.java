@@ -0,0 +1,38 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.jpa.IdempotencyJpaRepository;
+import com.novatrade.inventory.adapter.jpa.IdempotencyKeyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Filtro de Bloom de claves de idempotencia delante de dbo.idempotency_keys
+ * Activo por defecto; con {@code inventory.idempotency-filter.enabled=false} cada clave nueva se consulta en la tabla
+ * Solo evita consultas con {@code single-instance=true}: con varias instancias otra puede haber guardado la clave
+ * Cada generación dura la retención de la tabla más un día, el redondeo máximo de la purga por particiones
+ */
+@Configuration
+public class IdempotencyKeyFilterConfig {
+
+    @Bean(initMethod = "start")
+    @ConditionalOnProperty(name = "inventory.idempotency-filter.enabled", havingValue = "true", matchIfMissing = true)
+    public IdempotencyKeyFilter idempotencyKeyFilter(
+            IdempotencyJpaRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.idempotency-filter.expected-keys:1000000}") long expectedKeys,
+            @Value("${inventory.idempotency-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${inventory.idempotency-filter.max-size:16MB}") DataSize maxSize,
+            @Value("${inventory.idempotency-filter.refresh-interval:5s}") Duration refreshInterval,
+            @Value("${inventory.idempotency-filter.single-instance:false}") boolean singleInstance,
+            @Value("${inventory.idempotency.retention:7d}") Duration retention) {
+        return new IdempotencyKeyFilter(repository, expectedKeys, falsePositiveRate, maxSize.toBytes(),
+                retention.plusDays(1), refreshInterval, singleInstance, Clock.systemUTC(), meterRegistry);
+    }
+}
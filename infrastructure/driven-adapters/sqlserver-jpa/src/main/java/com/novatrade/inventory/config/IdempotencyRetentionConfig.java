@@ -0,0 +1,34 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.jpa.IdempotencyJpaRepository;
+import com.novatrade.inventory.adapter.jpa.IdempotencyPartitionPurger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Retención de las claves de idempotencia
+ * Activa por defecto; con {@code inventory.idempotency.purge-enabled=false} las particiones caducadas no se
+ * vacían (útil si otra instancia ya se encarga de la purga)
+ */
+@Configuration
+public class IdempotencyRetentionConfig {
+
+    @Bean(initMethod = "start")
+    @ConditionalOnProperty(name = "inventory.idempotency.purge-enabled", havingValue = "true", matchIfMissing = true)
+    public IdempotencyPartitionPurger idempotencyPartitionPurger(
+            IdempotencyJpaRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.idempotency.retention:7d}") Duration retention,
+            @Value("${inventory.idempotency.purge-interval:1h}") Duration interval,
+            @Value("${inventory.idempotency.partitions-ahead:3}") int partitionsAhead) {
+        // created_day es el día UTC de created_at (V9): el día actual se calcula en la misma zona
+        return new IdempotencyPartitionPurger(
+                repository, retention, interval, partitionsAhead, Clock.systemUTC(), meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.jpa.BucketedInventoryRepository;
+import com.novatrade.inventory.adapter.jpa.GroupCommitInventoryRepository;
+import com.novatrade.inventory.adapter.jpa.InventoryJpaRepository;
+import com.novatrade.inventory.adapter.jpa.InventoryRepositoryAdapter;
+import com.novatrade.inventory.adapter.ledger.InMemoryInventoryLedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Selección del motor de inventario mediante la propiedad {@code inventory.engine}
+ * Con el valor por defecto ({@code jpa}) se usa directamente {@link InventoryRepositoryAdapter};
+ * los demás motores se registran como bean primario del puerto y envuelven al adaptador JPA
+ */
+@Configuration
+public class InventoryEngineConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "inventory.engine", havingValue = "group-commit")
+    public GroupCommitInventoryRepository groupCommitInventoryRepository(
+            InventoryRepositoryAdapter jpaAdapter,
+            InventoryJpaRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.group-commit.window:5ms}") Duration window,
+            @Value("${inventory.group-commit.max-batch-size:200}") int maxBatchSize,
+            @Value("${inventory.group-commit.flush-threads:4}") int flushThreads) {
+        return new GroupCommitInventoryRepository(
+                jpaAdapter, repository, window, maxBatchSize, flushThreads, meterRegistry);
+    }
+
+    @Bean(initMethod = "start")
+    @Primary
+    @ConditionalOnProperty(name = "inventory.engine", havingValue = "memory")
+    public InMemoryInventoryLedger inMemoryInventoryLedger(
+            InventoryRepositoryAdapter jpaAdapter,
+            InventoryJpaRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.ledger.shards:64}") int shards,
+            @Value("${inventory.ledger.flush-interval:100ms}") Duration flushInterval,
+            @Value("${inventory.ledger.flush-batch-size:500}") int flushBatchSize,
+            @Value("${inventory.ledger.reconcile-interval:30s}") Duration reconcileInterval) {
+        return new InMemoryInventoryLedger(
+                jpaAdapter, repository, shards, flushInterval, flushBatchSize, reconcileInterval, meterRegistry);
+    }
+
+    @Bean(initMethod = "start")
+    @Primary
+    @ConditionalOnProperty(name = "inventory.engine", havingValue = "bucketed")
+    public BucketedInventoryRepository bucketedInventoryRepository(
+            InventoryRepositoryAdapter jpaAdapter,
+            InventoryJpaRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.buckets.max:64}") int maxBuckets) {
+        return new BucketedInventoryRepository(jpaAdapter, repository, maxBuckets, meterRegistry);
+    }
+}
@@ -0,0 +1,166 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.cache.CachingProductsClient;
+import com.novatrade.inventory.adapter.cache.LastKnownGoodProducts;
+import com.novatrade.inventory.adapter.http.CoalescingProductsClient;
+import com.novatrade.inventory.adapter.http.HedgingProductsClient;
+import com.novatrade.inventory.adapter.http.ProductChangeSubscriber;
+import com.novatrade.inventory.adapter.http.ProductsHttpClient;
+import com.novatrade.inventory.adapter.http.RetryingProductsClient;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente del catálogo que usan los casos de uso: {@link ProductsHttpClient}, con peticiones de respaldo ante
+ * respuestas lentas ({@code inventory.product-hedging}), reintentos dentro de un presupuesto
+ * ({@code inventory.product-retry}), las consultas concurrentes agrupadas en lotes
+ * ({@code inventory.product-batching}) y una caché de productos delante ({@code inventory.product-cache}).
+ * Las cuatro capas están activas por defecto y se desactivan por separado.
+ * El orden es Caching(Coalescing(Retrying(Hedging(http)))): los respaldos miden la latencia de llamadas HTTP
+ * sueltas, sin las esperas entre reintentos, y cada reintento es una consulta hedged más que pasa por los
+ * presupuestos de ambas capas; con los reintentos por dentro, un intento que esperaba su siguiente reintento
+ * provocaba un respaldo con su propia cadena de reintentos.
+ * Con la caché activa, {@code inventory.product-changes} invalida los productos que cambian en el catálogo.
+ * Con el circuito del catálogo abierto se responde con {@code inventory.last-known-good}
+ */
+@Configuration
+public class ProductsClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public LastKnownGoodProducts lastKnownGoodProducts(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.last-known-good.max-entries:10000}") int maxEntries,
+            @Value("${inventory.last-known-good.max-staleness:1h}") Duration maxStaleness,
+            @Value("${inventory.last-known-good.file:}") String file) {
+        return new LastKnownGoodProducts(maxEntries, maxStaleness, file.isBlank() ? null : Path.of(file),
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "inventory.product-retry.enabled", havingValue = "true", matchIfMissing = true)
+    public RetryingProductsClient retryingProductsClient(
+            ProductsHttpClient httpClient,
+            ObjectProvider<HedgingProductsClient> hedging,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.product-retry.max-attempts:3}") int maxAttempts,
+            @Value("${inventory.product-retry.initial-backoff:200ms}") Duration initialBackoff,
+            @Value("${inventory.product-retry.max-backoff:2s}") Duration maxBackoff,
+            @Value("${inventory.product-retry.budget:0.1}") double budget) {
+        return new RetryingProductsClient(hedging.getIfAvailable(() -> httpClient),
+                maxAttempts, initialBackoff, maxBackoff, budget, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "inventory.product-hedging.enabled", havingValue = "true", matchIfMissing = true)
+    public HedgingProductsClient hedgingProductsClient(
+            ProductsHttpClient httpClient,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.product-hedging.percentile:0.95}") double percentile,
+            @Value("${inventory.product-hedging.min-delay:10ms}") Duration minDelay,
+            @Value("${inventory.product-hedging.max-delay:1s}") Duration maxDelay,
+            @Value("${inventory.product-hedging.budget:0.05}") double budget) {
+        return new HedgingProductsClient(httpClient, percentile, minDelay, maxDelay, budget, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "inventory.product-batching.enabled", havingValue = "true", matchIfMissing = true)
+    public CoalescingProductsClient coalescingProductsClient(
+            ProductsHttpClient httpClient,
+            ObjectProvider<RetryingProductsClient> retrying,
+            ObjectProvider<HedgingProductsClient> hedging,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.product-batching.window:2ms}") Duration window,
+            @Value("${inventory.product-batching.max-batch-size:100}") int maxBatchSize) {
+        ProductsClientPort client = retrying.getIfAvailable(() -> hedging.getIfAvailable(() -> httpClient));
+        return new CoalescingProductsClient(client, window, maxBatchSize, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService productRefreshExecutor(
+            @Value("${inventory.product-cache.refresh-threads:2}") int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "product-cache-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "inventory.product-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingProductsClient cachingProductsClient(
+            ProductsHttpClient httpClient,
+            ObjectProvider<RetryingProductsClient> retrying,
+            ObjectProvider<HedgingProductsClient> hedging,
+            ObjectProvider<CoalescingProductsClient> coalescing,
+            @Qualifier("productRefreshExecutor") ExecutorService productRefreshExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.product-cache.max-entries:10000}") long maxEntries,
+            @Value("${inventory.product-cache.ttl:5m}") Duration ttl,
+            @Value("${inventory.product-cache.refresh-ahead:1m}") Duration refreshAhead,
+            @Value("${inventory.product-cache.stale-for:10m}") Duration staleFor) {
+        ProductsClientPort client = coalescing.getIfAvailable(
+                () -> retrying.getIfAvailable(() -> hedging.getIfAvailable(() -> httpClient)));
+        return new CachingProductsClient(client, maxEntries, ttl, refreshAhead, staleFor,
+                productRefreshExecutor, Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public ProductsClientPort productsClient(
+            ProductsHttpClient httpClient,
+            ObjectProvider<RetryingProductsClient> retrying,
+            ObjectProvider<HedgingProductsClient> hedging,
+            ObjectProvider<CoalescingProductsClient> coalescing,
+            ObjectProvider<CachingProductsClient> caching) {
+        return caching.getIfAvailable(() -> coalescing.getIfAvailable(
+                () -> retrying.getIfAvailable(() -> hedging.getIfAvailable(() -> httpClient))));
+    }
+
+    /**
+     * Long-poll propio con un tiempo de lectura mayor que la espera: el pool de {@code CatalogHttpClientConfig}
+     * corta las lecturas a los pocos segundos y ocuparía una de sus conexiones todo el tiempo
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("${inventory.product-changes.enabled:true} and ${inventory.product-cache.enabled:true}")
+    public ProductChangeSubscriber productChangeSubscriber(
+            CachingProductsClient cachingProductsClient,
+            MeterRegistry meterRegistry,
+            @Value("${services.catalog.url}") String catalogBaseUrl,
+            @Value("${services.catalog.api-key}") String apiKey,
+            @Value("${services.catalog.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${inventory.product-changes.wait:25s}") Duration wait,
+            @Value("${inventory.product-changes.max-backoff:30s}") Duration maxBackoff) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(wait.plusSeconds(10));
+        RestClient client = RestClient.builder()
+                .requestFactory(requestFactory)
+                .baseUrl(catalogBaseUrl)
+                .defaultHeader("X-API-KEY", apiKey)
+                .defaultHeader(HttpHeaders.ACCEPT, "application/vnd.api+json")
+                .build();
+        ProductChangeSubscriber subscriber = new ProductChangeSubscriber(
+                client, cachingProductsClient, wait, maxBackoff, meterRegistry);
+        subscriber.start();
+        return subscriber;
+    }
+}
@@ -0,0 +1,43 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.cache.CachingIdempotencyRepository;
+import com.novatrade.inventory.adapter.jpa.IdempotencyJpaRepository;
+import com.novatrade.inventory.adapter.jpa.IdempotencyKeyFilter;
+import com.novatrade.inventory.adapter.jpa.IdempotencyStorageFormat;
+import com.novatrade.inventory.adapter.jpa.InventoryJpaRepository;
+import com.novatrade.inventory.adapter.jpa.TransactionalPurchaseAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compra en una sola transacción (descuento + respuesta idempotente + compras)
+ * Solo con el motor {@code jpa}: los demás motores descuentan en memoria o en lotes propios y
+ * siguen confirmando el descuento y la respuesta por separado
+ * Se desactiva con {@code inventory.purchase-transaction.enabled=false}
+ */
+@Configuration
+public class PurchaseTransactionConfig {
+
+    @Bean
+    @ConditionalOnExpression("'${inventory.engine:jpa}' == 'jpa' and ${inventory.purchase-transaction.enabled:true}")
+    public TransactionalPurchaseAdapter transactionalPurchaseAdapter(
+            InventoryJpaRepository inventory,
+            IdempotencyJpaRepository idempotency,
+            JdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<IdempotencyKeyFilter> keyFilter,
+            ObjectProvider<CachingIdempotencyRepository> cache,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.idempotency.storage-format:compressed}") IdempotencyStorageFormat format,
+            @Value("${inventory.purchase-transaction.record-purchases:false}") boolean recordPurchases) {
+        return new TransactionalPurchaseAdapter(inventory, idempotency, jdbc, new TransactionTemplate(transactionManager),
+                format, keyFilter.getIfAvailable(), cache.getIfAvailable(), recordPurchases, meterRegistry);
+    }
+}
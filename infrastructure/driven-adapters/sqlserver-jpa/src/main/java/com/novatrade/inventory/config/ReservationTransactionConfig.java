@@ -0,0 +1,28 @@
+package com.novatrade.inventory.config;
+
+import com.novatrade.inventory.adapter.jpa.InventoryJpaRepository;
+import com.novatrade.inventory.adapter.jpa.ReservationJpaRepository;
+import com.novatrade.inventory.adapter.jpa.TransactionalReservationAdapter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Vencimiento de reservas y devolución de su stock en una sola transacción
+ * Solo con el motor {@code jpa}: con los demás el stock no vive en dbo.inventory y la devolución
+ * que falle se reintenta en el siguiente tick del planificador de vencimientos
+ */
+@Configuration
+public class ReservationTransactionConfig {
+
+    @Bean
+    @ConditionalOnExpression("'${inventory.engine:jpa}' == 'jpa'")
+    public TransactionalReservationAdapter transactionalReservationAdapter(
+            ReservationJpaRepository reservations,
+            InventoryJpaRepository inventory,
+            PlatformTransactionManager transactionManager) {
+        return new TransactionalReservationAdapter(reservations, inventory, new TransactionTemplate(transactionManager));
+    }
+}
@@ -2,25 +2,20 @@ package com.novatrade.inventory.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import java.time.Duration;
 
 @Configuration
 public class ResilienceConfig {
 
+    /**
+     * RestTemplate del catálogo sobre el pool de conexiones de {@link CatalogHttpClientConfig}
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
-    @Bean
-    public RetryConfig productServiceRetryConfig() {
-        return RetryConfig.custom()
-                .maxAttempts(3)
-                .waitDuration(Duration.ofSeconds(1))
-                .build();
+    public RestTemplate restTemplate(ClientHttpRequestFactory catalogRequestFactory) {
+        return new RestTemplate(catalogRequestFactory);
     }
 
     @Bean
@@ -0,0 +1,108 @@
+package com.novatrade.inventory.adapter.cache;
+
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CachingIdempotencyRepository
+ */
+@ExtendWith(MockitoExtension.class)
+public class CachingIdempotencyRepositoryTest {
+
+    private static final String TEST_KEY = "test-idempotency-key-123";
+    private static final String TEST_RESPONSE = "{\"data\":{\"type\":\"purchases\",\"id\":\"venta-1\"}}";
+
+    @Mock
+    private IdempotencyPort delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void savedResponseShouldBeReplayedWithoutReadingTheTable() {
+        // Arrange
+        CachingIdempotencyRepository cache = newCache(1024 * 1024);
+
+        // Act
+        cache.saveResponse(TEST_KEY, TEST_RESPONSE);
+        Optional<String> first = cache.findResponseByKey(TEST_KEY);
+        Optional<String> second = cache.findResponseByKey(TEST_KEY);
+
+        // Assert
+        assertEquals(Optional.of(TEST_RESPONSE), first);
+        assertEquals(Optional.of(TEST_RESPONSE), second);
+        verify(delegate).saveResponse(TEST_KEY, TEST_RESPONSE);
+        verify(delegate, never()).findResponseByKey(anyString());
+        assertEquals(2.0, meterRegistry.find("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void responseReadFromTheTableShouldBeCachedButMissesShouldNot() {
+        // Arrange
+        CachingIdempotencyRepository cache = newCache(1024 * 1024);
+        when(delegate.findResponseByKey(TEST_KEY)).thenReturn(Optional.of(TEST_RESPONSE));
+        when(delegate.findResponseByKey("unknown")).thenReturn(Optional.empty());
+
+        // Act
+        cache.findResponseByKey(TEST_KEY);
+        cache.findResponseByKey(TEST_KEY);
+        cache.findResponseByKey("unknown");
+        cache.findResponseByKey("unknown");
+
+        // Assert
+        verify(delegate, times(1)).findResponseByKey(TEST_KEY);
+        verify(delegate, times(2)).findResponseByKey("unknown");
+        assertEquals(3.0, meterRegistry.find("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void failedWriteShouldNotBeCached() {
+        // Arrange
+        CachingIdempotencyRepository cache = newCache(1024 * 1024);
+        doThrow(new IllegalStateException("database unavailable")).when(delegate).saveResponse(TEST_KEY, TEST_RESPONSE);
+        when(delegate.findResponseByKey(TEST_KEY)).thenReturn(Optional.empty());
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> cache.saveResponse(TEST_KEY, TEST_RESPONSE));
+        Optional<String> result = cache.findResponseByKey(TEST_KEY);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void cacheShouldStayWithinItsByteBudget() {
+        // Arrange: cada respuesta pesa ~1 KB y el presupuesto es de 8 KB
+        CachingIdempotencyRepository cache = newCache(8 * 1024);
+        String response = "x".repeat(1000);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            cache.saveResponse("key-" + i, response);
+        }
+
+        // Assert
+        assertTrue(meterRegistry.find("cache.weight").gauge().value() <= 8 * 1024);
+        assertTrue(meterRegistry.find("cache.evictions").functionCounter().count() > 0);
+    }
+
+    @Test
+    void nonLatin1ResponsesShouldWeighTwoBytesPerCharacter() {
+        // Act & Assert
+        assertEquals(4, CachingIdempotencyRepository.bytesOf("café"));
+        assertEquals(10, CachingIdempotencyRepository.bytesOf("日本語ok"));
+    }
+
+    private CachingIdempotencyRepository newCache(long maxBytes) {
+        return new CachingIdempotencyRepository(delegate, maxBytes, Duration.ofMinutes(10), meterRegistry);
+    }
+}
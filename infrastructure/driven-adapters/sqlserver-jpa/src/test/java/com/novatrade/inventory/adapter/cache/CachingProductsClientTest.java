@@ -0,0 +1,231 @@
+package com.novatrade.inventory.adapter.cache;
+
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CachingProductsClient
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingProductsClientTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+    private static final ProductDTO PRODUCT = new ProductDTO(1L, "Test Product", 10.0);
+    private static final ProductDTO REPRICED = new ProductDTO(1L, "Test Product", 12.0);
+
+    @Mock
+    private ProductsClientPort delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private CachingProductsClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new CachingProductsClient(delegate, 100, Duration.ofMinutes(5), Duration.ofMinutes(1),
+                Duration.ofMinutes(10), refreshes::add, clock, meterRegistry);
+    }
+
+    @Test
+    void freshProductShouldBeServedFromTheCache() {
+        // Arrange
+        when(delegate.getProduct(1L)).thenReturn(PRODUCT);
+
+        // Act
+        client.getProduct(1L);
+        clock.advance(Duration.ofMinutes(3));
+        ProductDTO second = client.getProduct(1L);
+
+        // Assert
+        assertEquals(PRODUCT, second);
+        verify(delegate, times(1)).getProduct(1L);
+        assertTrue(refreshes.isEmpty());
+        assertEquals(1.0, meterRegistry.find("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1L, meterRegistry.find("products.cache.load").tag("reason", "miss").timer().count());
+    }
+
+    @Test
+    void productCloseToExpiryShouldBeRefreshedOnceInTheBackground() {
+        // Arrange
+        when(delegate.getProduct(1L)).thenReturn(PRODUCT, REPRICED);
+        client.getProduct(1L);
+        clock.advance(Duration.ofMinutes(4).plusSeconds(10));
+
+        // Act
+        ProductDTO beforeRefresh = client.getProduct(1L);
+        client.getProduct(1L);
+        refreshes.forEach(Runnable::run);
+        ProductDTO afterRefresh = client.getProduct(1L);
+
+        // Assert
+        assertEquals(PRODUCT, beforeRefresh);
+        assertEquals(REPRICED, afterRefresh);
+        assertEquals(1, refreshes.size());
+        verify(delegate, times(2)).getProduct(1L);
+    }
+
+    @Test
+    void expiredProductShouldBeServedStaleWhileTheCatalogIsDown() {
+        // Arrange
+        when(delegate.getProduct(1L))
+                .thenReturn(PRODUCT)
+                .thenThrow(new RuntimeException("Product service unavailable"));
+        client.getProduct(1L);
+        clock.advance(Duration.ofMinutes(8));
+
+        // Act
+        ProductDTO stale = client.getProduct(1L);
+
+        // Assert
+        assertEquals(PRODUCT, stale);
+        assertEquals(1.0, meterRegistry.find("products.cache.stale").counter().count());
+        assertEquals(1L, meterRegistry.find("products.cache.load")
+                .tag("reason", "expired").tag("result", "failure").timer().count());
+    }
+
+    @Test
+    void productPastTheStaleWindowShouldNotBeServed() {
+        // Arrange
+        when(delegate.getProduct(1L))
+                .thenReturn(PRODUCT)
+                .thenThrow(new RuntimeException("Product service unavailable"));
+        client.getProduct(1L);
+        clock.advance(Duration.ofMinutes(16));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> client.getProduct(1L));
+        assertEquals(0.0, meterRegistry.find("products.cache.stale").counter().count());
+    }
+
+    @Test
+    void deletedProductShouldBeDroppedInsteadOfServedStale() {
+        // Arrange
+        when(delegate.getProduct(1L))
+                .thenReturn(PRODUCT)
+                .thenThrow(new NoSuchElementException("Product not found with ID: 1"));
+        client.getProduct(1L);
+        clock.advance(Duration.ofMinutes(6));
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> client.getProduct(1L));
+        assertThrows(NoSuchElementException.class, () -> client.getProduct(1L));
+        verify(delegate, times(3)).getProduct(1L);
+    }
+
+    @Test
+    void invalidatedProductShouldBeReadAgainFromTheCatalog() {
+        // Arrange
+        when(delegate.getProduct(1L)).thenReturn(PRODUCT, REPRICED);
+        client.getProduct(1L);
+
+        // Act
+        client.invalidate(1L);
+        ProductDTO afterChange = client.getProduct(1L);
+        client.invalidateAll();
+        client.getProduct(1L);
+
+        // Assert
+        assertEquals(REPRICED, afterChange);
+        verify(delegate, times(3)).getProduct(1L);
+    }
+
+    @Test
+    void batchShouldServeCachedProductsAndFetchAllMissesInOneCall() {
+        // Arrange
+        ProductDTO second = new ProductDTO(2L, "Second", 5.0);
+        ProductDTO third = new ProductDTO(3L, "Third", 7.0);
+        when(delegate.getProduct(1L)).thenReturn(PRODUCT);
+        when(delegate.getProducts(List.of(2L, 3L))).thenReturn(Map.of(2L, second, 3L, third));
+        client.getProduct(1L);
+
+        // Act
+        Map<Long, ProductDTO> first = client.getProducts(List.of(1L, 2L, 3L));
+        Map<Long, ProductDTO> again = client.getProducts(List.of(3L, 2L, 1L));
+
+        // Assert
+        assertEquals(Map.of(1L, PRODUCT, 2L, second, 3L, third), first);
+        assertEquals(List.of(3L, 2L, 1L), List.copyOf(again.keySet()));
+        verify(delegate, times(1)).getProducts(anyCollection());
+        verify(delegate, never()).getProduct(2L);
+        verify(delegate, never()).getProduct(3L);
+    }
+
+    @Test
+    void expiredBatchShouldBeServedStaleOnlyWhenEveryMissIsCached() {
+        // Arrange
+        when(delegate.getProducts(List.of(1L))).thenReturn(Map.of(1L, PRODUCT));
+        when(delegate.getProducts(List.of(1L, 9L))).thenThrow(new IllegalStateException("catalog down"));
+        client.getProducts(List.of(1L));
+        clock.advance(Duration.ofMinutes(6));
+        when(delegate.getProducts(List.of(1L))).thenThrow(new IllegalStateException("catalog down"));
+
+        // Act
+        Map<Long, ProductDTO> stale = client.getProducts(List.of(1L));
+
+        // Assert
+        assertEquals(Map.of(1L, PRODUCT), stale);
+        assertEquals(1.0, meterRegistry.get("products.cache.stale").counter().count());
+        assertThrows(IllegalStateException.class, () -> client.getProducts(List.of(1L, 9L)));
+    }
+
+    @Test
+    void lastKnownVersionShouldNotBeKeptAsFresh() {
+        // Arrange
+        ProductDTO lastKnown = new ProductDTO(1L, "Test Product", 10.0, true);
+        when(delegate.getProduct(1L)).thenReturn(lastKnown, PRODUCT);
+
+        // Act
+        ProductDTO first = client.getProduct(1L);
+        ProductDTO second = client.getProduct(1L);
+
+        // Assert
+        assertTrue(first.stale());
+        assertFalse(second.stale());
+        verify(delegate, times(2)).getProduct(1L);
+        assertEquals(1L, meterRegistry.find("products.cache.load").tag("result", "stale").timer().count());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = NOW;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.novatrade.inventory.adapter.cache;
+
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para LastKnownGoodProducts
+ */
+class LastKnownGoodProductsTest {
+
+    private static final ProductDTO PRODUCT = new ProductDTO(1L, "Café molido", 10.0);
+    private static final ProductDTO UNNAMED = new ProductDTO(2L, null, null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void productShouldBeServedAsStaleUntilMaxStaleness() {
+        // Arrange
+        LastKnownGoodProducts store = new LastKnownGoodProducts(100, Duration.ofHours(1), null, clock, meterRegistry);
+        store.record(PRODUCT);
+
+        // Act
+        clock.advance(Duration.ofMinutes(59));
+        Optional<ProductDTO> withinLimit = store.find(1L);
+        clock.advance(Duration.ofMinutes(2));
+        Optional<ProductDTO> pastLimit = store.find(1L);
+
+        // Assert
+        assertEquals(new ProductDTO(1L, "Café molido", 10.0, true), withinLimit.orElseThrow());
+        assertTrue(pastLimit.isEmpty());
+        assertEquals(1.0, meterRegistry.find("products.last-known-good.lookups").tag("result", "served").counter().count());
+    }
+
+    @Test
+    void batchShouldBeServedOnlyIfEveryProductIsKnown() {
+        // Arrange
+        LastKnownGoodProducts store = new LastKnownGoodProducts(100, Duration.ofHours(1), null, clock, meterRegistry);
+        store.record(PRODUCT);
+        store.record(UNNAMED);
+
+        // Act
+        Optional<Map<Long, ProductDTO>> known = store.findAll(List.of(1L, 2L));
+        Optional<Map<Long, ProductDTO>> partial = store.findAll(List.of(1L, 3L));
+
+        // Assert
+        assertEquals(2, known.orElseThrow().size());
+        assertTrue(partial.isEmpty());
+        assertEquals(1.0, meterRegistry.find("products.last-known-good.lookups").tag("result", "missing").counter().count());
+    }
+
+    @Test
+    void productsShouldSurviveARestartThroughTheMappedFile() throws Exception {
+        // Arrange
+        Path file = directory.resolve("last-known-products.bin");
+        LastKnownGoodProducts before = new LastKnownGoodProducts(100, Duration.ofHours(1), file, clock, meterRegistry);
+        before.record(PRODUCT);
+        before.record(UNNAMED);
+        before.record(new ProductDTO(3L, "x".repeat(LastKnownGoodProducts.MAX_NAME_BYTES + 1), 1.0));
+        before.close();
+
+        // Act
+        clock.advance(Duration.ofMinutes(30));
+        LastKnownGoodProducts after = new LastKnownGoodProducts(100, Duration.ofHours(1), file, clock, meterRegistry);
+
+        // Assert
+        assertEquals(new ProductDTO(1L, "Café molido", 10.0, true), after.find(1L).orElseThrow());
+        assertEquals(new ProductDTO(2L, null, null, true), after.find(2L).orElseThrow());
+        assertTrue(after.find(3L).isEmpty());
+        after.close();
+    }
+
+    @Test
+    void fileWithAnotherLayoutShouldBeStartedAgain() throws Exception {
+        // Arrange
+        Path file = directory.resolve("last-known-products.bin");
+        LastKnownGoodProducts before = new LastKnownGoodProducts(100, Duration.ofHours(1), file, clock, meterRegistry);
+        before.record(PRODUCT);
+        before.close();
+
+        // Act
+        LastKnownGoodProducts after = new LastKnownGoodProducts(50, Duration.ofHours(1), file, clock, meterRegistry);
+
+        // Assert
+        assertTrue(after.find(1L).isEmpty());
+        assertEquals(16L + 50L * LastKnownGoodProducts.SLOT_SIZE, Files.size(file));
+        after.close();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-06-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CoalescingProductsClient
+ */
+@ExtendWith(MockitoExtension.class)
+class CoalescingProductsClientTest {
+
+    private static final ProductDTO FIRST = new ProductDTO(1L, "First", 10.0);
+    private static final ProductDTO SECOND = new ProductDTO(2L, "Second", 5.0);
+
+    @Mock
+    private ProductsClientPort delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private CoalescingProductsClient client;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    void concurrentLookupsShouldBeMergedIntoOneBatchRequest() throws Exception {
+        // Arrange
+        client = new CoalescingProductsClient(delegate, Duration.ofMillis(200), 100, meterRegistry);
+        when(delegate.getProducts(Set.of(1L, 2L))).thenReturn(Map.of(1L, FIRST, 2L, SECOND));
+
+        // Act
+        List<Future<ProductDTO>> lookups = new ArrayList<>();
+        for (long id : new long[]{1L, 2L, 1L, 2L}) {
+            lookups.add(callers.submit(() -> client.getProduct(id)));
+        }
+
+        // Assert
+        assertEquals(FIRST, lookups.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(SECOND, lookups.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals(FIRST, lookups.get(2).get(5, TimeUnit.SECONDS));
+        assertEquals(SECOND, lookups.get(3).get(5, TimeUnit.SECONDS));
+        verify(delegate, times(1)).getProducts(anyCollection());
+        verify(delegate, never()).getProduct(anyLong());
+        assertEquals(2.0, meterRegistry.find("products.client.batch.size").summary().max());
+    }
+
+    @Test
+    void fullBatchShouldBeRequestedWithoutWaitingForTheWindow() throws Exception {
+        // Arrange
+        client = new CoalescingProductsClient(delegate, Duration.ofMinutes(1), 2, meterRegistry);
+        when(delegate.getProducts(Set.of(1L, 2L))).thenReturn(Map.of(1L, FIRST, 2L, SECOND));
+
+        // Act
+        Future<ProductDTO> first = callers.submit(() -> client.getProduct(1L));
+        Future<ProductDTO> second = callers.submit(() -> client.getProduct(2L));
+
+        // Assert
+        assertEquals(FIRST, first.get(5, TimeUnit.SECONDS));
+        assertEquals(SECOND, second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void singleLookupShouldUseTheSingleProductRequest() {
+        // Arrange
+        client = new CoalescingProductsClient(delegate, Duration.ofMillis(1), 100, meterRegistry);
+        when(delegate.getProduct(1L)).thenReturn(FIRST);
+
+        // Act
+        ProductDTO product = client.getProduct(1L);
+
+        // Assert
+        assertEquals(FIRST, product);
+        verify(delegate, never()).getProducts(anyCollection());
+    }
+
+    @Test
+    void missingProductAndBatchFailureShouldReachEveryCaller() throws Exception {
+        // Arrange
+        client = new CoalescingProductsClient(delegate, Duration.ofMinutes(1), 2, meterRegistry);
+        when(delegate.getProducts(Set.of(1L, 2L)))
+                .thenReturn(Map.of(1L, FIRST))
+                .thenThrow(new RuntimeException("Product service unavailable"));
+
+        // Act
+        Future<ProductDTO> found = callers.submit(() -> client.getProduct(1L));
+        Future<ProductDTO> missing = callers.submit(() -> client.getProduct(2L));
+        assertEquals(FIRST, found.get(5, TimeUnit.SECONDS));
+        ExecutionException notFound = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+
+        Future<ProductDTO> failedFirst = callers.submit(() -> client.getProduct(1L));
+        Future<ProductDTO> failedSecond = callers.submit(() -> client.getProduct(2L));
+        ExecutionException down = assertThrows(ExecutionException.class, () -> failedFirst.get(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertInstanceOf(NoSuchElementException.class, notFound.getCause());
+        assertEquals("Product service unavailable", down.getCause().getMessage());
+        assertThrows(ExecutionException.class, () -> failedSecond.get(5, TimeUnit.SECONDS));
+    }
+}
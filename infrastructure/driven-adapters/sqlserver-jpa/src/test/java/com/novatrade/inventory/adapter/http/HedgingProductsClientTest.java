@@ -0,0 +1,107 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para HedgingProductsClient
+ */
+@ExtendWith(MockitoExtension.class)
+class HedgingProductsClientTest {
+
+    private static final ProductDTO FIRST = new ProductDTO(1L, "First", 10.0);
+    private static final ProductDTO SECOND = new ProductDTO(2L, "Second", 5.0);
+
+    @Mock
+    private ProductsClientPort delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgingProductsClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void slowRequestShouldBeOvertakenByTheHedge() {
+        // Arrange
+        client = new HedgingProductsClient(delegate, 0.95, Duration.ofMillis(20), Duration.ofSeconds(1), 0.1, meterRegistry);
+        warmUp();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getProduct(2L)).thenAnswer(invocation -> {
+            if (attempts.getAndIncrement() == 0) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return SECOND;
+        });
+
+        // Act
+        ProductDTO product = client.getProduct(2L);
+        release.countDown();
+
+        // Assert
+        assertEquals(SECOND, product);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.find("products.client.requests").tag("attempt", "hedge").counter().count());
+        assertEquals(1.0, meterRegistry.find("products.client.hedge.wins").counter().count());
+    }
+
+    @Test
+    void exhaustedBudgetShouldWaitForTheFirstRequest() {
+        // Arrange
+        client = new HedgingProductsClient(delegate, 0.95, Duration.ofMillis(20), Duration.ofSeconds(1), 0.0, meterRegistry);
+        warmUp();
+        when(delegate.getProduct(2L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return SECOND;
+        });
+
+        // Act
+        ProductDTO product = client.getProduct(2L);
+
+        // Assert
+        assertEquals(SECOND, product);
+        verify(delegate, times(1)).getProduct(2L);
+        assertEquals(1.0, meterRegistry.find("products.client.hedge.denied").counter().count());
+        assertEquals(0.0, meterRegistry.find("products.client.requests").tag("attempt", "hedge").counter().count());
+    }
+
+    @Test
+    void notFoundShouldBeAnAnswerAndNotAFailure() {
+        // Arrange
+        client = new HedgingProductsClient(delegate, 0.95, Duration.ofMillis(20), Duration.ofSeconds(1), 0.1, meterRegistry);
+        when(delegate.getProduct(3L)).thenThrow(new NoSuchElementException("Product not found with ID: 3"));
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> client.getProduct(3L));
+        verify(delegate, times(1)).getProduct(3L);
+    }
+
+    /**
+     * Respuestas inmediatas hasta tener latencias suficientes para fijar la espera del respaldo
+     */
+    private void warmUp() {
+        when(delegate.getProduct(1L)).thenReturn(FIRST);
+        for (int i = 0; i < HedgingProductsClient.MIN_SAMPLES; i++) {
+            client.getProduct(1L);
+        }
+        assertEquals(Duration.ofMillis(20).toNanos(), client.hedgeDelayNanos());
+    }
+}
@@ -0,0 +1,119 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.adapter.cache.CachingProductsClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Pruebas unitarias para ProductChangeSubscriber
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductChangeSubscriberTest {
+
+    private static final String CHANGES = "http://catalog-ms:8081/api/v1/product-changes";
+    private static final MediaType JSON_API = MediaType.valueOf("application/vnd.api+json");
+
+    @Mock
+    private CachingProductsClient cache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockRestServiceServer catalog;
+    private ProductChangeSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://catalog-ms:8081");
+        catalog = MockRestServiceServer.bindTo(builder).build();
+        subscriber = new ProductChangeSubscriber(builder.build(), cache, Duration.ofSeconds(25),
+                Duration.ofSeconds(30), meterRegistry);
+    }
+
+    @Test
+    void changedProductsShouldBeInvalidatedAfterTheInitialResync() {
+        // Arrange
+        catalog.expect(requestTo(CHANGES + "?limit=500&wait=25")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(page("[]", "4", 4, true), JSON_API));
+        catalog.expect(requestTo(CHANGES + "?after=4&limit=500&wait=25"))
+                .andRespond(withSuccess(page(changes(5, 7L) + "," + changes(6, 9L), "6", 6, false), JSON_API));
+
+        // Act
+        subscriber.poll();
+        subscriber.poll();
+
+        // Assert
+        catalog.verify();
+        verify(cache, times(1)).invalidateAll();
+        verify(cache).invalidate(7L);
+        verify(cache).invalidate(9L);
+        assertEquals(2.0, meterRegistry.find("products.cache.invalidations").counter().count());
+        assertEquals(1.0, meterRegistry.find("products.cache.resyncs").counter().count());
+    }
+
+    @Test
+    void gapsBetweenPositionsShouldNotClearTheCache() {
+        // Arrange
+        catalog.expect(requestTo(CHANGES + "?limit=500&wait=25"))
+                .andRespond(withSuccess(page("[]", "4", 4, true), JSON_API));
+        catalog.expect(requestTo(CHANGES + "?after=4&limit=500&wait=25"))
+                .andRespond(withSuccess(page(changes(9, 7L) + "," + changes(15, 9L), "20", 20, false), JSON_API));
+
+        // Act
+        subscriber.poll();
+        subscriber.poll();
+
+        // Assert
+        verify(cache, times(1)).invalidateAll();
+        verify(cache).invalidate(7L);
+        verify(cache).invalidate(9L);
+        assertEquals(1.0, meterRegistry.find("products.cache.resyncs").counter().count());
+    }
+
+    @Test
+    void resyncAfterAnUnknownTokenShouldClearTheWholeCache() {
+        // Arrange
+        catalog.expect(requestTo(CHANGES + "?limit=500&wait=25"))
+                .andRespond(withSuccess(page("[]", "4", 4, true), JSON_API));
+        catalog.expect(requestTo(CHANGES + "?after=4&limit=500&wait=25"))
+                .andRespond(withSuccess(page("[]", "2", 2, true), JSON_API));
+
+        // Act
+        subscriber.poll();
+        subscriber.poll();
+
+        // Assert
+        verify(cache, times(2)).invalidateAll();
+        verify(cache, never()).invalidate(anyLong());
+        assertEquals(2.0, meterRegistry.find("products.cache.resyncs").counter().count());
+        assertEquals(0.0, meterRegistry.find("products.cache.invalidations").counter().count());
+    }
+
+    private static String changes(long sequence, long productId) {
+        return """
+                {"type": "product-changes", "id": "%d",
+                 "attributes": {"productId": %d, "change": "UPDATED", "changedAt": "2024-06-01T10:00:00Z"}}
+                """.formatted(sequence, productId);
+    }
+
+    private static String page(String data, String next, long sequence, boolean resync) {
+        String items = data.startsWith("[") ? data : "[" + data + "]";
+        return """
+                {"data": %s, "meta": {"next": "%s", "sequence": %d, "resync": %b}}
+                """.formatted(items, next, sequence, resync);
+    }
+}
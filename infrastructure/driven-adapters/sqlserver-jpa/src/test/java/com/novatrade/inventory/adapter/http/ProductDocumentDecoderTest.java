@@ -0,0 +1,86 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.adapter.http.ProductDocumentDecoder.MalformedDocumentException;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ProductDocumentDecoder
+ */
+class ProductDocumentDecoderTest {
+
+    @Test
+    void productShouldBeReadSkippingUnknownMembers() throws IOException {
+        // Arrange
+        InputStream body = json("""
+                {
+                  "jsonapi": {"version": "1.1"},
+                  "data": {
+                    "type": "products",
+                    "attributes": {
+                      "description": "Texto largo que no se usa",
+                      "tags": ["a", {"nested": [1, 2, 3]}],
+                      "price": 100.5,
+                      "name": "Test Product"
+                    },
+                    "links": {"self": "/api/v1/products/42"},
+                    "id": "42"
+                  },
+                  "meta": {"total": 1}
+                }
+                """);
+
+        // Act
+        ProductDTO product = ProductDocumentDecoder.readProduct(body);
+
+        // Assert
+        assertEquals(new ProductDTO(42L, "Test Product", 100.5), product);
+    }
+
+    @Test
+    void collectionShouldBeReadInDocumentOrder() throws IOException {
+        // Arrange
+        InputStream body = json("""
+                {"data": [
+                  {"type": "products", "id": "3", "attributes": {"name": "Third", "price": 2}},
+                  {"type": "products", "id": 1, "attributes": {"name": "First", "price": 10.0}}
+                ]}
+                """);
+
+        // Act
+        Map<Long, ProductDTO> products = ProductDocumentDecoder.readProducts(body);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), List.copyOf(products.keySet()));
+        assertEquals(new ProductDTO(3L, "Third", 2.0), products.get(3L));
+        assertEquals(new ProductDTO(1L, "First", 10.0), products.get(1L));
+    }
+
+    @Test
+    void incompleteOrInvalidDocumentsShouldBeRejected() {
+        // Act & Assert
+        assertEquals("Failed to parse response: missing data field", assertThrows(MalformedDocumentException.class,
+                () -> ProductDocumentDecoder.readProduct(json("{\"errors\": []}"))).getMessage());
+        assertEquals("Failed to parse response: missing required attributes", assertThrows(MalformedDocumentException.class,
+                () -> ProductDocumentDecoder.readProduct(json("{\"data\": {\"id\": \"1\", \"attributes\": {\"name\": \"A\"}}}"))).getMessage());
+        assertEquals("Failed to parse response: invalid id", assertThrows(MalformedDocumentException.class,
+                () -> ProductDocumentDecoder.readProduct(json("{\"data\": {\"id\": \"x1\", \"attributes\": {\"name\": \"A\", \"price\": 1}}}"))).getMessage());
+        assertEquals("Failed to parse response: missing data array", assertThrows(MalformedDocumentException.class,
+                () -> ProductDocumentDecoder.readProducts(json("{\"data\": {}}"))).getMessage());
+        assertTrue(assertThrows(MalformedDocumentException.class,
+                () -> ProductDocumentDecoder.readProduct(json("{ invalid json }"))).getMessage().startsWith("Failed to parse response"));
+    }
+
+    private static InputStream json(String document) {
+        return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+    }
+}
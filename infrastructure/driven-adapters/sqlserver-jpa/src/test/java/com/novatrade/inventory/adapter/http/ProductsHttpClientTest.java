@@ -1,20 +1,38 @@
 package com.novatrade.inventory.adapter.http;
 
+import com.novatrade.inventory.adapter.cache.LastKnownGoodProducts;
+import com.novatrade.inventory.model.Deadline;
 import com.novatrade.inventory.model.ports.ProductsClientPort;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,15 +48,17 @@ public class ProductsHttpClientTest {
     private ProductsHttpClient client;
     private final String baseUrl = "http://catalog-ms:8081";
     private final String apiKey = "test_api_key";
+    private final LastKnownGoodProducts lastKnownGood = new LastKnownGoodProducts(
+            100, Duration.ofHours(1), null, Clock.systemUTC(), new SimpleMeterRegistry());
 
     @BeforeEach
     void setUp() {
-        client = new ProductsHttpClient(restTemplate, baseUrl, apiKey);
+        client = new ProductsHttpClient(restTemplate, baseUrl, apiKey, lastKnownGood);
     }
 
     @Test
     @DisplayName("Should return product when catalog service responds correctly")
-    void shouldReturnProductWhenCatalogServiceRespondsCorrectly() {
+    void shouldReturnProductWhenCatalogServiceRespondsCorrectly() throws IOException {
         // Given
         String jsonResponse = """
                 {
@@ -54,14 +74,7 @@ public class ProductsHttpClientTest {
                 }
                 """;
 
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(jsonResponse, HttpStatus.OK);
-
-        when(restTemplate.exchange(
-            anyString(),
-            eq(HttpMethod.GET),
-            any(HttpEntity.class),
-            eq(String.class)
-        )).thenReturn(responseEntity);
+        respondWith(jsonResponse);
 
         // When
         ProductsClientPort.ProductDTO product = client.getProduct(1L);
@@ -73,27 +86,30 @@ public class ProductsHttpClientTest {
         assertEquals(100.0, product.price(), 0.001);
 
         // Verify correct URL and headers were used
-        verify(restTemplate).exchange(
+        ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+        verify(restTemplate).execute(
             eq(baseUrl + "/api/v1/products/1"),
             eq(HttpMethod.GET),
-            argThat(entity -> {
-                assertEquals(apiKey, entity.getHeaders().getFirst("X-API-Key"));
-                assertEquals("application/vnd.api+json", entity.getHeaders().getFirst("Accept"));
-                return true;
-            }),
-            eq(String.class)
+            callback.capture(),
+            any(ResponseExtractor.class)
         );
+        HttpHeaders sent = new HttpHeaders();
+        ClientHttpRequest request = mock(ClientHttpRequest.class);
+        when(request.getHeaders()).thenReturn(sent);
+        callback.getValue().doWithRequest(request);
+        assertEquals(apiKey, sent.getFirst("X-API-Key"));
+        assertEquals("application/vnd.api+json", sent.getFirst("Accept"));
     }
 
     @Test
     @DisplayName("Should throw NoSuchElementException when product is not found")
     void shouldThrowExceptionWhenProductNotFound() {
         // Given
-        when(restTemplate.exchange(
+        when(restTemplate.execute(
             anyString(),
             eq(HttpMethod.GET),
-            any(HttpEntity.class),
-            eq(String.class)
+            any(RequestCallback.class),
+            any(ResponseExtractor.class)
         )).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND, "Not Found"));
 
         // When and Then
@@ -109,36 +125,90 @@ public class ProductsHttpClientTest {
     @DisplayName("Should throw RuntimeException when connection fails")
     void shouldThrowRuntimeExceptionWhenConnectionFails() {
         // Given
-        when(restTemplate.exchange(
+        when(restTemplate.execute(
             anyString(),
             eq(HttpMethod.GET),
-            any(HttpEntity.class),
-            eq(String.class)
+            any(RequestCallback.class),
+            any(ResponseExtractor.class)
         )).thenThrow(new ResourceAccessException("Connection refused"));
 
         // When and Then
-        RuntimeException exception = assertThrows(
-            RuntimeException.class,
+        CatalogCallException exception = assertThrows(
+            CatalogCallException.class,
             () -> client.getProduct(1L)
         );
 
         assertTrue(exception.getMessage().contains("Failed to connect"));
+        assertEquals(CatalogCallException.NO_RESPONSE, exception.getStatus());
+        assertTrue(exception.isRetryable());
     }
 
     @Test
-    @DisplayName("Should throw RuntimeException when response body is invalid")
-    void shouldThrowRuntimeExceptionWhenResponseBodyIsInvalid() {
+    @DisplayName("Should keep the catalog status so only 5xx and 429 are retried")
+    void shouldKeepTheCatalogStatusSoOnlyServerErrorsAreRetried() {
         // Given
-        String invalidJsonResponse = "{ invalid json }";
+        when(restTemplate.execute(
+            anyString(),
+            eq(HttpMethod.GET),
+            any(RequestCallback.class),
+            any(ResponseExtractor.class)
+        )).thenThrow(new HttpClientErrorException(HttpStatus.FORBIDDEN, "Forbidden"))
+          .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable"))
+          .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests"));
 
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(invalidJsonResponse, HttpStatus.OK);
+        // When
+        CatalogCallException forbidden = assertThrows(CatalogCallException.class, () -> client.getProduct(1L));
+        CatalogCallException unavailable = assertThrows(CatalogCallException.class, () -> client.getProducts(List.of(1L, 2L)));
+        CatalogCallException throttled = assertThrows(CatalogCallException.class, () -> client.getProduct(1L));
 
-        when(restTemplate.exchange(
+        // Then
+        assertEquals(403, forbidden.getStatus());
+        assertFalse(forbidden.isRetryable());
+        assertEquals(503, unavailable.getStatus());
+        assertTrue(unavailable.isRetryable());
+        assertEquals(429, throttled.getStatus());
+        assertTrue(throttled.isRetryable());
+    }
+
+    @Test
+    @DisplayName("Should report a timeout or 504 past the request deadline as deadline exceeded")
+    void shouldReportFailuresPastTheDeadlineAsDeadlineExceeded() {
+        // Given
+        when(restTemplate.execute(
             anyString(),
             eq(HttpMethod.GET),
-            any(HttpEntity.class),
-            eq(String.class)
-        )).thenReturn(responseEntity);
+            any(RequestCallback.class),
+            any(ResponseExtractor.class)
+        )).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            throw new ResourceAccessException("Read timed out");
+        }).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            throw new HttpServerErrorException(HttpStatus.GATEWAY_TIMEOUT, "Gateway Timeout");
+        });
+
+        // Igual que productService en application.yml
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("productService", CircuitBreakerConfig.custom()
+            .ignoreExceptions(NoSuchElementException.class, Deadline.DeadlineExceededException.class)
+            .build());
+
+        // When and Then
+        assertThrows(Deadline.DeadlineExceededException.class,
+            () -> Deadline.callWithin(Deadline.after(Duration.ofMillis(10)),
+                () -> circuitBreaker.executeSupplier(() -> client.getProduct(1L))));
+        assertThrows(Deadline.DeadlineExceededException.class,
+            () -> Deadline.callWithin(Deadline.after(Duration.ofMillis(10)),
+                () -> circuitBreaker.executeSupplier(() -> client.getProducts(List.of(1L, 2L)))));
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("Should throw RuntimeException when response body is invalid")
+    void shouldThrowRuntimeExceptionWhenResponseBodyIsInvalid() {
+        // Given
+        String invalidJsonResponse = "{ invalid json }";
+
+        respondWith(invalidJsonResponse);
 
         // When and Then
         RuntimeException exception = assertThrows(
@@ -166,14 +236,7 @@ public class ProductsHttpClientTest {
                 }
                 """;
 
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(incompleteJsonResponse, HttpStatus.OK);
-
-        when(restTemplate.exchange(
-            anyString(),
-            eq(HttpMethod.GET),
-            any(HttpEntity.class),
-            eq(String.class)
-        )).thenReturn(responseEntity);
+        respondWith(incompleteJsonResponse);
 
         // When and Then
         RuntimeException exception = assertThrows(
@@ -183,4 +246,122 @@ public class ProductsHttpClientTest {
 
         assertTrue(exception.getMessage().contains("Failed to parse"));
     }
+
+    @Test
+    @DisplayName("Should fetch several products with one filtered request")
+    void shouldFetchSeveralProductsWithOneFilteredRequest() {
+        // Given
+        String jsonResponse = """
+                {
+                  "data": [
+                    {"type": "products", "id": "1", "attributes": {"name": "First", "price": 10.0}},
+                    {"type": "products", "id": "3", "attributes": {"name": "Third", "price": 2.5}}
+                  ]
+                }
+                """;
+
+        respondWith(jsonResponse);
+
+        // When
+        Map<Long, ProductsClientPort.ProductDTO> products = client.getProducts(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(2, products.size());
+        assertEquals("First", products.get(1L).name());
+        assertEquals(2.5, products.get(3L).price(), 0.001);
+        assertNull(products.get(2L));
+        verify(restTemplate, times(1)).execute(
+            eq(baseUrl + "/api/v1/products?filter[id]=1,2,3"),
+            eq(HttpMethod.GET),
+            any(RequestCallback.class),
+            any(ResponseExtractor.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Should serve the last known product marked as stale while the circuit is open")
+    void shouldServeLastKnownProductWhileCircuitIsOpen() {
+        // Given
+        respondWith("""
+                {"data": {"type": "products", "id": "1", "attributes": {"name": "Test Product", "price": 100.0}}}
+                """);
+        client.getProduct(1L);
+
+        // When
+        ProductsClientPort.ProductDTO product = client.getLastKnownProduct(1L, circuitOpen());
+
+        // Then
+        assertTrue(product.stale());
+        assertEquals("Test Product", product.name());
+        assertEquals(100.0, product.price(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should keep failing while the circuit is open if a product was never read")
+    void shouldFailWhileCircuitIsOpenWithoutLastKnownProduct() {
+        // Given
+        respondWith("""
+                {"data": [{"type": "products", "id": "1", "attributes": {"name": "First", "price": 10.0}}]}
+                """);
+        client.getProducts(List.of(1L));
+        CallNotPermittedException open = circuitOpen();
+
+        // When and Then
+        assertEquals(1, client.getLastKnownProducts(List.of(1L), open).size());
+        assertSame(open, assertThrows(CallNotPermittedException.class,
+            () -> client.getLastKnownProducts(List.of(1L, 2L), open)));
+    }
+
+    @Test
+    @DisplayName("Should send the remaining request deadline to the catalog service")
+    void shouldSendRemainingDeadlineToCatalogService() throws IOException {
+        // Given
+        respondWith("""
+                {"data": {"type": "products", "id": "1", "attributes": {"name": "Test Product", "price": 100.0}}}
+                """);
+
+        // When
+        Deadline.runWithin(Deadline.after(Duration.ofSeconds(2)), () -> client.getProduct(1L));
+
+        // Then
+        ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+        verify(restTemplate).execute(anyString(), eq(HttpMethod.GET), callback.capture(), any(ResponseExtractor.class));
+        HttpHeaders sent = new HttpHeaders();
+        ClientHttpRequest request = mock(ClientHttpRequest.class);
+        when(request.getHeaders()).thenReturn(sent);
+        callback.getValue().doWithRequest(request);
+        long remaining = Long.parseLong(sent.getFirst("X-Request-Timeout"));
+        assertTrue(remaining > 0 && remaining <= 2000);
+    }
+
+    @Test
+    @DisplayName("Should not call the catalog service once the request deadline has passed")
+    void shouldNotCallCatalogServiceAfterDeadline() {
+        // When and Then
+        assertThrows(Deadline.DeadlineExceededException.class,
+            () -> Deadline.runWithin(Deadline.after(Duration.ZERO), () -> client.getProduct(1L)));
+        verifyNoInteractions(restTemplate);
+    }
+
+    private static CallNotPermittedException circuitOpen() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("productService");
+        circuitBreaker.transitionToOpenState();
+        return CallNotPermittedException.createCallNotPermittedException(circuitBreaker);
+    }
+
+    /**
+     * El RestTemplate simulado entrega el cuerpo como flujo al extractor de la respuesta, como el real
+     */
+    private void respondWith(String body) {
+        when(restTemplate.execute(
+            anyString(),
+            eq(HttpMethod.GET),
+            any(RequestCallback.class),
+            any(ResponseExtractor.class)
+        )).thenAnswer(invocation -> {
+            ClientHttpResponse response = mock(ClientHttpResponse.class);
+            when(response.getBody()).thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+            return invocation.<ResponseExtractor<?>>getArgument(3).extractData(response);
+        });
+    }
 }
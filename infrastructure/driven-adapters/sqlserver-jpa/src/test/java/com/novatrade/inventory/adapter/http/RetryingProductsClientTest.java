@@ -0,0 +1,160 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.Deadline;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para RetryingProductsClient
+ */
+@ExtendWith(MockitoExtension.class)
+class RetryingProductsClientTest {
+
+    private static final ProductDTO PRODUCT = new ProductDTO(1L, "Test Product", 10.0);
+
+    private static CatalogCallException connectionFailure() {
+        return new CatalogCallException("Failed to connect to product service", CatalogCallException.NO_RESPONSE, null);
+    }
+
+    @Mock
+    private ProductsClientPort delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RetryingProductsClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void failedCallShouldBeRetriedOnTheScheduler() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 1.0, meterRegistry);
+        AtomicReference<Thread> retryThread = new AtomicReference<>();
+        when(delegate.getProduct(1L))
+                .thenThrow(connectionFailure())
+                .thenAnswer(invocation -> {
+                    retryThread.set(Thread.currentThread());
+                    return PRODUCT;
+                });
+
+        // Act
+        ProductDTO product = client.getProduct(1L);
+
+        // Assert
+        assertEquals(PRODUCT, product);
+        assertNotSame(Thread.currentThread(), retryThread.get());
+        verify(delegate, times(2)).getProduct(1L);
+        assertEquals(1.0, meterRegistry.find("products.client.retries").counter().count());
+    }
+
+    @Test
+    void exhaustedBudgetShouldReturnTheErrorWithoutRetrying() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 0.0, meterRegistry);
+        when(delegate.getProduct(1L)).thenThrow(connectionFailure());
+
+        // Act & Assert
+        RuntimeException error = assertThrows(RuntimeException.class, () -> client.getProduct(1L));
+        assertEquals("Failed to connect to product service", error.getMessage());
+        verify(delegate, times(1)).getProduct(1L);
+        assertEquals(1.0, meterRegistry.find("products.client.retries.denied").counter().count());
+    }
+
+    @Test
+    void retriesShouldStopAtMaxAttempts() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 2.0, meterRegistry);
+        when(delegate.getProduct(1L)).thenThrow(connectionFailure());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> client.getProduct(1L));
+        verify(delegate, times(3)).getProduct(1L);
+        assertEquals(2.0, meterRegistry.find("products.client.retries").counter().count());
+    }
+
+    @Test
+    void notFoundShouldNotBeRetried() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 1.0, meterRegistry);
+        when(delegate.getProduct(3L)).thenThrow(new NoSuchElementException("Product not found with ID: 3"));
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> client.getProduct(3L));
+        verify(delegate, times(1)).getProduct(3L);
+    }
+
+    @Test
+    void clientErrorsAndMalformedDocumentsShouldNotBeRetried() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 1.0, meterRegistry);
+        when(delegate.getProduct(1L)).thenThrow(new CatalogCallException("Forbidden", 403, null));
+        when(delegate.getProduct(2L)).thenThrow(new ProductDocumentDecoder.MalformedDocumentException("missing data field"));
+
+        // Act & Assert
+        CatalogCallException forbidden = assertThrows(CatalogCallException.class, () -> client.getProduct(1L));
+        assertEquals(403, forbidden.getStatus());
+        assertThrows(ProductDocumentDecoder.MalformedDocumentException.class, () -> client.getProduct(2L));
+        verify(delegate, times(1)).getProduct(1L);
+        verify(delegate, times(1)).getProduct(2L);
+        assertEquals(0.0, meterRegistry.find("products.client.retries").counter().count());
+    }
+
+    @Test
+    void serverErrorsAndThrottlingShouldBeRetried() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 2.0, meterRegistry);
+        when(delegate.getProduct(1L))
+                .thenThrow(new CatalogCallException("Service Unavailable", 503, null))
+                .thenThrow(new CatalogCallException("Too Many Requests", 429, null))
+                .thenReturn(PRODUCT);
+
+        // Act
+        ProductDTO product = client.getProduct(1L);
+
+        // Assert
+        assertEquals(PRODUCT, product);
+        verify(delegate, times(3)).getProduct(1L);
+        assertEquals(2.0, meterRegistry.find("products.client.retries").counter().count());
+    }
+
+    @Test
+    void retryThatWouldStartPastTheDeadlineShouldNotBeScheduled() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 3, Duration.ofMillis(5), Duration.ofMillis(20), 1.0, meterRegistry);
+        when(delegate.getProduct(1L)).thenThrow(connectionFailure());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class,
+                () -> Deadline.runWithin(Deadline.after(Duration.ZERO), () -> client.getProduct(1L)));
+        verify(delegate, times(1)).getProduct(1L);
+        assertEquals(0.0, meterRegistry.find("products.client.retries").counter().count());
+    }
+
+    @Test
+    void backoffShouldBeJitteredBelowTheExponentialCap() {
+        // Arrange
+        client = new RetryingProductsClient(delegate, 5, Duration.ofMillis(100), Duration.ofMillis(250), 1.0, meterRegistry);
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertTrue(client.backoffNanos(1) <= Duration.ofMillis(100).toNanos());
+            assertTrue(client.backoffNanos(2) <= Duration.ofMillis(200).toNanos());
+            assertTrue(client.backoffNanos(4) <= Duration.ofMillis(250).toNanos());
+        }
+    }
+}
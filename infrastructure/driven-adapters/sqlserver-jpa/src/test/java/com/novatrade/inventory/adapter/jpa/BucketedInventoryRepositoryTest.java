@@ -0,0 +1,232 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para BucketedInventoryRepository
+ */
+@ExtendWith(MockitoExtension.class)
+public class BucketedInventoryRepositoryTest {
+
+    private static final Long TEST_PRODUCT_ID = 123L;
+    private static final Long OTHER_PRODUCT_ID = 456L;
+
+    @Mock
+    private InventoryRepositoryPort delegate;
+
+    @Mock
+    private InventoryJpaRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void readsShouldSumTheBucketsOfSplitProducts() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(TEST_PRODUCT_ID, 4);
+        when(repository.sumBuckets(TEST_PRODUCT_ID)).thenReturn(40L);
+
+        // Act
+        Inventory inventory = buckets.getOrCreate(TEST_PRODUCT_ID);
+
+        // Assert
+        assertEquals(40L, inventory.getQuantity());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void decrementShouldUseTheHomeBucketFirst() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(TEST_PRODUCT_ID, 4);
+        int home = Math.floorMod(Thread.currentThread().threadId(), 4);
+        when(repository.decrementBucketIfEnough(TEST_PRODUCT_ID, home, 2L)).thenReturn(1);
+
+        // Act
+        boolean result = buckets.decrementIfEnough(TEST_PRODUCT_ID, 2L);
+
+        // Assert
+        assertTrue(result);
+        verify(repository, never()).decrementAnyUnlockedBucket(anyLong(), anyLong());
+        assertEquals(1.0, tier("home"));
+    }
+
+    @Test
+    void decrementShouldFallBackToOtherBucketsAndThenToDrainingSeveral() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(TEST_PRODUCT_ID, 4);
+        when(repository.decrementBucketIfEnough(eq(TEST_PRODUCT_ID), anyInt(), eq(5L))).thenReturn(0);
+        when(repository.decrementAnyUnlockedBucket(TEST_PRODUCT_ID, 5L)).thenReturn(1, 0);
+        when(repository.decrementAcrossBuckets(TEST_PRODUCT_ID, 5L)).thenReturn(true);
+
+        // Act
+        boolean first = buckets.decrementIfEnough(TEST_PRODUCT_ID, 5L);
+        boolean second = buckets.decrementIfEnough(TEST_PRODUCT_ID, 5L);
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(1.0, tier("any"));
+        assertEquals(1.0, tier("drain"));
+    }
+
+    @Test
+    void failedDecrementShouldRetryWhenAnotherInstanceSplitTheProduct() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(OTHER_PRODUCT_ID, 2);
+        when(delegate.decrementIfEnough(TEST_PRODUCT_ID, 1L)).thenReturn(false);
+        when(repository.countBuckets(TEST_PRODUCT_ID)).thenReturn(8);
+        when(repository.decrementBucketIfEnough(eq(TEST_PRODUCT_ID), anyInt(), eq(1L))).thenReturn(1);
+
+        // Act
+        boolean result = buckets.decrementIfEnough(TEST_PRODUCT_ID, 1L);
+
+        // Assert
+        assertTrue(result);
+        verify(delegate, times(1)).decrementIfEnough(TEST_PRODUCT_ID, 1L);
+    }
+
+    @Test
+    void failedDecrementShouldNotRetryWhenTheSplitIsUnchanged() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(TEST_PRODUCT_ID, 4);
+        when(repository.decrementBucketIfEnough(eq(TEST_PRODUCT_ID), anyInt(), eq(9L))).thenReturn(0);
+        when(repository.decrementAnyUnlockedBucket(TEST_PRODUCT_ID, 9L)).thenReturn(0);
+        when(repository.decrementAcrossBuckets(TEST_PRODUCT_ID, 9L)).thenReturn(false);
+        when(repository.countBuckets(TEST_PRODUCT_ID)).thenReturn(4);
+
+        // Act
+        boolean result = buckets.decrementIfEnough(TEST_PRODUCT_ID, 9L);
+
+        // Assert
+        assertFalse(result);
+        verify(repository, times(1)).decrementAcrossBuckets(TEST_PRODUCT_ID, 9L);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void cartWithASplitProductShouldBeDecrementedInOneTransaction() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(TEST_PRODUCT_ID, 4);
+        Map<Long, Long> cart = Map.of(TEST_PRODUCT_ID, 2L, OTHER_PRODUCT_ID, 1L);
+
+        // Act
+        boolean result = buckets.decrementAllIfEnough(cart);
+
+        // Assert
+        assertTrue(result);
+        verify(repository).decrementAllOrFail(cart, Set.of(TEST_PRODUCT_ID));
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void setAndNonSplitProductsShouldKeepTheSingleRowBehaviour() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(TEST_PRODUCT_ID, 4);
+        when(repository.redistribute(TEST_PRODUCT_ID, 4, 100L)).thenReturn(100L);
+
+        // Act
+        Inventory split = buckets.set(TEST_PRODUCT_ID, 100L);
+        buckets.set(OTHER_PRODUCT_ID, 7L);
+        buckets.getOrCreate(OTHER_PRODUCT_ID);
+
+        // Assert
+        assertEquals(100L, split.getQuantity());
+        verify(delegate).set(OTHER_PRODUCT_ID, 7L);
+        verify(delegate).getOrCreate(OTHER_PRODUCT_ID);
+    }
+
+    @Test
+    void rebalanceShouldKeepTheTotalAndUpdateTheCachedSplit() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(OTHER_PRODUCT_ID, 2);
+        when(repository.redistribute(TEST_PRODUCT_ID, 8, null)).thenReturn(30L);
+        when(repository.redistribute(TEST_PRODUCT_ID, 0, null)).thenReturn(30L);
+        when(repository.sumBuckets(TEST_PRODUCT_ID)).thenReturn(30L);
+
+        // Act
+        Inventory rebalanced = buckets.rebalance(TEST_PRODUCT_ID, 8);
+        buckets.getOrCreate(TEST_PRODUCT_ID);
+        buckets.rebalance(TEST_PRODUCT_ID, 0);
+        buckets.getOrCreate(TEST_PRODUCT_ID);
+
+        // Assert
+        assertEquals(30L, rebalanced.getQuantity());
+        verify(repository, times(1)).sumBuckets(TEST_PRODUCT_ID);
+        verify(delegate, times(1)).getOrCreate(TEST_PRODUCT_ID);
+    }
+
+    @Test
+    void rebalanceShouldRejectMoreBucketsThanTheMaximum() {
+        // Arrange
+        BucketedInventoryRepository buckets = startedWith(OTHER_PRODUCT_ID, 2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> buckets.rebalance(TEST_PRODUCT_ID, 65));
+        verify(repository, never()).redistribute(any(), anyInt(), any());
+    }
+
+    @Test
+    void redistributeShouldSpreadTheRemainderOverTheFirstBuckets() {
+        // Arrange
+        InventoryJpaRepository jpa = mock(InventoryJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(List.of()).when(jpa).findBucketQuantitiesForUpdate(TEST_PRODUCT_ID);
+        doReturn(10L).when(jpa).findQuantityForUpdate(TEST_PRODUCT_ID);
+        doReturn(0).when(jpa).deleteBuckets(TEST_PRODUCT_ID);
+        doReturn(1).when(jpa).upsertQuantity(anyLong(), anyLong());
+        doReturn(1).when(jpa).insertBucket(anyLong(), anyInt(), anyLong());
+
+        // Act
+        long total = jpa.redistribute(TEST_PRODUCT_ID, 3, null);
+
+        // Assert
+        assertEquals(10L, total);
+        verify(jpa).upsertQuantity(TEST_PRODUCT_ID, 0L);
+        verify(jpa).insertBucket(TEST_PRODUCT_ID, 0, 4L);
+        verify(jpa).insertBucket(TEST_PRODUCT_ID, 1, 3L);
+        verify(jpa).insertBucket(TEST_PRODUCT_ID, 2, 3L);
+    }
+
+    @Test
+    void decrementAcrossBucketsShouldDrainInOrderOnlyWhenTheSumIsEnough() {
+        // Arrange
+        InventoryJpaRepository jpa = mock(InventoryJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(List.of(2L, 0L, 5L)).when(jpa).findBucketQuantitiesForUpdate(TEST_PRODUCT_ID);
+        doReturn(1).when(jpa).setBucket(anyLong(), anyInt(), anyLong());
+
+        // Act
+        boolean enough = jpa.decrementAcrossBuckets(TEST_PRODUCT_ID, 4L);
+        boolean tooMuch = jpa.decrementAcrossBuckets(TEST_PRODUCT_ID, 8L);
+
+        // Assert
+        assertTrue(enough);
+        assertFalse(tooMuch);
+        verify(jpa).setBucket(TEST_PRODUCT_ID, 0, 0L);
+        verify(jpa).setBucket(TEST_PRODUCT_ID, 2, 3L);
+        verify(jpa, times(2)).setBucket(anyLong(), anyInt(), anyLong());
+    }
+
+    private BucketedInventoryRepository startedWith(Long productId, int buckets) {
+        List<Object[]> counts = List.<Object[]>of(new Object[]{productId, buckets});
+        when(repository.findBucketCounts()).thenReturn(counts);
+        BucketedInventoryRepository created = new BucketedInventoryRepository(delegate, repository, 64, meterRegistry);
+        created.start();
+        return created;
+    }
+
+    private double tier(String tier) {
+        return meterRegistry.find("inventory.buckets.decrements").tag("tier", tier).counter().count();
+    }
+}
@@ -0,0 +1,180 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para GroupCommitInventoryRepository
+ */
+@ExtendWith(MockitoExtension.class)
+public class GroupCommitInventoryRepositoryTest {
+
+    private static final Long TEST_PRODUCT_ID = 123L;
+
+    @Mock
+    private InventoryRepositoryPort delegate;
+
+    @Mock
+    private InventoryJpaRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GroupCommitInventoryRepository groupCommit;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (groupCommit != null) {
+            groupCommit.close();
+        }
+    }
+
+    @Test
+    void concurrentDecrementsShouldBeAppliedWithOneUpdateInArrivalOrder() throws Exception {
+        // Arrange: 5 peticiones de 3 unidades con 10 en stock -> se aceptan 3
+        groupCommit = new GroupCommitInventoryRepository(
+                delegate, repository, Duration.ofMillis(200), 100, 1, meterRegistry);
+        when(repository.decrementInArrivalOrder(eq(TEST_PRODUCT_ID), anyList())).thenAnswer(invocation -> {
+            List<Long> quantities = invocation.getArgument(1);
+            boolean[] accepted = new boolean[quantities.size()];
+            long remaining = 10;
+            for (int i = 0; i < quantities.size(); i++) {
+                if (quantities.get(i) <= remaining) {
+                    accepted[i] = true;
+                    remaining -= quantities.get(i);
+                }
+            }
+            return accepted;
+        });
+
+        // Act
+        List<Boolean> results = decrementConcurrently(5, 3L);
+
+        // Assert
+        assertEquals(3, results.stream().filter(Boolean::booleanValue).count());
+        verify(repository, times(1)).decrementInArrivalOrder(TEST_PRODUCT_ID, List.of(3L, 3L, 3L, 3L, 3L));
+        verify(repository, never()).decrementIfEnough(anyLong(), anyLong());
+        assertEquals(1, meterRegistry.find("inventory.group_commit.batch.size").summary().count());
+        assertEquals(5.0, meterRegistry.find("inventory.group_commit.batch.size").summary().totalAmount());
+        assertEquals(5, meterRegistry.find("inventory.group_commit.wait").timer().count());
+    }
+
+    @Test
+    void fullBatchShouldBeFlushedWithoutWaitingForTheWindow() throws Exception {
+        // Arrange
+        groupCommit = new GroupCommitInventoryRepository(
+                delegate, repository, Duration.ofMinutes(1), 2, 1, meterRegistry);
+        when(repository.decrementInArrivalOrder(eq(TEST_PRODUCT_ID), anyList()))
+                .thenReturn(new boolean[]{true, true});
+
+        // Act
+        List<Boolean> results = decrementConcurrently(2, 1L);
+
+        // Assert
+        assertEquals(List.of(true, true), results);
+    }
+
+    @Test
+    void failureShouldBePropagatedToEveryRequestOfTheBatch() {
+        // Arrange
+        groupCommit = new GroupCommitInventoryRepository(
+                delegate, repository, Duration.ofMillis(1), 100, 1, meterRegistry);
+        when(repository.decrementInArrivalOrder(eq(TEST_PRODUCT_ID), anyList()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> groupCommit.decrementIfEnough(TEST_PRODUCT_ID, 1L));
+        assertEquals("database unavailable", exception.getMessage());
+    }
+
+    @Test
+    void nonBatchedOperationsShouldBeDelegated() {
+        // Arrange
+        groupCommit = new GroupCommitInventoryRepository(
+                delegate, repository, Duration.ofMillis(1), 100, 1, meterRegistry);
+        Map<Long, Long> quantities = Map.of(TEST_PRODUCT_ID, 1L);
+        when(delegate.decrementAllIfEnough(quantities)).thenReturn(true);
+
+        // Act
+        groupCommit.getOrCreate(TEST_PRODUCT_ID);
+        groupCommit.set(TEST_PRODUCT_ID, 5L);
+        boolean result = groupCommit.decrementAllIfEnough(quantities);
+
+        // Assert
+        assertTrue(result);
+        verify(delegate).getOrCreate(TEST_PRODUCT_ID);
+        verify(delegate).set(TEST_PRODUCT_ID, 5L);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void decrementInArrivalOrderShouldSkipRequestsThatDoNotFitAndIssueOneUpdate() {
+        // Arrange
+        InventoryJpaRepository jpa = mock(InventoryJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(10L).when(jpa).findQuantityForUpdate(TEST_PRODUCT_ID);
+        doReturn(1).when(jpa).decrementIfEnough(TEST_PRODUCT_ID, 9L);
+
+        // Act
+        boolean[] accepted = jpa.decrementInArrivalOrder(TEST_PRODUCT_ID, List.of(6L, 5L, 3L));
+
+        // Assert
+        assertArrayEquals(new boolean[]{true, false, true}, accepted);
+        verify(jpa, times(1)).decrementIfEnough(TEST_PRODUCT_ID, 9L);
+    }
+
+    @Test
+    void decrementInArrivalOrderShouldRejectAllWhenProductHasNoInventoryRow() {
+        // Arrange
+        InventoryJpaRepository jpa = mock(InventoryJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(null).when(jpa).findQuantityForUpdate(TEST_PRODUCT_ID);
+
+        // Act
+        boolean[] accepted = jpa.decrementInArrivalOrder(TEST_PRODUCT_ID, List.of(1L, 2L));
+
+        // Assert
+        assertArrayEquals(new boolean[]{false, false}, accepted);
+        verify(jpa, never()).decrementIfEnough(anyLong(), anyLong());
+    }
+
+    private List<Boolean> decrementConcurrently(int requests, Long quantity) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(requests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return groupCommit.decrementIfEnough(TEST_PRODUCT_ID, quantity);
+                }));
+            }
+            start.countDown();
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
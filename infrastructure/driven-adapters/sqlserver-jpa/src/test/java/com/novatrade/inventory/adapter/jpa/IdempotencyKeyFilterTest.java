@@ -0,0 +1,203 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para IdempotencyKeyFilter y su uso en IdempotencyRepositoryAdapter
+ */
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyKeyFilterTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-10T12:00:00Z");
+
+    @Mock
+    private IdempotencyJpaRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void filterShouldLetEverythingThroughUntilLoaded() {
+        // Arrange
+        IdempotencyKeyFilter filter = filter(1_000, 1 << 20);
+
+        // Act & Assert
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("never-saved"));
+    }
+
+    @Test
+    void loadShouldReadTheTableInPagesAndRememberEveryKey() {
+        // Arrange
+        IdempotencyKeyFilter filter = filter(100_000, 1 << 20);
+        List<String> firstPage = IntStream.range(0, 10_000).mapToObj(i -> String.format("key-%05d", i)).toList();
+        when(repository.findIdsAfter("", 10_000)).thenReturn(firstPage);
+        when(repository.findIdsAfter("key-09999", 10_000)).thenReturn(List.of("key-10000"));
+
+        // Act
+        filter.load();
+
+        // Assert
+        assertTrue(filter.isReady());
+        assertTrue(firstPage.stream().allMatch(filter::mightContain));
+        assertTrue(filter.mightContain("key-10000"));
+    }
+
+    @Test
+    void falsePositiveRateShouldStayNearTheConfiguredValue() {
+        // Arrange
+        IdempotencyKeyFilter filter = loaded(filter(10_000, 1 << 20, true));
+        IntStream.range(0, 10_000).forEach(i -> filter.add("saved-" + i));
+
+        // Act
+        long passed = IntStream.range(0, 100_000).filter(i -> !filter.skipLookup("fresh-" + i)).count();
+
+        // Assert
+        assertTrue(passed < 2_000, "false positives: " + passed);
+        assertEquals(100_000.0 - passed, meterRegistry.get("idempotency.filter.skipped").counter().count());
+    }
+
+    @Test
+    void sizeShouldBeCappedByTheMemoryLimit() {
+        // Arrange & Act
+        IdempotencyKeyFilter filter = filter(10_000_000, 1_024);
+
+        // Assert
+        assertEquals(4_096, filter.bitsPerGeneration());
+        assertEquals(1_024.0, meterRegistry.get("idempotency.filter.bytes").gauge().value());
+    }
+
+    @Test
+    void refreshShouldAddKeysSavedByOtherInstancesAndRotateGenerations() {
+        // Arrange
+        IdempotencyKeyFilter filter = loaded(filter(1_000, 1 << 20));
+        when(repository.findIdsCreatedSince(any())).thenReturn(List.of("from-other-instance"), List.of());
+        filter.add("old-key");
+
+        // Act
+        clock.advance(Duration.ofSeconds(5));
+        filter.refresh();
+        boolean otherInstanceKey = filter.mightContain("from-other-instance");
+        clock.advance(Duration.ofDays(1));
+        filter.refresh();
+        boolean afterOneRotation = filter.mightContain("old-key");
+        clock.advance(Duration.ofDays(1));
+        filter.refresh();
+        boolean afterTwoRotations = filter.mightContain("old-key");
+
+        // Assert
+        assertTrue(otherInstanceKey);
+        assertTrue(afterOneRotation);
+        assertFalse(afterTwoRotations);
+        verify(repository).findIdsCreatedSince(NOW.minus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void adapterShouldSkipTheQueryForKeysTheFilterRejectsWithASingleInstance() {
+        // Arrange
+        IdempotencyKeyFilter filter = loaded(filter(1_000, 1 << 20, true));
+        IdempotencyRepositoryAdapter adapter = new IdempotencyRepositoryAdapter(
+                repository, filter, IdempotencyStorageFormat.JSON, meterRegistry);
+        when(repository.save(any(IdempotencyEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findByKeyHash(any(), eq("saved"))).thenReturn(Optional.of(new IdempotencyEntity("saved", "{}")));
+
+        // Act
+        Optional<String> fresh = adapter.findResponseByKey("fresh");
+        adapter.saveResponse("saved", "{}");
+        Optional<String> saved = adapter.findResponseByKey("saved");
+
+        // Assert
+        assertTrue(fresh.isEmpty());
+        assertEquals(Optional.of("{}"), saved);
+        verify(repository, never()).findByKeyHash(any(), eq("fresh"));
+        assertEquals(1.0, meterRegistry.get("idempotency.filter.skipped").counter().count());
+    }
+
+    @Test
+    void retryOnAnotherInstanceShouldFindTheResponseItsFilterHasNotSeenYet() {
+        // Arrange: dos instancias sobre la misma tabla, antes de que la segunda relea las claves nuevas
+        Map<String, IdempotencyEntity> table = new HashMap<>();
+        when(repository.save(any(IdempotencyEntity.class))).thenAnswer(invocation -> {
+            IdempotencyEntity entity = invocation.getArgument(0);
+            table.put(entity.getId(), entity);
+            return entity;
+        });
+        when(repository.findByKeyHash(any(), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<String>getArgument(1))));
+        IdempotencyRepositoryAdapter first = new IdempotencyRepositoryAdapter(
+                repository, loaded(filter(1_000, 1 << 20)), IdempotencyStorageFormat.JSON, meterRegistry);
+        IdempotencyKeyFilter secondFilter = loaded(filter(1_000, 1 << 20));
+        IdempotencyRepositoryAdapter second = new IdempotencyRepositoryAdapter(
+                repository, secondFilter, IdempotencyStorageFormat.JSON, meterRegistry);
+
+        // Act
+        first.saveResponse("retried", "{\"data\":{}}");
+        Optional<String> replay = second.findResponseByKey("retried");
+
+        // Assert
+        assertFalse(secondFilter.mightContain("retried"));
+        assertEquals(Optional.of("{\"data\":{}}"), replay);
+        assertEquals(0.0, meterRegistry.get("idempotency.filter.skipped").counter().count());
+        assertEquals(1.0, meterRegistry.get("idempotency.filter.stale_negatives").counter().count());
+    }
+
+    private IdempotencyKeyFilter filter(long expectedKeys, long maxBytes) {
+        return filter(expectedKeys, maxBytes, false);
+    }
+
+    private IdempotencyKeyFilter filter(long expectedKeys, long maxBytes, boolean singleWriter) {
+        return new IdempotencyKeyFilter(repository, expectedKeys, 0.01, maxBytes,
+                Duration.ofDays(1), Duration.ofSeconds(5), singleWriter, clock, meterRegistry);
+    }
+
+    private IdempotencyKeyFilter loaded(IdempotencyKeyFilter filter) {
+        when(repository.findIdsAfter("", 10_000)).thenReturn(List.of());
+        filter.load();
+        return filter;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = NOW;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para IdempotencyPartitionPurger
+ */
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyPartitionPurgerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 10);
+
+    @Mock
+    private IdempotencyJpaRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void purgeShouldTruncateExpiredPartitionsAndMergeTheirBoundaries() {
+        // Arrange
+        IdempotencyPartitionPurger purger = purger(Duration.ofDays(7));
+        when(repository.findPartitions()).thenReturn(List.of(
+                partition(1, null, "2024-06-01", 10),
+                partition(2, "2024-06-01", "2024-06-02", 20),
+                partition(3, "2024-06-02", "2024-06-03", 30),
+                partition(4, "2024-06-03", "2024-06-11", 40),
+                partition(5, "2024-06-11", "2024-06-12", 0),
+                partition(6, "2024-06-12", "2024-06-13", 0),
+                partition(7, "2024-06-13", null, 0)));
+        when(repository.tableStats()).thenReturn(List.<Object[]>of(new Object[]{40L, 81_920L}));
+
+        // Act
+        long purged = purger.purge();
+
+        // Assert
+        assertEquals(60L, purged);
+        verify(repository).truncatePartition(1);
+        verify(repository).truncatePartition(2);
+        verify(repository).truncatePartition(3);
+        verify(repository, times(3)).truncatePartition(anyInt());
+        verify(repository).mergeBoundary(LocalDate.of(2024, 6, 1));
+        verify(repository).mergeBoundary(LocalDate.of(2024, 6, 2));
+        verify(repository, times(2)).mergeBoundary(any());
+        verify(repository, never()).splitBoundary(any());
+        assertEquals(60.0, meterRegistry.get("idempotency.purge.rows").counter().count());
+        assertEquals(3.0, meterRegistry.get("idempotency.purge.partitions").counter().count());
+        assertEquals(40.0, meterRegistry.get("idempotency.table.rows").gauge().value());
+        assertEquals(81_920.0, meterRegistry.get("idempotency.table.bytes").gauge().value());
+    }
+
+    @Test
+    void purgeShouldCreateMissingFuturePartitionsWithoutTruncatingRetainedDays() {
+        // Arrange
+        IdempotencyPartitionPurger purger = purger(Duration.ofDays(7));
+        when(repository.findPartitions()).thenReturn(List.of(
+                partition(1, null, "2024-06-09", 5),
+                partition(2, "2024-06-09", null, 3)));
+        when(repository.tableStats()).thenReturn(List.<Object[]>of(new Object[]{8L, 16_384L}));
+
+        // Act
+        long purged = purger.purge();
+
+        // Assert
+        assertEquals(0L, purged);
+        verify(repository).splitBoundary(LocalDate.of(2024, 6, 10));
+        verify(repository).splitBoundary(LocalDate.of(2024, 6, 11));
+        verify(repository).splitBoundary(LocalDate.of(2024, 6, 12));
+        verify(repository).splitBoundary(LocalDate.of(2024, 6, 13));
+        verify(repository, never()).truncatePartition(anyInt());
+        verify(repository, never()).mergeBoundary(any());
+    }
+
+    @Test
+    void retentionShouldBeRoundedUpToWholeDays() {
+        // Arrange
+        IdempotencyPartitionPurger purger = purger(Duration.ofHours(30));
+        when(repository.findPartitions()).thenReturn(List.of(
+                partition(1, null, "2024-06-08", 1),
+                partition(2, "2024-06-08", "2024-06-09", 2),
+                partition(3, "2024-06-09", "2024-06-14", 3),
+                partition(4, "2024-06-14", null, 0)));
+        when(repository.tableStats()).thenReturn(List.<Object[]>of(new Object[]{5L, 8_192L}));
+
+        // Act
+        long purged = purger.purge();
+
+        // Assert
+        assertEquals(1L, purged);
+        verify(repository).truncatePartition(1);
+        verify(repository, never()).truncatePartition(2);
+        verify(repository, never()).mergeBoundary(any());
+    }
+
+    @Test
+    void tableWithoutPartitionsShouldFailThePurge() {
+        // Arrange
+        IdempotencyPartitionPurger purger = purger(Duration.ofDays(7));
+        when(repository.findPartitions()).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, purger::purge);
+        verify(repository, never()).truncatePartition(anyInt());
+    }
+
+    private IdempotencyPartitionPurger purger(Duration retention) {
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new IdempotencyPartitionPurger(repository, retention, Duration.ofHours(1), 3, clock, meterRegistry);
+    }
+
+    private static Object[] partition(int number, String lower, String upper, long rows) {
+        return new Object[]{number, lower, upper, rows};
+    }
+}
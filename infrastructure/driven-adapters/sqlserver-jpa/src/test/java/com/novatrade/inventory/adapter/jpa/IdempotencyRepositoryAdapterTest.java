@@ -1,15 +1,20 @@
 package com.novatrade.inventory.adapter.jpa;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -34,21 +39,21 @@ public class IdempotencyRepositoryAdapterTest {
     @Test
     void findResponseByKeyShouldReturnEmptyWhenKeyNotFound() {
         // Arrange
-        when(repository.findById(TEST_KEY)).thenReturn(Optional.empty());
+        when(repository.findByKeyHash(any(byte[].class), eq(TEST_KEY))).thenReturn(Optional.empty());
 
         // Act
         Optional<String> result = adapter.findResponseByKey(TEST_KEY);
 
         // Assert
         assertTrue(result.isEmpty());
-        verify(repository).findById(TEST_KEY);
+        verify(repository).findByKeyHash(any(byte[].class), eq(TEST_KEY));
     }
 
     @Test
     void findResponseByKeyShouldReturnResponseWhenKeyExists() {
         // Arrange
         IdempotencyEntity entity = new IdempotencyEntity(TEST_KEY, TEST_RESPONSE);
-        when(repository.findById(TEST_KEY)).thenReturn(Optional.of(entity));
+        when(repository.findByKeyHash(any(byte[].class), eq(TEST_KEY))).thenReturn(Optional.of(entity));
 
         // Act
         Optional<String> result = adapter.findResponseByKey(TEST_KEY);
@@ -56,7 +61,7 @@ public class IdempotencyRepositoryAdapterTest {
         // Assert
         assertTrue(result.isPresent());
         assertEquals(TEST_RESPONSE, result.get());
-        verify(repository).findById(TEST_KEY);
+        verify(repository).findByKeyHash(any(byte[].class), eq(TEST_KEY));
     }
 
     @Test
@@ -74,4 +79,59 @@ public class IdempotencyRepositoryAdapterTest {
             entity.getCreatedAt() != null
         ));
     }
+
+    @Test
+    void compressedFormatShouldStoreBytesAndReadThemBack() {
+        // Arrange
+        IdempotencyRepositoryAdapter compressed = new IdempotencyRepositoryAdapter(
+                repository, null, IdempotencyStorageFormat.COMPRESSED, new SimpleMeterRegistry());
+        String document = "{\"data\":{\"type\":\"purchases\",\"id\":\"venta-1\",\"attributes\":"
+                + "{\"productName\":\"Teclado mecánico\",\"unitPrice\":120.5,\"quantity\":2,\"total\":241.0}}}";
+        ArgumentCaptor<IdempotencyEntity> saved = ArgumentCaptor.forClass(IdempotencyEntity.class);
+        when(repository.save(saved.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        compressed.saveResponse(TEST_KEY, document);
+        when(repository.findByKeyHash(any(byte[].class), eq(TEST_KEY))).thenReturn(Optional.of(saved.getValue()));
+        Optional<String> result = compressed.findResponseByKey(TEST_KEY);
+
+        // Assert
+        assertNull(saved.getValue().getResponseJson());
+        assertEquals(IdempotencyPayloads.DEFLATE, saved.getValue().getResponseBin()[0]);
+        assertTrue(saved.getValue().getResponseBin().length < document.length());
+        assertEquals(Optional.of(document), result);
+    }
+
+    @Test
+    void compressedFormatShouldStillReadTextRows() {
+        // Arrange
+        IdempotencyRepositoryAdapter compressed = new IdempotencyRepositoryAdapter(
+                repository, null, IdempotencyStorageFormat.COMPRESSED, new SimpleMeterRegistry());
+        when(repository.findByKeyHash(any(byte[].class), eq(TEST_KEY)))
+                .thenReturn(Optional.of(new IdempotencyEntity(TEST_KEY, TEST_RESPONSE)));
+
+        // Act
+        Optional<String> result = compressed.findResponseByKey(TEST_KEY);
+
+        // Assert
+        assertEquals(Optional.of(TEST_RESPONSE), result);
+    }
+
+    @Test
+    void keyHashShouldMatchHashbytesOverNvarchar() {
+        // Act
+        byte[] hash = IdempotencyPayloads.keyHash("abc");
+
+        // Assert: SELECT HASHBYTES('SHA2_256', N'abc')
+        assertEquals("13e228567e8249fce53337f25d7970de3bd68ab2653424c7b8f9fd05e33caedf", HexFormat.of().formatHex(hash));
+        assertArrayEquals(hash, IdempotencyPayloads.keyHash("abc"));
+    }
+
+    @Test
+    void corruptPayloadShouldFailInsteadOfReturningGarbage() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> IdempotencyPayloads.decompress(new byte[]{9, 1, 2}));
+        assertThrows(IllegalStateException.class, () -> IdempotencyPayloads.decompress(
+                Arrays.copyOf(IdempotencyPayloads.compress(TEST_RESPONSE), 4)));
+    }
 }
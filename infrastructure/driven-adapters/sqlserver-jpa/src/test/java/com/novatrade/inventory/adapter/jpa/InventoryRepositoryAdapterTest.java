@@ -8,6 +8,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -123,4 +124,56 @@ public class InventoryRepositoryAdapterTest {
         assertFalse(result);
         verify(repository).decrementIfEnough(TEST_PRODUCT_ID, 20L);
     }
+
+    @Test
+    void decrementAllIfEnoughShouldReturnTrueWhenAllLinesDecremented() {
+        // Arrange
+        Map<Long, Long> quantities = Map.of(TEST_PRODUCT_ID, 2L, 456L, 1L);
+
+        // Act
+        boolean result = adapter.decrementAllIfEnough(quantities);
+
+        // Assert
+        assertTrue(result);
+        verify(repository).decrementAllOrFail(quantities);
+    }
+
+    @Test
+    void decrementAllIfEnoughShouldReturnFalseWhenAnyLineIsShort() {
+        // Arrange
+        Map<Long, Long> quantities = Map.of(TEST_PRODUCT_ID, 2L, 456L, 100L);
+        doThrow(new InsufficientStockException(456L)).when(repository).decrementAllOrFail(quantities);
+
+        // Act
+        boolean result = adapter.decrementAllIfEnough(quantities);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void decrementAllOrFailShouldUpdateInProductOrderAndStopAtFirstShortLine() {
+        // Arrange
+        InventoryJpaRepository jpa = mock(InventoryJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(1).when(jpa).decrementIfEnough(1L, 1L);
+        doReturn(0).when(jpa).decrementIfEnough(2L, 5L);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class,
+                () -> jpa.decrementAllOrFail(Map.of(3L, 1L, 2L, 5L, 1L, 1L)));
+
+        var order = inOrder(jpa);
+        order.verify(jpa).decrementIfEnough(1L, 1L);
+        order.verify(jpa).decrementIfEnough(2L, 5L);
+        verify(jpa, never()).decrementIfEnough(eq(3L), anyLong());
+    }
+
+    @Test
+    void releaseShouldAddUnitsBackWithNegativeDelta() {
+        // Act
+        adapter.release(TEST_PRODUCT_ID, 4L);
+
+        // Assert
+        verify(repository).applyDelta(TEST_PRODUCT_ID, -4L);
+    }
 }
@@ -0,0 +1,129 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.model.ReservationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ReservationRepositoryAdapter
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReservationRepositoryAdapterTest {
+
+    private static final String TEST_ID = "res-1";
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private ReservationJpaRepository repository;
+
+    private ReservationRepositoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new ReservationRepositoryAdapter(repository);
+    }
+
+    @Test
+    void saveShouldMapReservationToEntityAndBack() {
+        // Arrange
+        when(repository.save(any(ReservationEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Reservation reservation = Reservation.builder()
+                .id(TEST_ID)
+                .productId(1L)
+                .quantity(2L)
+                .status(ReservationStatus.HELD)
+                .expiresAt(NOW.plusSeconds(60))
+                .createdAt(NOW)
+                .build();
+
+        // Act
+        Reservation result = adapter.save(reservation);
+
+        // Assert
+        assertEquals(reservation, result);
+    }
+
+    @Test
+    void confirmAndCancelShouldUseConditionalUpdates() {
+        // Arrange
+        when(repository.transitionIfActive(TEST_ID, "CONFIRMED", NOW)).thenReturn(1);
+        when(repository.transitionIfHeld(TEST_ID, "CANCELLED")).thenReturn(0);
+
+        // Act & Assert
+        assertTrue(adapter.confirm(TEST_ID, NOW));
+        assertFalse(adapter.cancel(TEST_ID));
+    }
+
+    @Test
+    void expireShouldSplitLargeBatchesAndReturnExpiredReservations() {
+        // Arrange: 1200 ids -> lotes de 500, 500 y 200
+        List<String> ids = IntStream.range(0, 1200).mapToObj(i -> "res-" + i).toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(repository.expireDue(anyList(), eq(NOW))).thenAnswer(invocation -> {
+            List<String> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return List.of(entity(chunk.get(0)));
+        });
+
+        // Act
+        List<Reservation> expired = adapter.expire(ids, NOW);
+
+        // Assert
+        assertEquals(List.of(500, 500, 200), chunkSizes);
+        assertEquals(3, expired.size());
+        assertTrue(expired.stream().allMatch(r -> r.getStatus() == ReservationStatus.EXPIRED));
+    }
+
+    @Test
+    void expireDueShouldOnlyMarkReservationsThatWereLockedAsDue() {
+        // Arrange
+        ReservationJpaRepository jpa = mock(ReservationJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(List.of(entity("a"))).when(jpa).findDueForUpdate(List.of("a", "b"), NOW);
+        doReturn(1).when(jpa).markExpired(List.of("a"));
+
+        // Act
+        List<ReservationEntity> due = jpa.expireDue(List.of("a", "b"), NOW);
+
+        // Assert
+        assertEquals(1, due.size());
+        verify(jpa).markExpired(List.of("a"));
+    }
+
+    @Test
+    void expireDueShouldNotUpdateWhenNothingIsDue() {
+        // Arrange
+        ReservationJpaRepository jpa = mock(ReservationJpaRepository.class, CALLS_REAL_METHODS);
+        doReturn(List.of()).when(jpa).findDueForUpdate(List.of("a"), NOW);
+
+        // Act
+        jpa.expireDue(List.of("a"), NOW);
+
+        // Assert
+        verify(jpa, never()).markExpired(anyList());
+    }
+
+    private static ReservationEntity entity(String id) {
+        return ReservationEntity.builder()
+                .id(id)
+                .productId(1L)
+                .quantity(1L)
+                .status(ReservationStatus.HELD)
+                .expiresAt(NOW)
+                .createdAt(NOW.minusSeconds(60))
+                .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.adapter.cache.CachingIdempotencyRepository;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.PurchaseTransactionPort.KeyAlreadyStoredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para TransactionalPurchaseAdapter
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionalPurchaseAdapterTest {
+
+    private static final String KEY = "purchase-key-1";
+    private static final String JSON = "{\"data\":{\"type\":\"purchases\"}}";
+
+    @Mock
+    private InventoryJpaRepository inventory;
+
+    @Mock
+    private IdempotencyJpaRepository idempotency;
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private IdempotencyKeyFilter keyFilter;
+
+    @Mock
+    private CachingIdempotencyRepository cache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Como la plantilla real: sincronización activa durante la transacción y afterCommit si termina bien
+        doAnswer(invocation -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void commitShouldWriteStockResponseAndPurchasesInOneTransaction() {
+        // Arrange
+        TransactionalPurchaseAdapter adapter = adapter(IdempotencyStorageFormat.COMPRESSED, true);
+        Map<Long, Long> quantities = Map.of(1L, 2L, 7L, 3L);
+        List<PurchaseResult> purchases = List.of(purchase(1L, 2L), purchase(7L, 3L));
+        when(idempotency.insertCompressed(any(byte[].class), eq(KEY), any(Instant.class), any(byte[].class)))
+                .thenReturn(1);
+
+        // Act
+        boolean committed = adapter.commit(quantities, KEY, JSON, purchases);
+
+        // Assert
+        assertTrue(committed);
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(inventory).decrementAllOrFail(quantities);
+        verify(idempotency).insertCompressed(aryEq(IdempotencyPayloads.keyHash(KEY)), eq(KEY), any(Instant.class),
+                argThat(bin -> IdempotencyPayloads.decompress(bin).equals(JSON)));
+        verify(idempotency, never()).save(any());
+        verify(jdbc).batchUpdate(anyString(), eq(purchases), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        verify(keyFilter).add(KEY);
+        verify(cache).remember(KEY, JSON);
+        assertEquals(1, meterRegistry.get("inventory.purchase.transaction").timer().count());
+    }
+
+    @Test
+    void commitShouldWriteNothingElseWhenStockIsInsufficient() {
+        // Arrange
+        TransactionalPurchaseAdapter adapter = adapter(IdempotencyStorageFormat.JSON, true);
+        Map<Long, Long> quantities = Map.of(1L, 200L);
+        doThrow(new InsufficientStockException(1L)).when(inventory).decrementAllOrFail(quantities);
+
+        // Act
+        boolean committed = adapter.commit(quantities, KEY, JSON, List.of(purchase(1L, 200L)));
+
+        // Assert
+        assertFalse(committed);
+        verify(idempotency, never()).insertJson(any(), anyString(), any(), anyString());
+        verifyNoInteractions(jdbc, cache);
+        assertEquals(1.0, meterRegistry.get("inventory.purchase.transaction.rollbacks").counter().count());
+    }
+
+    @Test
+    void commitWithoutKeyShouldOnlyDecrementWhenPurchasesAreNotRecorded() {
+        // Arrange
+        TransactionalPurchaseAdapter adapter = adapter(IdempotencyStorageFormat.JSON, false);
+
+        // Act
+        boolean committed = adapter.commit(Map.of(1L, 1L), null, JSON, List.of(purchase(1L, 1L)));
+
+        // Assert
+        assertTrue(committed);
+        verify(inventory).decrementAllOrFail(Map.of(1L, 1L));
+        verifyNoInteractions(idempotency, jdbc, keyFilter, cache);
+    }
+
+    @Test
+    void commitShouldRollBackTheDecrementWhenTheKeyIsStoredOnAnyDay() {
+        // Arrange: el INSERT condicional no escribe porque la clave ya está en otra partición
+        TransactionalPurchaseAdapter adapter = adapter(IdempotencyStorageFormat.JSON, true);
+        when(idempotency.insertJson(any(byte[].class), eq(KEY), any(Instant.class), eq(JSON))).thenReturn(0);
+
+        // Act & Assert
+        KeyAlreadyStoredException e = assertThrows(KeyAlreadyStoredException.class,
+                () -> adapter.commit(Map.of(1L, 1L), KEY, JSON, List.of(purchase(1L, 1L))));
+        assertInstanceOf(DuplicateKeyException.class, e.getCause());
+        verifyNoInteractions(jdbc, cache);
+    }
+
+    @Test
+    void commitShouldReportAPrimaryKeyViolationOnTheKeyAsAlreadyStored() {
+        // Arrange: otra compra insertó la misma clave el mismo día entre la comprobación y el INSERT
+        TransactionalPurchaseAdapter adapter = adapter(IdempotencyStorageFormat.JSON, false);
+        when(idempotency.insertJson(any(byte[].class), eq(KEY), any(Instant.class), eq(JSON)))
+                .thenThrow(new DataIntegrityViolationException("PK_idempotency_keys"));
+
+        // Act & Assert
+        assertThrows(KeyAlreadyStoredException.class,
+                () -> adapter.commit(Map.of(1L, 1L), KEY, JSON, List.of(purchase(1L, 1L))));
+        verifyNoInteractions(cache);
+    }
+
+    private TransactionalPurchaseAdapter adapter(IdempotencyStorageFormat format, boolean recordPurchases) {
+        return new TransactionalPurchaseAdapter(
+                inventory, idempotency, jdbc, transactionTemplate, format, keyFilter, cache, recordPurchases, meterRegistry);
+    }
+
+    private static PurchaseResult purchase(Long productId, Long quantity) {
+        return PurchaseResult.builder()
+                .productId(productId)
+                .productName("product-" + productId)
+                .unitPrice(10.0)
+                .quantity(quantity)
+                .totalPrice(10.0 * quantity)
+                .success(true)
+                .purchasedAt(Instant.now().toString())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.novatrade.inventory.adapter.jpa;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.model.ReservationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para TransactionalReservationAdapter
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionalReservationAdapterTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private ReservationJpaRepository reservations;
+
+    @Mock
+    private InventoryJpaRepository inventory;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionalReservationAdapter adapter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0))
+                        .doInTransaction(mock(TransactionStatus.class)));
+        adapter = new TransactionalReservationAdapter(reservations, inventory, transactionTemplate);
+    }
+
+    @Test
+    void expireAndReleaseShouldMarkExpiredAndReturnStockInTheSameTransaction() {
+        // Arrange
+        when(reservations.expireDue(List.of("a", "b", "c"), NOW))
+                .thenReturn(List.of(entity("a", 1L, 2L), entity("b", 1L, 3L), entity("c", 7L, 1L)));
+
+        // Act
+        List<Reservation> expired = adapter.expireAndRelease(List.of("a", "b", "c"), NOW);
+
+        // Assert
+        assertEquals(3, expired.size());
+        assertTrue(expired.stream().allMatch(r -> r.getStatus() == ReservationStatus.EXPIRED));
+        verify(transactionTemplate, times(1)).execute(any());
+        InOrder order = inOrder(reservations, inventory);
+        order.verify(reservations).expireDue(List.of("a", "b", "c"), NOW);
+        order.verify(inventory).applyDeltas(Map.of(1L, -5L, 7L, -1L));
+    }
+
+    @Test
+    void expireAndReleaseShouldNotTouchInventoryWhenNothingIsDue() {
+        // Arrange
+        when(reservations.expireDue(anyCollection(), any())).thenReturn(List.of());
+
+        // Act
+        List<Reservation> expired = adapter.expireAndRelease(List.of("a"), NOW);
+
+        // Assert
+        assertTrue(expired.isEmpty());
+        verify(inventory, never()).applyDeltas(anyMap());
+    }
+
+    @Test
+    void cancelAndReleaseShouldCancelAndReturnStockInTheSameTransaction() {
+        // Arrange
+        Reservation held = ReservationRepositoryAdapter.toDomain(entity("a", 1L, 2L));
+        when(reservations.transitionIfHeld("a", "CANCELLED")).thenReturn(1);
+
+        // Act
+        boolean cancelled = adapter.cancelAndRelease(held);
+
+        // Assert
+        assertTrue(cancelled);
+        verify(transactionTemplate, times(1)).execute(any());
+        InOrder order = inOrder(reservations, inventory);
+        order.verify(reservations).transitionIfHeld("a", "CANCELLED");
+        order.verify(inventory).applyDeltas(Map.of(1L, -2L));
+    }
+
+    @Test
+    void cancelAndReleaseShouldNotReturnStockWhenTheReservationIsNoLongerHeld() {
+        // Arrange
+        Reservation held = ReservationRepositoryAdapter.toDomain(entity("a", 1L, 2L));
+        when(reservations.transitionIfHeld("a", "CANCELLED")).thenReturn(0);
+
+        // Act
+        boolean cancelled = adapter.cancelAndRelease(held);
+
+        // Assert
+        assertFalse(cancelled);
+        verifyNoInteractions(inventory);
+    }
+
+    private static ReservationEntity entity(String id, Long productId, Long quantity) {
+        return ReservationEntity.builder()
+                .id(id)
+                .productId(productId)
+                .quantity(quantity)
+                .status(ReservationStatus.HELD)
+                .expiresAt(NOW)
+                .createdAt(NOW.minusSeconds(60))
+                .build();
+    }
+}
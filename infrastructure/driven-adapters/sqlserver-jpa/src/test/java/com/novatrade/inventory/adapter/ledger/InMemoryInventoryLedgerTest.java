@@ -0,0 +1,238 @@
+package com.novatrade.inventory.adapter.ledger;
+
+import com.novatrade.inventory.adapter.jpa.InventoryEntity;
+import com.novatrade.inventory.adapter.jpa.InventoryJpaRepository;
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para InMemoryInventoryLedger
+ */
+@ExtendWith(MockitoExtension.class)
+public class InMemoryInventoryLedgerTest {
+
+    private static final Long TEST_PRODUCT_ID = 123L;
+    private static final Long OTHER_PRODUCT_ID = 456L;
+
+    @Mock
+    private InventoryRepositoryPort delegate;
+
+    @Mock
+    private InventoryJpaRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InMemoryInventoryLedger ledger;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ledger != null) {
+            ledger.close();
+        }
+    }
+
+    @Test
+    void concurrentDecrementsShouldNeverOversellAndShouldNotTouchTheDatabase() throws Exception {
+        // Arrange: 20 peticiones de 1 unidad con 10 en stock
+        ledger = startedLedger(List.of(entity(TEST_PRODUCT_ID, 10L)));
+
+        // Act
+        List<Boolean> results = decrementConcurrently(20, 1L);
+
+        // Assert
+        assertEquals(10, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(0L, ledger.getOrCreate(TEST_PRODUCT_ID).getQuantity());
+        assertEquals(10.0, meterRegistry.find("inventory.ledger.unflushed").gauge().value());
+        verify(repository, never()).applyDeltas(anyMap());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void flushShouldWriteAccumulatedDeltasOnce() {
+        // Arrange
+        ledger = startedLedger(List.of(entity(TEST_PRODUCT_ID, 10L)));
+        ledger.decrementIfEnough(TEST_PRODUCT_ID, 3L);
+        ledger.decrementIfEnough(TEST_PRODUCT_ID, 2L);
+
+        // Act
+        ledger.flush();
+        ledger.flush();
+
+        // Assert
+        verify(repository, times(1)).applyDeltas(Map.of(TEST_PRODUCT_ID, 5L));
+        assertEquals(0.0, meterRegistry.find("inventory.ledger.unflushed").gauge().value());
+    }
+
+    @Test
+    void failedFlushShouldKeepDeltasForTheNextAttempt() {
+        // Arrange
+        ledger = startedLedger(List.of(entity(TEST_PRODUCT_ID, 10L)));
+        ledger.decrementIfEnough(TEST_PRODUCT_ID, 4L);
+        doThrow(new IllegalStateException("database unavailable"))
+                .doNothing()
+                .when(repository).applyDeltas(anyMap());
+
+        // Act
+        ledger.flush();
+        ledger.decrementIfEnough(TEST_PRODUCT_ID, 1L);
+        ledger.flush();
+
+        // Assert
+        verify(repository, times(1)).applyDeltas(Map.of(TEST_PRODUCT_ID, 4L));
+        verify(repository, times(1)).applyDeltas(Map.of(TEST_PRODUCT_ID, 5L));
+    }
+
+    @Test
+    void decrementAllShouldRestoreTakenStockWhenAnyProductIsShort() {
+        // Arrange
+        ledger = startedLedger(List.of(entity(TEST_PRODUCT_ID, 10L), entity(OTHER_PRODUCT_ID, 1L)));
+
+        // Act
+        boolean result = ledger.decrementAllIfEnough(Map.of(TEST_PRODUCT_ID, 5L, OTHER_PRODUCT_ID, 2L));
+
+        // Assert
+        assertFalse(result);
+        assertEquals(10L, ledger.getOrCreate(TEST_PRODUCT_ID).getQuantity());
+        assertEquals(1L, ledger.getOrCreate(OTHER_PRODUCT_ID).getQuantity());
+        assertEquals(0.0, meterRegistry.find("inventory.ledger.unflushed").gauge().value());
+    }
+
+    @Test
+    void unknownProductShouldBeCreatedThroughTheDelegate() {
+        // Arrange
+        ledger = startedLedger(List.of());
+        when(delegate.getOrCreate(TEST_PRODUCT_ID))
+                .thenReturn(Inventory.builder().productId(TEST_PRODUCT_ID).quantity(0L).build());
+
+        // Act
+        boolean result = ledger.decrementIfEnough(TEST_PRODUCT_ID, 1L);
+
+        // Assert
+        assertFalse(result);
+        verify(delegate, times(1)).getOrCreate(TEST_PRODUCT_ID);
+    }
+
+    @Test
+    void setShouldWriteThroughAndDiscardUnflushedDeltas() {
+        // Arrange
+        ledger = startedLedger(List.of(entity(TEST_PRODUCT_ID, 10L)));
+        ledger.decrementIfEnough(TEST_PRODUCT_ID, 4L);
+        when(delegate.set(TEST_PRODUCT_ID, 50L))
+                .thenReturn(Inventory.builder().productId(TEST_PRODUCT_ID).quantity(50L).build());
+
+        // Act
+        ledger.set(TEST_PRODUCT_ID, 50L);
+        ledger.flush();
+
+        // Assert
+        assertEquals(50L, ledger.getOrCreate(TEST_PRODUCT_ID).getQuantity());
+        verify(repository, never()).applyDeltas(anyMap());
+    }
+
+    @Test
+    void decrementDuringSetShouldApplyToTheNewQuantity() throws Exception {
+        // Arrange: el ajuste a 50 tarda y un descuento llega mientras tanto
+        ledger = startedLedger(List.of(entity(TEST_PRODUCT_ID, 10L)));
+        CountDownLatch setStarted = new CountDownLatch(1);
+        when(delegate.set(TEST_PRODUCT_ID, 50L)).thenAnswer(invocation -> {
+            setStarted.countDown();
+            Thread.sleep(100);
+            return Inventory.builder().productId(TEST_PRODUCT_ID).quantity(50L).build();
+        });
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+
+        // Act
+        try {
+            Future<?> set = caller.submit(() -> ledger.set(TEST_PRODUCT_ID, 50L));
+            assertTrue(setStarted.await(5, TimeUnit.SECONDS));
+            boolean decremented = ledger.decrementIfEnough(TEST_PRODUCT_ID, 1L);
+            set.get(5, TimeUnit.SECONDS);
+            ledger.flush();
+
+            // Assert: memoria y delta pendiente cuadran con el valor absoluto escrito
+            assertTrue(decremented);
+            assertEquals(49L, ledger.getOrCreate(TEST_PRODUCT_ID).getQuantity());
+            verify(repository, times(1)).applyDeltas(Map.of(TEST_PRODUCT_ID, 1L));
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    void reconcileShouldReportDriftAgainstTheTable() {
+        // Arrange: la tabla ya refleja el delta pendiente de uno y otro proceso tocó el otro producto
+        when(repository.findAll()).thenReturn(
+                List.of(entity(TEST_PRODUCT_ID, 10L), entity(OTHER_PRODUCT_ID, 5L)),
+                List.of(entity(TEST_PRODUCT_ID, 10L), entity(OTHER_PRODUCT_ID, 2L)));
+        ledger = newLedger();
+        ledger.start();
+        ledger.decrementIfEnough(TEST_PRODUCT_ID, 3L);
+
+        // Act
+        long drift = ledger.reconcile();
+
+        // Assert
+        assertEquals(3L, drift);
+        assertEquals(3.0, meterRegistry.find("inventory.ledger.drift").gauge().value());
+        assertEquals(1.0, meterRegistry.find("inventory.ledger.drifted.products").gauge().value());
+    }
+
+    private InMemoryInventoryLedger startedLedger(List<InventoryEntity> rows) {
+        when(repository.findAll()).thenReturn(rows);
+        InMemoryInventoryLedger created = newLedger();
+        created.start();
+        return created;
+    }
+
+    private InMemoryInventoryLedger newLedger() {
+        // Intervalos largos: las pruebas invocan flush y reconcile directamente
+        return new InMemoryInventoryLedger(
+                delegate, repository, 4, Duration.ofMinutes(10), 500, Duration.ofMinutes(10), meterRegistry);
+    }
+
+    private static InventoryEntity entity(Long productId, Long quantity) {
+        return InventoryEntity.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private List<Boolean> decrementConcurrently(int requests, Long quantity) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(requests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return ledger.decrementIfEnough(TEST_PRODUCT_ID, quantity);
+                }));
+            }
+            start.countDown();
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.novatrade.inventory.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogHttpClientConfigTest {
+
+    private final CatalogHttpClientConfig config = new CatalogHttpClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Debería crear un pool de conexiones acotado y exportar su ocupación")
+    void shouldCreateBoundedPoolAndExportItsUtilisation() throws Exception {
+        try (PoolingHttpClientConnectionManager connectionManager = config.catalogConnectionManager(
+                meterRegistry, 40, 20, Duration.ofSeconds(1), Duration.ofSeconds(3), Duration.ofMinutes(5))) {
+
+            assertEquals(40, connectionManager.getMaxTotal(), "El pool admite 40 conexiones en total");
+            assertEquals(20, connectionManager.getDefaultMaxPerRoute(), "Y 20 por destino");
+            assertEquals(40.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                    .tag("httpclient", "catalog").gauge().value(), "El máximo del pool se exporta como métrica");
+            assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.connections")
+                    .tag("state", "leased").gauge(), "Las conexiones en uso se exportan como métrica");
+        }
+    }
+
+    @Test
+    @DisplayName("Debería exponer el cliente del pool como motor de RestTemplate y RestClient")
+    void shouldExposePooledClientAsRequestFactory() throws Exception {
+        try (PoolingHttpClientConnectionManager connectionManager = config.catalogConnectionManager(
+                meterRegistry, 40, 20, Duration.ofSeconds(1), Duration.ofSeconds(3), Duration.ofMinutes(5));
+             CloseableHttpClient httpClient = config.catalogHttpClient(
+                     connectionManager, Duration.ofMillis(500), Duration.ofSeconds(3), Duration.ofSeconds(30))) {
+
+            assertInstanceOf(HttpComponentsClientHttpRequestFactory.class,
+                    config.catalogRequestFactory(httpClient, Duration.ofMillis(500), Duration.ofSeconds(3)));
+        }
+    }
+
+    @Test
+    @DisplayName("Debería recortar las esperas de la llamada a lo que queda del plazo")
+    void shouldBoundCallTimeoutsByTheRemainingDeadline() {
+        RequestConfig shortDeadline = CatalogHttpClientConfig.deadlineContext(
+                Duration.ofMillis(200), Duration.ofMillis(500), Duration.ofSeconds(3)).getRequestConfig();
+        RequestConfig expired = CatalogHttpClientConfig.deadlineContext(
+                Duration.ofMillis(-5), Duration.ofMillis(500), Duration.ofSeconds(3)).getRequestConfig();
+
+        assertEquals(200, shortDeadline.getConnectionRequestTimeout().toMilliseconds(),
+                "La espera del pool no pasa del plazo");
+        assertEquals(200, shortDeadline.getResponseTimeout().toMilliseconds(),
+                "Ni la de la respuesta");
+        assertEquals(1, expired.getResponseTimeout().toMilliseconds(),
+                "Un plazo agotado no se convierte en espera infinita");
+    }
+}
@@ -0,0 +1,72 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import com.novatrade.inventory.model.ports.ReactiveProductsClientPort;
+import io.github.resilience4j.retry.annotation.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Cliente no bloqueante de catalog-ms sobre WebClient (Reactor Netty)
+ * Interpreta la misma respuesta JSON:API que {@code ProductsHttpClient}; los reintentos de
+ * Resilience4j se aplican sobre el Mono sin ocupar hilos durante la espera
+ */
+@Component
+public class ReactiveProductsHttpClient implements ReactiveProductsClientPort {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProductsHttpClient.class);
+    private final WebClient catalogWebClient;
+
+    public ReactiveProductsHttpClient(@Qualifier("catalogWebClient") WebClient catalogWebClient) {
+        this.catalogWebClient = catalogWebClient;
+    }
+
+    @Override
+    @Retry(name = "productService", fallbackMethod = "getProductFallback")
+    public Mono<ProductDTO> getProduct(Long id) {
+        log.info("Requesting product with ID {} from catalog service", id);
+        return catalogWebClient.get()
+                .uri("/api/v1/products/{id}", id)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(root -> toProduct(id, root))
+                .onErrorMap(WebClientResponseException.NotFound.class, e -> {
+                    log.error("Product with ID {} not found: {}", id, e.getMessage());
+                    return new NoSuchElementException("Product not found with ID: " + id);
+                });
+    }
+
+    private ProductDTO toProduct(Long id, JsonNode root) {
+        JsonNode data = root.get("data");
+        if (data == null) {
+            throw new RuntimeException("Failed to parse response: missing data field");
+        }
+        JsonNode attributes = data.get("attributes");
+        if (attributes == null || !attributes.has("name") || !attributes.has("price")) {
+            throw new RuntimeException("Failed to parse response: missing required attributes");
+        }
+        return new ProductDTO(
+                Long.parseLong(data.get("id").asText()),
+                attributes.get("name").asText(),
+                attributes.get("price").asDouble()
+        );
+    }
+
+    private Mono<ProductDTO> getProductFallback(Long id, Throwable e) {
+        if (e instanceof NoSuchElementException
+                || e instanceof WebClientResponseException w && w.getStatusCode() == HttpStatus.NOT_FOUND) {
+            return Mono.error(new NoSuchElementException("Product not found with ID: " + id));
+        }
+        log.error("Fallback for getProduct. Product service unavailable for ID: {}", id);
+        return Mono.error(new RuntimeException("Product service unavailable. Could not retrieve product with ID: " + id));
+    }
+}
@@ -0,0 +1,24 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repositorio R2DBC para las claves de idempotencia
+ */
+public interface IdempotencyR2dbcRepository extends R2dbcRepository<IdempotencyRow, String> {
+
+    /**
+     * Inserta la respuesta asociada a una clave
+     *
+     * @param id Clave de idempotencia
+     * @param responseJson Respuesta JSON
+     * @return Número de filas insertadas
+     */
+    @Modifying
+    @Query("INSERT INTO dbo.idempotency_keys (id, created_at, response_json) VALUES (:id, SYSDATETIME(), :json)")
+    Mono<Integer> insert(@Param("id") String id, @Param("json") String responseJson);
+}
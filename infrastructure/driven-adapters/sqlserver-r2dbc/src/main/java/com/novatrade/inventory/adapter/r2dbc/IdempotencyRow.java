@@ -0,0 +1,33 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * Fila de dbo.idempotency_keys leída por R2DBC
+ */
+@Table("idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRow {
+
+    @Id
+    private String id;
+
+    private Instant createdAt;
+
+    private String responseJson;
+
+    /**
+     * Respuesta comprimida por la variante JPA (byte de versión + Deflate del JSON en UTF-8); null en filas en texto
+     */
+    private byte[] responseBin;
+}
@@ -0,0 +1,50 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repositorio R2DBC para el inventario
+ * Las mismas sentencias condicionales que la variante JPA, sin bloquear hilos
+ */
+public interface InventoryR2dbcRepository extends R2dbcRepository<InventoryRow, Long> {
+
+    /**
+     * Decrementa la cantidad de un producto solo si hay suficiente stock
+     *
+     * @param productId ID del producto
+     * @param quantity Cantidad a decrementar
+     * @return Número de filas afectadas
+     */
+    @Modifying
+    @Query("UPDATE dbo.inventory SET quantity = quantity - :qty WHERE product_id = :pid AND quantity >= :qty")
+    Mono<Integer> decrementIfEnough(@Param("pid") Long productId, @Param("qty") Long quantity);
+
+    /**
+     * Crea la fila del producto con cantidad 0 si aún no existe
+     *
+     * @param productId ID del producto
+     * @return Número de filas insertadas
+     */
+    @Modifying
+    @Query("INSERT INTO dbo.inventory (product_id, quantity) SELECT :pid, 0 " +
+           "WHERE NOT EXISTS (SELECT 1 FROM dbo.inventory WITH (UPDLOCK, HOLDLOCK) WHERE product_id = :pid)")
+    Mono<Integer> insertIfAbsent(@Param("pid") Long productId);
+
+    /**
+     * Establece la cantidad de un producto, creando la fila si no existe
+     *
+     * @param productId ID del producto
+     * @param quantity Nueva cantidad
+     * @return Número de filas afectadas
+     */
+    @Modifying
+    @Query("MERGE dbo.inventory WITH (HOLDLOCK) AS t USING (SELECT :pid AS product_id) AS s " +
+           "ON t.product_id = s.product_id " +
+           "WHEN MATCHED THEN UPDATE SET quantity = :qty " +
+           "WHEN NOT MATCHED THEN INSERT (product_id, quantity) VALUES (:pid, :qty);")
+    Mono<Integer> upsert(@Param("pid") Long productId, @Param("qty") Long quantity);
+}
@@ -0,0 +1,25 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Fila de dbo.inventory leída por R2DBC
+ * Solo se usa para lecturas; las escrituras son sentencias nativas en {@link InventoryR2dbcRepository}
+ */
+@Table("inventory")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryRow {
+
+    @Id
+    private Long productId;
+
+    private Long quantity;
+}
@@ -0,0 +1,52 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import com.novatrade.inventory.model.IdempotencyPayload;
+import com.novatrade.inventory.model.ports.ReactiveIdempotencyPort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adaptador reactivo para el repositorio de idempotencia
+ * Implementa el puerto reactivo de idempotencia definido en el dominio
+ * Guarda en texto, pero lee también las respuestas comprimidas que escribe la variante JPA en response_bin
+ */
+@Component
+public class ReactiveIdempotencyRepositoryAdapter implements ReactiveIdempotencyPort {
+
+    private final IdempotencyR2dbcRepository repository;
+
+    /**
+     * Constructor que recibe el repositorio R2DBC
+     *
+     * @param repository Repositorio R2DBC para acceso a datos
+     */
+    public ReactiveIdempotencyRepositoryAdapter(IdempotencyR2dbcRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Busca una respuesta guardada por su clave de idempotencia
+     *
+     * @param key Clave de idempotencia
+     * @return Respuesta JSON, o vacío si la clave no existe
+     */
+    @Override
+    public Mono<String> findResponseByKey(String key) {
+        return repository.findById(key).map(ReactiveIdempotencyRepositoryAdapter::read);
+    }
+
+    /**
+     * Guarda una respuesta asociada a una clave de idempotencia
+     *
+     * @param key Clave de idempotencia
+     * @param responseJson Respuesta JSON a guardar
+     */
+    @Override
+    public Mono<Void> saveResponse(String key, String responseJson) {
+        return repository.insert(key, responseJson).then();
+    }
+
+    static String read(IdempotencyRow row) {
+        return row.getResponseBin() != null ? IdempotencyPayload.decompress(row.getResponseBin()) : row.getResponseJson();
+    }
+}
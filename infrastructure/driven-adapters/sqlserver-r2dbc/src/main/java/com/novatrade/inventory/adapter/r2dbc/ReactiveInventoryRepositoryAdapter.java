@@ -0,0 +1,74 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.ReactiveInventoryRepositoryPort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adaptador reactivo para el repositorio de inventario
+ * Implementa el puerto reactivo de inventario definido en el dominio
+ */
+@Component
+public class ReactiveInventoryRepositoryAdapter implements ReactiveInventoryRepositoryPort {
+
+    private final InventoryR2dbcRepository repository;
+
+    /**
+     * Constructor que recibe el repositorio R2DBC
+     *
+     * @param repository Repositorio R2DBC para acceso a datos de inventario
+     */
+    public ReactiveInventoryRepositoryAdapter(InventoryR2dbcRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Obtiene un registro de inventario por ID o crea uno con cantidad 0 si no existe
+     *
+     * @param productId ID del producto
+     * @return Objeto de dominio Inventory
+     */
+    @Override
+    public Mono<Inventory> getOrCreate(Long productId) {
+        return repository.findById(productId)
+                .switchIfEmpty(Mono.defer(() -> repository.insertIfAbsent(productId)
+                        .then(repository.findById(productId))))
+                .map(this::toDomain);
+    }
+
+    /**
+     * Establece la cantidad en inventario para un producto específico
+     *
+     * @param productId ID del producto
+     * @param quantity Nueva cantidad a establecer
+     * @return Objeto de dominio Inventory actualizado
+     */
+    @Override
+    public Mono<Inventory> set(Long productId, Long quantity) {
+        return repository.upsert(productId, quantity)
+                .thenReturn(Inventory.builder()
+                        .productId(productId)
+                        .quantity(quantity)
+                        .build());
+    }
+
+    /**
+     * Decrementa la cantidad de un producto si hay suficiente stock
+     *
+     * @param productId ID del producto
+     * @param quantity Cantidad a decrementar
+     * @return true si se pudo decrementar, false si no hay suficiente stock
+     */
+    @Override
+    public Mono<Boolean> decrementIfEnough(Long productId, Long quantity) {
+        return repository.decrementIfEnough(productId, quantity).map(rows -> rows > 0);
+    }
+
+    private Inventory toDomain(InventoryRow row) {
+        return Inventory.builder()
+                .productId(row.getProductId())
+                .quantity(row.getQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.novatrade.inventory.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * WebClient del catálogo sobre Reactor Netty, con los mismos tiempos de espera que el cliente bloqueante
+ * ({@code services.catalog.http.*}): sin ellos una conexión o respuesta colgada del catálogo retiene la
+ * compra indefinidamente
+ */
+@Configuration
+public class ReactiveClientConfig {
+
+    @Bean
+    public WebClient catalogWebClient(
+            WebClient.Builder builder,
+            @Value("${services.catalog.url}") String catalogBaseUrl,
+            @Value("${services.catalog.api-key}") String apiKey,
+            @Value("${services.catalog.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${services.catalog.http.read-timeout:3s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(readTimeout);
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(catalogBaseUrl)
+                .defaultHeader("X-API-KEY", apiKey)
+                .defaultHeader("Accept", "application/vnd.api+json")
+                .build();
+    }
+}
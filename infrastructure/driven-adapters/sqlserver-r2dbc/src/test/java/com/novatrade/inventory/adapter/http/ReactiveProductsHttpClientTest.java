@@ -0,0 +1,71 @@
+package com.novatrade.inventory.adapter.http;
+
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ReactiveProductsHttpClient con un ExchangeFunction simulado
+ */
+class ReactiveProductsHttpClientTest {
+
+    private final AtomicReference<ClientRequest> lastRequest = new AtomicReference<>();
+
+    @Test
+    void getProductShouldParseJsonApiResponse() {
+        // Arrange
+        ReactiveProductsHttpClient client = clientReturning(HttpStatus.OK,
+                "{\"data\":{\"type\":\"products\",\"id\":\"1\",\"attributes\":{\"name\":\"Teclado\",\"price\":199.99}}}");
+
+        // Act
+        ProductDTO product = client.getProduct(1L).block();
+
+        // Assert
+        assertEquals(new ProductDTO(1L, "Teclado", 199.99), product);
+        assertEquals("/api/v1/products/1", lastRequest.get().url().getPath());
+    }
+
+    @Test
+    void getProductShouldMapNotFound() {
+        // Arrange
+        ReactiveProductsHttpClient client = clientReturning(HttpStatus.NOT_FOUND, "{}");
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> client.getProduct(99L).block());
+    }
+
+    @Test
+    void getProductShouldFailOnMissingAttributes() {
+        // Arrange
+        ReactiveProductsHttpClient client = clientReturning(HttpStatus.OK,
+                "{\"data\":{\"type\":\"products\",\"id\":\"1\",\"attributes\":{\"name\":\"Teclado\"}}}");
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> client.getProduct(1L).block());
+        assertTrue(exception.getMessage().contains("missing required attributes"));
+    }
+
+    private ReactiveProductsHttpClient clientReturning(HttpStatus status, String body) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://catalog")
+                .exchangeFunction(request -> {
+                    lastRequest.set(request);
+                    return Mono.just(ClientResponse.create(status)
+                            .header(HttpHeaders.CONTENT_TYPE, "application/vnd.api+json")
+                            .body(body)
+                            .build());
+                })
+                .build();
+        return new ReactiveProductsHttpClient(webClient);
+    }
+}
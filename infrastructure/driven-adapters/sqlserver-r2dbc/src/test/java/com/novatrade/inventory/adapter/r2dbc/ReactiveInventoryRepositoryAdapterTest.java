@@ -0,0 +1,85 @@
+package com.novatrade.inventory.adapter.r2dbc;
+
+import com.novatrade.inventory.model.Inventory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ReactiveInventoryRepositoryAdapter
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveInventoryRepositoryAdapterTest {
+
+    private static final Long TEST_PRODUCT_ID = 123L;
+
+    @Mock
+    private InventoryR2dbcRepository repository;
+
+    private ReactiveInventoryRepositoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new ReactiveInventoryRepositoryAdapter(repository);
+    }
+
+    @Test
+    void getOrCreateShouldReturnExistingRowWithoutInserting() {
+        // Arrange
+        when(repository.findById(TEST_PRODUCT_ID)).thenReturn(Mono.just(new InventoryRow(TEST_PRODUCT_ID, 7L)));
+
+        // Act
+        Inventory result = adapter.getOrCreate(TEST_PRODUCT_ID).block();
+
+        // Assert
+        assertEquals(7L, result.getQuantity());
+        verify(repository, never()).insertIfAbsent(anyLong());
+    }
+
+    @Test
+    void getOrCreateShouldInsertMissingRowAndReadItBack() {
+        // Arrange
+        when(repository.findById(TEST_PRODUCT_ID))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(new InventoryRow(TEST_PRODUCT_ID, 0L)));
+        when(repository.insertIfAbsent(TEST_PRODUCT_ID)).thenReturn(Mono.just(1));
+
+        // Act
+        Inventory result = adapter.getOrCreate(TEST_PRODUCT_ID).block();
+
+        // Assert
+        assertEquals(TEST_PRODUCT_ID, result.getProductId());
+        assertEquals(0L, result.getQuantity());
+        verify(repository).insertIfAbsent(TEST_PRODUCT_ID);
+    }
+
+    @Test
+    void setShouldUpsertAndReturnNewQuantity() {
+        // Arrange
+        when(repository.upsert(TEST_PRODUCT_ID, 15L)).thenReturn(Mono.just(1));
+
+        // Act
+        Inventory result = adapter.set(TEST_PRODUCT_ID, 15L).block();
+
+        // Assert
+        assertEquals(15L, result.getQuantity());
+        verify(repository).upsert(TEST_PRODUCT_ID, 15L);
+    }
+
+    @Test
+    void decrementIfEnoughShouldMapAffectedRows() {
+        // Arrange
+        when(repository.decrementIfEnough(TEST_PRODUCT_ID, 2L)).thenReturn(Mono.just(1));
+        when(repository.decrementIfEnough(TEST_PRODUCT_ID, 50L)).thenReturn(Mono.just(0));
+
+        // Act & Assert
+        assertTrue(adapter.decrementIfEnough(TEST_PRODUCT_ID, 2L).block());
+        assertFalse(adapter.decrementIfEnough(TEST_PRODUCT_ID, 50L).block());
+    }
+}
@@ -0,0 +1 @@
+package com.novatrade.inventory.api.reactive; public record JsonApi(Object data, java.util.Map<String,Object> meta){ public static JsonApi of(Object d){return new JsonApi(d,null);} }
@@ -0,0 +1,47 @@
+package com.novatrade.inventory.api.reactive;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Equivalente WebFlux de ApiKeyFilter: rechaza una X-API-KEY presente pero distinta de INVENTORY_API_KEY.
+ */
+@Component
+public class ReactiveApiKeyFilter implements WebFilter {
+  private static final String API_KEY_HEADER = "X-API-KEY";
+  private static final byte[] UNAUTHORIZED_BODY =
+      "{\"errors\":[{\"status\":\"401\",\"title\":\"Unauthorized\",\"detail\":\"Invalid API key\"}]}"
+          .getBytes(StandardCharsets.UTF_8);
+  private final String expectedApiKey = System.getenv().getOrDefault("INVENTORY_API_KEY","");
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    String providedApiKey = exchange.getRequest().getHeaders().getFirst(API_KEY_HEADER);
+
+    if (isApiKeyProvidedButInvalid(providedApiKey)) {
+      return sendUnauthorizedResponse(exchange);
+    }
+
+    return chain.filter(exchange);
+  }
+
+  private boolean isApiKeyProvidedButInvalid(String apiKey) {
+    return apiKey != null && !apiKey.isBlank() && !apiKey.equals(expectedApiKey);
+  }
+
+  private Mono<Void> sendUnauthorizedResponse(ServerWebExchange exchange) {
+    var response = exchange.getResponse();
+    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+    response.getHeaders().setContentType(MediaType.valueOf("application/vnd.api+json"));
+    DataBuffer body = response.bufferFactory().wrap(UNAUTHORIZED_BODY);
+    return response.writeWith(Mono.just(body));
+  }
+}
@@ -0,0 +1,136 @@
+package com.novatrade.inventory.api.reactive;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.novatrade.inventory.model.*;
+import com.novatrade.inventory.model.ports.ReactiveIdempotencyPort;
+import com.novatrade.inventory.usecase.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Mismos contratos que el InventoryController de rest-web, servidos sobre WebFlux sin bloquear.
+ */
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/vnd.api+json")
+public class ReactiveInventoryController {
+
+    private static final MediaType JSON_API = MediaType.valueOf("application/vnd.api+json");
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+    private final ReactiveGetInventoryUseCase get;
+    private final ReactiveSetInventoryUseCase set;
+    private final ReactivePurchaseUseCase purchase;
+    private final ReactiveIdempotencyPort idempotency;
+    // Compras en curso por Idempotency-Key: las peticiones concurrentes con la misma clave comparten el
+    // mismo Mono en lugar de consultar el almacén, ejecutar y guardar cada una por su cuenta
+    private final ConcurrentMap<String, Mono<String>> inFlight = new ConcurrentHashMap<>();
+
+    public ReactiveInventoryController(
+            ReactiveGetInventoryUseCase g,
+            ReactiveSetInventoryUseCase s,
+            ReactivePurchaseUseCase p,
+            ReactiveIdempotencyPort idem) {
+        this.get = g;
+        this.set = s;
+        this.purchase = p;
+        this.idempotency = idem;
+    }
+
+    @GetMapping("/inventory/{productId}")
+    public Mono<JsonApi> get(@PathVariable Long productId) {
+        return get.execute(productId).map(this::toJsonApi);
+    }
+
+    record PatchBody(Body data) {
+        record Body(String type, Attributes attributes) {}
+        record Attributes(Long quantity) {}
+    }
+
+    @PatchMapping(value = "/inventory/{productId}", consumes = "application/vnd.api+json")
+    public Mono<JsonApi> patch(@PathVariable Long productId, @RequestBody PatchBody body) {
+        return set.execute(productId, body.data().attributes().quantity()).map(this::toJsonApi);
+    }
+
+    record PurchaseBody(Body data) {
+        record Body(String type, Attributes attributes) {}
+        record Attributes(Long productId, Long quantity) {}
+    }
+
+    @PostMapping(value = "/purchases", consumes = "application/vnd.api+json")
+    public Mono<ResponseEntity<String>> purchase(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idemKey,
+            @RequestBody PurchaseBody body) {
+
+        var a = body.data().attributes();
+
+        Mono<String> response = findCachedResponse(idemKey)
+                .switchIfEmpty(Mono.defer(() -> purchase.execute(a.productId(), a.quantity())
+                        .map(this::purchaseDocument)
+                        .flatMap(json -> saveResponse(idemKey, json))));
+        if (idemKey == null || idemKey.isBlank()) {
+            return response.map(this::jsonApi);
+        }
+        return Mono.defer(() -> singleFlight(idemKey, response)).map(this::jsonApi);
+    }
+
+    /**
+     * Una sola ejecución por clave: la primera petición publica su Mono (compartido con cache()) y las que
+     * llegan mientras tanto reciben el mismo resultado, o el mismo error. La clave se libera al terminar,
+     * ya guardada la respuesta, de modo que las peticiones posteriores la encuentran en el almacén.
+     */
+    private Mono<String> singleFlight(String idemKey, Mono<String> response) {
+        return inFlight.computeIfAbsent(idemKey, key -> response
+                .doFinally(signal -> inFlight.remove(key))
+                .cache());
+    }
+
+    private JsonApi toJsonApi(Inventory i) {
+        return JsonApi.of(Map.of(
+                "type", "inventory",
+                "id", String.valueOf(i.getProductId()),
+                "attributes", Map.of("quantity", i.getQuantity())
+        ));
+    }
+
+    private String purchaseDocument(PurchaseResult r) {
+        var rootNode = MAPPER.createObjectNode();
+        ObjectNode dataNode = rootNode.putObject("data");
+        dataNode.put("type", "purchases");
+        dataNode.put("id", "venta-" + r.getProductId() + "-" + System.currentTimeMillis());
+
+        var attributesNode = dataNode.putObject("attributes");
+        attributesNode.put("productName", r.getProductName());
+        attributesNode.put("unitPrice", r.getUnitPrice());
+        attributesNode.put("quantity", r.getQuantity());
+        attributesNode.put("total", r.getTotalPrice());
+        attributesNode.put("purchasedAt", r.getPurchasedAt());
+        return rootNode.toString();
+    }
+
+    private Mono<String> findCachedResponse(String idemKey) {
+        if (idemKey != null && !idemKey.isBlank()) {
+            return idempotency.findResponseByKey(idemKey);
+        }
+        return Mono.empty();
+    }
+
+    private Mono<String> saveResponse(String idemKey, String json) {
+        if (idemKey != null && !idemKey.isBlank()) {
+            return idempotency.saveResponse(idemKey, json).thenReturn(json);
+        }
+        return Mono.just(json);
+    }
+
+    private ResponseEntity<String> jsonApi(String json) {
+        return ResponseEntity.ok()
+                .contentType(JSON_API)
+                .body(json);
+    }
+}
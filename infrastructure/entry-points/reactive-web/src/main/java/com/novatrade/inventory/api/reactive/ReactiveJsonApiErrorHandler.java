@@ -0,0 +1,51 @@
+package com.novatrade.inventory.api.reactive;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import java.util.*;
+import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+
+/**
+ * Mismo mapeo de excepciones a errores JSON:API que JsonApiErrorHandler de rest-web.
+ */
+@RestControllerAdvice
+public class ReactiveJsonApiErrorHandler {
+  record JsonApiError(String status, String title, String detail){}
+  record Errors(List<JsonApiError> errors){}
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<Errors> bad(IllegalArgumentException ex){
+    return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage());
+  }
+
+  @ExceptionHandler(IllegalStateException.class)
+  public ResponseEntity<Errors> conflict(IllegalStateException ex){
+    return error(HttpStatus.CONFLICT, "Conflict", ex.getMessage());
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<Errors> notFound(NoSuchElementException ex){
+    return error(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage());
+  }
+
+  @ExceptionHandler(ServiceCommunicationException.class)
+  public ResponseEntity<Errors> serviceUnavailable(ServiceCommunicationException ex) {
+    return error(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage());
+  }
+
+  @ExceptionHandler(InsufficientInventoryException.class)
+  public ResponseEntity<Errors> insufficientInventory(InsufficientInventoryException ex) {
+    return error(HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity", ex.getMessage());
+  }
+
+  @ExceptionHandler(Exception.class)
+  public ResponseEntity<Errors> handleGeneral(Exception ex) {
+    return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", "An unexpected error occurred");
+  }
+
+  private ResponseEntity<Errors> error(HttpStatus status, String title, String detail) {
+    return ResponseEntity.status(status)
+      .contentType(MediaType.valueOf("application/vnd.api+json"))
+      .body(new Errors(List.of(new JsonApiError(String.valueOf(status.value()), title, detail))));
+  }
+}
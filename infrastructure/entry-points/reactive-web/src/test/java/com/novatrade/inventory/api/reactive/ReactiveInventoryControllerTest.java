@@ -0,0 +1,130 @@
+package com.novatrade.inventory.api.reactive;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.ReactiveIdempotencyPort;
+import com.novatrade.inventory.usecase.ReactiveGetInventoryUseCase;
+import com.novatrade.inventory.usecase.ReactivePurchaseUseCase;
+import com.novatrade.inventory.usecase.ReactiveSetInventoryUseCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveInventoryControllerTest {
+
+    @Mock
+    private ReactiveGetInventoryUseCase getInventoryUseCase;
+
+    @Mock
+    private ReactiveSetInventoryUseCase setInventoryUseCase;
+
+    @Mock
+    private ReactivePurchaseUseCase purchaseUseCase;
+
+    @Mock
+    private ReactiveIdempotencyPort idempotencyPort;
+
+    @InjectMocks
+    private ReactiveInventoryController controller;
+
+    @Test
+    void getInventory_ShouldReturnInventoryData() {
+        // Arrange
+        when(getInventoryUseCase.execute(1L))
+                .thenReturn(Mono.just(Inventory.builder().productId(1L).quantity(10L).build()));
+
+        // Act
+        JsonApi result = controller.get(1L).block();
+
+        // Assert
+        Map<String, Object> data = (Map<String, Object>) result.data();
+        assertEquals("inventory", data.get("type"));
+        assertEquals("1", data.get("id"));
+        assertEquals(10L, ((Map<String, Object>) data.get("attributes")).get("quantity"));
+    }
+
+    @Test
+    void purchase_ShouldExecuteAndStoreResponseForNewKey() {
+        // Arrange
+        when(idempotencyPort.findResponseByKey("key-1")).thenReturn(Mono.empty());
+        when(purchaseUseCase.execute(1L, 2L)).thenReturn(Mono.just(PurchaseResult.builder()
+                .productId(1L).productName("Teclado").unitPrice(50.0).quantity(2L).totalPrice(100.0)
+                .success(true).purchasedAt("2024-01-01T00:00:00Z").build()));
+        when(idempotencyPort.saveResponse(eq("key-1"), anyString())).thenReturn(Mono.empty());
+
+        // Act
+        ResponseEntity<String> response = controller.purchase("key-1", purchaseBody(1L, 2L)).block();
+
+        // Assert
+        assertEquals(MediaType.valueOf("application/vnd.api+json"), response.getHeaders().getContentType());
+        assertTrue(response.getBody().contains("\"type\":\"purchases\""));
+        assertTrue(response.getBody().contains("\"total\":100.0"));
+        verify(idempotencyPort).saveResponse("key-1", response.getBody());
+    }
+
+    @Test
+    void purchase_ShouldReturnCachedResponseWithoutPurchasing() {
+        // Arrange
+        when(idempotencyPort.findResponseByKey("key-1")).thenReturn(Mono.just("{\"data\":{}}"));
+
+        // Act
+        ResponseEntity<String> response = controller.purchase("key-1", purchaseBody(1L, 2L)).block();
+
+        // Assert
+        assertEquals("{\"data\":{}}", response.getBody());
+        verifyNoInteractions(purchaseUseCase);
+    }
+
+    @Test
+    void purchase_ConcurrentRequestsWithSameKeyShouldExecuteOnce() {
+        // Arrange
+        Sinks.One<PurchaseResult> pending = Sinks.one();
+        when(idempotencyPort.findResponseByKey("key-1")).thenReturn(Mono.empty());
+        when(purchaseUseCase.execute(1L, 2L)).thenReturn(pending.asMono());
+        when(idempotencyPort.saveResponse(eq("key-1"), anyString())).thenReturn(Mono.empty());
+
+        // Act
+        var first = controller.purchase("key-1", purchaseBody(1L, 2L)).toFuture();
+        var second = controller.purchase("key-1", purchaseBody(1L, 2L)).toFuture();
+        pending.tryEmitValue(PurchaseResult.builder()
+                .productId(1L).productName("Teclado").unitPrice(50.0).quantity(2L).totalPrice(100.0)
+                .success(true).purchasedAt("2024-01-01T00:00:00Z").build());
+
+        // Assert
+        assertEquals(first.join().getBody(), second.join().getBody());
+        verify(purchaseUseCase, times(1)).execute(1L, 2L);
+        verify(idempotencyPort, times(1)).saveResponse(eq("key-1"), anyString());
+    }
+
+    @Test
+    void purchase_WithoutKeyShouldNotTouchIdempotencyStore() {
+        // Arrange
+        when(purchaseUseCase.execute(1L, 1L)).thenReturn(Mono.just(PurchaseResult.builder()
+                .productId(1L).productName("Teclado").unitPrice(50.0).quantity(1L).totalPrice(50.0)
+                .success(true).purchasedAt("2024-01-01T00:00:00Z").build()));
+
+        // Act
+        controller.purchase(null, purchaseBody(1L, 1L)).block();
+
+        // Assert
+        verifyNoInteractions(idempotencyPort);
+    }
+
+    private ReactiveInventoryController.PurchaseBody purchaseBody(Long productId, Long quantity) {
+        return new ReactiveInventoryController.PurchaseBody(new ReactiveInventoryController.PurchaseBody.Body(
+                "purchases", new ReactiveInventoryController.PurchaseBody.Attributes(productId, quantity)));
+    }
+}
@@ -0,0 +1,204 @@
+package com.novatrade.inventory.api;
+
+import com.novatrade.inventory.model.PurchaseLine;
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import com.novatrade.inventory.usecase.PurchaseOutcome;
+import com.novatrade.inventory.usecase.PurchaseUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola acotada de compras aceptadas con {@code Prefer: respond-async}
+ * Los workers sacan de la cola lotes de hasta batchSize peticiones, las compran con una sola consulta
+ * al catálogo y guardan el documento final (compra o error) en el almacén de idempotencia bajo la
+ * Idempotency-Key de cada petición, que es también el id del recurso de estado
+ * Cada clave se reserva en el mismo {@link SingleFlight} que las compras síncronas hasta que su documento
+ * está guardado: una clave encolada no se compra también de forma síncrona ni se vuelve a encolar
+ * La cola vive en memoria: al parar se procesa lo encolado durante 5 s como máximo; lo que quede se pierde
+ * sin descontar stock y su recurso de estado responde 404
+ */
+@Component
+public class AsyncPurchaseQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncPurchaseQueue.class);
+
+    private final PurchaseUseCase purchase;
+    private final IdempotencyPort idempotency;
+    private final BlockingQueue<Task> queue;
+    private final int workers;
+    private final int batchSize;
+    private final SingleFlight<PurchaseOutcome> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor;
+    private final Counter rejected;
+    private final DistributionSummary batches;
+    private volatile boolean running = true;
+
+    public AsyncPurchaseQueue(
+            PurchaseUseCase purchase,
+            IdempotencyPort idempotency,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.async-purchases.capacity:10000}") int capacity,
+            @Value("${inventory.async-purchases.workers:4}") int workers,
+            @Value("${inventory.async-purchases.batch-size:100}") int batchSize) {
+        if (capacity < 1 || workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("capacity, workers and batchSize must be >= 1");
+        }
+        this.purchase = purchase;
+        this.idempotency = idempotency;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "async-purchase-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rejected = Counter.builder("inventory.async_purchases.rejected")
+                .description("Compras asíncronas rechazadas por cola llena")
+                .register(meterRegistry);
+        this.batches = DistributionSummary.builder("inventory.async_purchases.batch.size")
+                .description("Compras procesadas por cada lote de un worker")
+                .register(meterRegistry);
+        Gauge.builder("inventory.async_purchases.queued", queue, BlockingQueue::size)
+                .description("Compras aceptadas pendientes de procesar")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Dropping {} queued async purchases on shutdown", queue.size());
+        }
+    }
+
+    /**
+     * Ejecución única por clave que comparten la cola y las compras síncronas
+     */
+    SingleFlight<PurchaseOutcome> singleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Encola una compra. Si ya hay una en curso con la misma clave, síncrona o encolada, no se encola otra
+     *
+     * @param key Idempotency-Key con que se guardará el resultado
+     * @return COMPLETED si la clave ya tiene resultado guardado y REJECTED si la cola está llena
+     */
+    public Submission submit(String key, Long productId, Long quantity) {
+        CompletableFuture<PurchaseOutcome> claim = singleFlight.claim(key);
+        if (claim == null) {
+            return Submission.ACCEPTED;
+        }
+        // Con la clave ya reservada: una compra que terminó tras la consulta de quien llama ya guardó su documento
+        Optional<String> stored = idempotency.findResponseByKey(key);
+        if (stored.isPresent()) {
+            singleFlight.release(key, claim, new PurchaseOutcome.Replayed(stored.get()));
+            return Submission.COMPLETED;
+        }
+        if (!queue.offer(new Task(key, new PurchaseLine(productId, quantity), claim))) {
+            singleFlight.release(key, claim, new PurchaseOutcome.UpstreamFailure("Async purchase queue is full"));
+            rejected.increment();
+            return Submission.REJECTED;
+        }
+        return Submission.ACCEPTED;
+    }
+
+    /**
+     * @return true si la compra está encolada o en curso y su resultado aún no se ha guardado
+     */
+    public boolean isPending(String key) {
+        return singleFlight.isRunning(key);
+    }
+
+    private void drain() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Task first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Async purchase worker failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void process(List<Task> batch) {
+        batches.record(batch.size());
+        long batchId = System.currentTimeMillis();
+        List<PurchaseUseCase.LineOutcome> outcomes;
+        try {
+            // Cada compra realizada queda guardada bajo su clave en la transacción de su descuento
+            outcomes = purchase.executeEach(
+                    batch.stream().map(Task::line).toList(),
+                    batch.stream().map(Task::key).toList(),
+                    (i, result) -> PurchaseDocuments.purchase(result,
+                            "venta-" + result.getProductId() + "-" + batchId + "-" + (i + 1)));
+        } catch (RuntimeException e) {
+            outcomes = batch.stream().map(task -> new PurchaseUseCase.LineOutcome(null, null, e)).toList();
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Task task = batch.get(i);
+            PurchaseUseCase.LineOutcome outcome = outcomes.get(i);
+            String json = outcome.succeeded() ? outcome.document() : PurchaseDocuments.error(outcome.error());
+            try {
+                if (!outcome.succeeded()) {
+                    idempotency.saveResponse(task.key(), json);
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not store async purchase result for key {}: {}", task.key(), e.getMessage());
+            } finally {
+                singleFlight.release(task.key(), task.claim(), new PurchaseOutcome.Replayed(json));
+            }
+        }
+    }
+
+    /**
+     * Resultado de {@link #submit}: encolada (o ya en curso), ya resuelta antes, o cola llena
+     */
+    public enum Submission { ACCEPTED, COMPLETED, REJECTED }
+
+    record Task(String key, PurchaseLine line, CompletableFuture<PurchaseOutcome> claim) {}
+}
@@ -0,0 +1,88 @@
+package com.novatrade.inventory.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Aplica un {@link GradientConcurrencyLimiter} a las compras ({@code POST /api/v1/purchases} y
+ * {@code /api/v1/purchases/batch}). Lo que supera el límite se rechaza al momento con 503 y
+ * Retry-After en lugar de hacer cola delante del pool de conexiones
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String PURCHASES_PATH = "/api/v1/purchases";
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final GradientConcurrencyLimiter limiter;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${inventory.concurrency-limit.initial:20}") int initialLimit,
+            @Value("${inventory.concurrency-limit.min:5}") int minLimit,
+            @Value("${inventory.concurrency-limit.max:200}") int maxLimit,
+            @Value("${inventory.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${inventory.concurrency-limit.retry-after:1}") long retryAfterSeconds) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limiter = new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+        this.rejected = Counter.builder("http.server.concurrency.rejected")
+                .description("Peticiones rechazadas por superar el límite de concurrencia")
+                .tag("endpoint", "purchases")
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                .description("Límite de concurrencia adaptativo actual")
+                .tag("endpoint", "purchases")
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.inflight", limiter, GradientConcurrencyLimiter::getInFlight)
+                .description("Peticiones admitidas en curso")
+                .tag("endpoint", "purchases")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(PURCHASES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            sendOverloadedResponse(response);
+            return;
+        }
+
+        int inFlightAtStart = limiter.getInFlight();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start, inFlightAtStart);
+        }
+    }
+
+    private void sendOverloadedResponse(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/vnd.api+json");
+        response.getWriter().write("{\"errors\":[{\"status\":\"503\",\"title\":\"Service Unavailable\","
+                + "\"detail\":\"Concurrency limit reached, retry later\"}]}");
+    }
+}
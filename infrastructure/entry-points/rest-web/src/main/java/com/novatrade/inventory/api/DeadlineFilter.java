@@ -0,0 +1,107 @@
+package com.novatrade.inventory.api;
+
+import com.novatrade.inventory.model.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * Fija el {@link Deadline} de cada petición a {@code /api/v1}: el que pide el cliente en
+ * {@code X-Request-Timeout} (milisegundos) o, si no lo manda, el de la ruta ({@code purchase-timeout}
+ * para las compras, {@code default-timeout} para el resto). El del cliente nunca alarga el de la ruta.
+ * Una petición que llega con el plazo ya agotado se rechaza con 504 sin atenderla
+ */
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final String API_PATH = "/api/v1/";
+    private static final String PURCHASES_PATH = "/api/v1/purchases";
+
+    private final boolean enabled;
+    private final Duration purchaseTimeout;
+    private final Duration defaultTimeout;
+
+    public DeadlineFilter(
+            @Value("${inventory.deadline.enabled:true}") boolean enabled,
+            @Value("${inventory.deadline.purchase-timeout:3s}") Duration purchaseTimeout,
+            @Value("${inventory.deadline.default-timeout:5s}") Duration defaultTimeout) {
+        this.enabled = enabled;
+        this.purchaseTimeout = purchaseTimeout;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Duration timeout = timeoutOf(request);
+        if (timeout.isNegative() || timeout.isZero()) {
+            sendDeadlineExceededResponse(response);
+            return;
+        }
+
+        try {
+            Deadline.runWithin(Deadline.after(timeout), () -> {
+                try {
+                    filterChain.doFilter(request, response);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ServletException e) {
+                    throw new ChainFailure(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (ChainFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    Duration timeoutOf(HttpServletRequest request) {
+        Duration routeTimeout = "POST".equals(request.getMethod())
+                && request.getRequestURI().startsWith(PURCHASES_PATH)
+                ? purchaseTimeout
+                : defaultTimeout;
+        String requested = request.getHeader(TIMEOUT_HEADER);
+        if (requested == null || requested.isBlank()) {
+            return routeTimeout;
+        }
+        try {
+            Duration clientTimeout = Duration.ofMillis(Long.parseLong(requested.trim()));
+            return clientTimeout.compareTo(routeTimeout) < 0 ? clientTimeout : routeTimeout;
+        } catch (NumberFormatException e) {
+            return routeTimeout;
+        }
+    }
+
+    private void sendDeadlineExceededResponse(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        response.setContentType("application/vnd.api+json");
+        response.getWriter().write("{\"errors\":[{\"status\":\"504\",\"title\":\"Gateway Timeout\","
+                + "\"detail\":\"Request deadline exceeded\"}]}");
+    }
+
+    private static final class ChainFailure extends RuntimeException {
+        ChainFailure(ServletException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ServletException getCause() {
+            return (ServletException) super.getCause();
+        }
+    }
+}
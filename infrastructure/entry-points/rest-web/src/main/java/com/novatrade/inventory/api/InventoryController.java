@@ -1,32 +1,50 @@
 package com.novatrade.inventory.api;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.novatrade.inventory.model.*;
 import com.novatrade.inventory.usecase.*;
 import com.novatrade.inventory.model.ports.IdempotencyPort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
 
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/vnd.api+json")
 public class InventoryController {
 
+    private static final MediaType JSON_API = MediaType.valueOf("application/vnd.api+json");
+    private static final JsonMapper MAPPER = PurchaseDocuments.MAPPER;
+
     private final GetInventoryUseCase get;
     private final SetInventoryUseCase set;
     private final PurchaseUseCase purchase;
+    private final RebalanceInventoryUseCase rebalance;
     private final IdempotencyPort idempotency;
+    private final AsyncPurchaseQueue asyncPurchases;
+    private final SingleFlight<PurchaseOutcome> singleFlight;
 
     public InventoryController(
             GetInventoryUseCase g,
             SetInventoryUseCase s,
             PurchaseUseCase p,
-            IdempotencyPort idem) {
+            RebalanceInventoryUseCase r,
+            IdempotencyPort idem,
+            AsyncPurchaseQueue async) {
         this.get = g;
         this.set = s;
         this.purchase = p;
+        this.rebalance = r;
         this.idempotency = idem;
+        this.asyncPurchases = async;
+        this.singleFlight = async.singleFlight();
     }
 
     @GetMapping("/inventory/{productId}")
@@ -56,11 +74,49 @@ public class InventoryController {
         ));
     }
 
+    record BucketsBody(Body data) {
+        record Body(String type, Attributes attributes) {}
+        record Attributes(Integer buckets) {}
+    }
+
+    @GetMapping("/inventory/{productId}/buckets")
+    public JsonApi buckets(@PathVariable Long productId) {
+        return JsonApi.of(Map.of(
+                "type", "inventory-buckets",
+                "id", String.valueOf(productId),
+                "attributes", Map.of("buckets", rebalance.bucketCount(productId))
+        ));
+    }
+
+    /**
+     * Reparte el stock del producto en el número de filas indicado (0 o 1 vuelve a una sola fila).
+     * La cantidad total no cambia y las lecturas siguen devolviendo un único valor.
+     */
+    @PutMapping(value = "/inventory/{productId}/buckets", consumes = "application/vnd.api+json")
+    public JsonApi rebalance(@PathVariable Long productId, @RequestBody BucketsBody body) {
+        var buckets = body.data().attributes().buckets();
+        var i = rebalance.execute(productId, buckets);
+
+        return JsonApi.of(Map.of(
+                "type", "inventory-buckets",
+                "id", String.valueOf(i.getProductId()),
+                "attributes", Map.of("buckets", buckets, "quantity", i.getQuantity())
+        ));
+    }
+
     record PurchaseBody(Body data) {
         record Body(String type, Attributes attributes) {}
         record Attributes(Long productId, Long quantity) {}
     }
 
+    record PurchaseBatchBody(List<PurchaseBody.Body> data) {}
+
+    /**
+     * Compra síncrona. Las peticiones concurrentes con la misma Idempotency-Key se ejecutan una sola vez
+     * en esta instancia: las repetidas, y las que llegan con una clave aún encolada en modo asíncrono,
+     * esperan y devuelven el resultado de la primera.
+     * La repetición de la clave y los errores de negocio llegan como {@link PurchaseOutcome}, sin excepciones.
+     */
     @PostMapping(value = "/purchases", consumes = "application/vnd.api+json")
     public ResponseEntity<String> purchase(
             @RequestHeader(value = "Idempotency-Key", required = false) String idemKey,
@@ -68,38 +124,137 @@ public class InventoryController {
 
         var a = body.data().attributes();
 
-        if (idemKey != null && !idemKey.isBlank()) {
-            var cached = idempotency.findResponseByKey(idemKey);
-            if (cached.isPresent()) {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.valueOf("application/vnd.api+json"))
-                        .body(cached.get());
+        // El caso de uso consulta la clave y guarda el documento en la misma transacción que el descuento
+        return render(singleFlight.execute(idemKey, () ->
+                purchase.executeAndRecord(a.productId(), a.quantity(), idemKey, r -> {
+                    var rootNode = MAPPER.createObjectNode();
+                    writePurchase(rootNode.putObject("data"), r, "venta-" + r.getProductId() + "-" + System.currentTimeMillis());
+                    return rootNode.toString();
+                })));
+    }
+
+    /**
+     * Variante asíncrona de {@link #purchase}: con {@code Prefer: respond-async} la compra se encola y se
+     * responde 202 con la URL del recurso de estado. Sin Idempotency-Key se genera una, que es el id del recurso.
+     * Si la cola está llena se responde 503 y el cliente puede reintentar o comprar de forma síncrona.
+     */
+    @PostMapping(value = "/purchases", consumes = "application/vnd.api+json", headers = "Prefer")
+    public ResponseEntity<String> purchaseAsync(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idemKey,
+            @RequestHeader("Prefer") String prefer,
+            @RequestBody PurchaseBody body) {
+
+        if (!prefer.toLowerCase().contains("respond-async")) {
+            return purchase(idemKey, body);
+        }
+
+        var cached = findCachedResponse(idemKey);
+        if (cached != null) {
+            return jsonApi(cached);
+        }
+
+        var a = body.data().attributes();
+        var key = idemKey != null && !idemKey.isBlank() ? idemKey : UUID.randomUUID().toString();
+        switch (asyncPurchases.submit(key, a.productId(), a.quantity())) {
+            case REJECTED -> {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .contentType(JSON_API)
+                        .header("Retry-After", "1")
+                        .body("{\"errors\":[{\"status\":\"503\",\"title\":\"Service Unavailable\",\"detail\":\"Async purchase queue is full\"}]}");
+            }
+            case COMPLETED -> {
+                // Terminó entre la consulta de arriba y la reserva de la clave
+                return purchaseStatus(key);
             }
+            case ACCEPTED -> { }
+        }
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/purchase-requests/" + key))
+                .header("Preference-Applied", "respond-async")
+                .contentType(JSON_API)
+                .body(PurchaseDocuments.pending(key));
+    }
+
+    /**
+     * Estado de una compra asíncrona: PENDING mientras está en la cola y, al terminar, el mismo documento
+     * (compra o error, con su estado HTTP) que devolvería repetir la Idempotency-Key.
+     */
+    @GetMapping("/purchase-requests/{id}")
+    public ResponseEntity<String> purchaseStatus(@PathVariable String id) {
+        // Primero la cola: el worker guarda el resultado antes de dejar de marcarlo como pendiente
+        if (asyncPurchases.isPending(id)) {
+            return ResponseEntity.ok()
+                    .contentType(JSON_API)
+                    .header("Retry-After", "1")
+                    .body(PurchaseDocuments.pending(id));
         }
+        return idempotency.findResponseByKey(id)
+                .map(this::jsonApi)
+                .orElseThrow(() -> new NoSuchElementException("purchase request not found: " + id));
+    }
 
-        var r = purchase.execute(a.productId(), a.quantity(), idemKey);
+    /**
+     * Compra todas las líneas de un carrito de forma atómica.
+     * La Idempotency-Key identifica al carrito completo y se guarda un único documento con una
+     * resource "purchases" por línea, en el mismo orden en que llegaron.
+     */
+    @PostMapping(value = "/purchases/batch", consumes = "application/vnd.api+json")
+    public ResponseEntity<String> purchaseBatch(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idemKey,
+            @RequestBody PurchaseBatchBody body) {
 
-        var mapper = com.fasterxml.jackson.databind.json.JsonMapper.builder().build();
-        var rootNode = mapper.createObjectNode();
-        var dataNode = rootNode.putObject("data");
-        dataNode.put("type", "purchases");
-        dataNode.put("id", "venta-" + r.getProductId() + "-" + System.currentTimeMillis());
+        var lines = body.data() == null ? List.<PurchaseLine>of() : body.data().stream()
+                .map(d -> d == null || d.attributes() == null
+                        ? null
+                        : new PurchaseLine(d.attributes().productId(), d.attributes().quantity()))
+                .toList();
 
-        var attributesNode = dataNode.putObject("attributes");
-        attributesNode.put("productName", r.getProductName());
-        attributesNode.put("unitPrice", r.getUnitPrice());
-        attributesNode.put("quantity", r.getQuantity());
-        attributesNode.put("total", r.getTotalPrice());  // Cambiado de getTotal() a getTotalPrice()
-        attributesNode.put("purchasedAt", r.getPurchasedAt());
+        return render(singleFlight.execute(idemKey, () ->
+                purchase.executeBatchAndRecord(lines, idemKey, results -> {
+                    var rootNode = MAPPER.createObjectNode();
+                    var dataNode = rootNode.putArray("data");
+                    var batchId = System.currentTimeMillis();
+                    for (int i = 0; i < results.size(); i++) {
+                        var r = results.get(i);
+                        writePurchase(dataNode.addObject(), r, "venta-" + r.getProductId() + "-" + batchId + "-" + (i + 1));
+                    }
+                    return rootNode.toString();
+                })));
+    }
 
-        var json = rootNode.toString();
+    private void writePurchase(ObjectNode dataNode, PurchaseResult r, String id) {
+        PurchaseDocuments.writePurchase(dataNode, r, id);
+    }
 
+    private String findCachedResponse(String idemKey) {
         if (idemKey != null && !idemKey.isBlank()) {
-            idempotency.saveResponse(idemKey, json);
+            return idempotency.findResponseByKey(idemKey).orElse(null);
         }
+        return null;
+    }
+
+    private ResponseEntity<String> render(PurchaseOutcome outcome) {
+        return switch (outcome) {
+            case PurchaseOutcome.Purchased p -> ResponseEntity.ok().contentType(JSON_API).body(p.document());
+            case PurchaseOutcome.Replayed r -> jsonApi(r.document());
+            case PurchaseOutcome.InsufficientStock s -> error(HttpStatus.UNPROCESSABLE_ENTITY, s.detail());
+            case PurchaseOutcome.NotFound n -> error(HttpStatus.NOT_FOUND, n.detail());
+            case PurchaseOutcome.UpstreamFailure u -> error(HttpStatus.SERVICE_UNAVAILABLE, u.detail());
+            case PurchaseOutcome.DeadlineExceeded d -> error(HttpStatus.GATEWAY_TIMEOUT, d.detail());
+        };
+    }
+
+    private ResponseEntity<String> error(HttpStatus status, String detail) {
+        return ResponseEntity.status(status)
+                .contentType(JSON_API)
+                .body(PurchaseDocuments.error(status, detail));
+    }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.valueOf("application/vnd.api+json"))
+    private ResponseEntity<String> jsonApi(String json) {
+        // Los resultados de compras asíncronas fallidas se guardan como documento de error
+        return ResponseEntity.status(PurchaseDocuments.replayStatus(json))
+                .contentType(JSON_API)
                 .body(json);
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.*;
 import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
 import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import com.novatrade.inventory.model.Deadline.DeadlineExceededException;
 
 @RestControllerAdvice
 public class JsonApiErrorHandler {
@@ -19,12 +20,6 @@ public class JsonApiErrorHandler {
 
   @ExceptionHandler(IllegalStateException.class)
   public ResponseEntity<String> conflict(IllegalStateException ex){
-    if(ex.getMessage()!=null && ex.getMessage().startsWith("__IDEMPOTENT_RETURN__")){
-      var json=ex.getMessage().substring("__IDEMPOTENT_RETURN__".length());
-      return ResponseEntity.status(HttpStatus.OK)
-        .contentType(MediaType.valueOf("application/vnd.api+json"))
-        .body(json);
-    }
     return ResponseEntity.status(HttpStatus.CONFLICT)
       .contentType(MediaType.valueOf("application/vnd.api+json"))
       .body("{\"errors\":[{\"status\":\"409\",\"title\":\"Conflict\",\"detail\":\"" + ex.getMessage() + "\"}]}");
@@ -44,6 +39,13 @@ public class JsonApiErrorHandler {
       .body(new Errors(List.of(new JsonApiError("503", "Service Unavailable", ex.getMessage()))));
   }
 
+  @ExceptionHandler(DeadlineExceededException.class)
+  public ResponseEntity<Errors> deadlineExceeded(DeadlineExceededException ex) {
+    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+      .contentType(MediaType.valueOf("application/vnd.api+json"))
+      .body(new Errors(List.of(new JsonApiError("504", "Gateway Timeout", ex.getMessage()))));
+  }
+
   @ExceptionHandler(InsufficientInventoryException.class)
   public ResponseEntity<Errors> insufficientInventory(InsufficientInventoryException ex) {
     return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
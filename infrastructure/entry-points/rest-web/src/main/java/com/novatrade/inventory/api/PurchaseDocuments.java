@@ -0,0 +1,109 @@
+package com.novatrade.inventory.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.novatrade.inventory.model.Deadline.DeadlineExceededException;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
+import org.springframework.http.HttpStatus;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Documentos JSON:API de compras que se guardan en el almacén de idempotencia.
+ * Los usan tanto la compra síncrona como los workers de la cola asíncrona, de modo que
+ * repetir la Idempotency-Key devuelve el mismo documento por cualquiera de los dos caminos.
+ */
+final class PurchaseDocuments {
+
+    static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+    private PurchaseDocuments() {
+    }
+
+    static void writePurchase(ObjectNode dataNode, PurchaseResult r, String id) {
+        dataNode.put("type", "purchases");
+        dataNode.put("id", id);
+
+        var attributesNode = dataNode.putObject("attributes");
+        attributesNode.put("productName", r.getProductName());
+        attributesNode.put("unitPrice", r.getUnitPrice());
+        attributesNode.put("quantity", r.getQuantity());
+        attributesNode.put("total", r.getTotalPrice());
+        attributesNode.put("purchasedAt", r.getPurchasedAt());
+        if (r.isStalePrice()) {
+            // El catálogo no respondió: nombre y precio son la última versión conocida del producto
+            attributesNode.put("stalePrice", true);
+        }
+    }
+
+    static String purchase(PurchaseResult r, String id) {
+        var rootNode = MAPPER.createObjectNode();
+        writePurchase(rootNode.putObject("data"), r, id);
+        return rootNode.toString();
+    }
+
+    /**
+     * Documento de error con el mismo estado y título que daría {@link JsonApiErrorHandler}.
+     */
+    static String error(RuntimeException ex) {
+        HttpStatus status = statusOf(ex);
+        return error(status, status == HttpStatus.INTERNAL_SERVER_ERROR
+                ? "An unexpected error occurred"
+                : ex.getMessage());
+    }
+
+    static String error(HttpStatus status, String detail) {
+        var rootNode = MAPPER.createObjectNode();
+        var errorNode = rootNode.putArray("errors").addObject();
+        errorNode.put("status", String.valueOf(status.value()));
+        errorNode.put("title", status.getReasonPhrase());
+        errorNode.put("detail", detail);
+        return rootNode.toString();
+    }
+
+    static String pending(String id) {
+        var rootNode = MAPPER.createObjectNode();
+        var dataNode = rootNode.putObject("data");
+        dataNode.put("type", "purchase-requests");
+        dataNode.put("id", id);
+        dataNode.putObject("attributes").put("status", "PENDING");
+        return rootNode.toString();
+    }
+
+    /**
+     * Estado HTTP con que se debe devolver un documento guardado: el de su primer error o 200.
+     */
+    static HttpStatus replayStatus(String json) {
+        try {
+            JsonNode status = MAPPER.readTree(json).path("errors").path(0).path("status");
+            return status.isMissingNode() ? HttpStatus.OK : HttpStatus.valueOf(Integer.parseInt(status.asText()));
+        } catch (Exception e) {
+            return HttpStatus.OK;
+        }
+    }
+
+    private static HttpStatus statusOf(RuntimeException ex) {
+        if (ex instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (ex instanceof NoSuchElementException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof InsufficientInventoryException) {
+            return HttpStatus.UNPROCESSABLE_ENTITY;
+        }
+        if (ex instanceof ServiceCommunicationException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        if (ex instanceof DeadlineExceededException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (ex instanceof IllegalStateException) {
+            return HttpStatus.CONFLICT;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
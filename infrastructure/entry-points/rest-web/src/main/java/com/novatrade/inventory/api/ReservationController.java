@@ -0,0 +1,61 @@
+package com.novatrade.inventory.api;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.usecase.ReservationUseCase;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Reservas de stock con vencimiento: retener, confirmar y cancelar.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/reservations", produces = "application/vnd.api+json")
+public class ReservationController {
+
+    private final ReservationUseCase reservations;
+
+    public ReservationController(ReservationUseCase reservations) {
+        this.reservations = reservations;
+    }
+
+    record ReserveBody(Body data) {
+        record Body(String type, Attributes attributes) {}
+        record Attributes(Long productId, Long quantity, Long ttlSeconds) {}
+    }
+
+    @PostMapping(consumes = "application/vnd.api+json")
+    @ResponseStatus(HttpStatus.CREATED)
+    public JsonApi reserve(@RequestBody ReserveBody body) {
+        if (body == null || body.data() == null || body.data().attributes() == null) {
+            throw new IllegalArgumentException("data.attributes is required");
+        }
+        var a = body.data().attributes();
+        var ttl = a.ttlSeconds() == null ? null : Duration.ofSeconds(a.ttlSeconds());
+        return toJsonApi(reservations.reserve(a.productId(), a.quantity(), ttl));
+    }
+
+    @PostMapping("/{id}/confirm")
+    public JsonApi confirm(@PathVariable String id) {
+        return toJsonApi(reservations.confirm(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public JsonApi cancel(@PathVariable String id) {
+        return toJsonApi(reservations.cancel(id));
+    }
+
+    private JsonApi toJsonApi(Reservation r) {
+        return JsonApi.of(Map.of(
+                "type", "reservations",
+                "id", r.getId(),
+                "attributes", Map.of(
+                        "productId", r.getProductId(),
+                        "quantity", r.getQuantity(),
+                        "status", r.getStatus().name(),
+                        "expiresAt", r.getExpiresAt().toString())
+        ));
+    }
+}
@@ -0,0 +1,88 @@
+package com.novatrade.inventory.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Ejecución única por Idempotency-Key dentro de esta instancia
+ * La primera petición con una clave ejecuta la compra; las que llegan con la misma clave mientras
+ * tanto esperan y reciben su mismo resultado (valor o excepción) sin volver a llamar al catálogo
+ * ni a descontar stock. Al terminar la clave se libera: lo que llegue después lo resuelve el almacén
+ * de idempotencia, que el primero ya ha escrito antes de liberarla
+ */
+final class SingleFlight<T> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<T>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * @param key Idempotency-Key; sin clave la llamada se ejecuta siempre
+     * @param call Compra completa: consulta del almacén, ejecución y guardado de la respuesta
+     * @return Valor devuelto por la llamada que se ejecutó
+     */
+    T execute(String key, Supplier<T> call) {
+        if (key == null || key.isBlank()) {
+            return call.get();
+        }
+
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> running = calls.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            T result = call.get();
+            release(key, mine, result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reserva la clave para una ejecución que terminará otro hilo, como un worker de la cola asíncrona.
+     * Mientras tanto {@link #execute} con la misma clave espera a {@link #release} en lugar de ejecutar
+     *
+     * @return La reserva, o null si la clave ya está en curso
+     */
+    CompletableFuture<T> claim(String key) {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        return calls.putIfAbsent(key, mine) == null ? mine : null;
+    }
+
+    /**
+     * Libera la clave y entrega el resultado a quienes esperaban.
+     * Quien la reservó debe haber guardado antes la respuesta en el almacén de idempotencia
+     */
+    void release(String key, CompletableFuture<T> claim, T result) {
+        calls.remove(key, claim);
+        claim.complete(result);
+    }
+
+    boolean isRunning(String key) {
+        return calls.containsKey(key);
+    }
+
+    int inFlight() {
+        return calls.size();
+    }
+
+    private static <T> T await(CompletableFuture<T> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Se relanza la excepción original para que el manejador de errores responda igual que al primero
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.novatrade.inventory.api;
+
+import com.novatrade.inventory.model.PurchaseLine;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.api.AsyncPurchaseQueue.Submission;
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import com.novatrade.inventory.usecase.PurchaseOutcome;
+import com.novatrade.inventory.usecase.PurchaseUseCase;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncPurchaseQueueTest {
+
+    @Mock
+    private PurchaseUseCase purchaseUseCase;
+
+    @Mock
+    private IdempotencyPort idempotencyPort;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void submit_ShouldRejectWhenFullAndIgnoreDuplicateKeys() {
+        // Arrange: capacidad 1 y sin workers arrancados
+        AsyncPurchaseQueue queue = new AsyncPurchaseQueue(purchaseUseCase, idempotencyPort, meterRegistry, 1, 1, 10);
+        when(idempotencyPort.findResponseByKey(anyString())).thenReturn(Optional.empty());
+
+        // Act
+        Submission first = queue.submit("a", 1L, 1L);
+        Submission duplicate = queue.submit("a", 1L, 1L);
+        Submission overflow = queue.submit("b", 1L, 1L);
+
+        // Assert
+        assertEquals(Submission.ACCEPTED, first);
+        assertEquals(Submission.ACCEPTED, duplicate);
+        assertEquals(Submission.REJECTED, overflow);
+        assertTrue(queue.isPending("a"));
+        assertFalse(queue.isPending("b"));
+        assertEquals(1.0, meterRegistry.find("inventory.async_purchases.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.find("inventory.async_purchases.queued").gauge().value());
+    }
+
+    @Test
+    void submit_WhenTheKeyAlreadyHasAStoredResult_ShouldNotEnqueueItAgain() {
+        // Arrange: el resultado se guardó después de la consulta del controlador
+        AsyncPurchaseQueue queue = new AsyncPurchaseQueue(purchaseUseCase, idempotencyPort, meterRegistry, 10, 1, 10);
+        when(idempotencyPort.findResponseByKey("a")).thenReturn(Optional.of("{\"data\":{}}"));
+
+        // Act
+        Submission submission = queue.submit("a", 1L, 1L);
+
+        // Assert
+        assertEquals(Submission.COMPLETED, submission);
+        assertFalse(queue.isPending("a"));
+        assertEquals(0.0, meterRegistry.find("inventory.async_purchases.queued").gauge().value());
+    }
+
+    @Test
+    void submit_WhileASynchronousPurchaseHoldsTheKey_ShouldNotEnqueueIt() throws Exception {
+        // Arrange
+        AsyncPurchaseQueue queue = new AsyncPurchaseQueue(purchaseUseCase, idempotencyPort, meterRegistry, 10, 1, 10);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<PurchaseOutcome> sync = caller.submit(() -> queue.singleFlight().execute("a", () -> {
+                running.countDown();
+                await(finish);
+                return new PurchaseOutcome.Purchased("{}");
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Submission submission = queue.submit("a", 1L, 1L);
+            finish.countDown();
+            sync.get(2, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals(Submission.ACCEPTED, submission);
+            assertEquals(0.0, meterRegistry.find("inventory.async_purchases.queued").gauge().value());
+            verifyNoInteractions(idempotencyPort);
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    void process_ShouldStoreFailuresUnderTheirKeyAndReleaseWaitersWithEachDocument() {
+        // Arrange
+        AsyncPurchaseQueue queue = new AsyncPurchaseQueue(purchaseUseCase, idempotencyPort, meterRegistry, 10, 1, 10);
+        CompletableFuture<PurchaseOutcome> ok = queue.singleFlight().claim("ok");
+        CompletableFuture<PurchaseOutcome> ko = queue.singleFlight().claim("ko");
+        PurchaseResult result = PurchaseResult.builder()
+                .productId(1L).productName("Test Product").unitPrice(10.0).quantity(2L).totalPrice(20.0)
+                .success(true).purchasedAt("2024-01-01T00:00:00Z").build();
+        when(purchaseUseCase.executeEach(
+                eq(List.of(new PurchaseLine(1L, 2L), new PurchaseLine(1L, 50L))), eq(List.of("ok", "ko")), any()))
+                .thenAnswer(invocation -> {
+                    BiFunction<Integer, PurchaseResult, String> render = invocation.getArgument(2);
+                    return List.of(
+                            new PurchaseUseCase.LineOutcome(result, render.apply(0, result), null),
+                            new PurchaseUseCase.LineOutcome(null, null, new InsufficientInventoryException("no stock")));
+                });
+
+        // Act
+        queue.process(List.of(
+                new AsyncPurchaseQueue.Task("ok", new PurchaseLine(1L, 2L), ok),
+                new AsyncPurchaseQueue.Task("ko", new PurchaseLine(1L, 50L), ko)));
+
+        // Assert: la compra realizada ya la guardó el caso de uso con su descuento
+        verify(idempotencyPort, never()).saveResponse(eq("ok"), anyString());
+        verify(idempotencyPort).saveResponse(eq("ko"), contains("\"status\":\"422\""));
+        assertTrue(((PurchaseOutcome.Replayed) ok.join()).document().contains("\"total\":20.0"));
+        assertTrue(((PurchaseOutcome.Replayed) ko.join()).document().contains("\"status\":\"422\""));
+        assertFalse(queue.isPending("ok"));
+        assertFalse(queue.isPending("ko"));
+    }
+
+    @Test
+    void process_WhenUseCaseThrows_ShouldStoreTheErrorForEveryRequest() {
+        // Arrange
+        AsyncPurchaseQueue queue = new AsyncPurchaseQueue(purchaseUseCase, idempotencyPort, meterRegistry, 10, 1, 10);
+        when(purchaseUseCase.executeEach(anyList(), anyList(), any())).thenThrow(new RuntimeException("boom"));
+
+        // Act
+        queue.process(List.of(
+                new AsyncPurchaseQueue.Task("a", new PurchaseLine(1L, 1L), queue.singleFlight().claim("a")),
+                new AsyncPurchaseQueue.Task("b", new PurchaseLine(2L, 1L), queue.singleFlight().claim("b"))));
+
+        // Assert
+        verify(idempotencyPort).saveResponse(eq("a"), contains("\"status\":\"500\""));
+        verify(idempotencyPort).saveResponse(eq("b"), contains("\"status\":\"500\""));
+    }
+
+    @Test
+    void workers_ShouldDrainQueuedPurchases() throws Exception {
+        // Arrange
+        AsyncPurchaseQueue queue = new AsyncPurchaseQueue(purchaseUseCase, idempotencyPort, meterRegistry, 10, 2, 10);
+        when(idempotencyPort.findResponseByKey("a")).thenReturn(Optional.empty());
+        when(purchaseUseCase.executeEach(anyList(), anyList(), any())).thenAnswer(invocation -> {
+            List<PurchaseLine> lines = invocation.getArgument(0);
+            return lines.stream()
+                    .map(line -> new PurchaseUseCase.LineOutcome(
+                            null, null, new IllegalArgumentException("quantity must be > 0")))
+                    .toList();
+        });
+        queue.submit("a", 1L, 0L);
+
+        // Act
+        queue.start();
+        verify(idempotencyPort, timeout(2000)).saveResponse(eq("a"), contains("\"status\":\"400\""));
+        queue.stop();
+
+        // Assert
+        assertFalse(queue.isPending("a"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
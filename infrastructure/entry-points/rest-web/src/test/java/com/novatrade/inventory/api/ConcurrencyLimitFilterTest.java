@@ -0,0 +1,80 @@
+package com.novatrade.inventory.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HttpServletResponse rejectedResponse;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void requestOverTheLimit_ShouldFailFastWith503AndRetryAfter() throws Exception {
+        // Arrange: límite fijo de 1; la segunda compra llega mientras la primera está en curso
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, true, 1, 1, 1, 1.5, 2);
+        StringWriter body = new StringWriter();
+        when(rejectedResponse.getWriter()).thenReturn(new PrintWriter(body));
+        doAnswer(invocation -> {
+            filter.doFilterInternal(request, rejectedResponse, mock(FilterChain.class));
+            return null;
+        }).when(filterChain).doFilter(request, response);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(rejectedResponse).setStatus(503);
+        verify(rejectedResponse).setHeader("Retry-After", "2");
+        assertTrue(body.toString().contains("\"status\":\"503\""));
+        assertEquals(1.0, meterRegistry.find("http.server.concurrency.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.find("http.server.concurrency.inflight").gauge().value());
+        assertEquals(1.0, meterRegistry.find("http.server.concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void shouldOnlyLimitPurchasePosts() {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, true, 20, 5, 200, 1.5, 1);
+        when(request.getMethod()).thenReturn("GET", "POST", "POST");
+        when(request.getRequestURI()).thenReturn("/api/v1/inventory/1", "/api/v1/purchases/batch");
+
+        // Act & Assert
+        assertTrue(filter.shouldNotFilter(request));
+        assertTrue(filter.shouldNotFilter(request));
+        assertFalse(filter.shouldNotFilter(request));
+    }
+
+    @Test
+    void disabledFilter_ShouldNotLimitAnything() {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, false, 20, 5, 200, 1.5, 1);
+
+        // Act & Assert
+        assertTrue(filter.shouldNotFilter(request));
+        verifyNoInteractions(request);
+    }
+}
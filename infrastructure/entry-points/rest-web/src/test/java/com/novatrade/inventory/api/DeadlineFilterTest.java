@@ -0,0 +1,85 @@
+package com.novatrade.inventory.api;
+
+import com.novatrade.inventory.model.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final DeadlineFilter filter = new DeadlineFilter(true, Duration.ofSeconds(3), Duration.ofSeconds(5));
+
+    @Test
+    void chainShouldRunWithinTheClientDeadline() throws Exception {
+        // Arrange
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestURI()).thenReturn("/api/v1/purchases");
+        when(request.getHeader("X-Request-Timeout")).thenReturn("800");
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+        doAnswer(invocation -> {
+            remaining.set(Deadline.current().orElseThrow().remaining());
+            return null;
+        }).when(filterChain).doFilter(request, response);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertTrue(remaining.get().compareTo(Duration.ofMillis(800)) <= 0);
+        assertTrue(remaining.get().compareTo(Duration.ZERO) > 0);
+        assertTrue(Deadline.current().isEmpty());
+    }
+
+    @Test
+    void routeTimeoutShouldApplyWhenTheClientAsksForNoneOrForMore() {
+        // Arrange
+        when(request.getMethod()).thenReturn("POST", "POST", "GET");
+        when(request.getRequestURI()).thenReturn("/api/v1/purchases/batch", "/api/v1/purchases", "/api/v1/inventory/1");
+        when(request.getHeader("X-Request-Timeout")).thenReturn(null, "60000", "not-a-number");
+
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(3), filter.timeoutOf(request));
+        assertEquals(Duration.ofSeconds(3), filter.timeoutOf(request));
+        assertEquals(Duration.ofSeconds(5), filter.timeoutOf(request));
+    }
+
+    @Test
+    void exhaustedDeadlineShouldBeRejectedWith504() throws Exception {
+        // Arrange
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestURI()).thenReturn("/api/v1/purchases");
+        when(request.getHeader("X-Request-Timeout")).thenReturn("0");
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(response).setStatus(504);
+        verifyNoInteractions(filterChain);
+        assertTrue(body.toString().contains("\"status\":\"504\""));
+    }
+}
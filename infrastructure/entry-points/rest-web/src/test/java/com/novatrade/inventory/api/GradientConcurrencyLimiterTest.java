@@ -0,0 +1,76 @@
+package com.novatrade.inventory.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void tryAcquire_ShouldRejectOnceTheLimitIsReached() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10, 1.5);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(10 * MILLIS, 2);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void limit_ShouldGrowWhileLatencyIsSteadyUnderLoad() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 5, 100, 1.5);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(10 * MILLIS, limiter.getLimit());
+        }
+
+        // Assert
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void limit_ShouldShrinkWhenLatencyRises() {
+        // Arrange: referencia estable de 10 ms con el límite en 50
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(50, 5, 50, 1.5);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(10 * MILLIS, 50);
+        }
+
+        // Act: la base de datos pasa a tardar 100 ms
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(100 * MILLIS, limiter.getLimit());
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() < 25, "limit was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 5);
+    }
+
+    @Test
+    void limit_ShouldNotChangeWhenConcurrencyIsFarBelowIt() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(40, 5, 100, 1.5);
+
+        // Act
+        limiter.onSample(10 * MILLIS, 1);
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(500 * MILLIS, 1);
+        }
+
+        // Assert
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    void constructor_ShouldRejectInconsistentLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(1, 5, 10, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(5, 5, 10, 0.9));
+    }
+}
@@ -1,23 +1,28 @@
 package com.novatrade.inventory.api;
 
 import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.PurchaseLine;
 import com.novatrade.inventory.model.PurchaseResult;
 import com.novatrade.inventory.model.ports.IdempotencyPort;
 import com.novatrade.inventory.usecase.GetInventoryUseCase;
+import com.novatrade.inventory.usecase.PurchaseOutcome;
 import com.novatrade.inventory.usecase.PurchaseUseCase;
+import com.novatrade.inventory.usecase.RebalanceInventoryUseCase;
 import com.novatrade.inventory.usecase.SetInventoryUseCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,10 +39,15 @@ class InventoryControllerTest {
     @Mock
     private PurchaseUseCase purchaseUseCase;
 
+    @Mock
+    private RebalanceInventoryUseCase rebalanceInventoryUseCase;
+
     @Mock
     private IdempotencyPort idempotencyPort;
 
-    @InjectMocks
+    @Mock
+    private AsyncPurchaseQueue asyncPurchaseQueue;
+
     private InventoryController inventoryController;
 
     private Inventory testInventory;
@@ -46,6 +56,10 @@ class InventoryControllerTest {
     @BeforeEach
     void setUp() {
         // Configuración común para las pruebas
+        when(asyncPurchaseQueue.singleFlight()).thenReturn(new SingleFlight<>());
+        inventoryController = new InventoryController(getInventoryUseCase, setInventoryUseCase, purchaseUseCase,
+                rebalanceInventoryUseCase, idempotencyPort, asyncPurchaseQueue);
+
         testInventory = Inventory.builder()
                 .productId(1L)
                 .quantity(10L)
@@ -115,6 +129,27 @@ class InventoryControllerTest {
         verify(setInventoryUseCase).execute(1L, 20L);
     }
 
+    @Test
+    void rebalanceBuckets_ShouldReturnBucketCountAndTotalQuantity() {
+        // Arrange
+        InventoryController.BucketsBody body = new InventoryController.BucketsBody(
+                new InventoryController.BucketsBody.Body(
+                        "inventory-buckets", new InventoryController.BucketsBody.Attributes(8)));
+        when(rebalanceInventoryUseCase.execute(1L, 8)).thenReturn(testInventory);
+
+        // Act
+        JsonApi result = inventoryController.rebalance(1L, body);
+
+        // Assert
+        Map<String, Object> data = (Map<String, Object>) result.data();
+        assertEquals("inventory-buckets", data.get("type"));
+        assertEquals("1", data.get("id"));
+        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
+        assertEquals(8, attributes.get("buckets"));
+        assertEquals(10L, attributes.get("quantity"));
+        verifyNoInteractions(setInventoryUseCase);
+    }
+
     @Test
     void purchase_WithoutIdempotencyKey_ShouldPurchaseSuccessfully() {
         // Arrange
@@ -124,7 +159,8 @@ class InventoryControllerTest {
                 new InventoryController.PurchaseBody.Body("purchase", attributes);
         InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(body);
 
-        when(purchaseUseCase.execute(1L, 2L, null)).thenReturn(testPurchaseResult);
+        when(purchaseUseCase.executeAndRecord(eq(1L), eq(2L), isNull(), any()))
+                .thenAnswer(rendering(testPurchaseResult));
 
         // Act
         ResponseEntity<String> response = inventoryController.purchase(null, purchaseBody);
@@ -138,12 +174,12 @@ class InventoryControllerTest {
         assertEquals(MediaType.valueOf("application/vnd.api+json"), response.getHeaders().getContentType());
 
         // Verify
-        verify(purchaseUseCase).execute(1L, 2L, null);
+        verify(purchaseUseCase).executeAndRecord(eq(1L), eq(2L), isNull(), any());
         verify(idempotencyPort, never()).saveResponse(anyString(), anyString());
     }
 
     @Test
-    void purchase_WithIdempotencyKey_ShouldSaveResponse() {
+    void purchase_WithIdempotencyKey_ShouldRecordResponseThroughUseCase() {
         // Arrange
         String idempotencyKey = "test-idem-key-123";
         InventoryController.PurchaseBody.Attributes attributes =
@@ -152,8 +188,8 @@ class InventoryControllerTest {
                 new InventoryController.PurchaseBody.Body("purchase", attributes);
         InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(body);
 
-        when(idempotencyPort.findResponseByKey(idempotencyKey)).thenReturn(Optional.empty());
-        when(purchaseUseCase.execute(1L, 2L, idempotencyKey)).thenReturn(testPurchaseResult);
+        when(purchaseUseCase.executeAndRecord(eq(1L), eq(2L), eq(idempotencyKey), any()))
+                .thenAnswer(rendering(testPurchaseResult));
 
         // Act
         ResponseEntity<String> response = inventoryController.purchase(idempotencyKey, purchaseBody);
@@ -163,9 +199,10 @@ class InventoryControllerTest {
         assertEquals(200, response.getStatusCodeValue());
 
         // Verify
-        verify(idempotencyPort).findResponseByKey(idempotencyKey);
-        verify(purchaseUseCase).execute(1L, 2L, idempotencyKey);
-        verify(idempotencyPort).saveResponse(eq(idempotencyKey), anyString());
+        // La clave se consulta y el documento se guarda en la transacción del caso de uso, no en el controlador
+        verify(purchaseUseCase).executeAndRecord(eq(1L), eq(2L), eq(idempotencyKey), any());
+        verify(idempotencyPort, never()).saveResponse(anyString(), anyString());
+        assertTrue(response.getBody().contains("\"productName\":\"Test Product\""));
     }
 
     @Test
@@ -179,7 +216,8 @@ class InventoryControllerTest {
                 new InventoryController.PurchaseBody.Body("purchase", attributes);
         InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(body);
 
-        when(idempotencyPort.findResponseByKey(idempotencyKey)).thenReturn(Optional.of(cachedResponse));
+        when(purchaseUseCase.executeAndRecord(eq(1L), eq(2L), eq(idempotencyKey), any()))
+                .thenReturn(new PurchaseOutcome.Replayed(cachedResponse));
 
         // Act
         ResponseEntity<String> response = inventoryController.purchase(idempotencyKey, purchaseBody);
@@ -191,8 +229,218 @@ class InventoryControllerTest {
         assertEquals(MediaType.valueOf("application/vnd.api+json"), response.getHeaders().getContentType());
 
         // Verify
-        verify(idempotencyPort).findResponseByKey(idempotencyKey);
-        verify(purchaseUseCase, never()).execute(anyLong(), anyLong(), anyString());
         verify(idempotencyPort, never()).saveResponse(anyString(), anyString());
     }
+
+    @Test
+    void purchaseBatch_ShouldReturnOneResourcePerLineAndSaveOneResponse() {
+        // Arrange
+        String idempotencyKey = "cart-key-1";
+        PurchaseResult second = PurchaseResult.builder()
+                .productId(7L)
+                .productName("Second Product")
+                .unitPrice(5.0)
+                .quantity(3L)
+                .totalPrice(15.0)
+                .success(true)
+                .purchasedAt(Instant.now().toString())
+                .build();
+        InventoryController.PurchaseBatchBody batchBody = new InventoryController.PurchaseBatchBody(List.of(
+                new InventoryController.PurchaseBody.Body("purchases",
+                        new InventoryController.PurchaseBody.Attributes(1L, 2L)),
+                new InventoryController.PurchaseBody.Body("purchases",
+                        new InventoryController.PurchaseBody.Attributes(7L, 3L))));
+        List<PurchaseLine> lines = List.of(new PurchaseLine(1L, 2L), new PurchaseLine(7L, 3L));
+
+        when(purchaseUseCase.executeBatchAndRecord(eq(lines), eq(idempotencyKey), any()))
+                .thenAnswer(rendering(List.of(testPurchaseResult, second)));
+
+        // Act
+        ResponseEntity<String> response = inventoryController.purchaseBatch(idempotencyKey, batchBody);
+
+        // Assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertTrue(response.getBody().startsWith("{\"data\":["));
+        assertTrue(response.getBody().contains("\"productName\":\"Test Product\""));
+        assertTrue(response.getBody().contains("\"productName\":\"Second Product\""));
+        assertTrue(response.getBody().contains("\"total\":15.0"));
+        assertEquals(MediaType.valueOf("application/vnd.api+json"), response.getHeaders().getContentType());
+
+        // Verify
+        verify(purchaseUseCase, times(1)).executeBatchAndRecord(eq(lines), eq(idempotencyKey), any());
+        verify(idempotencyPort, never()).saveResponse(anyString(), anyString());
+    }
+
+    @Test
+    void purchaseBatch_WithLastKnownProduct_ShouldMarkOnlyThatLine() {
+        // Arrange
+        String idempotencyKey = "cart-key-stale";
+        PurchaseResult stale = PurchaseResult.builder()
+                .productId(7L)
+                .productName("Second Product")
+                .unitPrice(5.0)
+                .quantity(3L)
+                .totalPrice(15.0)
+                .success(true)
+                .purchasedAt(Instant.now().toString())
+                .stalePrice(true)
+                .build();
+        InventoryController.PurchaseBatchBody batchBody = new InventoryController.PurchaseBatchBody(List.of(
+                new InventoryController.PurchaseBody.Body("purchases",
+                        new InventoryController.PurchaseBody.Attributes(1L, 2L)),
+                new InventoryController.PurchaseBody.Body("purchases",
+                        new InventoryController.PurchaseBody.Attributes(7L, 3L))));
+        List<PurchaseLine> lines = List.of(new PurchaseLine(1L, 2L), new PurchaseLine(7L, 3L));
+
+        when(purchaseUseCase.executeBatchAndRecord(eq(lines), eq(idempotencyKey), any()))
+                .thenAnswer(rendering(List.of(testPurchaseResult, stale)));
+
+        // Act
+        ResponseEntity<String> response = inventoryController.purchaseBatch(idempotencyKey, batchBody);
+
+        // Assert
+        assertEquals(200, response.getStatusCodeValue());
+        String body = response.getBody();
+        int marked = body.indexOf("\"stalePrice\":true");
+        assertTrue(marked > body.indexOf("\"productName\":\"Second Product\""));
+        assertEquals(marked, body.lastIndexOf("\"stalePrice\""));
+    }
+
+    @Test
+    void purchaseBatch_WithExistingIdempotencyKey_ShouldReturnCachedResponse() {
+        // Arrange
+        String idempotencyKey = "cart-key-2";
+        String cachedResponse = "{\"data\":[]}";
+        when(purchaseUseCase.executeBatchAndRecord(eq(List.of()), eq(idempotencyKey), any()))
+                .thenReturn(new PurchaseOutcome.Replayed(cachedResponse));
+
+        // Act
+        ResponseEntity<String> response = inventoryController.purchaseBatch(
+                idempotencyKey, new InventoryController.PurchaseBatchBody(List.of()));
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(cachedResponse, response.getBody());
+        verify(idempotencyPort, never()).saveResponse(anyString(), anyString());
+    }
+
+    @Test
+    void purchase_WhenOutcomeIsAFailure_ShouldRenderItsStatusWithoutThrowing() {
+        // Arrange
+        InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(
+                new InventoryController.PurchaseBody.Body(
+                        "purchase", new InventoryController.PurchaseBody.Attributes(1L, 2L)));
+        when(purchaseUseCase.executeAndRecord(eq(1L), eq(2L), anyString(), any())).thenReturn(
+                new PurchaseOutcome.InsufficientStock("Insufficient inventory for product 1"),
+                new PurchaseOutcome.NotFound("product not found"),
+                new PurchaseOutcome.UpstreamFailure("Error communicating with catalog service"));
+
+        // Act
+        ResponseEntity<String> insufficient = inventoryController.purchase("k-1", purchaseBody);
+        ResponseEntity<String> notFound = inventoryController.purchase("k-2", purchaseBody);
+        ResponseEntity<String> upstream = inventoryController.purchase("k-3", purchaseBody);
+
+        // Assert
+        assertEquals(422, insufficient.getStatusCode().value());
+        assertEquals("{\"errors\":[{\"status\":\"422\",\"title\":\"Unprocessable Entity\","
+                + "\"detail\":\"Insufficient inventory for product 1\"}]}", insufficient.getBody());
+        assertEquals(404, notFound.getStatusCode().value());
+        assertEquals(503, upstream.getStatusCode().value());
+        assertEquals(MediaType.valueOf("application/vnd.api+json"), upstream.getHeaders().getContentType());
+    }
+
+    @Test
+    void purchaseAsync_ShouldEnqueueAndReturnAcceptedWithStatusLocation() {
+        // Arrange
+        InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(
+                new InventoryController.PurchaseBody.Body(
+                        "purchase", new InventoryController.PurchaseBody.Attributes(1L, 2L)));
+        when(idempotencyPort.findResponseByKey("async-key")).thenReturn(Optional.empty());
+        when(asyncPurchaseQueue.submit("async-key", 1L, 2L)).thenReturn(AsyncPurchaseQueue.Submission.ACCEPTED);
+
+        // Act
+        ResponseEntity<String> response =
+                inventoryController.purchaseAsync("async-key", "respond-async", purchaseBody);
+
+        // Assert
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals("/api/v1/purchase-requests/async-key", response.getHeaders().getLocation().toString());
+        assertEquals("respond-async", response.getHeaders().getFirst("Preference-Applied"));
+        assertTrue(response.getBody().contains("\"status\":\"PENDING\""));
+        verifyNoInteractions(purchaseUseCase);
+    }
+
+    @Test
+    void purchaseAsync_WhenQueueIsFull_ShouldReturnServiceUnavailable() {
+        // Arrange
+        InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(
+                new InventoryController.PurchaseBody.Body(
+                        "purchase", new InventoryController.PurchaseBody.Attributes(1L, 2L)));
+        when(asyncPurchaseQueue.submit(anyString(), eq(1L), eq(2L)))
+                .thenReturn(AsyncPurchaseQueue.Submission.REJECTED);
+
+        // Act
+        ResponseEntity<String> response = inventoryController.purchaseAsync(null, "respond-async", purchaseBody);
+
+        // Assert
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        verify(idempotencyPort, never()).saveResponse(anyString(), anyString());
+    }
+
+    @Test
+    void purchaseAsync_WhenTheKeyCompletesBeforeItIsClaimed_ShouldReplayTheStoredResult() {
+        // Arrange: la primera consulta no lo encuentra y la compra termina antes de reservar la clave
+        InventoryController.PurchaseBody purchaseBody = new InventoryController.PurchaseBody(
+                new InventoryController.PurchaseBody.Body(
+                        "purchase", new InventoryController.PurchaseBody.Attributes(1L, 2L)));
+        String stored = "{\"data\":{\"type\":\"purchases\",\"id\":\"venta-1\"}}";
+        when(idempotencyPort.findResponseByKey("async-key")).thenReturn(Optional.empty(), Optional.of(stored));
+        when(asyncPurchaseQueue.submit("async-key", 1L, 2L)).thenReturn(AsyncPurchaseQueue.Submission.COMPLETED);
+
+        // Act
+        ResponseEntity<String> response =
+                inventoryController.purchaseAsync("async-key", "respond-async", purchaseBody);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(stored, response.getBody());
+        verifyNoInteractions(purchaseUseCase);
+    }
+
+    @Test
+    void purchaseStatus_ShouldReportPendingThenReplayStoredResultWithItsStatus() {
+        // Arrange
+        String failed = "{\"errors\":[{\"status\":\"422\",\"title\":\"Unprocessable Entity\"}]}";
+        when(asyncPurchaseQueue.isPending("async-key")).thenReturn(true, false);
+        when(idempotencyPort.findResponseByKey("async-key")).thenReturn(Optional.of(failed));
+
+        // Act
+        ResponseEntity<String> pending = inventoryController.purchaseStatus("async-key");
+        ResponseEntity<String> done = inventoryController.purchaseStatus("async-key");
+
+        // Assert
+        assertEquals(200, pending.getStatusCode().value());
+        assertTrue(pending.getBody().contains("PENDING"));
+        assertEquals(422, done.getStatusCode().value());
+        assertEquals(failed, done.getBody());
+    }
+
+    @Test
+    void purchaseStatus_WhenUnknown_ShouldThrowNotFound() {
+        // Arrange
+        when(idempotencyPort.findResponseByKey("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(java.util.NoSuchElementException.class, () -> inventoryController.purchaseStatus("missing"));
+    }
+
+    /**
+     * Respuesta de executeAndRecord/executeBatchAndRecord: aplica el renderizador del controlador al resultado
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Answer<PurchaseOutcome> rendering(T result) {
+        return invocation -> new PurchaseOutcome.Purchased(
+                ((Function<T, String>) invocation.getArgument(invocation.getArguments().length - 1)).apply(result));
+    }
 }
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.novatrade.inventory.model.Deadline.DeadlineExceededException;
 import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
 import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
 
@@ -53,21 +54,6 @@ class JsonApiErrorHandlerTest {
         assertTrue(response.getBody().contains(errorMessage));
     }
 
-    @Test
-    void testConflict_IdempotentReturn() {
-        // Arrange
-        String jsonResult = "{\"data\":{\"id\":\"123\",\"type\":\"product\"}}";
-        IllegalStateException ex = new IllegalStateException("__IDEMPOTENT_RETURN__" + jsonResult);
-
-        // Act
-        ResponseEntity<String> response = errorHandler.conflict(ex);
-
-        // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(JSON_API_MEDIA_TYPE, response.getHeaders().getContentType().toString());
-        assertEquals(jsonResult, response.getBody());
-    }
-
     @Test
     void testNotFound_NoSuchElementException() {
         // Arrange
@@ -109,6 +95,24 @@ class JsonApiErrorHandlerTest {
         assertEquals(errorMessage, body.errors().get(0).detail());
     }
 
+    @Test
+    void testDeadlineExceeded_DeadlineExceededException() {
+        // Arrange
+        String errorMessage = "Request deadline exceeded";
+        DeadlineExceededException ex = new DeadlineExceededException(errorMessage);
+
+        // Act
+        ResponseEntity<JsonApiErrorHandler.Errors> response = errorHandler.deadlineExceeded(ex);
+        JsonApiErrorHandler.Errors body = response.getBody();
+
+        // Assert
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertNotNull(body);
+        assertEquals("504", body.errors().get(0).status());
+        assertEquals("Gateway Timeout", body.errors().get(0).title());
+        assertEquals(errorMessage, body.errors().get(0).detail());
+    }
+
     @Test
     void testHandleGeneral_Exception() {
         // Arrange
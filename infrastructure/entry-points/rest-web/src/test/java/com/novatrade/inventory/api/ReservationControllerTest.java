@@ -0,0 +1,97 @@
+package com.novatrade.inventory.api;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.model.ReservationStatus;
+import com.novatrade.inventory.usecase.ReservationUseCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationControllerTest {
+
+    private static final Instant EXPIRES_AT = Instant.parse("2024-01-01T00:10:00Z");
+
+    @Mock
+    private ReservationUseCase reservationUseCase;
+
+    @InjectMocks
+    private ReservationController reservationController;
+
+    @Test
+    void reserve_ShouldReturnHeldReservation() {
+        // Arrange
+        when(reservationUseCase.reserve(1L, 2L, Duration.ofSeconds(300)))
+                .thenReturn(reservation(ReservationStatus.HELD));
+        var body = new ReservationController.ReserveBody(new ReservationController.ReserveBody.Body(
+                "reservations", new ReservationController.ReserveBody.Attributes(1L, 2L, 300L)));
+
+        // Act
+        JsonApi result = reservationController.reserve(body);
+
+        // Assert
+        Map<String, Object> data = (Map<String, Object>) result.data();
+        assertEquals("reservations", data.get("type"));
+        assertEquals("res-1", data.get("id"));
+        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
+        assertEquals("HELD", attributes.get("status"));
+        assertEquals(EXPIRES_AT.toString(), attributes.get("expiresAt"));
+    }
+
+    @Test
+    void reserve_ShouldUseDefaultTtlWhenNotProvided() {
+        // Arrange
+        when(reservationUseCase.reserve(1L, 2L, null)).thenReturn(reservation(ReservationStatus.HELD));
+        var body = new ReservationController.ReserveBody(new ReservationController.ReserveBody.Body(
+                "reservations", new ReservationController.ReserveBody.Attributes(1L, 2L, null)));
+
+        // Act
+        reservationController.reserve(body);
+
+        // Assert
+        verify(reservationUseCase).reserve(1L, 2L, null);
+    }
+
+    @Test
+    void reserve_ShouldRejectMissingAttributes() {
+        var body = new ReservationController.ReserveBody(null);
+
+        assertThrows(IllegalArgumentException.class, () -> reservationController.reserve(body));
+        verifyNoInteractions(reservationUseCase);
+    }
+
+    @Test
+    void confirmAndCancel_ShouldReturnNewStatus() {
+        // Arrange
+        when(reservationUseCase.confirm("res-1")).thenReturn(reservation(ReservationStatus.CONFIRMED));
+        when(reservationUseCase.cancel("res-1")).thenReturn(reservation(ReservationStatus.CANCELLED));
+
+        // Act
+        Map<String, Object> confirmed = (Map<String, Object>) reservationController.confirm("res-1").data();
+        Map<String, Object> cancelled = (Map<String, Object>) reservationController.cancel("res-1").data();
+
+        // Assert
+        assertEquals("CONFIRMED", ((Map<String, Object>) confirmed.get("attributes")).get("status"));
+        assertEquals("CANCELLED", ((Map<String, Object>) cancelled.get("attributes")).get("status"));
+    }
+
+    private Reservation reservation(ReservationStatus status) {
+        return Reservation.builder()
+                .id("res-1")
+                .productId(1L)
+                .quantity(2L)
+                .status(status)
+                .expiresAt(EXPIRES_AT)
+                .createdAt(EXPIRES_AT.minusSeconds(600))
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.novatrade.inventory.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_ShouldRunConcurrentDuplicatesOnlyOnce() throws Exception {
+        // Arrange
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AtomicReference<Thread> follower = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<String> first = executor.submit(() -> singleFlight.execute("key-1", () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                release.join();
+                return "{\"data\":1}";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> {
+                follower.set(Thread.currentThread());
+                return singleFlight.execute("key-1", () -> {
+                    calls.incrementAndGet();
+                    return "{\"data\":2}";
+                });
+            });
+            awaitParked(follower);
+            release.complete(null);
+
+            // Assert
+            assertEquals("{\"data\":1}", first.get(5, TimeUnit.SECONDS));
+            assertEquals("{\"data\":1}", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ShouldShareTheFailureWithWaitingDuplicates() throws Exception {
+        // Arrange
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AtomicReference<Thread> follower = new AtomicReference<>();
+        IllegalArgumentException failure = new IllegalArgumentException("quantity must be > 0");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<String> first = executor.submit(() -> singleFlight.execute("key-1", () -> {
+                leaderStarted.countDown();
+                release.join();
+                throw failure;
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<Throwable> second = executor.submit(() -> {
+                follower.set(Thread.currentThread());
+                try {
+                    singleFlight.execute("key-1", () -> "{}");
+                    return null;
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            });
+            awaitParked(follower);
+            release.complete(null);
+
+            // Assert
+            Exception leaderError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertSame(failure, leaderError.getCause());
+            assertSame(failure, second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ShouldRunAgainOnceTheFirstCallHasFinished() {
+        // Arrange
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        singleFlight.execute("key-1", () -> "a" + calls.incrementAndGet());
+        String second = singleFlight.execute("key-1", () -> "a" + calls.incrementAndGet());
+        singleFlight.execute(null, () -> "a" + calls.incrementAndGet());
+
+        // Assert
+        assertEquals("a2", second);
+        assertEquals(3, calls.get());
+    }
+
+    private static void awaitParked(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+            if (System.nanoTime() > deadline) {
+                fail("duplicate request did not wait for the first one");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.novatrade.inventory.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato de las respuestas idempotentes comprimidas (response_bin) y del hash de su clave (key_hash)
+ * Lo comparten los adaptadores JPA y R2DBC, que leen y escriben la misma tabla dbo.idempotency_keys.
+ * response_bin empieza por un byte de versión para poder cambiar de algoritmo sin migrar las filas
+ */
+public final class IdempotencyPayload {
+
+    /** Deflate sin cabecera zlib sobre el JSON en UTF-8 */
+    public static final byte DEFLATE = 1;
+
+    private IdempotencyPayload() {
+    }
+
+    /**
+     * Mismo valor que la columna calculada key_hash: SHA-256 de la clave en UTF-16LE, como HASHBYTES sobre NVARCHAR
+     */
+    public static byte[] keyHash(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_16LE));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static byte[] compress(String json) {
+        byte[] input = json.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            out.write(DEFLATE);
+            byte[] buffer = new byte[Math.max(64, input.length)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decompress(byte[] payload) {
+        if (payload.length == 0 || payload[0] != DEFLATE) {
+            throw new IllegalStateException("Unknown idempotency payload format");
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(payload, 1, payload.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buffer = new byte[Math.max(256, payload.length * 4)];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated idempotency payload");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt idempotency payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.novatrade.inventory.model;
+
+/**
+ * Línea de una compra por lotes: producto y cantidad solicitada.
+ */
+public record PurchaseLine(Long productId, Long quantity) {}
@@ -11,4 +11,5 @@ public class PurchaseResult{
     private Double totalPrice; // Cambiado de total a totalPrice
     private boolean success; // Añadido campo para indicar éxito
     private String purchasedAt;
+    private boolean stalePrice; // Precio tomado de la última versión conocida del producto
 }
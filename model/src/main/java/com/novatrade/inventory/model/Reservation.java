@@ -0,0 +1,16 @@
+package com.novatrade.inventory.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class Reservation {
+    private String id;
+    private Long productId;
+    private Long quantity;
+    private ReservationStatus status;
+    private Instant expiresAt;
+    private Instant createdAt;
+}
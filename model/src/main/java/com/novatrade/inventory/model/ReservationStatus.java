@@ -0,0 +1,12 @@
+package com.novatrade.inventory.model;
+
+/**
+ * Estados de una reserva de stock
+ * Solo HELD retiene unidades; CONFIRMED las consume definitivamente y CANCELLED/EXPIRED las devuelven
+ */
+public enum ReservationStatus {
+    HELD,
+    CONFIRMED,
+    CANCELLED,
+    EXPIRED
+}
@@ -0,0 +1,23 @@
+package com.novatrade.inventory.model.ports;
+
+import com.novatrade.inventory.model.Inventory;
+
+/**
+ * Reparto del stock de un producto en varias filas para repartir la contención entre compradores.
+ * Solo existe cuando el motor de inventario lo soporta; el resto del dominio sigue viendo una única cantidad.
+ */
+public interface InventoryBucketsPort {
+
+    /**
+     * @return número de buckets del producto, 0 si usa una sola fila
+     */
+    int bucketCount(Long productId);
+
+    /**
+     * Reparte la cantidad total del producto en {@code buckets} filas sin perder unidades.
+     *
+     * @param buckets número de filas; 0 o 1 vuelve a una sola fila
+     * @return inventario con la cantidad total
+     */
+    Inventory rebalance(Long productId, int buckets);
+}
@@ -1,7 +1,24 @@
 package com.novatrade.inventory.model.ports;
 import com.novatrade.inventory.model.Inventory;
+import java.util.Map;
 public interface InventoryRepositoryPort {
     Inventory getOrCreate(Long productId);
     Inventory set(Long productId, Long quantity);
     boolean decrementIfEnough(Long productId, Long qty);
+
+    /**
+     * Decrementa varias cantidades en una sola transacción: o se descuentan todas o ninguna.
+     *
+     * @param quantities cantidad a descontar por productId
+     * @return true si todas las líneas tenían stock suficiente, false si no se descontó nada
+     */
+    boolean decrementAllIfEnough(Map<Long, Long> quantities);
+
+    /**
+     * Devuelve al stock unidades retenidas que no se llegaron a vender (reserva cancelada o vencida).
+     *
+     * @param productId producto al que se devuelven las unidades
+     * @param qty unidades a sumar
+     */
+    void release(Long productId, Long qty);
 }
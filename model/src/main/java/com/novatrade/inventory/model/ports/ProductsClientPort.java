@@ -1,2 +1,37 @@
 package com.novatrade.inventory.model.ports;
-public interface ProductsClientPort { record ProductDTO(Long id, String name, Double price){} ProductDTO getProduct(Long id); }
\ No newline at end of file
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public interface ProductsClientPort {
+    /**
+     * @param stale true si el catálogo no respondió y el producto es la última versión conocida
+     */
+    record ProductDTO(Long id, String name, Double price, boolean stale){
+        public ProductDTO(Long id, String name, Double price) {
+            this(id, name, price, false);
+        }
+    }
+
+    ProductDTO getProduct(Long id);
+
+    /**
+     * Obtiene varios productos en una sola llamada al puerto.
+     * Las implementaciones que disponen de una consulta por lotes deben sobrescribirlo;
+     * por defecto resuelve cada id con {@link #getProduct(Long)}.
+     *
+     * @param ids ids de producto a consultar
+     * @return productos encontrados indexados por id; los ids inexistentes no aparecen
+     */
+    default Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        Map<Long, ProductDTO> products = new LinkedHashMap<>();
+        for (Long id : ids) {
+            ProductDTO product = getProduct(id);
+            if (product != null) {
+                products.put(id, product);
+            }
+        }
+        return products;
+    }
+}
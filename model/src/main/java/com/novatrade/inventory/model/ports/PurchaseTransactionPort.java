@@ -0,0 +1,35 @@
+package com.novatrade.inventory.model.ports;
+
+import com.novatrade.inventory.model.PurchaseResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritura de una compra en una única transacción: descuento de stock, respuesta idempotente y,
+ * si el adaptador lo tiene activo, una fila por compra. Un fallo entre ambas escrituras ya no puede dejar
+ * stock descontado sin su respuesta para reintentos, y cada compra cuesta un solo commit.
+ * Solo existe cuando el motor de inventario descuenta directamente en la base de datos.
+ */
+public interface PurchaseTransactionPort {
+
+    /**
+     * @param quantities cantidad a descontar por productId
+     * @param idempotencyKey clave con que se guarda la respuesta; null o en blanco para no guardarla
+     * @param responseJson documento que se devolverá al repetir la clave
+     * @param purchases compras realizadas, en el orden en que llegaron
+     * @return true si todo quedó escrito, false si algún producto no tenía stock y no se escribió nada
+     * @throws KeyAlreadyStoredException si otra compra ya guardó la clave; no se escribió nada
+     */
+    boolean commit(Map<Long, Long> quantities, String idempotencyKey, String responseJson, List<PurchaseResult> purchases);
+
+    /**
+     * La Idempotency-Key ya tenía respuesta guardada (otra instancia u otra compra concurrente la escribió
+     * después de consultarla) y la transacción se revirtió: hay que devolver esa respuesta
+     */
+    class KeyAlreadyStoredException extends RuntimeException {
+        public KeyAlreadyStoredException(String key, Throwable cause) {
+            super("Idempotency key already stored: " + key, cause);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.novatrade.inventory.model.ports;
+import reactor.core.publisher.Mono;
+
+/**
+ * Variante no bloqueante de {@link IdempotencyPort}; una clave desconocida devuelve un Mono vacío.
+ */
+public interface ReactiveIdempotencyPort { Mono<String> findResponseByKey(String key); Mono<Void> saveResponse(String key, String responseJson); }
@@ -0,0 +1,12 @@
+package com.novatrade.inventory.model.ports;
+import com.novatrade.inventory.model.Inventory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Variante no bloqueante de {@link InventoryRepositoryPort} para el servicio reactivo.
+ */
+public interface ReactiveInventoryRepositoryPort {
+    Mono<Inventory> getOrCreate(Long productId);
+    Mono<Inventory> set(Long productId, Long quantity);
+    Mono<Boolean> decrementIfEnough(Long productId, Long qty);
+}
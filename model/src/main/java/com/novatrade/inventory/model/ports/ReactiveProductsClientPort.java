@@ -0,0 +1,11 @@
+package com.novatrade.inventory.model.ports;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Variante no bloqueante de {@link ProductsClientPort}; un producto inexistente termina con
+ * {@link java.util.NoSuchElementException}.
+ */
+public interface ReactiveProductsClientPort {
+    Mono<ProductDTO> getProduct(Long id);
+}
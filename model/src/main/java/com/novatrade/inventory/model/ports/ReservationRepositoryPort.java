@@ -0,0 +1,39 @@
+package com.novatrade.inventory.model.ports;
+
+import com.novatrade.inventory.model.Reservation;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationRepositoryPort {
+    Reservation save(Reservation reservation);
+    Optional<Reservation> findById(String id);
+
+    /**
+     * Pasa una reserva de HELD a CONFIRMED si todavía no ha vencido.
+     *
+     * @return true si la reserva estaba retenida y vigente en {@code now}
+     */
+    boolean confirm(String id, Instant now);
+
+    /**
+     * Pasa una reserva de HELD a CANCELLED.
+     *
+     * @return true si la reserva seguía retenida
+     */
+    boolean cancel(String id);
+
+    /**
+     * Marca como EXPIRED, en bloque, las reservas indicadas que sigan retenidas y hayan vencido en {@code now}.
+     *
+     * @return las reservas que realmente se expiraron, para devolver su stock
+     */
+    List<Reservation> expire(Collection<String> ids, Instant now);
+
+    /**
+     * Reservas aún retenidas; se usa al arrancar para reconstruir los temporizadores de expiración.
+     */
+    List<Reservation> findHeld();
+}
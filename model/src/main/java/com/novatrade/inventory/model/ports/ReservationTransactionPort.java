@@ -0,0 +1,29 @@
+package com.novatrade.inventory.model.ports;
+
+import com.novatrade.inventory.model.Reservation;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Vencimiento y cancelación de reservas en una única transacción: el cambio de estado y la devolución
+ * de su stock. Una caída entre ambas escrituras ya no puede dejar reservas vencidas o canceladas con las
+ * unidades aún retenidas.
+ * Solo existe cuando el motor de inventario escribe directamente en la base de datos.
+ */
+public interface ReservationTransactionPort {
+
+    /**
+     * @param ids IDs de las reservas cuyo temporizador ha vencido
+     * @param now Instante de referencia para el vencimiento
+     * @return Reservas que pasaron a EXPIRED y cuyo stock quedó devuelto
+     */
+    List<Reservation> expireAndRelease(Collection<String> ids, Instant now);
+
+    /**
+     * @param reservation Reserva a cancelar, con el producto y la cantidad que retiene
+     * @return true si pasó de HELD a CANCELLED y su stock quedó devuelto; false si ya no estaba retenida
+     */
+    boolean cancelAndRelease(Reservation reservation);
+}
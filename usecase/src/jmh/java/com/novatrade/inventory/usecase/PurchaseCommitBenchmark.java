@@ -0,0 +1,169 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.model.ports.PurchaseTransactionPort;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compras con Idempotency-Key confirmadas en dos transacciones (descuento y después respuesta) frente a una sola
+ * ({@link PurchaseTransactionPort}). Cada commit espera la escritura del log: un único escritor secuencial,
+ * como el log de SQL Server, con latencia {@code logFlushMicros} por commit; las sentencias cuestan
+ * {@code statementMicros} cada una y no compiten entre sí. El resultado es en compras por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PurchaseCommitBenchmark {
+
+  private static final int CONCURRENT_REQUESTS = 500;
+
+  @Param({"two-commits", "single-commit"})
+  public String flow;
+
+  @Param({"200"})
+  public int threads;
+
+  @Param({"100", "500"})
+  public long logFlushMicros;
+
+  @Param({"200"})
+  public long statementMicros;
+
+  private ExecutorService executor;
+  private PurchaseUseCase useCase;
+  private final AtomicLong keys = new AtomicLong();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(threads);
+    Log log = new Log(logFlushMicros);
+    useCase = new PurchaseUseCase(
+        new CommittingInventory(log, statementMicros),
+        new InstantCatalog(),
+        new CommittingIdempotency(log, statementMicros),
+        "single-commit".equals(flow) ? new SingleTransaction(log, statementMicros) : null);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_REQUESTS)
+  public void concurrentPurchases(Blackhole blackhole) throws Exception {
+    List<Future<PurchaseOutcome>> purchases = new ArrayList<>(CONCURRENT_REQUESTS);
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      long productId = i;
+      String key = "key-" + keys.incrementAndGet();
+      purchases.add(executor.submit(() -> useCase.executeAndRecord(productId, 1L, key, PurchaseResult::toString)));
+    }
+    for (Future<PurchaseOutcome> purchase : purchases) {
+      blackhole.consume(purchase.get());
+    }
+  }
+
+  private static void spin(long micros) {
+    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+  }
+
+  /**
+   * Log de transacciones: los commits se escriben de uno en uno
+   */
+  private static final class Log {
+    private final ReentrantLock writer = new ReentrantLock();
+    private final long flushMicros;
+
+    Log(long flushMicros) {
+      this.flushMicros = flushMicros;
+    }
+
+    void commit() {
+      writer.lock();
+      try {
+        spin(flushMicros);
+      } finally {
+        writer.unlock();
+      }
+    }
+  }
+
+  private record CommittingInventory(Log log, long statementMicros) implements InventoryRepositoryPort {
+    @Override
+    public Inventory getOrCreate(Long productId) {
+      return Inventory.builder().productId(productId).quantity(Long.MAX_VALUE).build();
+    }
+
+    @Override
+    public Inventory set(Long productId, Long quantity) {
+      return Inventory.builder().productId(productId).quantity(quantity).build();
+    }
+
+    @Override
+    public boolean decrementIfEnough(Long productId, Long qty) {
+      spin(statementMicros);
+      log.commit();
+      return true;
+    }
+
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+      spin(statementMicros * quantities.size());
+      log.commit();
+      return true;
+    }
+
+    @Override
+    public void release(Long productId, Long qty) {
+      spin(statementMicros);
+      log.commit();
+    }
+  }
+
+  private record CommittingIdempotency(Log log, long statementMicros) implements IdempotencyPort {
+    @Override
+    public Optional<String> findResponseByKey(String key) {
+      return Optional.empty();
+    }
+
+    @Override
+    public void saveResponse(String key, String responseJson) {
+      spin(statementMicros);
+      log.commit();
+    }
+  }
+
+  private record SingleTransaction(Log log, long statementMicros) implements PurchaseTransactionPort {
+    @Override
+    public boolean commit(Map<Long, Long> quantities, String idempotencyKey, String responseJson,
+                          List<PurchaseResult> purchases) {
+      spin(statementMicros * (quantities.size() + 1));
+      log.commit();
+      return true;
+    }
+  }
+
+  private static final class InstantCatalog implements ProductsClientPort {
+    @Override
+    public ProductDTO getProduct(Long id) {
+      return new ProductDTO(id, "product-" + id, 10.0);
+    }
+  }
+}
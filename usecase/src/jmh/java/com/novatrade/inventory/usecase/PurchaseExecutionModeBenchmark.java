@@ -0,0 +1,134 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compras concurrentes con el catálogo degradado, en los dos modos de ejecución del servicio:
+ * {@code platform} reproduce el pool de hilos de Tomcat (server.tomcat.threads.max = 200) y
+ * {@code virtual} un hilo virtual por petición (spring.threads.virtual.enabled = true).
+ * La latencia del catálogo incluye la de sus reintentos; la del inventario, el UPDATE JDBC.
+ * El resultado es en compras por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PurchaseExecutionModeBenchmark {
+
+  private static final int CONCURRENT_REQUESTS = 2000;
+
+  @Param({"platform", "virtual"})
+  public String mode;
+
+  @Param({"200"})
+  public int platformThreads;
+
+  @Param({"100", "1000"})
+  public long catalogLatencyMillis;
+
+  @Param({"2"})
+  public long updateLatencyMillis;
+
+  private ExecutorService executor;
+  private PurchaseUseCase useCase;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    executor = "virtual".equals(mode)
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(platformThreads);
+    useCase = new PurchaseUseCase(
+        new BlockingInventory(updateLatencyMillis),
+        new BlockingCatalog(catalogLatencyMillis),
+        new NoIdempotency());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_REQUESTS)
+  public void concurrentPurchases(Blackhole blackhole) throws Exception {
+    List<Future<PurchaseOutcome>> purchases = new ArrayList<>(CONCURRENT_REQUESTS);
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      long productId = i;
+      purchases.add(executor.submit(() -> useCase.executeAndRecord(productId, 1L, null, PurchaseResult::toString)));
+    }
+    for (Future<PurchaseOutcome> purchase : purchases) {
+      blackhole.consume(purchase.get());
+    }
+  }
+
+  private static void block(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record BlockingCatalog(long latencyMillis) implements ProductsClientPort {
+    @Override
+    public ProductDTO getProduct(Long id) {
+      block(latencyMillis);
+      return new ProductDTO(id, "product-" + id, 10.0);
+    }
+  }
+
+  private record BlockingInventory(long latencyMillis) implements InventoryRepositoryPort {
+    @Override
+    public Inventory getOrCreate(Long productId) {
+      return Inventory.builder().productId(productId).quantity(Long.MAX_VALUE).build();
+    }
+
+    @Override
+    public Inventory set(Long productId, Long quantity) {
+      return Inventory.builder().productId(productId).quantity(quantity).build();
+    }
+
+    @Override
+    public boolean decrementIfEnough(Long productId, Long qty) {
+      block(latencyMillis);
+      return true;
+    }
+
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+      block(latencyMillis);
+      return true;
+    }
+
+    @Override
+    public void release(Long productId, Long qty) {
+      block(latencyMillis);
+    }
+  }
+
+  private static final class NoIdempotency implements IdempotencyPort {
+    @Override
+    public Optional<String> findResponseByKey(String key) {
+      return Optional.empty();
+    }
+
+    @Override
+    public void saveResponse(String key, String responseJson) {
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.IdempotencyPort;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compras sin stock y repeticiones de Idempotency-Key resueltas con excepciones, como hacía el controlador
+ * ({@code exceptions}: la falta de stock se lanza como {@link InsufficientInventoryException} y la repetición
+ * como {@code IllegalStateException("__IDEMPOTENT_RETURN__" + json)}, que {@code JsonApiErrorHandler}
+ * reconocía por el prefijo del mensaje para recortar de él el documento guardado), frente a
+ * {@link PurchaseOutcome} ({@code outcomes}). Los puertos responden al momento para medir solo el coste del camino de error;
+ * el resultado es en nanosegundos por compra.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PurchaseOutcomeBenchmark {
+
+  private static final String IDEMPOTENT_RETURN = "__IDEMPOTENT_RETURN__";
+
+  @Param({"stock-out", "replay"})
+  public String path;
+
+  private PurchaseUseCase useCase;
+  private String key;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    boolean replay = "replay".equals(path);
+    key = replay ? "stored-key" : null;
+    useCase = new PurchaseUseCase(
+        new EmptyInventory(),
+        new InstantCatalog(),
+        new StoredResponses(replay ? "{\"data\":{\"type\":\"purchases\",\"id\":\"venta-1\"}}" : null));
+  }
+
+  @Benchmark
+  public String exceptions() {
+    try {
+      return purchaseOrThrow();
+    } catch (InsufficientInventoryException e) {
+      return errorDocument(422, e.getMessage());
+    } catch (IllegalStateException e) {
+      return conflict(e);
+    }
+  }
+
+  @Benchmark
+  public String outcomes() {
+    return switch (useCase.executeAndRecord(1L, 1L, key, PurchaseResult::toString)) {
+      case PurchaseOutcome.Purchased p -> p.document();
+      case PurchaseOutcome.Replayed r -> r.document();
+      case PurchaseOutcome.InsufficientStock s -> errorDocument(422, s.detail());
+      case PurchaseOutcome.NotFound n -> errorDocument(404, n.detail());
+      case PurchaseOutcome.UpstreamFailure u -> errorDocument(503, u.detail());
+      case PurchaseOutcome.DeadlineExceeded d -> errorDocument(504, d.detail());
+    };
+  }
+
+  /**
+   * El contrato del antiguo {@code execute}: la compra devuelve su documento y los casos esperables se lanzan,
+   * la repetición con el documento guardado dentro del mensaje
+   */
+  private String purchaseOrThrow() {
+    return switch (useCase.executeAndRecord(1L, 1L, key, PurchaseResult::toString)) {
+      case PurchaseOutcome.Purchased p -> p.document();
+      case PurchaseOutcome.Replayed r -> throw new IllegalStateException(IDEMPOTENT_RETURN + r.document());
+      case PurchaseOutcome.InsufficientStock s -> throw new InsufficientInventoryException(s.detail());
+      case PurchaseOutcome.NotFound n -> throw new NoSuchElementException(n.detail());
+      case PurchaseOutcome.UpstreamFailure u -> throw new RuntimeException(u.detail());
+      case PurchaseOutcome.DeadlineExceeded d -> throw new RuntimeException(d.detail());
+    };
+  }
+
+  private static String errorDocument(int status, String detail) {
+    return "{\"errors\":[{\"status\":\"" + status + "\",\"detail\":\"" + detail + "\"}]}";
+  }
+
+  /**
+   * La rama que tenía {@code JsonApiErrorHandler.conflict}: el centinela devuelve el documento del mensaje
+   */
+  private static String conflict(IllegalStateException e) {
+    if (e.getMessage() != null && e.getMessage().startsWith(IDEMPOTENT_RETURN)) {
+      return e.getMessage().substring(IDEMPOTENT_RETURN.length());
+    }
+    return errorDocument(409, e.getMessage());
+  }
+
+  private static final class EmptyInventory implements InventoryRepositoryPort {
+    @Override
+    public Inventory getOrCreate(Long productId) {
+      return Inventory.builder().productId(productId).quantity(0L).build();
+    }
+
+    @Override
+    public Inventory set(Long productId, Long quantity) {
+      return Inventory.builder().productId(productId).quantity(quantity).build();
+    }
+
+    @Override
+    public boolean decrementIfEnough(Long productId, Long qty) {
+      return false;
+    }
+
+    @Override
+    public boolean decrementAllIfEnough(Map<Long, Long> quantities) {
+      return false;
+    }
+
+    @Override
+    public void release(Long productId, Long qty) {
+    }
+  }
+
+  private record StoredResponses(String stored) implements IdempotencyPort {
+    @Override
+    public Optional<String> findResponseByKey(String key) {
+      return Optional.ofNullable(stored);
+    }
+
+    @Override
+    public void saveResponse(String key, String responseJson) {
+    }
+  }
+
+  private static final class InstantCatalog implements ProductsClientPort {
+    @Override
+    public ProductDTO getProduct(Long id) {
+      return new ProductDTO(id, "product-" + id, 10.0);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.novatrade.inventory.usecase;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de temporizadores con buckets por tick
+ * Programar un vencimiento es O(1) y cada avance solo visita los buckets de los ticks transcurridos,
+ * devolviendo de una vez todos los elementos vencidos. La resolución es de un tick: un elemento vence
+ * en el primer límite de tick igual o posterior a su deadline
+ */
+public class HashedTimerWheel<T> {
+
+  private final long tickMillis;
+  private final long originMillis;
+  private final int mask;
+  private final List<List<Entry<T>>> buckets;
+  private long currentTick;
+  private int size;
+
+  /**
+   * @param tick duración de cada tick (resolución de la rueda)
+   * @param wheelSize número de buckets; se redondea a la siguiente potencia de dos
+   * @param origin instante que corresponde al tick 0
+   */
+  public HashedTimerWheel(Duration tick, int wheelSize, Instant origin) {
+    if (tick.toMillis() < 1 || wheelSize < 1) {
+      throw new IllegalArgumentException("tick must be >= 1ms and wheelSize >= 1");
+    }
+    int buckets = Integer.highestOneBit(wheelSize) == wheelSize ? wheelSize : Integer.highestOneBit(wheelSize) << 1;
+    this.tickMillis = tick.toMillis();
+    this.originMillis = origin.toEpochMilli();
+    this.mask = buckets - 1;
+    this.buckets = new ArrayList<>(buckets);
+    for (int i = 0; i < buckets; i++) {
+      this.buckets.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Programa un elemento; si su deadline ya pasó vence en el siguiente avance.
+   */
+  public synchronized void schedule(T item, Instant deadline) {
+    long elapsed = deadline.toEpochMilli() - originMillis;
+    long deadlineTick = Math.max(Math.floorDiv(elapsed + tickMillis - 1, tickMillis), currentTick + 1);
+    buckets.get((int) (deadlineTick & mask)).add(new Entry<>(item, deadlineTick));
+    size++;
+  }
+
+  /**
+   * Avanza la rueda hasta {@code now} y retira todos los elementos vencidos.
+   */
+  public synchronized List<T> advance(Instant now) {
+    long nowTick = Math.floorDiv(now.toEpochMilli() - originMillis, tickMillis);
+    if (nowTick <= currentTick) {
+      return List.of();
+    }
+    // Con más ticks que buckets basta una vuelta completa
+    long steps = Math.min(nowTick - currentTick, buckets.size());
+    List<T> due = new ArrayList<>();
+    for (long i = 1; i <= steps; i++) {
+      List<Entry<T>> bucket = buckets.get((int) ((currentTick + i) & mask));
+      bucket.removeIf(entry -> {
+        if (entry.deadlineTick() <= nowTick) {
+          due.add(entry.item());
+          return true;
+        }
+        return false;
+      });
+    }
+    currentTick = nowTick;
+    size -= due.size();
+    return due;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  private record Entry<T>(T item, long deadlineTick) {}
+}
@@ -0,0 +1,40 @@
+package com.novatrade.inventory.usecase;
+
+/**
+ * Resultado de {@link PurchaseUseCase#executeAndRecord} y {@link PurchaseUseCase#executeBatchAndRecord}.
+ * Los casos esperables de una compra (repetición de la Idempotency-Key, falta de stock, producto
+ * inexistente, catálogo caído o plazo de la petición agotado) se devuelven como valor en lugar de lanzarse, y quien llama los
+ * convierte directamente en respuesta. Las entradas inválidas siguen lanzando IllegalArgumentException.
+ */
+public sealed interface PurchaseOutcome {
+
+  /**
+   * Compra realizada; el documento ya está guardado bajo la Idempotency-Key, si la hay
+   */
+  record Purchased(String document) implements PurchaseOutcome {}
+
+  /**
+   * La Idempotency-Key ya tenía una respuesta guardada, que puede ser un documento de error
+   */
+  record Replayed(String document) implements PurchaseOutcome {}
+
+  /**
+   * No hay stock suficiente; no se ha descontado nada ni guardado respuesta
+   */
+  record InsufficientStock(String detail) implements PurchaseOutcome {}
+
+  /**
+   * Algún producto no existe en el catálogo
+   */
+  record NotFound(String detail) implements PurchaseOutcome {}
+
+  /**
+   * El catálogo no respondió
+   */
+  record UpstreamFailure(String detail) implements PurchaseOutcome {}
+
+  /**
+   * El plazo de la petición pasó antes de terminar; no se ha descontado nada ni guardado respuesta
+   */
+  record DeadlineExceeded(String detail) implements PurchaseOutcome {}
+}
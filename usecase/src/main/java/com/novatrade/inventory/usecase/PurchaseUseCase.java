@@ -3,29 +3,236 @@ package com.novatrade.inventory.usecase;
 import com.novatrade.inventory.model.*;
 import com.novatrade.inventory.model.ports.*;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class PurchaseUseCase {
   private final InventoryRepositoryPort inventoryRepository;
   private final ProductsClientPort productsClient;
   private final IdempotencyPort idempotencyService;
+  private final PurchaseTransactionPort transactions;
 
   public PurchaseUseCase(InventoryRepositoryPort inventoryRepository,
                         ProductsClientPort productsClient,
                         IdempotencyPort idempotencyService) {
+    this(inventoryRepository, productsClient, idempotencyService, null);
+  }
+
+  /**
+   * @param transactions escritura en una sola transacción; null si el motor de inventario no la admite,
+   *                     y entonces el descuento y la respuesta idempotente se confirman por separado
+   */
+  public PurchaseUseCase(InventoryRepositoryPort inventoryRepository,
+                        ProductsClientPort productsClient,
+                        IdempotencyPort idempotencyService,
+                        PurchaseTransactionPort transactions) {
     this.inventoryRepository = inventoryRepository;
     this.productsClient = productsClient;
     this.idempotencyService = idempotencyService;
+    this.transactions = transactions;
   }
 
-  public PurchaseResult execute(Long productId, Long qty, String idempotencyKey) {
+  /**
+   * Compra un producto y guarda la respuesta bajo la Idempotency-Key.
+   * La respuesta se genera antes de descontar para que el descuento y su registro se confirmen juntos.
+   * La repetición de la clave, la falta de stock, los fallos del catálogo y el plazo agotado
+   * ({@link Deadline#current()}) se devuelven como {@link PurchaseOutcome} sin lanzar excepciones.
+   * Si el plazo pasa antes de descontar no se descuenta: quien llamó ya no espera la respuesta.
+   *
+   * @param render documento JSON:API de la compra
+   */
+  public PurchaseOutcome executeAndRecord(Long productId, Long qty, String idempotencyKey,
+                                          Function<PurchaseResult, String> render) {
     validateQuantity(qty);
-    checkIdempotency(idempotencyKey);
+    String cached = findCached(idempotencyKey);
+    if (cached != null) {
+      return new PurchaseOutcome.Replayed(cached);
+    }
+
+    if (Deadline.currentExpired()) {
+      return deadlineExceeded();
+    }
+    ProductsClientPort.ProductDTO product;
+    try {
+      product = productsClient.getProduct(productId);
+    } catch (NoSuchElementException e) {
+      return new PurchaseOutcome.NotFound(e.getMessage());
+    } catch (Deadline.DeadlineExceededException e) {
+      return deadlineExceeded();
+    } catch (Exception e) {
+      // Si el plazo ya pasó, el fallo es probablemente el corte por plazo y no una caída del catálogo
+      return Deadline.currentExpired()
+          ? deadlineExceeded()
+          : new PurchaseOutcome.UpstreamFailure("Error communicating with catalog service");
+    }
+    if (product == null) {
+      return new PurchaseOutcome.NotFound("product not found");
+    }
 
-    ProductsClientPort.ProductDTO product = getProductFromCatalog(productId);
-    decrementInventory(productId, qty);
+    PurchaseResult result = createPurchaseResult(product, qty);
+    String json = render.apply(result);
 
-    return createPurchaseResult(product, qty);
+    if (Deadline.currentExpired()) {
+      return deadlineExceeded();
+    }
+    Map<Long, Long> quantities = Map.of(productId, qty);
+    try {
+      if (!record(quantities, idempotencyKey, json, List.of(result))) {
+        return new PurchaseOutcome.InsufficientStock("Insufficient inventory for product " + productId);
+      }
+    } catch (PurchaseTransactionPort.KeyAlreadyStoredException e) {
+      return new PurchaseOutcome.Replayed(storedResponse(idempotencyKey, e));
+    }
+    return new PurchaseOutcome.Purchased(json);
+  }
+
+  /**
+   * Compra todas las líneas de un carrito con una sola consulta al catálogo y un único
+   * descuento transaccional: si alguna línea no tiene stock no se descuenta ninguna.
+   * Las líneas repetidas de un mismo producto se suman antes de descontar, y la respuesta del carrito
+   * se guarda bajo la Idempotency-Key con el descuento. Devuelve el resultado igual que {@link #executeAndRecord}.
+   *
+   * @param render documento JSON:API con una compra por línea
+   */
+  public PurchaseOutcome executeBatchAndRecord(List<PurchaseLine> lines, String idempotencyKey,
+                                               Function<List<PurchaseResult>, String> render) {
+    validateLines(lines);
+    String cached = findCached(idempotencyKey);
+    if (cached != null) {
+      return new PurchaseOutcome.Replayed(cached);
+    }
+
+    if (Deadline.currentExpired()) {
+      return deadlineExceeded();
+    }
+    Map<Long, Long> quantities = totalsByProduct(lines);
+    Map<Long, ProductsClientPort.ProductDTO> products;
+    try {
+      products = productsClient.getProducts(quantities.keySet());
+    } catch (NoSuchElementException e) {
+      return new PurchaseOutcome.NotFound(e.getMessage());
+    } catch (Deadline.DeadlineExceededException e) {
+      return deadlineExceeded();
+    } catch (Exception e) {
+      // Si el plazo ya pasó, el fallo es probablemente el corte por plazo y no una caída del catálogo
+      return Deadline.currentExpired()
+          ? deadlineExceeded()
+          : new PurchaseOutcome.UpstreamFailure("Error communicating with catalog service");
+    }
+    for (Long productId : quantities.keySet()) {
+      if (products == null || products.get(productId) == null) {
+        return new PurchaseOutcome.NotFound("product not found: " + productId);
+      }
+    }
+
+    List<PurchaseResult> results = lines.stream()
+        .map(line -> createPurchaseResult(products.get(line.productId()), line.quantity()))
+        .toList();
+    String json = render.apply(results);
+
+    if (Deadline.currentExpired()) {
+      return deadlineExceeded();
+    }
+    try {
+      if (!record(quantities, idempotencyKey, json, results)) {
+        return new PurchaseOutcome.InsufficientStock("Insufficient inventory for products " + quantities.keySet());
+      }
+    } catch (PurchaseTransactionPort.KeyAlreadyStoredException e) {
+      return new PurchaseOutcome.Replayed(storedResponse(idempotencyKey, e));
+    }
+    return new PurchaseOutcome.Purchased(json);
+  }
+
+  /**
+   * Compra varias peticiones independientes que llegaron por separado (modo asíncrono).
+   * Comparten una sola consulta al catálogo, pero cada una descuenta su stock por su cuenta:
+   * que una falle no afecta a las demás. Cada compra realizada se descuenta y se guarda bajo su
+   * Idempotency-Key en la misma transacción, igual que {@link #executeAndRecord}; guardar el error
+   * de las que fallan queda para quien encola.
+   * Si la consulta compartida falla porque falta algún producto, cada producto se resuelve por separado
+   * y solo fallan las líneas de los que no existen; solo un fallo real del catálogo hace fallar a todas.
+   *
+   * @param idempotencyKeys clave de cada línea, en el mismo orden
+   * @param render documento JSON:API de la compra de la línea con el índice dado
+   * @return un resultado por línea, en el mismo orden, con la compra o el error que la hizo fallar
+   */
+  public List<LineOutcome> executeEach(List<PurchaseLine> lines, List<String> idempotencyKeys,
+                                       BiFunction<Integer, PurchaseResult, String> render) {
+    List<Long> productIds = lines.stream()
+        .filter(line -> line != null && line.productId() != null)
+        .map(PurchaseLine::productId)
+        .distinct()
+        .toList();
+    Map<Long, ProductsClientPort.ProductDTO> products;
+    Map<Long, RuntimeException> productErrors = new LinkedHashMap<>();
+    RuntimeException catalogError = null;
+    try {
+      products = productsClient.getProducts(productIds);
+    } catch (NoSuchElementException e) {
+      products = getEachProduct(productIds, productErrors);
+    } catch (RuntimeException e) {
+      products = Map.of();
+      catalogError = new ServiceCommunicationException("Error communicating with catalog service", e);
+    }
+
+    List<LineOutcome> outcomes = new ArrayList<>(lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      PurchaseLine line = lines.get(i);
+      try {
+        validateLines(List.of(line));
+        if (catalogError != null) {
+          throw catalogError;
+        }
+        RuntimeException productError = productErrors.get(line.productId());
+        if (productError != null) {
+          throw productError;
+        }
+        ProductsClientPort.ProductDTO product = products == null ? null : products.get(line.productId());
+        if (product == null) {
+          throw new NoSuchElementException("product not found: " + line.productId());
+        }
+        PurchaseResult result = createPurchaseResult(product, line.quantity());
+        String json = render.apply(i, result);
+        String key = idempotencyKeys.get(i);
+        try {
+          if (!record(Map.of(line.productId(), line.quantity()), key, json, List.of(result))) {
+            throw new InsufficientInventoryException("Insufficient inventory for product " + line.productId());
+          }
+          outcomes.add(new LineOutcome(result, json, null));
+        } catch (PurchaseTransactionPort.KeyAlreadyStoredException e) {
+          outcomes.add(new LineOutcome(null, storedResponse(key, e), null));
+        }
+      } catch (RuntimeException e) {
+        outcomes.add(new LineOutcome(null, null, e));
+      }
+    }
+    return outcomes;
+  }
+
+  /**
+   * Resuelve cada producto con su propia consulta; el error de cada uno queda en {@code errors}
+   */
+  private Map<Long, ProductsClientPort.ProductDTO> getEachProduct(List<Long> productIds,
+                                                                 Map<Long, RuntimeException> errors) {
+    Map<Long, ProductsClientPort.ProductDTO> products = new LinkedHashMap<>();
+    for (Long productId : productIds) {
+      try {
+        ProductsClientPort.ProductDTO product = productsClient.getProduct(productId);
+        if (product != null) {
+          products.put(productId, product);
+        }
+      } catch (NoSuchElementException e) {
+        errors.put(productId, e);
+      } catch (RuntimeException e) {
+        errors.put(productId, new ServiceCommunicationException("Error communicating with catalog service", e));
+      }
+    }
+    return products;
   }
 
   private void validateQuantity(Long qty) {
@@ -34,37 +241,68 @@ public class PurchaseUseCase {
     }
   }
 
-  private void checkIdempotency(String idempotencyKey) {
-    if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-      var cached = idempotencyService.findResponseByKey(idempotencyKey);
-      if (cached.isPresent()) {
-        throw new IllegalStateException("__IDEMPOTENT_RETURN__" + cached.get());
+  private void validateLines(List<PurchaseLine> lines) {
+    if (lines == null || lines.isEmpty()) {
+      throw new IllegalArgumentException("at least one purchase line is required");
+    }
+    for (PurchaseLine line : lines) {
+      if (line == null || line.productId() == null) {
+        throw new IllegalArgumentException("productId is required");
       }
+      validateQuantity(line.quantity());
     }
   }
 
-  private ProductsClientPort.ProductDTO getProductFromCatalog(Long productId) {
-    try {
-      ProductsClientPort.ProductDTO product = productsClient.getProduct(productId);
-      if (product == null) {
-        throw new NoSuchElementException("product not found");
-      }
-      return product;
-    } catch (NoSuchElementException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new ServiceCommunicationException("Error communicating with catalog service", e);
+  private Map<Long, Long> totalsByProduct(List<PurchaseLine> lines) {
+    Map<Long, Long> quantities = new LinkedHashMap<>();
+    for (PurchaseLine line : lines) {
+      quantities.merge(line.productId(), line.quantity(), Long::sum);
     }
+    return quantities;
+  }
+
+  private static PurchaseOutcome deadlineExceeded() {
+    return new PurchaseOutcome.DeadlineExceeded("Request deadline exceeded");
   }
 
-  private void decrementInventory(Long productId, Long qty) {
-    boolean inventoryUpdated = inventoryRepository.decrementIfEnough(productId, qty);
-    if (!inventoryUpdated) {
-      throw new InsufficientInventoryException("Insufficient inventory for product " + productId);
+  private String findCached(String idempotencyKey) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return null;
     }
+    return idempotencyService.findResponseByKey(idempotencyKey).orElse(null);
   }
 
-  private PurchaseResult createPurchaseResult(ProductsClientPort.ProductDTO product, Long qty) {
+  /**
+   * Respuesta que otra compra guardó con la clave entre la consulta y el commit de esta
+   *
+   * @throws PurchaseTransactionPort.KeyAlreadyStoredException si no aparece: el conflicto era otro
+   */
+  private String storedResponse(String idempotencyKey, PurchaseTransactionPort.KeyAlreadyStoredException e) {
+    return idempotencyService.findResponseByKey(idempotencyKey).orElseThrow(() -> e);
+  }
+
+  /**
+   * @return false si no había stock suficiente; entonces no se descuenta nada ni se guarda la respuesta
+   */
+  private boolean record(Map<Long, Long> quantities, String idempotencyKey, String json, List<PurchaseResult> results) {
+    if (transactions != null) {
+      return transactions.commit(quantities, idempotencyKey, json, results);
+    }
+
+    boolean decremented;
+    if (quantities.size() == 1) {
+      var line = quantities.entrySet().iterator().next();
+      decremented = inventoryRepository.decrementIfEnough(line.getKey(), line.getValue());
+    } else {
+      decremented = inventoryRepository.decrementAllIfEnough(quantities);
+    }
+    if (decremented && idempotencyKey != null && !idempotencyKey.isBlank()) {
+      idempotencyService.saveResponse(idempotencyKey, json);
+    }
+    return decremented;
+  }
+
+  static PurchaseResult createPurchaseResult(ProductsClientPort.ProductDTO product, Long qty) {
     double total = product.price() * qty;
     return PurchaseResult.builder()
         .productId(product.id())
@@ -74,9 +312,20 @@ public class PurchaseUseCase {
         .totalPrice(total)
         .success(true)
         .purchasedAt(Instant.now().toString())
+        .stalePrice(product.stale())
         .build();
   }
 
+  /**
+   * Resultado de una línea de {@link #executeEach}: la compra realizada con el documento guardado
+   * bajo su clave, o el error, nunca ambos. Si la clave ya tenía respuesta, solo ese documento.
+   */
+  public record LineOutcome(PurchaseResult result, String document, RuntimeException error) {
+    public boolean succeeded() {
+      return error == null;
+    }
+  }
+
   public static class ServiceCommunicationException extends RuntimeException {
     public ServiceCommunicationException(String message, Throwable cause) {
       super(message, cause);
@@ -0,0 +1,17 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.ReactiveInventoryRepositoryPort;
+import reactor.core.publisher.Mono;
+
+public class ReactiveGetInventoryUseCase {
+    private final ReactiveInventoryRepositoryPort repo;
+
+    public ReactiveGetInventoryUseCase(ReactiveInventoryRepositoryPort repo) {
+        this.repo = repo;
+    }
+
+    public Mono<Inventory> execute(Long productId) {
+        return repo.getOrCreate(productId);
+    }
+}
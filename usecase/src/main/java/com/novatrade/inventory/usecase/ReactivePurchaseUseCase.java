@@ -0,0 +1,41 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.*;
+import com.novatrade.inventory.model.ports.*;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
+import reactor.core.publisher.Mono;
+import java.util.NoSuchElementException;
+
+/**
+ * Compra no bloqueante: mismas reglas y mismas excepciones que {@link PurchaseUseCase},
+ * encadenadas sobre los puertos reactivos. La idempotencia la resuelve el punto de entrada.
+ */
+public class ReactivePurchaseUseCase {
+  private final ReactiveInventoryRepositoryPort inventoryRepository;
+  private final ReactiveProductsClientPort productsClient;
+
+  public ReactivePurchaseUseCase(ReactiveInventoryRepositoryPort inventoryRepository,
+                                 ReactiveProductsClientPort productsClient) {
+    this.inventoryRepository = inventoryRepository;
+    this.productsClient = productsClient;
+  }
+
+  public Mono<PurchaseResult> execute(Long productId, Long qty) {
+    if (qty == null || qty <= 0) {
+      return Mono.error(new IllegalArgumentException("quantity must be > 0"));
+    }
+    return getProductFromCatalog(productId)
+        .flatMap(product -> inventoryRepository.decrementIfEnough(productId, qty)
+            .flatMap(updated -> updated
+                ? Mono.just(PurchaseUseCase.createPurchaseResult(product, qty))
+                : Mono.error(new InsufficientInventoryException("Insufficient inventory for product " + productId))));
+  }
+
+  private Mono<ProductsClientPort.ProductDTO> getProductFromCatalog(Long productId) {
+    return productsClient.getProduct(productId)
+        .onErrorMap(e -> !(e instanceof NoSuchElementException),
+            e -> new ServiceCommunicationException("Error communicating with catalog service", e))
+        .switchIfEmpty(Mono.error(() -> new NoSuchElementException("product not found")));
+  }
+}
@@ -0,0 +1,20 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.ReactiveInventoryRepositoryPort;
+import reactor.core.publisher.Mono;
+
+public class ReactiveSetInventoryUseCase {
+    private final ReactiveInventoryRepositoryPort repo;
+
+    public ReactiveSetInventoryUseCase(ReactiveInventoryRepositoryPort repo) {
+        this.repo = repo;
+    }
+
+    public Mono<Inventory> execute(Long productId, Long qty) {
+        if (qty == null || qty < 0) {
+            return Mono.error(new IllegalArgumentException("quantity must be >= 0"));
+        }
+        return repo.set(productId, qty);
+    }
+}
@@ -0,0 +1,30 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryBucketsPort;
+
+/**
+ * Cambia el número de buckets en que se reparte el stock de un producto.
+ * El puerto es null cuando el motor de inventario activo no admite buckets.
+ */
+public class RebalanceInventoryUseCase {
+    private final InventoryBucketsPort buckets;
+
+    public RebalanceInventoryUseCase(InventoryBucketsPort buckets) {
+        this.buckets = buckets;
+    }
+
+    public Inventory execute(Long productId, Integer bucketCount) {
+        if (bucketCount == null || bucketCount < 0) {
+            throw new IllegalArgumentException("buckets must be >= 0");
+        }
+        if (buckets == null) {
+            throw new IllegalStateException("bucketed inventory engine is not enabled");
+        }
+        return buckets.rebalance(productId, bucketCount);
+    }
+
+    public int bucketCount(Long productId) {
+        return buckets == null ? 0 : buckets.bucketCount(productId);
+    }
+}
@@ -0,0 +1,211 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.*;
+import com.novatrade.inventory.model.ports.*;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Retiene stock mientras se autoriza un pago.
+ * Reservar descuenta las unidades del inventario en el acto, de modo que la cantidad disponible ya
+ * excluye las reservas activas; confirmar las consume y cancelar o vencer las devuelve.
+ * Los vencimientos se programan en una {@link HashedTimerWheel} en memoria y se procesan en bloque con
+ * {@link #expireDue()}, sin recorrer la tabla de reservas.
+ */
+public class ReservationUseCase {
+  private final InventoryRepositoryPort inventoryRepository;
+  private final ReservationRepositoryPort reservationRepository;
+  private final HashedTimerWheel<String> expiryWheel;
+  private final Duration defaultTtl;
+  private final Duration maxTtl;
+  private final Clock clock;
+  private final ReservationTransactionPort transactions;
+  /** Stock de reservas ya vencidas cuya devolución falló; solo se usa sin {@link #transactions} */
+  private final Map<Long, Long> pendingReleases = new LinkedHashMap<>();
+
+  public ReservationUseCase(InventoryRepositoryPort inventoryRepository,
+                            ReservationRepositoryPort reservationRepository,
+                            HashedTimerWheel<String> expiryWheel,
+                            Duration defaultTtl,
+                            Duration maxTtl,
+                            Clock clock) {
+    this(inventoryRepository, reservationRepository, expiryWheel, defaultTtl, maxTtl, clock, null);
+  }
+
+  /**
+   * @param transactions vencimiento o cancelación y devolución en una sola transacción; null si el motor de
+   *                     inventario no la admite, y entonces la devolución que falle se reintenta en el siguiente tick
+   */
+  public ReservationUseCase(InventoryRepositoryPort inventoryRepository,
+                            ReservationRepositoryPort reservationRepository,
+                            HashedTimerWheel<String> expiryWheel,
+                            Duration defaultTtl,
+                            Duration maxTtl,
+                            Clock clock,
+                            ReservationTransactionPort transactions) {
+    this.transactions = transactions;
+    this.inventoryRepository = inventoryRepository;
+    this.reservationRepository = reservationRepository;
+    this.expiryWheel = expiryWheel;
+    this.defaultTtl = defaultTtl;
+    this.maxTtl = maxTtl;
+    this.clock = clock;
+  }
+
+  public Reservation reserve(Long productId, Long qty, Duration ttl) {
+    if (productId == null) {
+      throw new IllegalArgumentException("productId is required");
+    }
+    if (qty == null || qty <= 0) {
+      throw new IllegalArgumentException("quantity must be > 0");
+    }
+    Duration holdFor = ttl == null ? defaultTtl : ttl;
+    if (holdFor.isNegative() || holdFor.isZero() || holdFor.compareTo(maxTtl) > 0) {
+      throw new IllegalArgumentException("ttl must be > 0 and <= " + maxTtl.toSeconds() + "s");
+    }
+
+    if (!inventoryRepository.decrementIfEnough(productId, qty)) {
+      throw new InsufficientInventoryException("Insufficient inventory for product " + productId);
+    }
+
+    Instant now = clock.instant();
+    Reservation reservation;
+    try {
+      reservation = reservationRepository.save(Reservation.builder()
+          .id(UUID.randomUUID().toString())
+          .productId(productId)
+          .quantity(qty)
+          .status(ReservationStatus.HELD)
+          .expiresAt(now.plus(holdFor))
+          .createdAt(now)
+          .build());
+    } catch (RuntimeException e) {
+      // Sin fila de reserva nadie devolvería las unidades
+      inventoryRepository.release(productId, qty);
+      throw e;
+    }
+    expiryWheel.schedule(reservation.getId(), reservation.getExpiresAt());
+    return reservation;
+  }
+
+  /**
+   * Confirma una reserva vigente; repetir la confirmación devuelve la misma reserva.
+   */
+  public Reservation confirm(String id) {
+    Reservation reservation = findReservation(id);
+    if (reservation.getStatus() == ReservationStatus.HELD
+        && reservationRepository.confirm(id, clock.instant())) {
+      reservation.setStatus(ReservationStatus.CONFIRMED);
+      return reservation;
+    }
+    Reservation current = findReservation(id);
+    if (current.getStatus() == ReservationStatus.CONFIRMED) {
+      return current;
+    }
+    String state = current.getStatus() == ReservationStatus.HELD ? "expired" : current.getStatus().name().toLowerCase();
+    throw new IllegalStateException("reservation " + id + " is " + state);
+  }
+
+  /**
+   * Cancela una reserva retenida y devuelve su stock; cancelar una reserva ya cancelada o vencida
+   * no tiene efecto. Con {@link ReservationTransactionPort} ambas escrituras van en la misma transacción.
+   */
+  public Reservation cancel(String id) {
+    Reservation reservation = findReservation(id);
+    if (reservation.getStatus() == ReservationStatus.HELD && cancelAndRelease(reservation)) {
+      reservation.setStatus(ReservationStatus.CANCELLED);
+      return reservation;
+    }
+    Reservation current = findReservation(id);
+    if (current.getStatus() == ReservationStatus.CONFIRMED) {
+      throw new IllegalStateException("reservation " + id + " is confirmed");
+    }
+    return current;
+  }
+
+  private boolean cancelAndRelease(Reservation reservation) {
+    if (transactions != null) {
+      return transactions.cancelAndRelease(reservation);
+    }
+    if (!reservationRepository.cancel(reservation.getId())) {
+      return false;
+    }
+    inventoryRepository.release(reservation.getProductId(), reservation.getQuantity());
+    return true;
+  }
+
+  /**
+   * Expira las reservas cuyo temporizador ha vencido y devuelve su stock, una llamada por producto.
+   * Con {@link ReservationTransactionPort} ambas escrituras van en la misma transacción; sin él, el
+   * stock cuya devolución falla queda pendiente y se devuelve en el siguiente tick.
+   *
+   * @return número de reservas expiradas
+   */
+  public int expireDue() {
+    Instant now = clock.instant();
+    List<String> due = expiryWheel.advance(now);
+    if (due.isEmpty() && pendingReleases.isEmpty()) {
+      return 0;
+    }
+    List<Reservation> expired;
+    try {
+      expired = due.isEmpty() ? List.of()
+          : transactions != null ? transactions.expireAndRelease(due, now)
+          : reservationRepository.expire(due, now);
+    } catch (RuntimeException e) {
+      // Se reintentan en el siguiente tick
+      due.forEach(id -> expiryWheel.schedule(id, now));
+      throw e;
+    }
+    if (transactions == null) {
+      for (Reservation reservation : expired) {
+        pendingReleases.merge(reservation.getProductId(), reservation.getQuantity(), Long::sum);
+      }
+      releasePending();
+    }
+    return expired.size();
+  }
+
+  /**
+   * Devuelve el stock pendiente por producto; lo que falle se conserva para el siguiente tick.
+   * Solo lo llama el hilo de vencimientos.
+   */
+  private void releasePending() {
+    RuntimeException failure = null;
+    for (Long productId : new ArrayList<>(pendingReleases.keySet())) {
+      try {
+        inventoryRepository.release(productId, pendingReleases.get(productId));
+        pendingReleases.remove(productId);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Vuelve a programar los vencimientos de las reservas retenidas tras un reinicio.
+   *
+   * @return número de reservas programadas
+   */
+  public int recover() {
+    List<Reservation> held = reservationRepository.findHeld();
+    held.forEach(reservation -> expiryWheel.schedule(reservation.getId(), reservation.getExpiresAt()));
+    return held.size();
+  }
+
+  private Reservation findReservation(String id) {
+    return reservationRepository.findById(id)
+        .orElseThrow(() -> new NoSuchElementException("reservation not found: " + id));
+  }
+}
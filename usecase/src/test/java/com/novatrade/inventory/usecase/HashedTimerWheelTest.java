@@ -0,0 +1,77 @@
+package com.novatrade.inventory.usecase;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimerWheelTest {
+
+    private static final Instant ORIGIN = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void shouldReturnItemsOnlyOnceTheirDeadlineTickHasPassed() {
+        // Arrange
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, ORIGIN);
+        wheel.schedule("a", ORIGIN.plusMillis(1500));
+        wheel.schedule("b", ORIGIN.plusSeconds(3));
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(ORIGIN.plusSeconds(1)));
+        assertEquals(List.of("a"), wheel.advance(ORIGIN.plusSeconds(2)));
+        assertEquals(List.of("b"), wheel.advance(ORIGIN.plusSeconds(3)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldKeepItemsThatAreMoreThanOneRotationAway() {
+        // Arrange: 4 buckets, el deadline cae en el mismo bucket que el tick 2
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 4, ORIGIN);
+        wheel.schedule("late", ORIGIN.plusSeconds(6));
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(ORIGIN.plusSeconds(2)));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("late"), wheel.advance(ORIGIN.plusSeconds(6)));
+    }
+
+    @Test
+    void shouldReturnEverythingDueAfterALongPause() {
+        // Arrange
+        HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 4, ORIGIN);
+        for (int i = 1; i <= 10; i++) {
+            wheel.schedule(i, ORIGIN.plusSeconds(i));
+        }
+
+        // Act
+        List<Integer> due = wheel.advance(ORIGIN.plusSeconds(20));
+
+        // Assert
+        assertEquals(10, due.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineShouldFireOnNextAdvance() {
+        // Arrange
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, ORIGIN);
+        wheel.advance(ORIGIN.plusSeconds(5));
+
+        // Act
+        wheel.schedule("overdue", ORIGIN.plusSeconds(1));
+
+        // Assert
+        assertEquals(List.of("overdue"), wheel.advance(ORIGIN.plusSeconds(6)));
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HashedTimerWheel<String>(Duration.ZERO, 8, ORIGIN));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HashedTimerWheel<String>(Duration.ofSeconds(1), 0, ORIGIN));
+    }
+}
@@ -1,9 +1,12 @@
 package com.novatrade.inventory.usecase;
 
+import com.novatrade.inventory.model.Deadline;
+import com.novatrade.inventory.model.PurchaseLine;
 import com.novatrade.inventory.model.PurchaseResult;
 import com.novatrade.inventory.model.ports.IdempotencyPort;
 import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
 import com.novatrade.inventory.model.ports.ProductsClientPort;
+import com.novatrade.inventory.model.ports.PurchaseTransactionPort;
 import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
 import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,8 +15,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -48,12 +56,17 @@ class PurchaseUseCaseTest {
         when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
         when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
         when(inventoryRepository.decrementIfEnough(PRODUCT_ID, QUANTITY)).thenReturn(true);
+        List<PurchaseResult> rendered = new ArrayList<>();
 
         // Act
-        PurchaseResult result = useCase.execute(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY);
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> {
+            rendered.add(r);
+            return "{}";
+        });
 
         // Assert
-        assertNotNull(result);
+        assertEquals(new PurchaseOutcome.Purchased("{}"), outcome);
+        PurchaseResult result = rendered.get(0);
         assertEquals(PRODUCT_ID, result.getProductId());
         assertEquals(PRODUCT.name(), result.getProductName());
         assertEquals(PRODUCT.price(), result.getUnitPrice());
@@ -67,12 +80,32 @@ class PurchaseUseCaseTest {
         verify(inventoryRepository).decrementIfEnough(PRODUCT_ID, QUANTITY);
     }
 
+    @Test
+    void shouldMarkPurchaseWhenProductIsLastKnownVersion() {
+        // Arrange
+        ProductsClientPort.ProductDTO stale = new ProductsClientPort.ProductDTO(PRODUCT_ID, "Test Product", 10.0, true);
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(stale);
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, QUANTITY)).thenReturn(true);
+        List<PurchaseResult> rendered = new ArrayList<>();
+
+        // Act
+        useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> {
+            rendered.add(r);
+            return "{}";
+        });
+
+        // Assert
+        assertTrue(rendered.get(0).isStalePrice());
+        assertEquals(stale.price() * QUANTITY, rendered.get(0).getTotalPrice());
+    }
+
     @Test
     void shouldThrowExceptionWhenQuantityIsInvalid() {
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
-            () -> useCase.execute(PRODUCT_ID, 0L, IDEMPOTENCY_KEY)
+            () -> useCase.executeAndRecord(PRODUCT_ID, 0L, IDEMPOTENCY_KEY, r -> "{}")
         );
 
         assertEquals("quantity must be > 0", exception.getMessage());
@@ -85,7 +118,7 @@ class PurchaseUseCaseTest {
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
-            () -> useCase.execute(PRODUCT_ID, null, IDEMPOTENCY_KEY)
+            () -> useCase.executeAndRecord(PRODUCT_ID, null, IDEMPOTENCY_KEY, r -> "{}")
         );
 
         assertEquals("quantity must be > 0", exception.getMessage());
@@ -93,24 +126,6 @@ class PurchaseUseCaseTest {
         verifyNoInteractions(inventoryRepository);
     }
 
-    @Test
-    void shouldThrowExceptionForIdempotentRequest() {
-        // Arrange
-        String cachedResponse = "{\"productId\":1,\"success\":true}";
-        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.of(cachedResponse));
-
-        // Act & Assert
-        IllegalStateException exception = assertThrows(
-            IllegalStateException.class,
-            () -> useCase.execute(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY)
-        );
-
-        assertTrue(exception.getMessage().startsWith("__IDEMPOTENT_RETURN__"));
-        verify(idempotencyService).findResponseByKey(IDEMPOTENCY_KEY);
-        verifyNoInteractions(productsClient);
-        verifyNoInteractions(inventoryRepository);
-    }
-
     @Test
     void shouldSkipIdempotencyCheckWhenKeyIsNull() {
         // Arrange
@@ -118,62 +133,386 @@ class PurchaseUseCaseTest {
         when(inventoryRepository.decrementIfEnough(PRODUCT_ID, QUANTITY)).thenReturn(true);
 
         // Act
-        PurchaseResult result = useCase.execute(PRODUCT_ID, QUANTITY, null);
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, null, r -> "{}");
 
         // Assert
-        assertNotNull(result);
+        assertEquals(new PurchaseOutcome.Purchased("{}"), outcome);
         verifyNoInteractions(idempotencyService);
     }
 
     @Test
-    void shouldThrowExceptionWhenProductNotFound() {
+    void shouldReturnNotFoundWhenProductIsMissing() {
         // Arrange
         when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
         when(productsClient.getProduct(PRODUCT_ID)).thenReturn(null);
 
-        // Act & Assert
-        NoSuchElementException exception = assertThrows(
-            NoSuchElementException.class,
-            () -> useCase.execute(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY)
-        );
+        // Act
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
 
-        assertEquals("product not found", exception.getMessage());
+        // Assert
+        assertEquals(new PurchaseOutcome.NotFound("product not found"), outcome);
         verify(productsClient).getProduct(PRODUCT_ID);
         verifyNoInteractions(inventoryRepository);
     }
 
     @Test
-    void shouldPropagateProductClientExceptions() {
+    void shouldReturnUpstreamFailureWhenTheCatalogFails() {
         // Arrange
         when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
         when(productsClient.getProduct(PRODUCT_ID)).thenThrow(new RuntimeException("Connection error"));
 
-        // Act & Assert
-        ServiceCommunicationException exception = assertThrows(
-            ServiceCommunicationException.class,
-            () -> useCase.execute(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY)
-        );
+        // Act
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
 
-        assertEquals("Error communicating with catalog service", exception.getMessage());
+        // Assert
+        assertEquals(new PurchaseOutcome.UpstreamFailure("Error communicating with catalog service"), outcome);
         verify(productsClient).getProduct(PRODUCT_ID);
         verifyNoInteractions(inventoryRepository);
     }
 
     @Test
-    void shouldThrowExceptionWhenInsufficientInventory() {
+    void shouldReturnInsufficientStockWhenInventoryIsShort() {
         // Arrange
         when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
         when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
         when(inventoryRepository.decrementIfEnough(PRODUCT_ID, QUANTITY)).thenReturn(false);
 
-        // Act & Assert
-        InsufficientInventoryException exception = assertThrows(
-            InsufficientInventoryException.class,
-            () -> useCase.execute(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY)
-        );
+        // Act
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
 
-        assertEquals("Insufficient inventory for product " + PRODUCT_ID, exception.getMessage());
+        // Assert
+        assertEquals(new PurchaseOutcome.InsufficientStock("Insufficient inventory for product " + PRODUCT_ID), outcome);
         verify(productsClient).getProduct(PRODUCT_ID);
         verify(inventoryRepository).decrementIfEnough(PRODUCT_ID, QUANTITY);
     }
+
+    @Test
+    void shouldPurchaseAllLinesWithOneCatalogCallAndOneDecrement() {
+        // Arrange
+        ProductsClientPort.ProductDTO other = new ProductsClientPort.ProductDTO(2L, "Other Product", 4.0);
+        List<PurchaseLine> lines = List.of(
+            new PurchaseLine(PRODUCT_ID, 2L),
+            new PurchaseLine(2L, 1L),
+            new PurchaseLine(PRODUCT_ID, 3L));
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+        when(productsClient.getProducts(anyCollection())).thenReturn(Map.of(PRODUCT_ID, PRODUCT, 2L, other));
+        when(inventoryRepository.decrementAllIfEnough(Map.of(PRODUCT_ID, 5L, 2L, 1L))).thenReturn(true);
+        List<PurchaseResult> results = new ArrayList<>();
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeBatchAndRecord(lines, IDEMPOTENCY_KEY, rendered -> {
+            results.addAll(rendered);
+            return "[]";
+        });
+
+        // Assert
+        assertEquals(new PurchaseOutcome.Purchased("[]"), outcome);
+        assertEquals(3, results.size());
+        assertEquals(PRODUCT_ID, results.get(0).getProductId());
+        assertEquals(20.0, results.get(0).getTotalPrice());
+        assertEquals("Other Product", results.get(1).getProductName());
+        assertEquals(3L, results.get(2).getQuantity());
+
+        verify(productsClient).getProducts(Set.of(PRODUCT_ID, 2L));
+        verify(productsClient, never()).getProduct(anyLong());
+        verify(inventoryRepository).decrementAllIfEnough(Map.of(PRODUCT_ID, 5L, 2L, 1L));
+        verify(inventoryRepository, never()).decrementIfEnough(anyLong(), anyLong());
+        verify(idempotencyService).saveResponse(IDEMPOTENCY_KEY, "[]");
+    }
+
+    @Test
+    void shouldFailWholeBatchWhenAnyLineHasInsufficientInventory() {
+        // Arrange
+        List<PurchaseLine> lines = List.of(new PurchaseLine(PRODUCT_ID, QUANTITY), new PurchaseLine(2L, 1L));
+        when(productsClient.getProducts(anyCollection())).thenReturn(Map.of(
+            PRODUCT_ID, PRODUCT, 2L, new ProductsClientPort.ProductDTO(2L, "Other Product", 4.0)));
+        when(inventoryRepository.decrementAllIfEnough(Map.of(PRODUCT_ID, QUANTITY, 2L, 1L))).thenReturn(false);
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeBatchAndRecord(lines, null, results -> "[]");
+
+        // Assert
+        assertInstanceOf(PurchaseOutcome.InsufficientStock.class, outcome);
+    }
+
+    @Test
+    void shouldFailBatchWhenAProductIsMissingFromCatalog() {
+        // Arrange
+        List<PurchaseLine> lines = List.of(new PurchaseLine(PRODUCT_ID, 1L), new PurchaseLine(99L, 1L));
+        when(productsClient.getProducts(anyCollection())).thenReturn(Map.of(PRODUCT_ID, PRODUCT));
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeBatchAndRecord(lines, null, results -> "[]");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.NotFound("product not found: 99"), outcome);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldRejectEmptyBatchAndInvalidLines() {
+        assertThrows(IllegalArgumentException.class, () -> useCase.executeBatchAndRecord(List.of(), null, r -> "[]"));
+        assertThrows(IllegalArgumentException.class,
+            () -> useCase.executeBatchAndRecord(List.of(new PurchaseLine(PRODUCT_ID, 0L)), null, r -> "[]"));
+        verifyNoInteractions(productsClient);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldReplayTheStoredBatchResponse() {
+        // Arrange
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.of("{\"data\":[]}"));
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeBatchAndRecord(
+            List.of(new PurchaseLine(PRODUCT_ID, 1L)), IDEMPOTENCY_KEY, r -> "[]");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.Replayed("{\"data\":[]}"), outcome);
+        verifyNoInteractions(productsClient);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldPurchaseQueuedLinesIndependentlyWithOneCatalogCall() {
+        // Arrange
+        List<PurchaseLine> lines = List.of(
+            new PurchaseLine(PRODUCT_ID, 2L),
+            new PurchaseLine(PRODUCT_ID, 9L),
+            new PurchaseLine(99L, 1L));
+        when(productsClient.getProducts(List.of(PRODUCT_ID, 99L))).thenReturn(Map.of(PRODUCT_ID, PRODUCT));
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 2L)).thenReturn(true);
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 9L)).thenReturn(false);
+
+        // Act
+        List<PurchaseUseCase.LineOutcome> outcomes = useCase.executeEach(lines, List.of("k1", "k2", "k3"),
+                (i, r) -> "{\"line\":" + i + "}");
+
+        // Assert
+        assertTrue(outcomes.get(0).succeeded());
+        assertEquals(20.0, outcomes.get(0).result().getTotalPrice());
+        assertEquals("{\"line\":0}", outcomes.get(0).document());
+        assertInstanceOf(InsufficientInventoryException.class, outcomes.get(1).error());
+        assertInstanceOf(NoSuchElementException.class, outcomes.get(2).error());
+        verify(productsClient, times(1)).getProducts(anyCollection());
+        verify(idempotencyService).saveResponse("k1", "{\"line\":0}");
+        verifyNoMoreInteractions(idempotencyService);
+    }
+
+    @Test
+    void shouldDecrementAndRecordEachQueuedLineInItsOwnTransactionWhenThePortExists() {
+        // Arrange
+        PurchaseTransactionPort transactions = mock(PurchaseTransactionPort.class);
+        PurchaseUseCase transactional = new PurchaseUseCase(
+                inventoryRepository, productsClient, idempotencyService, transactions);
+        List<PurchaseLine> lines = List.of(new PurchaseLine(PRODUCT_ID, 2L), new PurchaseLine(PRODUCT_ID, 9L));
+        when(productsClient.getProducts(List.of(PRODUCT_ID))).thenReturn(Map.of(PRODUCT_ID, PRODUCT));
+        when(transactions.commit(eq(Map.of(PRODUCT_ID, 2L)), eq("k1"), eq("{\"line\":0}"), anyList())).thenReturn(true);
+        when(transactions.commit(eq(Map.of(PRODUCT_ID, 9L)), eq("k2"), eq("{\"line\":1}"), anyList())).thenReturn(false);
+
+        // Act
+        List<PurchaseUseCase.LineOutcome> outcomes = transactional.executeEach(lines, List.of("k1", "k2"),
+                (i, r) -> "{\"line\":" + i + "}");
+
+        // Assert
+        assertTrue(outcomes.get(0).succeeded());
+        assertInstanceOf(InsufficientInventoryException.class, outcomes.get(1).error());
+        verifyNoInteractions(inventoryRepository);
+        verifyNoInteractions(idempotencyService);
+    }
+
+    @Test
+    void shouldFailEveryQueuedLineWhenCatalogIsUnavailable() {
+        // Arrange
+        List<PurchaseLine> lines = List.of(new PurchaseLine(PRODUCT_ID, 1L), new PurchaseLine(2L, 1L));
+        when(productsClient.getProducts(anyCollection())).thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        List<PurchaseUseCase.LineOutcome> outcomes = useCase.executeEach(lines, List.of("k1", "k2"), (i, r) -> "{}");
+
+        // Assert
+        assertEquals(2, outcomes.size());
+        outcomes.forEach(outcome -> assertInstanceOf(ServiceCommunicationException.class, outcome.error()));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldOnlyFailQueuedLinesOfMissingProductsWhenTheSharedLookupThrowsNotFound() {
+        // Arrange
+        List<PurchaseLine> lines = List.of(new PurchaseLine(PRODUCT_ID, 2L), new PurchaseLine(99L, 1L));
+        when(productsClient.getProducts(List.of(PRODUCT_ID, 99L)))
+            .thenThrow(new NoSuchElementException("Product not found with ID: 99"));
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
+        when(productsClient.getProduct(99L)).thenThrow(new NoSuchElementException("Product not found with ID: 99"));
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 2L)).thenReturn(true);
+
+        // Act
+        List<PurchaseUseCase.LineOutcome> outcomes = useCase.executeEach(lines, List.of("k1", "k2"), (i, r) -> "{}");
+
+        // Assert
+        assertTrue(outcomes.get(0).succeeded());
+        assertInstanceOf(NoSuchElementException.class, outcomes.get(1).error());
+        verify(inventoryRepository, never()).decrementIfEnough(eq(99L), anyLong());
+    }
+
+    @Test
+    void shouldDecrementAndRecordTheResponseInOneTransactionWhenThePortExists() {
+        // Arrange
+        PurchaseTransactionPort transactions = mock(PurchaseTransactionPort.class);
+        PurchaseUseCase transactional = new PurchaseUseCase(
+                inventoryRepository, productsClient, idempotencyService, transactions);
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
+        when(transactions.commit(eq(Map.of(PRODUCT_ID, QUANTITY)), eq(IDEMPOTENCY_KEY), eq("{\"total\":50.0}"), anyList()))
+                .thenReturn(true);
+
+        // Act
+        PurchaseOutcome outcome = transactional.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY,
+                r -> "{\"total\":" + r.getTotalPrice() + "}");
+
+        // Assert
+        String json = "{\"total\":50.0}";
+        assertEquals(new PurchaseOutcome.Purchased(json), outcome);
+        verify(transactions).commit(eq(Map.of(PRODUCT_ID, QUANTITY)), eq(IDEMPOTENCY_KEY), eq(json),
+                argThat(purchases -> purchases.size() == 1 && purchases.get(0).getQuantity().equals(QUANTITY)));
+        verify(inventoryRepository, never()).decrementIfEnough(anyLong(), anyLong());
+        verify(idempotencyService, never()).saveResponse(anyString(), anyString());
+    }
+
+    @Test
+    void shouldReplayTheStoredResponseWhenAnotherPurchaseStoredTheKeyBeforeTheCommit() {
+        // Arrange
+        PurchaseTransactionPort transactions = mock(PurchaseTransactionPort.class);
+        PurchaseUseCase transactional = new PurchaseUseCase(
+                inventoryRepository, productsClient, idempotencyService, transactions);
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY))
+                .thenReturn(Optional.empty(), Optional.of("{\"stored\":true}"));
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
+        when(transactions.commit(anyMap(), eq(IDEMPOTENCY_KEY), anyString(), anyList()))
+                .thenThrow(new PurchaseTransactionPort.KeyAlreadyStoredException(IDEMPOTENCY_KEY, null));
+
+        // Act
+        PurchaseOutcome outcome = transactional.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.Replayed("{\"stored\":true}"), outcome);
+    }
+
+    @Test
+    void shouldReportInsufficientInventoryWhenTheTransactionWritesNothing() {
+        // Arrange
+        PurchaseTransactionPort transactions = mock(PurchaseTransactionPort.class);
+        PurchaseUseCase transactional = new PurchaseUseCase(
+                inventoryRepository, productsClient, idempotencyService, transactions);
+        List<PurchaseLine> lines = List.of(new PurchaseLine(1L, 2L), new PurchaseLine(2L, 1L));
+        when(productsClient.getProducts(anyCollection())).thenReturn(Map.of(
+                1L, new ProductsClientPort.ProductDTO(1L, "A", 10.0),
+                2L, new ProductsClientPort.ProductDTO(2L, "B", 5.0)));
+        when(transactions.commit(anyMap(), isNull(), anyString(), anyList())).thenReturn(false);
+
+        // Act
+        PurchaseOutcome outcome = transactional.executeBatchAndRecord(lines, null, results -> "[]");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.InsufficientStock("Insufficient inventory for products [1, 2]"), outcome);
+        verify(inventoryRepository, never()).decrementAllIfEnough(anyMap());
+    }
+
+    @Test
+    void shouldFallBackToDecrementThenSaveWithoutThePort() {
+        // Arrange
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, QUANTITY)).thenReturn(true);
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.Purchased("{}"), outcome);
+        var order = inOrder(inventoryRepository, idempotencyService);
+        order.verify(inventoryRepository).decrementIfEnough(PRODUCT_ID, QUANTITY);
+        order.verify(idempotencyService).saveResponse(IDEMPOTENCY_KEY, "{}");
+    }
+
+    @Test
+    void shouldNotSaveTheResponseWhenTheFallbackDecrementFails() {
+        // Arrange
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(PRODUCT);
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, QUANTITY)).thenReturn(false);
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.InsufficientStock("Insufficient inventory for product " + PRODUCT_ID), outcome);
+        verify(idempotencyService, never()).saveResponse(anyString(), anyString());
+    }
+
+    @Test
+    void shouldReturnTheStoredResponseAsReplayWithoutThrowing() {
+        // Arrange
+        String cachedResponse = "{\"data\":{\"type\":\"purchases\"}}";
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.of(cachedResponse));
+
+        // Act
+        PurchaseOutcome outcome = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}");
+
+        // Assert
+        assertEquals(new PurchaseOutcome.Replayed(cachedResponse), outcome);
+        verifyNoInteractions(productsClient);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldReturnNotFoundAndUpstreamFailureFromTheCatalog() {
+        // Arrange
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(null);
+        when(productsClient.getProducts(anyCollection())).thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        PurchaseOutcome single = useCase.executeAndRecord(PRODUCT_ID, QUANTITY, null, r -> "{}");
+        PurchaseOutcome batch = useCase.executeBatchAndRecord(
+                List.of(new PurchaseLine(PRODUCT_ID, 1L)), null, results -> "[]");
+
+        // Assert
+        assertInstanceOf(PurchaseOutcome.NotFound.class, single);
+        assertEquals(new PurchaseOutcome.UpstreamFailure("Error communicating with catalog service"), batch);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldNotCallTheCatalogOnceTheDeadlineHasPassed() {
+        // Arrange
+        when(idempotencyService.findResponseByKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+
+        // Act
+        PurchaseOutcome outcome = Deadline.callWithin(Deadline.after(Duration.ZERO),
+                () -> useCase.executeAndRecord(PRODUCT_ID, QUANTITY, IDEMPOTENCY_KEY, r -> "{}"));
+
+        // Assert
+        assertEquals(new PurchaseOutcome.DeadlineExceeded("Request deadline exceeded"), outcome);
+        verifyNoInteractions(productsClient);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldDropThePurchaseWhenTheDeadlinePassesDuringTheCatalogCall() {
+        // Arrange
+        List<PurchaseLine> lines = List.of(new PurchaseLine(PRODUCT_ID, 1L));
+        when(productsClient.getProducts(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            return Map.of(PRODUCT_ID, PRODUCT);
+        });
+
+        // Act
+        PurchaseOutcome outcome = Deadline.callWithin(Deadline.after(Duration.ofMillis(10)),
+                () -> useCase.executeBatchAndRecord(lines, IDEMPOTENCY_KEY, results -> "[]"));
+
+        // Assert
+        assertInstanceOf(PurchaseOutcome.DeadlineExceeded.class, outcome);
+        verifyNoInteractions(inventoryRepository);
+        verify(idempotencyService, never()).saveResponse(anyString(), anyString());
+    }
 }
@@ -0,0 +1,102 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.PurchaseResult;
+import com.novatrade.inventory.model.ports.ProductsClientPort.ProductDTO;
+import com.novatrade.inventory.model.ports.ReactiveInventoryRepositoryPort;
+import com.novatrade.inventory.model.ports.ReactiveProductsClientPort;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import com.novatrade.inventory.usecase.PurchaseUseCase.ServiceCommunicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePurchaseUseCaseTest {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    @Mock
+    private ReactiveInventoryRepositoryPort inventoryRepository;
+
+    @Mock
+    private ReactiveProductsClientPort productsClient;
+
+    private ReactivePurchaseUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new ReactivePurchaseUseCase(inventoryRepository, productsClient);
+    }
+
+    @Test
+    void shouldPurchaseWhenProductExistsAndStockIsEnough() {
+        // Arrange
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(Mono.just(new ProductDTO(PRODUCT_ID, "Teclado", 50.0)));
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 2L)).thenReturn(Mono.just(true));
+
+        // Act
+        PurchaseResult result = useCase.execute(PRODUCT_ID, 2L).block();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals("Teclado", result.getProductName());
+        assertEquals(100.0, result.getTotalPrice());
+        assertTrue(result.isSuccess());
+    }
+
+    @Test
+    void shouldFailWithoutCallingPortsWhenQuantityIsInvalid() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> useCase.execute(PRODUCT_ID, 0L).block());
+        verifyNoInteractions(productsClient, inventoryRepository);
+    }
+
+    @Test
+    void shouldFailWhenStockIsInsufficient() {
+        // Arrange
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(Mono.just(new ProductDTO(PRODUCT_ID, "Teclado", 50.0)));
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 5L)).thenReturn(Mono.just(false));
+
+        // Act & Assert
+        assertThrows(InsufficientInventoryException.class, () -> useCase.execute(PRODUCT_ID, 5L).block());
+    }
+
+    @Test
+    void shouldPropagateNotFoundAndNotTouchInventory() {
+        // Arrange
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(Mono.error(new NoSuchElementException("missing")));
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> useCase.execute(PRODUCT_ID, 1L).block());
+        verify(inventoryRepository, never()).decrementIfEnough(any(), any());
+    }
+
+    @Test
+    void shouldTreatEmptyCatalogResponseAsNotFound() {
+        // Arrange
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> useCase.execute(PRODUCT_ID, 1L).block());
+    }
+
+    @Test
+    void shouldWrapCatalogFailures() {
+        // Arrange
+        when(productsClient.getProduct(PRODUCT_ID)).thenReturn(Mono.error(new RuntimeException("timeout")));
+
+        // Act & Assert
+        ServiceCommunicationException exception = assertThrows(ServiceCommunicationException.class,
+                () -> useCase.execute(PRODUCT_ID, 1L).block());
+        assertEquals("timeout", exception.getCause().getMessage());
+    }
+}
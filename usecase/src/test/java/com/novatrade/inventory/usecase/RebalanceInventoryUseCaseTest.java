@@ -0,0 +1,56 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Inventory;
+import com.novatrade.inventory.model.ports.InventoryBucketsPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RebalanceInventoryUseCaseTest {
+
+    @Mock
+    private InventoryBucketsPort bucketsPort;
+
+    @Test
+    void shouldRebalanceThroughThePort() {
+        // Arrange
+        Inventory expected = Inventory.builder().productId(1L).quantity(50L).build();
+        when(bucketsPort.rebalance(1L, 8)).thenReturn(expected);
+        RebalanceInventoryUseCase useCase = new RebalanceInventoryUseCase(bucketsPort);
+
+        // Act
+        Inventory result = useCase.execute(1L, 8);
+
+        // Assert
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void shouldRejectNegativeBucketCount() {
+        // Arrange
+        RebalanceInventoryUseCase useCase = new RebalanceInventoryUseCase(bucketsPort);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> useCase.execute(1L, -1));
+        assertEquals("buckets must be >= 0", exception.getMessage());
+        verify(bucketsPort, never()).rebalance(any(), anyInt());
+    }
+
+    @Test
+    void shouldFailWhenTheEngineDoesNotSupportBuckets() {
+        // Arrange
+        RebalanceInventoryUseCase useCase = new RebalanceInventoryUseCase(null);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> useCase.execute(1L, 4));
+        assertEquals(0, useCase.bucketCount(1L));
+    }
+}
@@ -0,0 +1,327 @@
+package com.novatrade.inventory.usecase;
+
+import com.novatrade.inventory.model.Reservation;
+import com.novatrade.inventory.model.ReservationStatus;
+import com.novatrade.inventory.model.ports.InventoryRepositoryPort;
+import com.novatrade.inventory.model.ports.ReservationRepositoryPort;
+import com.novatrade.inventory.model.ports.ReservationTransactionPort;
+import com.novatrade.inventory.usecase.PurchaseUseCase.InsufficientInventoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationUseCaseTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Long PRODUCT_ID = 1L;
+    private static final String RESERVATION_ID = "res-1";
+
+    @Mock
+    private InventoryRepositoryPort inventoryRepository;
+
+    @Mock
+    private ReservationRepositoryPort reservationRepository;
+
+    @Mock
+    private ReservationTransactionPort transactions;
+
+    private HashedTimerWheel<String> wheel;
+    private MutableClock clock;
+    private ReservationUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 64, NOW);
+        useCase = new ReservationUseCase(inventoryRepository, reservationRepository, wheel,
+                Duration.ofMinutes(10), Duration.ofHours(1), clock);
+    }
+
+    @Test
+    void reserveShouldHoldStockAndScheduleExpiry() {
+        // Arrange
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 2L)).thenReturn(true);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Reservation result = useCase.reserve(PRODUCT_ID, 2L, Duration.ofSeconds(30));
+
+        // Assert
+        assertNotNull(result.getId());
+        assertEquals(ReservationStatus.HELD, result.getStatus());
+        assertEquals(NOW.plusSeconds(30), result.getExpiresAt());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void reserveShouldUseDefaultTtlWhenNoneIsGiven() {
+        // Arrange
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 1L)).thenReturn(true);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Reservation result = useCase.reserve(PRODUCT_ID, 1L, null);
+
+        // Assert
+        assertEquals(NOW.plus(Duration.ofMinutes(10)), result.getExpiresAt());
+    }
+
+    @Test
+    void reserveShouldFailWithoutSavingWhenStockIsInsufficient() {
+        // Arrange
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 5L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(InsufficientInventoryException.class, () -> useCase.reserve(PRODUCT_ID, 5L, null));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void reserveShouldRejectInvalidQuantityAndTtl() {
+        assertThrows(IllegalArgumentException.class, () -> useCase.reserve(PRODUCT_ID, 0L, null));
+        assertThrows(IllegalArgumentException.class, () -> useCase.reserve(PRODUCT_ID, 1L, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> useCase.reserve(PRODUCT_ID, 1L, Duration.ofHours(2)));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void reserveShouldReleaseStockWhenReservationCannotBeSaved() {
+        // Arrange
+        when(inventoryRepository.decrementIfEnough(PRODUCT_ID, 2L)).thenReturn(true);
+        when(reservationRepository.save(any(Reservation.class))).thenThrow(new IllegalStateException("db down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> useCase.reserve(PRODUCT_ID, 2L, null));
+        verify(inventoryRepository).release(PRODUCT_ID, 2L);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void confirmShouldConsumeHeldReservation() {
+        // Arrange
+        when(reservationRepository.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation(ReservationStatus.HELD)));
+        when(reservationRepository.confirm(RESERVATION_ID, NOW)).thenReturn(true);
+
+        // Act
+        Reservation result = useCase.confirm(RESERVATION_ID);
+
+        // Assert
+        assertEquals(ReservationStatus.CONFIRMED, result.getStatus());
+        verify(inventoryRepository, never()).release(any(), any());
+    }
+
+    @Test
+    void confirmShouldFailWhenReservationHasExpired() {
+        // Arrange: sigue en HELD pero el UPDATE condicional no la acepta por vencida
+        when(reservationRepository.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation(ReservationStatus.HELD)));
+        when(reservationRepository.confirm(RESERVATION_ID, NOW)).thenReturn(false);
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.confirm(RESERVATION_ID));
+        assertEquals("reservation res-1 is expired", exception.getMessage());
+    }
+
+    @Test
+    void confirmShouldBeIdempotent() {
+        // Arrange
+        when(reservationRepository.findById(RESERVATION_ID))
+                .thenReturn(Optional.of(reservation(ReservationStatus.CONFIRMED)));
+
+        // Act
+        Reservation result = useCase.confirm(RESERVATION_ID);
+
+        // Assert
+        assertEquals(ReservationStatus.CONFIRMED, result.getStatus());
+        verify(reservationRepository, never()).confirm(any(), any());
+    }
+
+    @Test
+    void cancelShouldReleaseStockOnce() {
+        // Arrange
+        when(reservationRepository.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation(ReservationStatus.HELD)));
+        when(reservationRepository.cancel(RESERVATION_ID)).thenReturn(true);
+
+        // Act
+        Reservation result = useCase.cancel(RESERVATION_ID);
+
+        // Assert
+        assertEquals(ReservationStatus.CANCELLED, result.getStatus());
+        verify(inventoryRepository, times(1)).release(PRODUCT_ID, 3L);
+    }
+
+    @Test
+    void cancelShouldCancelAndReleaseInOneTransactionWhenAvailable() {
+        // Arrange
+        useCase = new ReservationUseCase(inventoryRepository, reservationRepository, wheel,
+                Duration.ofMinutes(10), Duration.ofHours(1), clock, transactions);
+        when(reservationRepository.findById(RESERVATION_ID)).thenReturn(Optional.of(reservation(ReservationStatus.HELD)));
+        when(transactions.cancelAndRelease(argThat(r -> r.getId().equals(RESERVATION_ID)))).thenReturn(true);
+
+        // Act
+        Reservation result = useCase.cancel(RESERVATION_ID);
+
+        // Assert
+        assertEquals(ReservationStatus.CANCELLED, result.getStatus());
+        verify(reservationRepository, never()).cancel(any());
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void cancelShouldFailForConfirmedReservation() {
+        // Arrange
+        when(reservationRepository.findById(RESERVATION_ID))
+                .thenReturn(Optional.of(reservation(ReservationStatus.CONFIRMED)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> useCase.cancel(RESERVATION_ID));
+        verify(inventoryRepository, never()).release(any(), any());
+    }
+
+    @Test
+    void unknownReservationShouldThrowNotFound() {
+        // Arrange
+        when(reservationRepository.findById(RESERVATION_ID)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> useCase.cancel(RESERVATION_ID));
+    }
+
+    @Test
+    void expireDueShouldExpireInBulkAndReleaseOncePerProduct() {
+        // Arrange
+        wheel.schedule("a", NOW.plusSeconds(5));
+        wheel.schedule("b", NOW.plusSeconds(5));
+        wheel.schedule("c", NOW.plusSeconds(60));
+        clock.set(NOW.plusSeconds(5));
+        Reservation a = reservation(ReservationStatus.EXPIRED);
+        Reservation b = reservation(ReservationStatus.EXPIRED);
+        when(reservationRepository.expire(List.of("a", "b"), NOW.plusSeconds(5))).thenReturn(List.of(a, b));
+
+        // Act
+        int expired = useCase.expireDue();
+
+        // Assert
+        assertEquals(2, expired);
+        verify(inventoryRepository, times(1)).release(PRODUCT_ID, 6L);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void expireDueShouldRescheduleWhenRepositoryFails() {
+        // Arrange
+        wheel.schedule("a", NOW.plusSeconds(1));
+        clock.set(NOW.plusSeconds(1));
+        when(reservationRepository.expire(anyCollection(), any())).thenThrow(new IllegalStateException("db down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> useCase.expireDue());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void expireDueShouldRetryReleaseThatFailedOnTheNextTick() {
+        // Arrange
+        wheel.schedule("a", NOW.plusSeconds(1));
+        clock.set(NOW.plusSeconds(1));
+        when(reservationRepository.expire(List.of("a"), NOW.plusSeconds(1)))
+                .thenReturn(List.of(reservation(ReservationStatus.EXPIRED)));
+        doThrow(new IllegalStateException("db down")).doNothing().when(inventoryRepository).release(PRODUCT_ID, 3L);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> useCase.expireDue());
+        clock.set(NOW.plusSeconds(2));
+        int expired = useCase.expireDue();
+
+        // Assert
+        assertEquals(0, expired);
+        verify(reservationRepository, times(1)).expire(anyCollection(), any());
+        verify(inventoryRepository, times(2)).release(PRODUCT_ID, 3L);
+    }
+
+    @Test
+    void expireDueShouldExpireAndReleaseInOneTransactionWhenAvailable() {
+        // Arrange
+        useCase = new ReservationUseCase(inventoryRepository, reservationRepository, wheel,
+                Duration.ofMinutes(10), Duration.ofHours(1), clock, transactions);
+        wheel.schedule("a", NOW.plusSeconds(1));
+        clock.set(NOW.plusSeconds(1));
+        when(transactions.expireAndRelease(List.of("a"), NOW.plusSeconds(1)))
+                .thenReturn(List.of(reservation(ReservationStatus.EXPIRED)));
+
+        // Act
+        int expired = useCase.expireDue();
+
+        // Assert
+        assertEquals(1, expired);
+        verifyNoInteractions(inventoryRepository);
+        verify(reservationRepository, never()).expire(anyCollection(), any());
+    }
+
+    @Test
+    void recoverShouldScheduleHeldReservations() {
+        // Arrange
+        when(reservationRepository.findHeld()).thenReturn(List.of(reservation(ReservationStatus.HELD)));
+
+        // Act
+        int recovered = useCase.recover();
+
+        // Assert
+        assertEquals(1, recovered);
+        assertEquals(1, wheel.size());
+    }
+
+    private Reservation reservation(ReservationStatus status) {
+        return Reservation.builder()
+                .id(RESERVATION_ID)
+                .productId(PRODUCT_ID)
+                .quantity(3L)
+                .status(status)
+                .expiresAt(NOW.plusSeconds(60))
+                .createdAt(NOW)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}